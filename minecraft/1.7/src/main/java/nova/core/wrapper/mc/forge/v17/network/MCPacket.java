@@ -133,6 +133,11 @@ public class MCPacket implements Packet {
 		return array;
 	}
 
+	@Override
+	public int readableBytes() {
+		return buf.readableBytes();
+	}
+
 	@Override
 	public boolean readBoolean() {
 		return buf.readBoolean();
@@ -32,6 +32,7 @@ import net.minecraft.util.IIcon;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.client.model.ModelFormatException;
+import nova.core.render.model.ModelCache;
 import nova.core.render.texture.Texture;
 import nova.core.wrapper.mc.forge.v17.launcher.ForgeLoadable;
 import nova.core.wrapper.mc.forge.v17.wrapper.assets.AssetConverter;
@@ -39,9 +40,11 @@ import nova.internal.core.Game;
 import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
 import org.lwjgl.opengl.GL11;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.HashMap;
+import java.util.Optional;
 
 import static org.lwjgl.opengl.GL11.GL_BLEND;
 import static org.lwjgl.opengl.GL11.GL_FLAT;
@@ -170,15 +173,16 @@ public class RenderUtility implements ForgeLoadable {
 
 	@Override
 	public void preInit(FMLPreInitializationEvent event) {
-		//Load models
-		Game.render().modelProviders.forEach(m -> {
+		//Load models in parallel, reading parsed models from the cache when they did not change
+		ModelCache cache = new ModelCache(new File(Minecraft.getMinecraft().mcDataDir, "nova" + File.separator + "models").toPath());
+		Game.render().loadModels(m -> {
 			ResourceLocation resource = new ResourceLocation(m.domain, "models/" + m.name + "." + m.getType());
 			try {
 				IResource res = Minecraft.getMinecraft().getResourceManager().getResource(resource);
-				m.load(res.getInputStream());
+				return res.getInputStream();
 			} catch (IOException e) {
 				throw new ModelFormatException("IO Exception reading model format", e);
 			}
-		});
+		}, Optional.of(cache));
 	}
 }
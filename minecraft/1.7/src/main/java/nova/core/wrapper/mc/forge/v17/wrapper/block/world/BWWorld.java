@@ -64,7 +64,7 @@ public class BWWorld extends World {
 	}
 
 	@Override
-	public void markStaticRender(Vector3D position) {
+	protected void scheduleStaticRender(Vector3D position) {
 		world().markBlockForUpdate((int) position.getX(), (int) position.getY(), (int) position.getZ());
 	}
 
@@ -266,6 +266,7 @@ public class NovaMinecraft {
 
 	@Mod.EventHandler
 	public void serverStarting(FMLServerStartingEvent event) {
+		Game.retention().retainRegistries();
 		Game.events().publish(new ServerEvent.Start());
 	}
 
@@ -25,11 +25,23 @@ import nova.core.component.exception.ComponentException;
 import nova.internal.core.Game;
 import se.jbee.inject.Dependency;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * A class that contains all components.
@@ -41,6 +53,16 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 
 	public final ComponentProvider<?> provider;
 
+	/**
+	 * Resolved lookups by the queried type. Cleared whenever a component is added or removed.
+	 */
+	private transient Map<Class<?>, Lookup> lookups = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented after every change to the map. Lookups resolved for an older version are not used.
+	 */
+	private transient volatile int version;
+
 	public ComponentMap(ComponentProvider<?> provider) {
 		this.provider = provider;
 	}
@@ -98,7 +120,7 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 	 * @return true if the component exists on the provider.
 	 */
 	public final boolean has(Class<?> componentType) {
-		return keySet().stream().anyMatch(componentType::isAssignableFrom);
+		return lookup(componentType).present;
 	}
 
 	/**
@@ -132,6 +154,7 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 		}
 
 		C component = (C) super.remove(componentType);
+		invalidate();
 
 		//Set provider on component to null
 		component.setProvider(null);
@@ -149,20 +172,13 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 	 */
 	@SuppressWarnings("unchecked")
 	public final <C> Optional<C> getOp(Class<C> componentType) {
-		if (componentType.isAssignableFrom(Component.class)) {
-			Component component = get(componentType.asSubclass(Component.class));
-			if (component != null) {
-				return Optional.of((C) component);
-			}
-		}
+		Lookup lookup = lookup(componentType);
 
-		Set<C> collect = getSet(componentType);
-
-		if (collect.size() > 1) {
-			throw new ComponentException("Ambiguous component search. For component/interface %s there are multiple components found: %s", componentType, collect);
+		if (lookup.components.size() > 1) {
+			throw new ComponentException("Ambiguous component search. For component/interface %s there are multiple components found: %s", componentType, lookup.components);
 		}
 
-		return collect.stream().findFirst();
+		return (Optional<C>) lookup.single;
 	}
 
 	/**
@@ -180,10 +196,320 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 	 * @param componentType the type to get.
 	 * @return the set of the components.
 	 */
+	@SuppressWarnings("unchecked")
 	public final <C> Set<C> getSet(Class<C> componentType) {
-		return Collections.unmodifiableSet(values().stream()
-			.filter(c -> componentType.isAssignableFrom(c.getClass()))
-			.map(componentType::cast)
-			.collect(Collectors.toSet()));
+		return (Set<C>) lookup(componentType).components;
+	}
+
+	@Override
+	public Component put(Class<? extends Component> key, Component value) {
+		try {
+			return super.put(key, value);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void putAll(Map<? extends Class<? extends Component>, ? extends Component> m) {
+		try {
+			super.putAll(m);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public Component putIfAbsent(Class<? extends Component> key, Component value) {
+		try {
+			return super.putIfAbsent(key, value);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public Component remove(Object key) {
+		try {
+			return super.remove(key);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		try {
+			return super.remove(key, value);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public Component replace(Class<? extends Component> key, Component value) {
+		try {
+			return super.replace(key, value);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public boolean replace(Class<? extends Component> key, Component oldValue, Component newValue) {
+		try {
+			return super.replace(key, oldValue, newValue);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super Class<? extends Component>, ? super Component, ? extends Component> function) {
+		try {
+			super.replaceAll(function);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public Component compute(Class<? extends Component> key, BiFunction<? super Class<? extends Component>, ? super Component, ? extends Component> remappingFunction) {
+		try {
+			return super.compute(key, remappingFunction);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public Component computeIfAbsent(Class<? extends Component> key, Function<? super Class<? extends Component>, ? extends Component> mappingFunction) {
+		try {
+			return super.computeIfAbsent(key, mappingFunction);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public Component computeIfPresent(Class<? extends Component> key, BiFunction<? super Class<? extends Component>, ? super Component, ? extends Component> remappingFunction) {
+		try {
+			return super.computeIfPresent(key, remappingFunction);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public Component merge(Class<? extends Component> key, Component value, BiFunction<? super Component, ? super Component, ? extends Component> remappingFunction) {
+		try {
+			return super.merge(key, value, remappingFunction);
+		} finally {
+			invalidate();
+		}
+	}
+
+	@Override
+	public void clear() {
+		try {
+			super.clear();
+		} finally {
+			invalidate();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Removals through the returned set update the lookups.
+	 */
+	@Override
+	public Set<Class<? extends Component>> keySet() {
+		return new ViewSet<>(super.keySet(), UnaryOperator.identity());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Removals through the returned collection update the lookups.
+	 */
+	@Override
+	public Collection<Component> values() {
+		return new ViewCollection<>(super.values());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Removals through the returned set, and changes through its entries, update the lookups.
+	 */
+	@Override
+	public Set<Map.Entry<Class<? extends Component>, Component>> entrySet() {
+		return new ViewSet<>(super.entrySet(), ViewEntry::new);
+	}
+
+	@Override
+	public Object clone() {
+		ComponentMap clone = (ComponentMap) super.clone();
+		clone.lookups = new ConcurrentHashMap<>();
+		return clone;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		lookups = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Discards the lookups. Called after the map changed.
+	 */
+	private void invalidate() {
+		version++;
+		lookups.clear();
+	}
+
+	private Lookup lookup(Class<?> componentType) {
+		int version = this.version;
+		Lookup lookup = lookups.get(componentType);
+		if (lookup == null || lookup.version != version) {
+			lookup = new Lookup(componentType, version);
+			lookups.put(componentType, lookup);
+		}
+		return lookup;
+	}
+
+	/**
+	 * A set view of the map that invalidates the lookups when it is changed.
+	 */
+	private final class ViewSet<E> extends AbstractSet<E> {
+		private final Set<E> view;
+		private final UnaryOperator<E> wrapper;
+
+		private ViewSet(Set<E> view, UnaryOperator<E> wrapper) {
+			this.view = view;
+			this.wrapper = wrapper;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new ViewIterator<>(view.iterator(), wrapper);
+		}
+
+		@Override
+		public int size() {
+			return view.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return view.contains(o);
+		}
+	}
+
+	/**
+	 * A collection view of the map that invalidates the lookups when it is changed.
+	 */
+	private final class ViewCollection<E> extends AbstractCollection<E> {
+		private final Collection<E> view;
+
+		private ViewCollection(Collection<E> view) {
+			this.view = view;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new ViewIterator<>(view.iterator(), UnaryOperator.identity());
+		}
+
+		@Override
+		public int size() {
+			return view.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return view.contains(o);
+		}
+	}
+
+	private final class ViewIterator<E> implements Iterator<E> {
+		private final Iterator<E> iterator;
+		private final UnaryOperator<E> wrapper;
+
+		private ViewIterator(Iterator<E> iterator, UnaryOperator<E> wrapper) {
+			this.iterator = iterator;
+			this.wrapper = wrapper;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		public E next() {
+			return wrapper.apply(iterator.next());
+		}
+
+		@Override
+		public void remove() {
+			try {
+				iterator.remove();
+			} finally {
+				invalidate();
+			}
+		}
+	}
+
+	/**
+	 * An entry of the map that invalidates the lookups when its value is set.
+	 */
+	private final class ViewEntry extends AbstractMap.SimpleEntry<Class<? extends Component>, Component> {
+		private static final long serialVersionUID = 2017_02_12L;
+
+		private final transient Map.Entry<Class<? extends Component>, Component> entry;
+
+		private ViewEntry(Map.Entry<Class<? extends Component>, Component> entry) {
+			super(entry);
+			this.entry = entry;
+		}
+
+		@Override
+		public Component setValue(Component value) {
+			super.setValue(value);
+			try {
+				return entry.setValue(value);
+			} finally {
+				invalidate();
+			}
+		}
+	}
+
+	/**
+	 * The components found for one queried type.
+	 */
+	private final class Lookup {
+		private final int version;
+		private final boolean present;
+		private final Set<Object> components;
+		private final Optional<Object> single;
+
+		private Lookup(Class<?> componentType, int version) {
+			this.version = version;
+			boolean present = false;
+			for (Class<?> key : keySet()) {
+				if (componentType.isAssignableFrom(key)) {
+					present = true;
+					break;
+				}
+			}
+			this.present = present;
+
+			Set<Object> found = new HashSet<>();
+			for (Component component : values()) {
+				if (componentType.isInstance(component)) {
+					found.add(component);
+				}
+			}
+			this.components = Collections.unmodifiableSet(found);
+			this.single = found.size() == 1 ? Optional.of(found.iterator().next()) : Optional.empty();
+		}
 	}
 }
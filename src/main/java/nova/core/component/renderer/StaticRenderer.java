@@ -22,6 +22,8 @@ package nova.core.component.renderer;
 
 import nova.core.component.ComponentProvider;
 import nova.core.component.UnsidedComponent;
+import nova.core.render.pipeline.BakedModelCache;
+import nova.core.render.pipeline.BlockRenderPipeline;
 import nova.core.render.pipeline.RenderPipeline;
 
 /**
@@ -34,4 +36,38 @@ import nova.core.render.pipeline.RenderPipeline;
 @UnsidedComponent
 public class StaticRenderer extends Renderer {
 
+	private Runnable invalidate = () -> {};
+
+	/**
+	 * Renders a block pipeline through the shared {@link BakedModelCache#instance}.
+	 *
+	 * @param pipeline The block pipeline
+	 * @return this
+	 * @see #bake(BlockRenderPipeline, BakedModelCache)
+	 */
+	public StaticRenderer bake(BlockRenderPipeline pipeline) {
+		return bake(pipeline, BakedModelCache.instance);
+	}
+
+	/**
+	 * Renders a block pipeline through a cache of baked meshes.
+	 * Blocks that render the same way share one mesh, which is looked up again
+	 * after {@link nova.core.world.World#markStaticRender(org.apache.commons.math3.geometry.euclidean.threed.Vector3D)}.
+	 *
+	 * @param pipeline The block pipeline
+	 * @param cache The cache
+	 * @return this
+	 */
+	public StaticRenderer bake(BlockRenderPipeline pipeline, BakedModelCache cache) {
+		onRender = pipeline.withCache(cache).build();
+		invalidate = pipeline::invalidate;
+		return this;
+	}
+
+	/**
+	 * Called when the static render of the block is marked to update.
+	 */
+	public void invalidate() {
+		invalidate.run();
+	}
 }
@@ -28,9 +28,9 @@ package nova.core.event.bus;
  */
 public class CancelableEventBus<T extends CancelableEvent> extends EventBus<T> {
 	@Override
-	public synchronized void publish(T event) {
-		for (EventListenerNode node : getSortedListeners()) {
-			node.getListener().onEvent(event);
+	public void publish(T event) {
+		for (EventListenerNode node : getListenerSnapshot(event.getClass())) {
+			node.listener.onEvent(event);
 
 			if (event.isCanceled()) {
 				break;
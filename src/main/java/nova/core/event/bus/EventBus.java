@@ -22,11 +22,18 @@ package nova.core.event.bus;
 
 import nova.internal.core.util.TopologicalSort;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A general purpose event bus. This class is thread-safe and listeners can be
@@ -41,48 +48,51 @@ public class EventBus<T> {
 
 	// TODO: actually test concurrency
 	protected final List<EventListenerNode> unsortedListeners = new ArrayList<>();
-	private List<EventListenerNode> sortedListeners;
+
+	/**
+	 * Immutable snapshot of the sorted listeners. It is never modified once published,
+	 * a new snapshot is swapped in instead. {@code null} if it needs to be rebuilt.
+	 */
+	private volatile ListenerSnapshot sortedListeners;
 
 	/**
 	 * Builds an ordered list cachedListeners. Sorts using topological sort algorithm.
 	 */
 	protected synchronized void buildCache() {
 		TopologicalSort.DirectedGraph<EventListenerNode> graph = new TopologicalSort.DirectedGraph<>();
+		Map<String, EventListenerNode> namedListeners = new HashMap<>();
 
-		unsortedListeners.forEach(graph::addNode);
+		for (EventListenerNode node : unsortedListeners) {
+			graph.addNode(node);
+			if (node.name != null) {
+				namedListeners.putIfAbsent(node.name, node);
+			}
+		}
 
 		//Create directed graph edges.
-		unsortedListeners.forEach(
-			node -> {
-				//Sort "after"
-				node.after.forEach(
-					name ->
-						unsortedListeners
-							.stream()
-							.filter(node2 -> node2.name.equals(name))
-							.findFirst()
-							.ifPresent(dependent -> graph.addEdge(dependent, node))
-				);
-
-				//Sort "before"
-				node.before.forEach(
-					name ->
-						unsortedListeners
-							.stream()
-							.filter(node2 -> node2.name.equals(name))
-							.findFirst()
-							.ifPresent(dependent -> graph.addEdge(node, dependent))
-				);
-
-				//Priority check
-				unsortedListeners
-					.stream()
-					.filter(compare -> node.priority < compare.priority)
-					.forEach(compare -> graph.addEdge(compare, node));
+		for (EventListenerNode node : unsortedListeners) {
+			//Sort "after"
+			for (String name : node.after) {
+				EventListenerNode dependent = namedListeners.get(name);
+				if (dependent != null) {
+					graph.addEdge(dependent, node);
+				}
+			}
+
+			//Sort "before"
+			for (String name : node.before) {
+				EventListenerNode dependent = namedListeners.get(name);
+				if (dependent != null) {
+					graph.addEdge(node, dependent);
+				}
 			}
-		);
+		}
 
-		sortedListeners = TopologicalSort.topologicalSort(graph);
+		//Priorities are handled by the sort, so no edges are needed between listeners of different priority.
+		List<EventListenerNode> sorted = TopologicalSort.topologicalSort(graph, node -> node.priority);
+		@SuppressWarnings("unchecked")
+		EventListenerNode[] listeners = (EventListenerNode[]) Array.newInstance(EventListenerNode.class, sorted.size());
+		sortedListeners = new ListenerSnapshot(sorted.toArray(listeners));
 	}
 
 	/**
@@ -93,15 +103,45 @@ public class EventBus<T> {
 	}
 
 	/**
-	 * Retrieves the sorted listeners. Calls buildCache() if the listeners aren't sorted.
+	 * Retrieves the current snapshot of the sorted listeners. Calls buildCache() if the listeners aren't sorted.
+	 * Once the snapshot is built, this does not lock. The returned array must not be modified.
 	 * @return The sorted listeners.
 	 */
-	protected synchronized List<EventListenerNode> getSortedListeners() {
-		if (sortedListeners == null) {
-			buildCache();
+	protected EventListenerNode[] getListenerSnapshot() {
+		return getSnapshot().listeners;
+	}
+
+	/**
+	 * Retrieves the sorted listeners that accept events of the given class.
+	 * The result is cached per event class until the listeners change.
+	 * The returned array must not be modified.
+	 * @param eventClass The runtime class of the event
+	 * @return The sorted listeners that accept the event class.
+	 */
+	protected EventListenerNode[] getListenerSnapshot(Class<?> eventClass) {
+		return getSnapshot().listenersFor(eventClass);
+	}
+
+	private ListenerSnapshot getSnapshot() {
+		ListenerSnapshot snapshot = sortedListeners;
+		if (snapshot == null) {
+			synchronized (this) {
+				if (sortedListeners == null) {
+					buildCache();
+				}
+				snapshot = sortedListeners;
+			}
 		}
 
-		return sortedListeners;
+		return snapshot;
+	}
+
+	/**
+	 * Retrieves the sorted listeners. Calls buildCache() if the listeners aren't sorted.
+	 * @return The sorted listeners.
+	 */
+	protected List<EventListenerNode> getSortedListeners() {
+		return Collections.unmodifiableList(Arrays.asList(getListenerSnapshot()));
 	}
 
 	public synchronized void clear() {
@@ -140,9 +180,9 @@ public class EventBus<T> {
 	 * @param event event to be published
 	 */
 	public void publish(T event) {
-		getSortedListeners()
-			.stream()
-			.forEachOrdered(node -> node.getListener().onEvent(event));
+		for (EventListenerNode node : getListenerSnapshot(event.getClass())) {
+			node.listener.onEvent(event);
+		}
 	}
 
 	/**
@@ -215,19 +255,21 @@ public class EventBus<T> {
 		 * @param list Event listener
 		 * @return The event handler
 		 */
-		public synchronized EventListenerHandle<T> bind(EventListener<E> list) {
+		public EventListenerHandle<T> bind(EventListener<E> list) {
 			EventListener<T> listener = clazz.isPresent() ? new TypedEventListener<>(list, clazz.get()) : (EventListener) list;
 
-			if (name != null && unsortedListeners.stream().filter(node -> node.name != null).anyMatch(node -> node.name.equals(name))) {
-				throw new EventException("Duplicate event listener name: " + name);
-			}
+			synchronized (EventBus.this) {
+				if (name != null && unsortedListeners.stream().filter(node -> node.name != null).anyMatch(node -> node.name.equals(name))) {
+					throw new EventException("Duplicate event listener name: " + name);
+				}
 
-			EventListenerNode node = new EventListenerNode(listener, name, priority, before, after);
+				EventListenerNode node = new EventListenerNode(listener, name, priority, before, after);
 
-			unsortedListeners.add(node);
-			invalidateCache();
+				unsortedListeners.add(node);
+				invalidateCache();
 
-			return node;
+				return node;
+			}
 		}
 	}
 
@@ -235,6 +277,43 @@ public class EventBus<T> {
 	// ### Protected classes ###
 	// #########################
 
+	/**
+	 * The sorted listeners at one point in time, together with the dispatch
+	 * tables derived from them. A new snapshot is created whenever the
+	 * listeners change, so the tables never need to be invalidated one by one.
+	 */
+	private class ListenerSnapshot {
+		private final EventListenerNode[] listeners;
+		private final ConcurrentMap<Class<?>, EventListenerNode[]> dispatchTables = new ConcurrentHashMap<>();
+
+		private ListenerSnapshot(EventListenerNode[] listeners) {
+			this.listeners = listeners;
+		}
+
+		private EventListenerNode[] listenersFor(Class<?> eventClass) {
+			EventListenerNode[] table = dispatchTables.get(eventClass);
+			if (table == null) {
+				table = dispatchTables.computeIfAbsent(eventClass, this::buildDispatchTable);
+			}
+			return table;
+		}
+
+		private EventListenerNode[] buildDispatchTable(Class<?> eventClass) {
+			List<EventListenerNode> accepted = new ArrayList<>();
+			for (EventListenerNode node : listeners) {
+				if (node.accepts(eventClass)) {
+					accepted.add(node);
+				}
+			}
+			if (accepted.size() == listeners.length) {
+				return listeners;
+			}
+			@SuppressWarnings("unchecked")
+			EventListenerNode[] table = (EventListenerNode[]) Array.newInstance(EventListenerNode.class, accepted.size());
+			return accepted.toArray(table);
+		}
+	}
+
 	/**
 	 * A wrapper for an event listener that only accepts a specific type of
 	 * event.
@@ -259,6 +338,15 @@ public class EventBus<T> {
 			this.wrappedListener = wrappedListener;
 		}
 
+		/**
+		 * Checks if events of the given class can be passed to the wrapped listener.
+		 * @param type The event class
+		 * @return true if the event class is the listened class or a subclass of it
+		 */
+		public boolean accepts(Class<?> type) {
+			return eventClass.isAssignableFrom(type);
+		}
+
 		@SuppressWarnings("unchecked")
 		@Override
 		public void onEvent(T event) {
@@ -288,6 +376,10 @@ public class EventBus<T> {
 			return listener;
 		}
 
+		protected boolean accepts(Class<?> eventClass) {
+			return !(listener instanceof TypedEventListener) || ((TypedEventListener<?, ?>) listener).accepts(eventClass);
+		}
+
 		@Override
 		public void close() {
 			synchronized (EventBus.this) {
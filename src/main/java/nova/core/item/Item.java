@@ -28,7 +28,9 @@ import nova.core.event.bus.Event;
 import nova.core.language.LanguageManager;
 import nova.core.language.Translatable;
 import nova.core.render.Color;
+import nova.core.retention.Data;
 import nova.core.retention.Storable;
+import nova.core.retention.StoreSnapshot;
 import nova.core.util.Direction;
 import nova.core.util.Identifiable;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
@@ -37,6 +39,16 @@ import java.util.List;
 import java.util.Optional;
 
 //TODO: This Storable implementation is flawed and not based on ID.
+/**
+ * An item.
+ * <p>
+ * Items are compared by their ID, count and stored data. When every stored field of an item holds
+ * an immutable value or a primitive array, the saved data is kept along with the values of the fields,
+ * and saved again only once the fields no longer hold those values.
+ * Other items are saved every time they are compared.
+ *
+ * @see StoreSnapshot
+ */
 public class Item extends ComponentProvider<ComponentMap> implements Identifiable, Storable, Cloneable, Translatable {
 
 	/**
@@ -44,6 +56,11 @@ public class Item extends ComponentProvider<ComponentMap> implements Identifiabl
 	 */
 	private int count = 1;
 
+	/**
+	 * The saved stored data of this item, shared with its clones while their fields hold the same values.
+	 */
+	private volatile State state;
+
 	/**
 	 * Called to get the ItemFactory that refers to this Block class.
 	 * @return The {@link nova.core.item.ItemFactory} that refers to this Block class.
@@ -98,9 +115,37 @@ public class Item extends ComponentProvider<ComponentMap> implements Identifiabl
 		return count - original;
 	}
 
+	/**
+	 * Gets the saved stored data of this item, saving it if the stored fields changed.
+	 */
+	private State state() {
+		State state = this.state;
+		if (state != null && state.snapshot.matches(this)) {
+			return state;
+		}
+		Optional<StoreSnapshot> snapshot = StoreSnapshot.of(this);
+		Data data = getFactory().save(this);
+		if (!snapshot.isPresent()) {
+			return new State(data, null);
+		}
+		state = new State(data, snapshot.get());
+		this.state = state;
+		return state;
+	}
+
 	@Override
 	public Item clone() {
-		return getFactory().build(getFactory().save(this));
+		State state = state();
+		if (state.snapshot != null) {
+			//Copy the stored fields directly instead of loading the saved data.
+			Item clone = getFactory().build();
+			if (clone.getClass() == getClass()) {
+				state.snapshot.restore(clone);
+				clone.state = state;
+				return clone;
+			}
+		}
+		return getFactory().build(state.data);
 	}
 
 	/**
@@ -121,7 +166,7 @@ public class Item extends ComponentProvider<ComponentMap> implements Identifiabl
 		}
 		Item item = (Item) o;
 		//Makes sure the stored data and stacksize are the same in items.
-		return sameItemType(item) && getFactory().save(this).equals(item.getFactory().save(item)) && item.count == count;
+		return item.count == count && sameItemType(item) && state().sameData(item.state());
 	}
 
 	@Override
@@ -129,7 +174,7 @@ public class Item extends ComponentProvider<ComponentMap> implements Identifiabl
 		int hash = 3;
 		hash = 83 * hash + this.getID().hashCode();
 		hash = 83 * hash + this.count;
-		hash = 83 * hash + this.getFactory().save(this).hashCode();
+		hash = 83 * hash + state().hash;
 		return hash;
 	}
 
@@ -140,7 +185,7 @@ public class Item extends ComponentProvider<ComponentMap> implements Identifiabl
 	 * @return Result
 	 */
 	public boolean sameItemType(Item item) {
-		return getID().equals(item.getID());
+		return getFactory() == item.getFactory() || getID().equals(item.getID());
 	}
 
 	/**
@@ -153,6 +198,25 @@ public class Item extends ComponentProvider<ComponentMap> implements Identifiabl
 		return Color.white;
 	}
 
+	/**
+	 * Saved stored data, its hash and the values of the stored fields it was saved from. The data must not be modified.
+	 */
+	private static final class State {
+		private final Data data;
+		private final int hash;
+		private final StoreSnapshot snapshot;
+
+		private State(Data data, StoreSnapshot snapshot) {
+			this.data = data;
+			this.hash = data.hashCode();
+			this.snapshot = snapshot;
+		}
+
+		private boolean sameData(State other) {
+			return this == other || (hash == other.hash && data.equals(other.data));
+		}
+	}
+
 	public static class TooltipEvent extends Event {
 		public final Optional<Entity> entity;
 		public final List<String> tooltips;
@@ -22,10 +22,82 @@ package nova.core.item;
 
 import nova.core.util.Dictionary;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
+ * A dictionary of items.
+ * <p>
+ * Besides the items registered under each name, the dictionary keeps the set of item IDs
+ * of each name, so that items can be looked up by type without comparing their data.
+ *
  * @author Stan Hebben
  */
 public class ItemDictionary extends Dictionary<Item> {
+	/**
+	 * The numeric index given to each item ID that has been registered.
+	 */
+	private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+	private final AtomicInteger nextIndex = new AtomicInteger();
+
+	/**
+	 * The item IDs of each name, built when first needed and dropped when the name changes.
+	 */
+	private final Map<String, Tag> tags = new ConcurrentHashMap<>();
+
+	public ItemDictionary() {
+		whenEntryAdded(evt -> tags.remove(evt.key));
+		whenEntryRemoved(evt -> tags.remove(evt.key));
+	}
+
+	/**
+	 * Tests whether an item of the same type as the given item is registered under a name.
+	 * The count and stored data of the items are ignored.
+	 *
+	 * @param key the name of the items.
+	 * @param item the item to find.
+	 * @return true if an item with the ID of the given item is registered under the name.
+	 */
+	public boolean contains(String key, Item item) {
+		Tag tag = tag(key);
+		Integer index = indices.get(item.getID());
+		return index != null && tag.items.get(index);
+	}
+
+	/**
+	 * Gets the IDs of the items registered under a name.
+	 *
+	 * @param key the name of the items.
+	 * @return the unmodifiable list of the distinct item IDs.
+	 */
+	public Collection<String> getItemIds(String key) {
+		return tag(key).ids;
+	}
+
+	private Tag tag(String key) {
+		Tag tag = tags.get(key);
+		return tag != null ? tag : tags.computeIfAbsent(key, this::buildTag);
+	}
+
+	private Tag buildTag(String key) {
+		BitSet items = new BitSet();
+		List<String> ids = new ArrayList<>();
+		for (Item item : get(key)) {
+			String id = item.getID();
+			int index = indices.computeIfAbsent(id, i -> nextIndex.getAndIncrement());
+			if (!items.get(index)) {
+				items.set(index);
+				ids.add(id);
+			}
+		}
+		return new Tag(items, Collections.unmodifiableList(ids));
+	}
 
 	/**
 	 * Add an object to the dictionary.
@@ -72,4 +144,17 @@ public class ItemDictionary extends Dictionary<Item> {
 			remove(key, factory);
 		}
 	}
+
+	/**
+	 * The item IDs registered under a name, as a set of indices and as a list.
+	 */
+	private static final class Tag {
+		private final BitSet items;
+		private final List<String> ids;
+
+		private Tag(BitSet items, List<String> ids) {
+			this.items = items;
+			this.ids = ids;
+		}
+	}
 }
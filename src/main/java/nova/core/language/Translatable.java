@@ -69,7 +69,6 @@ public interface Translatable {
 					replacements.put(key, ((Translatable) value).getLocalizedName());
 				else
 					replacements.put(key, Objects.toString(value));
-				field.setAccessible(false);
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
@@ -0,0 +1,512 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.entity.component.Player;
+import nova.core.retention.Data;
+import nova.core.retention.DataDecoder;
+import nova.core.retention.DataEncoder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * A packet backed by a {@link ByteBuffer}, written and read in big-endian order.
+ * <p>
+ * Packets created by {@link #allocate()} take a direct buffer from a pool kept per thread,
+ * and grow it as they are written to. {@link #release()} returns the buffer to the pool,
+ * after which the packet can no longer be used.
+ * <p>
+ * Bytes are written at the end of the packet and read from its start, so a packet can be read back after being written.
+ * Strings are written as their UTF-8 length as a {@link #writeVarInt(int) variable length integer} followed by their UTF-8 bytes.
+ */
+public class BufferPacket implements Packet {
+	private static final int INITIAL_CAPACITY = 256;
+	private static final int MAX_POOLED_CAPACITY = 1 << 20;
+	private static final int MAX_POOLED_BUFFERS = 8;
+
+	private static final ThreadLocal<ArrayDeque<ByteBuffer>> pool = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private final Player player;
+	private final boolean pooled;
+	private ByteBuffer buffer;
+	private int readIndex;
+	private int id;
+
+	private BufferPacket(ByteBuffer buffer, Player player, boolean pooled) {
+		this.buffer = buffer;
+		this.player = player;
+		this.pooled = pooled;
+	}
+
+	/**
+	 * Creates an empty packet with a buffer from the pool.
+	 * @return The packet
+	 */
+	public static BufferPacket allocate() {
+		return allocate(null);
+	}
+
+	/**
+	 * Creates an empty packet with a buffer from the pool.
+	 * @param player The player sending the packet
+	 * @return The packet
+	 */
+	public static BufferPacket allocate(Player player) {
+		ByteBuffer buffer = pool.get().pollFirst();
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+		}
+		return new BufferPacket(buffer, player, true);
+	}
+
+	/**
+	 * Creates a packet that reads the remaining bytes of a buffer.
+	 * Writing to the packet writes to a copy of the buffer.
+	 * @param buffer The received bytes
+	 * @param player The player sending the packet
+	 * @return The packet
+	 */
+	public static BufferPacket wrap(ByteBuffer buffer, Player player) {
+		ByteBuffer slice = buffer.slice();
+		slice.position(slice.limit());
+		return new BufferPacket(slice, player, false);
+	}
+
+	/**
+	 * Returns the buffer of this packet to the pool. The packet cannot be used afterwards.
+	 */
+	public void release() {
+		ByteBuffer buffer = buffer();
+		this.buffer = null;
+		recycle(buffer);
+	}
+
+	private void recycle(ByteBuffer buffer) {
+		if (pooled && buffer.capacity() <= MAX_POOLED_CAPACITY) {
+			ArrayDeque<ByteBuffer> buffers = pool.get();
+			if (buffers.size() < MAX_POOLED_BUFFERS) {
+				buffer.clear();
+				buffers.addFirst(buffer);
+			}
+		}
+	}
+
+	private ByteBuffer buffer() {
+		if (buffer == null) {
+			throw new NetworkException("Attempt to use a released packet");
+		}
+		return buffer;
+	}
+
+	/**
+	 * Makes sure that a number of bytes can be written, growing the buffer if needed.
+	 */
+	private ByteBuffer ensureWritable(int bytes) {
+		ByteBuffer buffer = buffer();
+		if (buffer.remaining() < bytes) {
+			int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+			ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+			buffer.flip();
+			grown.put(buffer);
+			recycle(buffer);
+			this.buffer = buffer = grown;
+		}
+		return buffer;
+	}
+
+	/**
+	 * Makes sure that a number of bytes can be read, and advances the read index past them.
+	 * @return The index of the first byte
+	 */
+	private int read(int bytes) {
+		if (bytes < 0) {
+			throw new NetworkException("Attempt to read a negative number of bytes: %d", bytes);
+		}
+		int index = readIndex;
+		if (buffer().position() - index < bytes) {
+			throw new NetworkException("Attempt to read %d bytes past the end of the packet", bytes);
+		}
+		readIndex = index + bytes;
+		return index;
+	}
+
+	/**
+	 * @return The number of bytes written to this packet
+	 */
+	public int size() {
+		return buffer().position();
+	}
+
+	/**
+	 * @return The number of bytes that have been written but not read
+	 */
+	@Override
+	public int readableBytes() {
+		return buffer().position() - readIndex;
+	}
+
+	/**
+	 * Gets a read-only view of the bytes that have been written but not read.
+	 * The view is only valid until this packet is written to or released.
+	 * @return The bytes
+	 */
+	public ByteBuffer contents() {
+		ByteBuffer contents = buffer().duplicate();
+		contents.limit(contents.position());
+		contents.position(readIndex);
+		return contents.asReadOnlyBuffer();
+	}
+
+	@Override
+	public int getID() {
+		return id;
+	}
+
+	@Override
+	public BufferPacket setID(int id) {
+		this.id = id;
+		return this;
+	}
+
+	@Override
+	public Player player() {
+		return player;
+	}
+
+	@Override
+	public BufferPacket writeBoolean(boolean value) {
+		ensureWritable(1).put((byte) (value ? 1 : 0));
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeByte(int value) {
+		ensureWritable(1).put((byte) value);
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeShort(int value) {
+		ensureWritable(2).putShort((short) value);
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeInt(int value) {
+		ensureWritable(4).putInt(value);
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeLong(long value) {
+		ensureWritable(8).putLong(value);
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeChar(int value) {
+		ensureWritable(2).putChar((char) value);
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeFloat(float value) {
+		ensureWritable(4).putFloat(value);
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeDouble(double value) {
+		ensureWritable(8).putDouble(value);
+		return this;
+	}
+
+	/**
+	 * Writes an unsigned integer in 1 to 5 bytes, 7 bits per byte, lowest bits first.
+	 * Negative values take 5 bytes, see {@link #writeSignedVarInt(int)}.
+	 * @param value The value
+	 * @return This packet
+	 */
+	public BufferPacket writeVarInt(int value) {
+		ByteBuffer buffer = ensureWritable(5);
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+		return this;
+	}
+
+	/**
+	 * Writes an unsigned long in 1 to 10 bytes, 7 bits per byte, lowest bits first.
+	 * @param value The value
+	 * @return This packet
+	 */
+	public BufferPacket writeVarLong(long value) {
+		ByteBuffer buffer = ensureWritable(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+		return this;
+	}
+
+	/**
+	 * Writes an integer zigzag encoded as a {@link #writeVarInt(int) variable length integer},
+	 * so that values close to zero take few bytes whether they are positive or negative.
+	 * @param value The value
+	 * @return This packet
+	 */
+	public BufferPacket writeSignedVarInt(int value) {
+		return writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Writes a long zigzag encoded as a {@link #writeVarLong(long) variable length long}.
+	 * @param value The value
+	 * @return This packet
+	 */
+	public BufferPacket writeSignedVarLong(long value) {
+		return writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	@Override
+	public BufferPacket writeString(String value) {
+		int length = value.length();
+		int bytes = length;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= 0x80) {
+				if (c < 0x800) {
+					bytes += 1;
+				} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+					bytes += 2;
+					i++;
+				} else {
+					bytes += Character.isSurrogate(c) ? 0 : 2;
+				}
+			}
+		}
+		writeVarInt(bytes);
+
+		ByteBuffer buffer = ensureWritable(bytes);
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (c < 0x800) {
+				buffer.put((byte) (0xC0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer.put((byte) (0xF0 | (codePoint >> 18)));
+				buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+			} else if (Character.isSurrogate(c)) {
+				//Unpaired surrogates are replaced, like String.getBytes does.
+				buffer.put((byte) '?');
+			} else {
+				buffer.put((byte) (0xE0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+		return this;
+	}
+
+	@Override
+	public BufferPacket writeBytes(byte[] array) {
+		ensureWritable(array.length).put(array);
+		return this;
+	}
+
+	/**
+	 * Writes data directly into this packet, prefixed by its length.
+	 */
+	@Override
+	public BufferPacket writeData(Data data) {
+		int start = ensureWritable(4).position();
+		writeInt(0);
+		try {
+			new DataEncoder(new DataOutputStream(new PacketOutputStream())).write(data);
+		} catch (IOException e) {
+			throw new NetworkException("Failed to write data.", e);
+		}
+		buffer.putInt(start, buffer.position() - start - 4);
+		return this;
+	}
+
+	@Override
+	public byte[] readBytes(int length) {
+		ByteBuffer source = buffer().duplicate();
+		source.position(read(length));
+		byte[] bytes = new byte[length];
+		source.get(bytes);
+		return bytes;
+	}
+
+	@Override
+	public boolean readBoolean() {
+		return buffer.get(read(1)) != 0;
+	}
+
+	@Override
+	public byte readByte() {
+		return buffer.get(read(1));
+	}
+
+	@Override
+	public short readUnsignedByte() {
+		return (short) (readByte() & 0xFF);
+	}
+
+	@Override
+	public short readShort() {
+		return buffer.getShort(read(2));
+	}
+
+	@Override
+	public int readInt() {
+		return buffer.getInt(read(4));
+	}
+
+	@Override
+	public long readUnsignedInt() {
+		return readInt() & 0xFFFFFFFFL;
+	}
+
+	@Override
+	public long readLong() {
+		return buffer.getLong(read(8));
+	}
+
+	@Override
+	public char readChar() {
+		return buffer.getChar(read(2));
+	}
+
+	@Override
+	public float readFloat() {
+		return buffer.getFloat(read(4));
+	}
+
+	@Override
+	public double readDouble() {
+		return buffer.getDouble(read(8));
+	}
+
+	/**
+	 * Reads an integer written by {@link #writeVarInt(int)}.
+	 * @return The value
+	 */
+	public int readVarInt() {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new NetworkException("Variable length integer is too long");
+	}
+
+	/**
+	 * Reads a long written by {@link #writeVarLong(long)}.
+	 * @return The value
+	 */
+	public long readVarLong() {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new NetworkException("Variable length long is too long");
+	}
+
+	/**
+	 * Reads an integer written by {@link #writeSignedVarInt(int)}.
+	 * @return The value
+	 */
+	public int readSignedVarInt() {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Reads a long written by {@link #writeSignedVarLong(long)}.
+	 * @return The value
+	 */
+	public long readSignedVarLong() {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@Override
+	public String readString() {
+		int length = readVarInt();
+		ByteBuffer bytes = buffer().duplicate();
+		bytes.position(read(length));
+		bytes.limit(readIndex);
+		return StandardCharsets.UTF_8.decode(bytes).toString();
+	}
+
+	/**
+	 * Reads data written by {@link #writeData(Data)} directly from this packet.
+	 */
+	@Override
+	public Data readData() {
+		int length = readInt();
+		ByteBuffer bytes = buffer().duplicate();
+		bytes.position(read(length));
+		bytes.limit(readIndex);
+		try {
+			return new DataDecoder(bytes).read();
+		} catch (IOException e) {
+			throw new NetworkException("Failed to read data.", e);
+		}
+	}
+
+	/**
+	 * Writes the bytes of an encoder to the end of this packet.
+	 */
+	private class PacketOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+			ensureWritable(1).put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			ensureWritable(len).put(b, off, len);
+		}
+	}
+}
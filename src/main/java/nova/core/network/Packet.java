@@ -22,6 +22,7 @@ package nova.core.network;
 
 import nova.core.entity.component.Player;
 import nova.core.retention.Data;
+import nova.core.retention.DataDecoder;
 import nova.core.retention.Storable;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
@@ -62,49 +63,9 @@ public interface Packet {
 	 * @return This packet
 	 */
 	default Packet write(Object data) {
-		if (data instanceof Boolean) {
-			writeBoolean((boolean) data);
-		} else if (data instanceof Byte) {
-			writeByte((byte) data);
-		} else if (data instanceof Short) {
-			writeShort((short) data);
-		} else if (data instanceof Integer) {
-			writeInt((int) data);
-		} else if (data instanceof Long) {
-			writeLong((long) data);
-		} else if (data instanceof Character) {
-			writeChar((Character) data);
-		} else if (data instanceof Float) {
-			writeFloat((float) data);
-		} else if (data instanceof Double) {
-			writeDouble((double) data);
-		} else if (data instanceof String) {
-			writeString((String) data);
-		} else if (data instanceof Enum) {
-			writeEnum((Enum) data);
-		} else if (data instanceof Optional) {
-			writeOptional((Optional) data);
-		} else if (data instanceof Data) {
-			writeData((Data) data);
-		} else if (data instanceof Syncable) {
-			((Syncable) data).write(this);
-		} else if (data instanceof Storable) {
-			writeStorable((Storable) data);
-		} else if (data instanceof Collection) {
-			writeCollection((Collection) data);
-		} else if (data instanceof Collection) {
-			writeCollection((Collection) data);
-		} else if (data instanceof Vector3D) {
-			writeDouble(((Vector3D) data).getX());
-			writeDouble(((Vector3D) data).getY());
-			writeDouble(((Vector3D) data).getZ());
-		} else if (data instanceof Vector2D) {
-			writeDouble(((Vector2D) data).getX());
-			writeDouble(((Vector2D) data).getY());
-		} else {
-			throw new IllegalArgumentException("Packet attempt to write an invalid object: " + data);
-		}
-
+		PacketCodec<Object> codec = PacketCodec.writerOf(data.getClass())
+			.orElseThrow(() -> new IllegalArgumentException("Packet attempt to write an invalid object: " + data));
+		codec.write(this, data);
 		return this;
 	}
 
@@ -200,30 +161,17 @@ public interface Packet {
 	}
 
 	default int getType(Class<?> compare) {
-		return IntStream
-			.range(0, Data.dataTypes.length)
-			.filter(i -> Data.dataTypes[i].isAssignableFrom(compare))
-			.findFirst()
-			.getAsInt();
+		int type = Data.typeOf(compare);
+		if (type < 0) {
+			throw new NetworkException("Packet attempt to write an object of an invalid type: %s", compare);
+		}
+		return type;
 	}
 
 	default Packet writeData(Data data) {
-		//Write the data size
-		writeInt(data.size());
-		//Write the data class
-		writeString(data.className);
-
-		data.forEach((k, v) -> {
-				int typeID = getType(v.getClass());
-				//Write key
-				writeString(k);
-				//Write data type
-				writeShort(typeID);
-				//Write value
-				write(v);
-			}
-		);
-
+		byte[] bytes = Data.toBinary(data);
+		writeInt(bytes.length);
+		writeBytes(bytes);
 		return this;
 	}
 
@@ -251,10 +199,42 @@ public interface Packet {
 		return this;
 	}
 
+	default Packet writeIntArray(int[] array) {
+		writeInt(array.length);
+		for (int i : array) {
+			writeInt(i);
+		}
+		return this;
+	}
+
+	default Packet writeLongArray(long[] array) {
+		writeInt(array.length);
+		for (long l : array) {
+			writeLong(l);
+		}
+		return this;
+	}
+
+	default Packet writeDoubleArray(double[] array) {
+		writeInt(array.length);
+		for (double d : array) {
+			writeDouble(d);
+		}
+		return this;
+	}
+
 	Packet writeBytes(byte[] array);
 
 	byte[] readBytes(int length);
 
+	/**
+	 * @return The number of bytes that can still be read from this packet,
+	 * or {@link Integer#MAX_VALUE} if it is not known.
+	 */
+	default int readableBytes() {
+		return Integer.MAX_VALUE;
+	}
+
 	/**
 	 * Gets a boolean at the current {@code readerIndex} and increases
 	 * the {@code readerIndex} by {@code 1} in this buffer.
@@ -360,18 +340,11 @@ public interface Packet {
 	 * Reads a {@link Data} type.
 	 */
 	default Data readData() {
-		Data readData = new Data();
-		int size = readInt();
-		readData.className = readString();
-		IntStream
-			.range(0, size)
-			.forEach(i -> {
-				String key = readString();
-				short type = readShort();
-				Object value = read(Data.dataTypes[type]);
-				readData.put(key, value);
-			});
-		return readData;
+		int length = readInt();
+		if (length < 0 || length > DataDecoder.MAX_LENGTH || length > readableBytes()) {
+			throw new NetworkException("Invalid data length: %d", length);
+		}
+		return Data.fromBinary(readBytes(length));
 	}
 
 	default Object readStorable() {
@@ -418,6 +391,30 @@ public interface Packet {
 		}
 	}
 
+	default int[] readIntArray() {
+		int[] array = new int[readInt()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = readInt();
+		}
+		return array;
+	}
+
+	default long[] readLongArray() {
+		long[] array = new long[readInt()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = readLong();
+		}
+		return array;
+	}
+
+	default double[] readDoubleArray() {
+		double[] array = new double[readInt()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = readDouble();
+		}
+		return array;
+	}
+
 	default Vector2D readVector2D() {
 		return new Vector2D(readDouble(), readDouble());
 	}
@@ -427,44 +424,6 @@ public interface Packet {
 	}
 
 	default <T> T read(Class<T> clazz) {
-		if (clazz == Boolean.class || clazz == boolean.class) {
-			return (T) Boolean.valueOf(readBoolean());
-		} else if (clazz == Byte.class || clazz == byte.class) {
-			return (T) Byte.valueOf(readByte());
-		} else if (clazz == Short.class || clazz == short.class) {
-			return (T) Short.valueOf(readShort());
-		} else if (clazz == Integer.class || clazz == int.class) {
-			return (T) Integer.valueOf(readInt());
-		} else if (clazz == Long.class || clazz == long.class) {
-			return (T) Long.valueOf(readLong());
-		} else if (clazz == Character.class || clazz == char.class) {
-			return (T) Character.valueOf(readChar());
-		} else if (clazz == Float.class || clazz == float.class) {
-			return (T) Float.valueOf(readFloat());
-		} else if (clazz == Double.class || clazz == double.class) {
-			return (T) Double.valueOf(readDouble());
-		} else if (clazz == String.class) {
-			return (T) readString();
-		} else if (clazz == Optional.class) {
-			return (T) readOptional();
-		}
-		//Special data types that all convert into Data.
-		else if (Syncable.class.isAssignableFrom(clazz)) {
-			throw new NetworkException("Attempt to read PacketHandler object by its class");
-		} else if (Enum.class.isAssignableFrom(clazz)) {
-			return (T) readEnum();
-		} else if (Data.class.isAssignableFrom(clazz)) {
-			return (T) readData();
-		} else if (Vector3D.class.isAssignableFrom(clazz)) {
-			return (T) readVector3D();
-		} else if (Vector2D.class.isAssignableFrom(clazz)) {
-			return (T) readVector2D();
-		} else if (List.class.isAssignableFrom(clazz)) {
-			return (T) readList();
-		} else if (Set.class.isAssignableFrom(clazz)) {
-			return (T) readSet();
-		} else {
-			return (T) readStorable();
-		}
+		return PacketCodec.readerOf(clazz).read(this);
 	}
 }
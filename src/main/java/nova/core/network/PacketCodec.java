@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Writes values of a type to packets and reads them back.
+ * <p>
+ * {@link Packet#write(Object)} and {@link Packet#read(Class)} look up the codec of a class once,
+ * and then call it directly. The codec of a class is the first registered codec whose type the class is assignable to,
+ * checking codecs registered with {@link #register(Class, BiConsumer, Function)} before the built-in ones.
+ * When reading, classes that have no codec are read as {@link Storable}.
+ *
+ * @param <T> The type of values
+ */
+public final class PacketCodec<T> {
+	private static final List<PacketCodec<?>> builtIn = new ArrayList<>();
+	private static final List<PacketCodec<?>> registered = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Incremented when a codec is registered, so that the codecs looked up before are looked up again.
+	 */
+	private static volatile int version;
+
+	private static final ClassValue<Lookup> writers = new ClassValue<Lookup>() {
+		@Override
+		protected Lookup computeValue(Class<?> type) {
+			return Lookup.find(type, true);
+		}
+	};
+
+	private static final ClassValue<Lookup> readers = new ClassValue<Lookup>() {
+		@Override
+		protected Lookup computeValue(Class<?> type) {
+			return Lookup.find(type, false);
+		}
+	};
+
+	private static final PacketCodec<Object> storableReader = new PacketCodec<>(Object.class, null, Packet::readStorable);
+
+	static {
+		builtIn(Boolean.class, Packet::writeBoolean, Packet::readBoolean);
+		builtIn(Byte.class, (packet, value) -> packet.writeByte(value), Packet::readByte);
+		builtIn(Short.class, (packet, value) -> packet.writeShort(value), Packet::readShort);
+		builtIn(Integer.class, Packet::writeInt, Packet::readInt);
+		builtIn(Long.class, Packet::writeLong, Packet::readLong);
+		builtIn(Character.class, (packet, value) -> packet.writeChar(value), Packet::readChar);
+		builtIn(Float.class, Packet::writeFloat, Packet::readFloat);
+		builtIn(Double.class, Packet::writeDouble, Packet::readDouble);
+		builtIn(String.class, Packet::writeString, Packet::readString);
+		builtIn(Enum.class, Packet::writeEnum, Packet::readEnum);
+		builtIn(Optional.class, Packet::writeOptional, Packet::readOptional);
+		builtIn(Data.class, Packet::writeData, Packet::readData);
+		builtIn(Syncable.class, (packet, value) -> value.write(packet), packet -> {
+			throw new NetworkException("Attempt to read PacketHandler object by its class");
+		});
+		builtIn(Storable.class, Packet::writeStorable, null);
+		builtIn(Collection.class, Packet::writeCollection, null);
+		builtIn(List.class, null, Packet::readList);
+		builtIn(Set.class, null, Packet::readSet);
+		builtIn(Vector3D.class, (packet, value) -> {
+			packet.writeDouble(value.getX());
+			packet.writeDouble(value.getY());
+			packet.writeDouble(value.getZ());
+		}, Packet::readVector3D);
+		builtIn(Vector2D.class, (packet, value) -> {
+			packet.writeDouble(value.getX());
+			packet.writeDouble(value.getY());
+		}, Packet::readVector2D);
+		builtIn(int[].class, Packet::writeIntArray, Packet::readIntArray);
+		builtIn(long[].class, Packet::writeLongArray, Packet::readLongArray);
+		builtIn(double[].class, Packet::writeDoubleArray, Packet::readDoubleArray);
+		builtIn(byte[].class, (packet, value) -> {
+			packet.writeInt(value.length);
+			packet.writeBytes(value);
+		}, packet -> packet.readBytes(packet.readInt()));
+	}
+
+	/**
+	 * The type of values.
+	 */
+	public final Class<T> type;
+	private final BiConsumer<Packet, T> writer;
+	private final Function<Packet, T> reader;
+
+	private PacketCodec(Class<T> type, BiConsumer<Packet, T> writer, Function<Packet, T> reader) {
+		this.type = type;
+		this.writer = writer;
+		this.reader = reader;
+	}
+
+	/**
+	 * Registers how values of a type are written and read.
+	 * The codec is used for the type and its subtypes, in place of any codec registered before.
+	 *
+	 * @param type The type of values
+	 * @param writer The function writing a value to a packet
+	 * @param reader The function reading a value from a packet
+	 * @param <T> The type of values
+	 */
+	public static synchronized <T> void register(Class<T> type, BiConsumer<Packet, T> writer, Function<Packet, T> reader) {
+		registered.add(0, new PacketCodec<>(type, writer, reader));
+		version++;
+	}
+
+	private static <T> void builtIn(Class<T> type, BiConsumer<Packet, T> writer, Function<Packet, T> reader) {
+		builtIn.add(new PacketCodec<>(type, writer, reader));
+	}
+
+	/**
+	 * Gets the codec used to write values of a class.
+	 *
+	 * @param type The class of the value
+	 * @return The codec, or empty if values of the class cannot be written.
+	 */
+	@SuppressWarnings("unchecked")
+	public static Optional<PacketCodec<Object>> writerOf(Class<?> type) {
+		return Optional.ofNullable((PacketCodec<Object>) lookup(writers, type));
+	}
+
+	/**
+	 * Gets the codec used to read values of a class.
+	 *
+	 * @param type The class to read, which may be primitive
+	 * @return The codec
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> PacketCodec<T> readerOf(Class<T> type) {
+		PacketCodec<?> codec = lookup(readers, type);
+		return (PacketCodec<T>) (codec != null ? codec : storableReader);
+	}
+
+	private static PacketCodec<?> lookup(ClassValue<Lookup> lookups, Class<?> type) {
+		Lookup lookup = lookups.get(type);
+		if (lookup.version != version) {
+			lookups.remove(type);
+			lookup = lookups.get(type);
+		}
+		return lookup.codec;
+	}
+
+	private static PacketCodec<?> find(Class<?> type, boolean write) {
+		Class<?> boxed = type.isPrimitive() ? box(type) : type;
+		PacketCodec<?> codec = find(registered, boxed, write);
+		return codec != null ? codec : find(builtIn, boxed, write);
+	}
+
+	private static PacketCodec<?> find(List<PacketCodec<?>> codecs, Class<?> type, boolean write) {
+		for (PacketCodec<?> codec : codecs) {
+			if ((write ? codec.writer : codec.reader) != null && codec.type.isAssignableFrom(type)) {
+				return codec;
+			}
+		}
+		return null;
+	}
+
+	private static Class<?> box(Class<?> type) {
+		if (type == boolean.class) {
+			return Boolean.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else if (type == int.class) {
+			return Integer.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == char.class) {
+			return Character.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else if (type == double.class) {
+			return Double.class;
+		}
+		return Void.class;
+	}
+
+	/**
+	 * Writes a value to a packet.
+	 *
+	 * @param packet The packet
+	 * @param value The value
+	 */
+	public void write(Packet packet, T value) {
+		writer.accept(packet, value);
+	}
+
+	/**
+	 * Reads a value from a packet.
+	 *
+	 * @param packet The packet
+	 * @return The value
+	 */
+	public T read(Packet packet) {
+		return reader.apply(packet);
+	}
+
+	/**
+	 * The codec found for a class, and the version of the registered codecs it was found in.
+	 */
+	private static final class Lookup {
+		private final PacketCodec<?> codec;
+		private final int version;
+
+		private Lookup(PacketCodec<?> codec, int version) {
+			this.codec = codec;
+			this.version = version;
+		}
+
+		/**
+		 * The version is read before the codec is found,
+		 * so that a codec registered during the search makes the lookup stale rather than hiding it.
+		 */
+		private static Lookup find(Class<?> type, boolean write) {
+			int version = PacketCodec.version;
+			return new Lookup(PacketCodec.find(type, write), version);
+		}
+	}
+}
@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.util.ReflectionUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link Sync} fields of a class, resolved once per class.
+ * Maps every packet ID to the fields synced with it, in the order
+ * {@link ReflectionUtil#forEachRecursiveAnnotatedField} visits them.
+ * Primitive fields are read and written through typed method handles,
+ * so their values are never boxed, except when setting final fields,
+ * which is done through {@link Field#set} as reflection did.
+ */
+final class SyncSchema {
+	private static final ClassValue<SyncSchema> schemas = new ClassValue<SyncSchema>() {
+		@Override
+		protected SyncSchema computeValue(Class<?> type) {
+			return new SyncSchema(type);
+		}
+	};
+
+	private static final SyncField[] NO_FIELDS = new SyncField[0];
+
+	private final int[] ids;
+	private final SyncField[][] fields;
+
+	private SyncSchema(Class<?> clazz) {
+		Map<Integer, List<SyncField>> fieldsByID = new LinkedHashMap<>();
+		ReflectionUtil.forEachRecursiveAnnotatedField(Sync.class, clazz, (field, annotation) -> {
+			SyncField syncField = SyncField.of(field);
+			Arrays.stream(annotation.ids())
+				.distinct()
+				.forEach(id -> fieldsByID.computeIfAbsent(id, key -> new ArrayList<>()).add(syncField));
+		});
+
+		ids = new int[fieldsByID.size()];
+		fields = new SyncField[fieldsByID.size()][];
+		int i = 0;
+		for (Map.Entry<Integer, List<SyncField>> entry : fieldsByID.entrySet()) {
+			ids[i] = entry.getKey();
+			fields[i] = entry.getValue().toArray(new SyncField[entry.getValue().size()]);
+			i++;
+		}
+	}
+
+	/**
+	 * Gets the sync schema of a class.
+	 * @param clazz The class
+	 * @return The schema, computed on first use.
+	 */
+	static SyncSchema of(Class<?> clazz) {
+		return schemas.get(clazz);
+	}
+
+	private SyncField[] fields(int id) {
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] == id) {
+				return fields[i];
+			}
+		}
+		return NO_FIELDS;
+	}
+
+	void write(Syncable instance, Packet packet) {
+		for (SyncField field : fields(packet.getID())) {
+			try {
+				field.write(instance, packet);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new NetworkException("Failed to write field " + field.field.getName() + " in class: " + instance.getClass(), t);
+			}
+		}
+	}
+
+	void read(Syncable instance, Packet packet) {
+		for (SyncField field : fields(packet.getID())) {
+			try {
+				field.read(instance, packet);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new NetworkException("Failed to read field " + field.field.getName() + " in class: " + instance.getClass(), t);
+			}
+		}
+	}
+
+	/**
+	 * A synced field with the handles to access it.
+	 */
+	private abstract static class SyncField {
+		protected final Field field;
+		protected final MethodHandle getter;
+		protected final MethodHandle setter;
+
+		private SyncField(Field field, MethodHandle getter, MethodHandle setter) {
+			this.field = field;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		static SyncField of(Field field) {
+			field.setAccessible(true);
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle getter;
+			MethodHandle setter;
+			try {
+				getter = lookup.unreflectGetter(field);
+			} catch (IllegalAccessException e) {
+				throw new NetworkException("Cannot access synced field " + field.getName() + " in class: " + field.getDeclaringClass(), e);
+			}
+			try {
+				setter = lookup.unreflectSetter(field);
+			} catch (IllegalAccessException e) {
+				// Final fields have no setter handle, but can still be set through the accessible field.
+				try {
+					setter = lookup.unreflect(Field.class.getMethod("set", Object.class, Object.class)).bindTo(field);
+				} catch (ReflectiveOperationException e2) {
+					throw new NetworkException("Cannot set synced field " + field.getName() + " in class: " + field.getDeclaringClass(), e2);
+				}
+			}
+
+			Class<?> type = field.getType();
+			if (type == boolean.class) {
+				return new BooleanField(field, getter, setter);
+			} else if (type == byte.class) {
+				return new ByteField(field, getter, setter);
+			} else if (type == short.class) {
+				return new ShortField(field, getter, setter);
+			} else if (type == int.class) {
+				return new IntField(field, getter, setter);
+			} else if (type == long.class) {
+				return new LongField(field, getter, setter);
+			} else if (type == char.class) {
+				return new CharField(field, getter, setter);
+			} else if (type == float.class) {
+				return new FloatField(field, getter, setter);
+			} else if (type == double.class) {
+				return new DoubleField(field, getter, setter);
+			}
+			return new ObjectField(field, getter, setter);
+		}
+
+		/**
+		 * Adapts a handle so it can be invoked exactly with the instance typed as Object.
+		 */
+		protected static MethodHandle getter(MethodHandle getter, Class<?> type) {
+			return getter.asType(MethodType.methodType(type, Object.class));
+		}
+
+		protected static MethodHandle setter(MethodHandle setter, Class<?> type) {
+			return setter.asType(MethodType.methodType(void.class, Object.class, type));
+		}
+
+		abstract void write(Object instance, Packet packet) throws Throwable;
+
+		abstract void read(Object instance, Packet packet) throws Throwable;
+	}
+
+	private static final class ObjectField extends SyncField {
+		private ObjectField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, Object.class), setter(setter, Object.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			Object value = (Object) getter.invokeExact(instance);
+			if (value != null) {
+				packet.write(value);
+			} else {
+				throw new NullPointerException(
+					String.format("Field %s in class: %s is null. Syncing nulls is not supported. Use Optional instead.",
+						field.getName(), instance.getClass()));
+			}
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			Object value = (Object) getter.invokeExact(instance);
+			if (value instanceof Syncable) {
+				((Syncable) value).read(packet);
+			} else {
+				setter.invokeExact(instance, (Object) packet.read(field.getType()));
+			}
+		}
+	}
+
+	private static final class BooleanField extends SyncField {
+		private BooleanField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, boolean.class), setter(setter, boolean.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeBoolean((boolean) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readBoolean());
+		}
+	}
+
+	private static final class ByteField extends SyncField {
+		private ByteField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, byte.class), setter(setter, byte.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeByte((byte) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readByte());
+		}
+	}
+
+	private static final class ShortField extends SyncField {
+		private ShortField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, short.class), setter(setter, short.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeShort((short) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readShort());
+		}
+	}
+
+	private static final class IntField extends SyncField {
+		private IntField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, int.class), setter(setter, int.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeInt((int) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readInt());
+		}
+	}
+
+	private static final class LongField extends SyncField {
+		private LongField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, long.class), setter(setter, long.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeLong((long) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readLong());
+		}
+	}
+
+	private static final class CharField extends SyncField {
+		private CharField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, char.class), setter(setter, char.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeChar((char) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readChar());
+		}
+	}
+
+	private static final class FloatField extends SyncField {
+		private FloatField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, float.class), setter(setter, float.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeFloat((float) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readFloat());
+		}
+	}
+
+	private static final class DoubleField extends SyncField {
+		private DoubleField(Field field, MethodHandle getter, MethodHandle setter) {
+			super(field, getter(getter, double.class), setter(setter, double.class));
+		}
+
+		@Override
+		void write(Object instance, Packet packet) throws Throwable {
+			packet.writeDouble((double) getter.invokeExact(instance));
+		}
+
+		@Override
+		void read(Object instance, Packet packet) throws Throwable {
+			setter.invokeExact(instance, packet.readDouble());
+		}
+	}
+}
@@ -25,27 +25,54 @@ import com.google.common.collect.Multimap;
 import nova.core.event.RecipeEvent;
 import nova.core.item.Item;
 import nova.core.recipes.RecipeManager;
+import nova.core.recipes.ingredient.ItemIngredient;
+import nova.core.recipes.ingredient.SpecificItemIngredient;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Manages crafting recipes and has functions to efficiently lookup a crafting
  * recipe.
+ * <p>
+ * Shaped and shapeless recipes are indexed by a {@link Signature} of the grids they can match:
+ * the size of the area holding items, the number of items and, when all ingredients are specific items,
+ * a hash of their item IDs. Other recipes are indexed by the items in their first slot, or checked for every grid.
+ * The recipes found for the last few grids are kept and tried first.
+ * Recipes may be looked up from several threads, but must be added and removed from one.
  *
  * @author Stan Hebben
  */
 public class CraftingRecipeManager {
+	/**
+	 * The number of grids to remember the recipe of.
+	 */
+	private static final int CACHE_SIZE = 32;
+
 	private final RecipeManager recipeManager;
 	private final List<CraftingRecipe> dynamicRecipes;
 	private final Multimap<String, CraftingRecipe> staticRecipes;
+	private final Multimap<Signature, CraftingRecipe> signatureRecipes;
+	private final Map<Long, CraftingRecipe> lastRecipes;
 
 	public CraftingRecipeManager(RecipeManager recipeManager) {
 		this.recipeManager = recipeManager;
 		this.dynamicRecipes = new ArrayList<>();
 		this.staticRecipes = ArrayListMultimap.create();
+		this.signatureRecipes = ArrayListMultimap.create();
+		this.lastRecipes = new LinkedHashMap<Long, CraftingRecipe>(CACHE_SIZE, 0.75F, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CraftingRecipe> eldest) {
+				return size() > CACHE_SIZE;
+			}
+		};
 
 		recipeManager.whenRecipeAdded(CraftingRecipe.class, this::onCraftingRecipeAdded);
 		recipeManager.whenRecipeRemoved(CraftingRecipe.class, this::onCraftingRecipeRemoved);
@@ -71,28 +98,64 @@ public class CraftingRecipeManager {
 
 	/**
 	 * Gets the recipe that matches the given crafting grid.
+	 * If several recipes match the grid, any of them may be returned.
 	 *
 	 * @param grid crafting grid
 	 * @return matching crafting recipe, if any
 	 */
 	public Optional<CraftingRecipe> getRecipe(CraftingGrid grid) {
+		GridContents contents = new GridContents(grid);
+		if (contents.count == 0) {
+			return findRecipe(grid, contents);
+		}
+
+		CraftingRecipe lastRecipe;
+		synchronized (lastRecipes) {
+			lastRecipe = lastRecipes.get(contents.fingerprint);
+		}
+		if (lastRecipe != null && lastRecipe.matches(grid)) {
+			return Optional.of(lastRecipe);
+		}
+
+		Optional<CraftingRecipe> recipe = findRecipe(grid, contents);
+		if (recipe.isPresent()) {
+			synchronized (lastRecipes) {
+				lastRecipes.put(contents.fingerprint, recipe.get());
+			}
+		}
+		return recipe;
+	}
+
+	// #######################
+	// ### Private Methods ###
+	// #######################
+
+	private Optional<CraftingRecipe> findRecipe(CraftingGrid grid, GridContents contents) {
 		for (CraftingRecipe dynamicRecipe : dynamicRecipes) {
 			if (dynamicRecipe.matches(grid)) {
 				return Optional.of(dynamicRecipe);
 			}
 		}
 
-		Optional<Item> firstItem = grid.getFirstNonEmptyItem();
-		if (!firstItem.isPresent()) {
+		if (contents.count == 0) {
 			return Optional.empty();
 		}
 
-		String firstItemId = firstItem.get().getID();
-		if (!staticRecipes.containsKey(firstItemId)) {
-			return Optional.empty();
+		Signature[] signatures = {
+			new Signature(contents.width, contents.height, contents.count, true, contents.items),
+			new Signature(contents.width, contents.height, contents.count, false, 0),
+			new Signature(0, 0, contents.count, true, contents.items),
+			new Signature(0, 0, contents.count, false, 0)
+		};
+		for (Signature signature : signatures) {
+			for (CraftingRecipe signatureRecipe : signatureRecipes.get(signature)) {
+				if (signatureRecipe.matches(grid)) {
+					return Optional.of(signatureRecipe);
+				}
+			}
 		}
 
-		for (CraftingRecipe staticRecipe : staticRecipes.get(firstItemId)) {
+		for (CraftingRecipe staticRecipe : staticRecipes.get(contents.firstItemId)) {
 			if (staticRecipe.matches(grid)) {
 				return Optional.of(staticRecipe);
 			}
@@ -101,29 +164,163 @@ public class CraftingRecipeManager {
 		return Optional.empty();
 	}
 
-	// #######################
-	// ### Private Methods ###
-	// #######################
-
 	private <T extends CraftingRecipe> void onCraftingRecipeAdded(RecipeEvent.Add<T> evt) {
-		Collection<String> possibleFirstItemIds = evt.recipe.getPossibleItemsInFirstSlot();
-		if (!possibleFirstItemIds.isEmpty()) {
-			for (String itemId : possibleFirstItemIds) {
-				staticRecipes.put(itemId, evt.recipe);
-			}
+		Optional<Signature> signature = Signature.of(evt.recipe);
+		if (signature.isPresent()) {
+			signatureRecipes.put(signature.get(), evt.recipe);
 		} else {
-			dynamicRecipes.add(evt.recipe);
+			Collection<String> possibleFirstItemIds = evt.recipe.getPossibleItemsInFirstSlot();
+			if (!possibleFirstItemIds.isEmpty()) {
+				for (String itemId : possibleFirstItemIds) {
+					staticRecipes.put(itemId, evt.recipe);
+				}
+			} else {
+				dynamicRecipes.add(evt.recipe);
+			}
+		}
+		synchronized (lastRecipes) {
+			lastRecipes.clear();
 		}
 	}
 
 	private <T extends CraftingRecipe> void onCraftingRecipeRemoved(RecipeEvent.Remove<T> evt) {
-		Collection<String> possibleFirstItemIds = evt.recipe.getPossibleItemsInFirstSlot();
-		if (!possibleFirstItemIds.isEmpty()) {
-			for (String itemId : possibleFirstItemIds) {
-				staticRecipes.remove(itemId, evt.recipe);
-			}
+		Optional<Signature> signature = Signature.of(evt.recipe);
+		if (signature.isPresent()) {
+			signatureRecipes.remove(signature.get(), evt.recipe);
 		} else {
-			dynamicRecipes.remove(evt.recipe);
+			Collection<String> possibleFirstItemIds = evt.recipe.getPossibleItemsInFirstSlot();
+			if (!possibleFirstItemIds.isEmpty()) {
+				for (String itemId : possibleFirstItemIds) {
+					staticRecipes.remove(itemId, evt.recipe);
+				}
+			} else {
+				dynamicRecipes.remove(evt.recipe);
+			}
+		}
+		synchronized (lastRecipes) {
+			lastRecipes.clear();
+		}
+	}
+
+	/**
+	 * Mixes the hash of an item ID, so that summing the hashes of several items gives a hash of the multiset.
+	 */
+	private static int itemHash(String itemId) {
+		int hash = itemId.hashCode() * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * The grids a recipe can match. A width and height of 0 match any area,
+	 * and only recipes made of specific items have an item hash.
+	 */
+	private static final class Signature {
+		private final int width;
+		private final int height;
+		private final int count;
+		private final boolean hasItems;
+		private final int items;
+
+		private Signature(int width, int height, int count, boolean hasItems, int items) {
+			this.width = width;
+			this.height = height;
+			this.count = count;
+			this.hasItems = hasItems;
+			this.items = items;
+		}
+
+		private static Optional<Signature> of(CraftingRecipe recipe) {
+			if (recipe instanceof ShapedCraftingRecipe) {
+				ShapedCraftingRecipe shaped = (ShapedCraftingRecipe) recipe;
+				int[] x = shaped.getIngredientsX();
+				int[] y = shaped.getIngredientsY();
+				if (x.length == 0) {
+					return Optional.empty();
+				}
+				int minX = x[0], maxX = x[0], minY = y[0], maxY = y[0];
+				for (int i = 1; i < x.length; i++) {
+					minX = Math.min(minX, x[i]);
+					maxX = Math.max(maxX, x[i]);
+					minY = Math.min(minY, y[i]);
+					maxY = Math.max(maxY, y[i]);
+				}
+				return Optional.of(of(maxX - minX + 1, maxY - minY + 1, shaped.getIngredients()));
+			} else if (recipe instanceof ShapelessCraftingRecipe) {
+				ItemIngredient[] ingredients = ((ShapelessCraftingRecipe) recipe).getIngredients();
+				return ingredients.length == 0 ? Optional.empty() : Optional.of(of(0, 0, ingredients));
+			}
+			return Optional.empty();
+		}
+
+		private static Signature of(int width, int height, ItemIngredient[] ingredients) {
+			int items = 0;
+			for (ItemIngredient ingredient : ingredients) {
+				if (!(ingredient instanceof SpecificItemIngredient)) {
+					return new Signature(width, height, ingredients.length, false, 0);
+				}
+				items += itemHash(((SpecificItemIngredient) ingredient).getItemId());
+			}
+			return new Signature(width, height, ingredients.length, true, items);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Signature)) {
+				return false;
+			}
+			Signature other = (Signature) obj;
+			return width == other.width && height == other.height && count == other.count
+				&& hasItems == other.hasItems && items == other.items;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(width, height, count, hasItems, items);
+		}
+	}
+
+	/**
+	 * What a crafting grid holds, read in one pass.
+	 */
+	private static final class GridContents {
+		private int count;
+		private int width;
+		private int height;
+		private int items;
+		private String firstItemId;
+		/**
+		 * A hash of the grid size and the item ID in each slot.
+		 */
+		private long fingerprint;
+
+		private GridContents(CraftingGrid grid) {
+			int gridWidth = grid.getWidth();
+			int gridHeight = grid.getHeight();
+			int minX = Integer.MAX_VALUE, maxX = -1, minY = Integer.MAX_VALUE, maxY = -1;
+			fingerprint = gridWidth * 31L + gridHeight;
+			for (int y = 0; y < gridHeight; y++) {
+				for (int x = 0; x < gridWidth; x++) {
+					Optional<Item> item = grid.getCrafting(x, y);
+					if (item.isPresent()) {
+						String itemId = item.get().getID();
+						if (count == 0) {
+							firstItemId = itemId;
+						}
+						count++;
+						items += itemHash(itemId);
+						minX = Math.min(minX, x);
+						maxX = Math.max(maxX, x);
+						minY = Math.min(minY, y);
+						maxY = Math.max(maxY, y);
+						fingerprint = fingerprint * 0x100000001B3L + (y * gridWidth + x + 1) * 0x9E3779B97F4A7C15L + itemId.hashCode();
+					}
+				}
+			}
+			width = maxX - minX + 1;
+			height = maxY - minY + 1;
 		}
 	}
 }
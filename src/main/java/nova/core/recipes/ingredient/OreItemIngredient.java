@@ -26,7 +26,6 @@ import nova.internal.core.Game;
 
 import java.util.Collection;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * @author Stan
@@ -45,7 +44,7 @@ public class OreItemIngredient extends AbstractIngredient {
 
 	@Override
 	public Collection<String> getPossibleItemIds() {
-		return Game.itemDictionary().get(name).stream().map(Item::getID).collect(Collectors.toList());
+		return Game.itemDictionary().getItemIds(name);
 	}
 
 	@Override
@@ -55,7 +54,7 @@ public class OreItemIngredient extends AbstractIngredient {
 
 	@Override
 	public boolean matches(Item item) {
-		return Game.itemDictionary().get(name).contains(item);
+		return Game.itemDictionary().contains(name, item);
 	}
 
 	@Override
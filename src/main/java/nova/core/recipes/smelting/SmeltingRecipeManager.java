@@ -19,22 +19,42 @@
  */
 package nova.core.recipes.smelting;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
 import nova.core.event.RecipeEvent;
+import nova.core.item.Item;
 import nova.core.recipes.RecipeManager;
+import nova.core.recipes.ingredient.ItemIngredient;
+import nova.core.recipes.ingredient.OreItemIngredient;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Manages smelting recipes and has functions to efficiently lookup a smelting
+ * recipe.
+ *
  * @author ExE Boss
  */
 public class SmeltingRecipeManager {
 	private final RecipeManager recipeManager;
-	private final List<SmeltingRecipe> recipes;
+	private final List<SmeltingRecipe> dynamicRecipes;
+	private final Multimap<String, SmeltingRecipe> staticRecipes;
+	/**
+	 * The last recipe found for each input item ID.
+	 */
+	private final Map<String, SmeltingRecipe> lastRecipes;
 
 	public SmeltingRecipeManager(RecipeManager recipeManager) {
 		this.recipeManager = recipeManager;
-		this.recipes = new ArrayList<>();
+		this.dynamicRecipes = new ArrayList<>();
+		this.staticRecipes = ArrayListMultimap.create();
+		this.lastRecipes = new ConcurrentHashMap<>();
 
 		this.recipeManager.whenRecipeAdded(SmeltingRecipe.class, this::onSmeltingRecipeAdded);
 		this.recipeManager.whenRecipeRemoved(SmeltingRecipe.class, this::onSmeltingRecipeRemoved);
@@ -58,15 +78,77 @@ public class SmeltingRecipeManager {
 		recipeManager.removeRecipe(recipe);
 	}
 
+	/**
+	 * Gets the recipe that matches the given input.
+	 * <p>
+	 * The recipe last found for an item ID is checked first,
+	 * so a furnace smelting the same item does not look it up again.
+	 * If several recipes match the input, any of them may be returned.
+	 *
+	 * @param input smelting input
+	 * @return matching smelting recipe, if any
+	 */
+	public Optional<SmeltingRecipe> getRecipe(Item input) {
+		String itemId = input.getID();
+		SmeltingRecipe lastRecipe = lastRecipes.get(itemId);
+		if (lastRecipe != null && lastRecipe.matches(input)) {
+			return Optional.of(lastRecipe);
+		}
+
+		for (SmeltingRecipe dynamicRecipe : dynamicRecipes) {
+			if (dynamicRecipe.matches(input)) {
+				lastRecipes.put(itemId, dynamicRecipe);
+				return Optional.of(dynamicRecipe);
+			}
+		}
+
+		for (SmeltingRecipe staticRecipe : staticRecipes.get(itemId)) {
+			if (staticRecipe.matches(input)) {
+				lastRecipes.put(itemId, staticRecipe);
+				return Optional.of(staticRecipe);
+			}
+		}
+
+		return Optional.empty();
+	}
+
 	// #######################
 	// ### Private Methods ###
 	// #######################
 
+	/**
+	 * Gets the item IDs a recipe can be found by. Recipes without any, including
+	 * ore dictionary recipes whose entries can change, are checked for every input.
+	 */
+	private Collection<String> getPossibleItemIds(SmeltingRecipe recipe) {
+		Optional<ItemIngredient> input = recipe.getInput();
+		if (!input.isPresent() || input.get() instanceof OreItemIngredient) {
+			return Collections.emptyList();
+		}
+		return input.get().getPossibleItemIds();
+	}
+
 	private <T extends SmeltingRecipe> void onSmeltingRecipeAdded(RecipeEvent.Add<T> e) {
-		recipes.add(e.recipe);
+		Collection<String> possibleItemIds = getPossibleItemIds(e.recipe);
+		if (!possibleItemIds.isEmpty()) {
+			for (String itemId : possibleItemIds) {
+				staticRecipes.put(itemId, e.recipe);
+			}
+		} else {
+			dynamicRecipes.add(e.recipe);
+		}
+		lastRecipes.clear();
 	}
 
 	private <T extends SmeltingRecipe> void onSmeltingRecipeRemoved(RecipeEvent.Remove<T> e) {
-		recipes.remove(e.recipe);
+		Collection<String> possibleItemIds = getPossibleItemIds(e.recipe);
+		if (!possibleItemIds.isEmpty()) {
+			for (String itemId : possibleItemIds) {
+				staticRecipes.remove(itemId, e.recipe);
+			}
+		} else {
+			dynamicRecipes.remove(e.recipe);
+		}
+		lastRecipes.clear();
 	}
 }
@@ -20,6 +20,7 @@
 
 package nova.core.render;
 
+import nova.core.render.model.ModelCache;
 import nova.core.render.model.ModelProvider;
 import nova.core.render.texture.BlockTexture;
 import nova.core.render.texture.EntityTexture;
@@ -30,7 +31,12 @@ import nova.core.util.registry.Registry;
 import nova.internal.core.Game;
 import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Calclavia
@@ -82,6 +88,37 @@ public class RenderManager extends Manager<RenderManager> {
 		return modelProvider;
 	}
 
+	/**
+	 * Loads all registered models in parallel on the common fork-join pool.
+	 *
+	 * @param assets Opens the model file of a provider. Called from several threads.
+	 */
+	public void loadModels(Function<ModelProvider, InputStream> assets) {
+		loadModels(assets, Optional.empty());
+	}
+
+	/**
+	 * Loads all registered models in parallel on the common fork-join pool.
+	 * The streams opened by {@code assets} are closed once their model is loaded.
+	 *
+	 * @param assets Opens the model file of a provider. Called from several threads.
+	 * @param cache The cache to read parsed models from and store them in
+	 */
+	public void loadModels(Function<ModelProvider, InputStream> assets, Optional<ModelCache> cache) {
+		List<ModelProvider> providers = modelProviders.stream().collect(Collectors.toList());
+		providers.parallelStream().forEach(provider -> {
+			try (InputStream stream = assets.apply(provider)) {
+				if (cache.isPresent()) {
+					cache.get().load(provider, stream);
+				} else {
+					provider.load(stream);
+				}
+			} catch (IOException e) {
+				throw new RenderException("Model " + provider.name + " could not be closed", e);
+			}
+		});
+	}
+
 	@Override
 	public void init() {
 		Game.events().publish(new Init(this));
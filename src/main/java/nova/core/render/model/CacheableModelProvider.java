@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+/**
+ * A model provider whose model can be stored by a {@link ModelCache}
+ * and given back to it instead of being loaded from a stream.
+ */
+public abstract class CacheableModelProvider extends ModelProvider {
+
+	/**
+	 * Creates new CacheableModelProvider
+	 *
+	 * @param domain domain of the assets.
+	 * @param name name of the model.
+	 */
+	public CacheableModelProvider(String domain, String name) {
+		super(domain, name);
+	}
+
+	/**
+	 * Whether the model of this provider can currently be stored by a {@link ModelCache}.
+	 *
+	 * @return true if the model can be cached
+	 */
+	public boolean isCacheable() {
+		return true;
+	}
+
+	/**
+	 * Sets the model of this provider to one that was read before, instead of loading it from a stream.
+	 *
+	 * @param model The model, with {@link PackedMeshModel} children
+	 */
+	public abstract void restore(MeshModel model);
+}
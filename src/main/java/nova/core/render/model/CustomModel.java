@@ -25,7 +25,6 @@ import nova.core.util.math.MatrixStack;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * A Model where the render method has no specific definition, except that it's a method.
@@ -55,17 +54,23 @@ public class CustomModel extends Model {
 	@Override
 	public Set<Model> flatten(MatrixStack matrixStack) {
 		Set<Model> models = new HashSet<>();
+		flatten(matrixStack, models);
+		return models;
+	}
 
+	@Override
+	protected void flatten(MatrixStack matrixStack, Set<Model> models) {
 		matrixStack.pushMatrix();
-		matrixStack.transform(matrix.getMatrix());
+		matrixStack.transform(matrix.getTransform());
 		//Create a new model with transformation applied.
-		Model transformedModel = clone();
-		transformedModel.matrix.loadMatrix(matrixStack.getMatrix());
+		Model transformedModel = newModel(name);
+		transformedModel.matrix.loadMatrix(matrixStack.getTransform());
 		models.add(transformedModel);
 
 		//Flatten child models
-		models.addAll(children.stream().flatMap(m -> m.flatten(matrixStack).stream()).collect(Collectors.toSet()));
+		for (Model child : children) {
+			child.flatten(matrixStack, models);
+		}
 		matrixStack.popMatrix();
-		return models;
 	}
 }
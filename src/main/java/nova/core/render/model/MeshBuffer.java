@@ -0,0 +1,580 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.render.Color;
+import nova.core.render.RenderException;
+import nova.core.render.texture.Texture;
+import nova.core.util.math.Matrix3;
+import nova.core.util.math.Matrix4;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Faces and vertices packed into primitive arrays.
+ * <p>
+ * Vertices are stored as {@link #VERTEX_STRIDE} floats each:
+ * the position, the texture coordinates and the normal, with a NaN normal meaning it has none.
+ * Their colors are stored separately as ARGB ints.
+ * A face is a range of consecutive vertices together with its normal, texture and brightness.
+ * <p>
+ * The buffer is written to as a builder: {@link #beginFace(double, double, double)} starts a face,
+ * and the vertices that follow belong to it. Writing to a buffer does not allocate
+ * other than to grow its arrays.
+ * <p>
+ * Copies share their arrays with the original buffer until either of them is written to.
+ */
+public class MeshBuffer {
+	/**
+	 * The number of floats per vertex.
+	 */
+	public static final int VERTEX_STRIDE = 8;
+
+	private static final int WHITE = Color.white.argb();
+
+	private float[] vertexData;
+	private int[] colorData;
+	private int vertexCount;
+
+	private int[] faceOffsets;
+	private float[] faceNormals;
+	private float[] faceBrightness;
+	private Texture[] faceTextures;
+	private int faceCount;
+
+	private int color = WHITE;
+
+	/**
+	 * Incremented whenever the faces or vertices of this buffer change.
+	 */
+	private int modCount;
+
+	private boolean immutable;
+
+	/**
+	 * Whether the arrays may be shared with a copy of this buffer, and must be copied before they are written to.
+	 */
+	private boolean shared;
+
+	public MeshBuffer() {
+		this(6, 24);
+	}
+
+	/**
+	 * @param faces The initial face capacity
+	 * @param vertices The initial vertex capacity
+	 */
+	public MeshBuffer(int faces, int vertices) {
+		faces = Math.max(faces, 1);
+		vertices = Math.max(vertices, 1);
+		vertexData = new float[vertices * VERTEX_STRIDE];
+		colorData = new int[vertices];
+		faceOffsets = new int[faces + 1];
+		faceNormals = new float[faces * 3];
+		faceBrightness = new float[faces];
+		faceTextures = new Texture[faces];
+	}
+
+	/**
+	 * Creates a buffer sharing the arrays of another buffer.
+	 */
+	private MeshBuffer(MeshBuffer buffer) {
+		vertexData = buffer.vertexData;
+		colorData = buffer.colorData;
+		vertexCount = buffer.vertexCount;
+		faceOffsets = buffer.faceOffsets;
+		faceNormals = buffer.faceNormals;
+		faceBrightness = buffer.faceBrightness;
+		faceTextures = buffer.faceTextures;
+		faceCount = buffer.faceCount;
+		shared = true;
+	}
+
+	/**
+	 * Starts a new face. The vertices added after this belong to it.
+	 *
+	 * @param normalX The X component of the face normal
+	 * @param normalY The Y component of the face normal
+	 * @param normalZ The Z component of the face normal
+	 * @return this
+	 */
+	public MeshBuffer beginFace(double normalX, double normalY, double normalZ) {
+		beforeWrite();
+		if (faceCount == faceTextures.length) {
+			int capacity = faceTextures.length * 2;
+			faceOffsets = Arrays.copyOf(faceOffsets, capacity + 1);
+			faceNormals = Arrays.copyOf(faceNormals, capacity * 3);
+			faceBrightness = Arrays.copyOf(faceBrightness, capacity);
+			faceTextures = Arrays.copyOf(faceTextures, capacity);
+		}
+		faceNormals[faceCount * 3] = (float) normalX;
+		faceNormals[faceCount * 3 + 1] = (float) normalY;
+		faceNormals[faceCount * 3 + 2] = (float) normalZ;
+		faceBrightness[faceCount] = -1;
+		faceTextures[faceCount] = null;
+		faceOffsets[faceCount] = vertexCount;
+		faceCount++;
+		faceOffsets[faceCount] = vertexCount;
+		modCount++;
+		return this;
+	}
+
+	/**
+	 * Starts a new face. The vertices added after this belong to it.
+	 *
+	 * @param normal The face normal
+	 * @return this
+	 */
+	public MeshBuffer beginFace(Vector3D normal) {
+		return beginFace(normal.getX(), normal.getY(), normal.getZ());
+	}
+
+	/**
+	 * Sets the texture of the current face.
+	 *
+	 * @param texture The texture
+	 * @return this
+	 */
+	public MeshBuffer texture(Texture texture) {
+		beforeWrite();
+		faceTextures[currentFace()] = texture;
+		modCount++;
+		return this;
+	}
+
+	/**
+	 * Sets the texture of the current face.
+	 *
+	 * @param texture The texture, or empty for none
+	 * @return this
+	 */
+	public MeshBuffer texture(Optional<Texture> texture) {
+		return texture(texture.orElse(null));
+	}
+
+	/**
+	 * Sets the brightness of the current face.
+	 *
+	 * @param brightness The brightness, see {@link Face#brightness}
+	 * @return this
+	 */
+	public MeshBuffer brightness(double brightness) {
+		beforeWrite();
+		faceBrightness[currentFace()] = (float) brightness;
+		modCount++;
+		return this;
+	}
+
+	/**
+	 * Sets the color of the vertices added after this, until it is set again.
+	 *
+	 * @param color The color
+	 * @return this
+	 */
+	public MeshBuffer color(Color color) {
+		checkMutable();
+		this.color = color.argb();
+		return this;
+	}
+
+	/**
+	 * Adds a vertex without a normal to the current face.
+	 *
+	 * @param x coordinate in space.
+	 * @param y coordinate in space.
+	 * @param z coordinate in space.
+	 * @param u coordinate on texture.
+	 * @param v coordinate on texture.
+	 * @return this
+	 */
+	public MeshBuffer vertex(double x, double y, double z, double u, double v) {
+		return vertex(x, y, z, u, v, Double.NaN, Double.NaN, Double.NaN);
+	}
+
+	/**
+	 * Adds a vertex to the current face.
+	 *
+	 * @param x coordinate in space.
+	 * @param y coordinate in space.
+	 * @param z coordinate in space.
+	 * @param u coordinate on texture.
+	 * @param v coordinate on texture.
+	 * @param normalX The X component of the vertex normal
+	 * @param normalY The Y component of the vertex normal
+	 * @param normalZ The Z component of the vertex normal
+	 * @return this
+	 */
+	public MeshBuffer vertex(double x, double y, double z, double u, double v, double normalX, double normalY, double normalZ) {
+		beforeWrite();
+		currentFace();
+		if (vertexCount == colorData.length) {
+			vertexData = Arrays.copyOf(vertexData, vertexData.length * 2);
+			colorData = Arrays.copyOf(colorData, colorData.length * 2);
+		}
+		int i = vertexCount * VERTEX_STRIDE;
+		vertexData[i] = (float) x;
+		vertexData[i + 1] = (float) y;
+		vertexData[i + 2] = (float) z;
+		vertexData[i + 3] = (float) u;
+		vertexData[i + 4] = (float) v;
+		vertexData[i + 5] = (float) normalX;
+		vertexData[i + 6] = (float) normalY;
+		vertexData[i + 7] = (float) normalZ;
+		colorData[vertexCount] = color;
+		vertexCount++;
+		faceOffsets[faceCount] = vertexCount;
+		modCount++;
+		return this;
+	}
+
+	/**
+	 * Packs a face and its vertices into this buffer.
+	 *
+	 * @param face The face
+	 * @return this
+	 */
+	public MeshBuffer add(Face face) {
+		int previousColor = color;
+		beginFace(face.normal).texture(face.texture).brightness(face.brightness);
+		for (Vertex vertex : face.vertices) {
+			color = vertex.color.argb();
+			if (vertex.normal.isPresent()) {
+				Vector3D normal = vertex.normal.get();
+				vertex(vertex.vec.getX(), vertex.vec.getY(), vertex.vec.getZ(), vertex.uv.getX(), vertex.uv.getY(), normal.getX(), normal.getY(), normal.getZ());
+			} else {
+				vertex(vertex.vec.getX(), vertex.vec.getY(), vertex.vec.getZ(), vertex.uv.getX(), vertex.uv.getY());
+			}
+		}
+		color = previousColor;
+		return this;
+	}
+
+	/**
+	 * Appends all faces of another buffer to this buffer.
+	 *
+	 * @param buffer The buffer to append
+	 * @return this
+	 */
+	public MeshBuffer addAll(MeshBuffer buffer) {
+		int previousColor = color;
+		int count = buffer.faceCount;
+		for (int face = 0; face < count; face++) {
+			beginFace(buffer.faceNormals[face * 3], buffer.faceNormals[face * 3 + 1], buffer.faceNormals[face * 3 + 2]);
+			faceBrightness[faceCount - 1] = buffer.faceBrightness[face];
+			faceTextures[faceCount - 1] = buffer.faceTextures[face];
+			for (int vertex = buffer.faceOffsets[face]; vertex < buffer.faceOffsets[face + 1]; vertex++) {
+				int i = vertex * VERTEX_STRIDE;
+				float[] data = buffer.vertexData;
+				color = buffer.colorData[vertex];
+				vertex(data[i], data[i + 1], data[i + 2], data[i + 3], data[i + 4], data[i + 5], data[i + 6], data[i + 7]);
+			}
+		}
+		color = previousColor;
+		return this;
+	}
+
+	/**
+	 * Binds all the faces with this texture.
+	 *
+	 * @param texture The texture
+	 */
+	public void bind(Texture texture) {
+		beforeWrite();
+		Arrays.fill(faceTextures, 0, faceCount, texture);
+		modCount++;
+	}
+
+	/**
+	 * Transforms all vertices in place.
+	 *
+	 * @param matrix The matrix to transform positions by
+	 * @param normalMatrix The matrix to transform normals by, see {@link Matrix4#normalMatrix(Matrix3)}
+	 */
+	public void transform(Matrix4 matrix, Matrix3 normalMatrix) {
+		beforeWrite();
+		matrix.apply(vertexData, 0, vertexCount, VERTEX_STRIDE);
+		normalMatrix.apply(vertexData, 5, vertexCount, VERTEX_STRIDE);
+		normalMatrix.apply(faceNormals, 0, faceCount, 3);
+		modCount++;
+	}
+
+	/**
+	 * Removes all faces and vertices, keeping the allocated capacity.
+	 */
+	public void clear() {
+		beforeWrite();
+		Arrays.fill(faceTextures, 0, faceCount, null);
+		faceCount = 0;
+		vertexCount = 0;
+		faceOffsets[0] = 0;
+		color = WHITE;
+		modCount++;
+	}
+
+	/**
+	 * Creates a copy of this buffer. The copy shares the arrays of this buffer
+	 * until one of the two is written to, which then copies them, trimmed to its size.
+	 *
+	 * @return A copy of this buffer
+	 */
+	public MeshBuffer copy() {
+		if (!immutable) {
+			shared = true;
+		}
+		return new MeshBuffer(this);
+	}
+
+	/**
+	 * Creates a copy of this buffer that cannot be modified, so it can be shared.
+	 * Copies of the returned buffer can be modified again.
+	 *
+	 * @return An immutable copy, or this buffer if it is already immutable
+	 */
+	public MeshBuffer toImmutable() {
+		if (immutable) {
+			return this;
+		}
+		MeshBuffer buffer = copy();
+		buffer.immutable = true;
+		return buffer;
+	}
+
+	/**
+	 * @return Whether this buffer is an immutable buffer
+	 * @see #toImmutable()
+	 */
+	public boolean isImmutable() {
+		return immutable;
+	}
+
+	/**
+	 * Writes the faces and vertices of this buffer, without their textures.
+	 *
+	 * @param out The output
+	 * @throws IOException If the output cannot be written to
+	 * @see #read(ByteBuffer)
+	 */
+	void write(DataOutput out) throws IOException {
+		out.writeInt(faceCount);
+		out.writeInt(vertexCount);
+		for (int face = 0; face <= faceCount; face++) {
+			out.writeInt(faceOffsets[face]);
+		}
+		for (int i = 0; i < faceCount * 3; i++) {
+			out.writeFloat(faceNormals[i]);
+		}
+		for (int face = 0; face < faceCount; face++) {
+			out.writeFloat(faceBrightness[face]);
+		}
+		for (int i = 0; i < vertexCount * VERTEX_STRIDE; i++) {
+			out.writeFloat(vertexData[i]);
+		}
+		for (int vertex = 0; vertex < vertexCount; vertex++) {
+			out.writeInt(colorData[vertex]);
+		}
+	}
+
+	/**
+	 * Reads a buffer written by {@link #write(DataOutput)}.
+	 *
+	 * @param in The input, positioned after the buffer when this returns
+	 * @return The buffer
+	 */
+	static MeshBuffer read(ByteBuffer in) {
+		int faces = in.getInt();
+		int vertices = in.getInt();
+		if (faces < 0 || vertices < 0) {
+			throw new RenderException("Invalid mesh buffer size: " + faces + " faces, " + vertices + " vertices");
+		}
+		MeshBuffer buffer = new MeshBuffer(faces, vertices);
+		buffer.faceCount = faces;
+		buffer.vertexCount = vertices;
+		in.asIntBuffer().get(buffer.faceOffsets, 0, faces + 1);
+		in.position(in.position() + (faces + 1) * 4);
+		in.asFloatBuffer().get(buffer.faceNormals, 0, faces * 3);
+		in.position(in.position() + faces * 3 * 4);
+		in.asFloatBuffer().get(buffer.faceBrightness, 0, faces);
+		in.position(in.position() + faces * 4);
+		in.asFloatBuffer().get(buffer.vertexData, 0, vertices * VERTEX_STRIDE);
+		in.position(in.position() + vertices * VERTEX_STRIDE * 4);
+		in.asIntBuffer().get(buffer.colorData, 0, vertices);
+		in.position(in.position() + vertices * 4);
+		return buffer;
+	}
+
+	/**
+	 * A counter that changes whenever this buffer is modified through its methods.
+	 *
+	 * @return The modification count
+	 */
+	int getModCount() {
+		return modCount;
+	}
+
+	public int getFaceCount() {
+		return faceCount;
+	}
+
+	public int getVertexCount() {
+		return vertexCount;
+	}
+
+	/**
+	 * @param face The face index
+	 * @return The index of the first vertex of the face.
+	 */
+	public int getFaceStart(int face) {
+		return faceOffsets[checkFace(face)];
+	}
+
+	/**
+	 * @param face The face index
+	 * @return The number of vertices of the face.
+	 */
+	public int getFaceSize(int face) {
+		return faceOffsets[checkFace(face) + 1] - faceOffsets[face];
+	}
+
+	public Optional<Texture> getTexture(int face) {
+		return Optional.ofNullable(faceTextures[checkFace(face)]);
+	}
+
+	/**
+	 * The packed vertex data. Only the first {@link #getVertexCount()} vertices are valid,
+	 * and the array is replaced when the buffer grows or stops sharing it with a copy.
+	 * The array must not be written to, as it may be shared.
+	 *
+	 * @return The backing vertex array
+	 */
+	public float[] getVertexData() {
+		return vertexData;
+	}
+
+	/**
+	 * The ARGB vertex colors. Only the first {@link #getVertexCount()} colors are valid,
+	 * and the array is replaced when the buffer grows or stops sharing it with a copy.
+	 * The array must not be written to, as it may be shared.
+	 *
+	 * @return The backing color array
+	 */
+	public int[] getColorData() {
+		return colorData;
+	}
+
+	/**
+	 * Creates a {@link Face} holding a copy of a packed face.
+	 * Changes to the face are not written back to this buffer.
+	 *
+	 * @param face The face index
+	 * @return The face
+	 */
+	public Face getFace(int face) {
+		Face result = new Face();
+		result.normal = new Vector3D(faceNormals[checkFace(face) * 3], faceNormals[face * 3 + 1], faceNormals[face * 3 + 2]);
+		result.texture = getTexture(face);
+		result.brightness = faceBrightness[face];
+		for (int vertex = faceOffsets[face]; vertex < faceOffsets[face + 1]; vertex++) {
+			result.vertices.add(getVertex(vertex));
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a {@link Face} for every packed face.
+	 *
+	 * @return The faces
+	 */
+	public List<Face> getFaces() {
+		List<Face> faces = new ArrayList<>(faceCount);
+		for (int face = 0; face < faceCount; face++) {
+			faces.add(getFace(face));
+		}
+		return faces;
+	}
+
+	/**
+	 * Creates a {@link Vertex} holding a copy of a packed vertex.
+	 *
+	 * @param vertex The vertex index
+	 * @return The vertex
+	 */
+	public Vertex getVertex(int vertex) {
+		if (vertex < 0 || vertex >= vertexCount) {
+			throw new IndexOutOfBoundsException("Vertex index: " + vertex + ", vertex count: " + vertexCount);
+		}
+		int i = vertex * VERTEX_STRIDE;
+		Vertex result = new Vertex(vertexData[i], vertexData[i + 1], vertexData[i + 2], vertexData[i + 3], vertexData[i + 4]);
+		if (!Float.isNaN(vertexData[i + 5])) {
+			result.normal = Optional.of(new Vector3D(vertexData[i + 5], vertexData[i + 6], vertexData[i + 7]));
+		}
+		if (colorData[vertex] != WHITE) {
+			result.color = Color.argb(colorData[vertex]);
+		}
+		return result;
+	}
+
+	private void beforeWrite() {
+		checkMutable();
+		if (shared) {
+			int faces = Math.max(faceCount, 1);
+			int vertices = Math.max(vertexCount, 1);
+			vertexData = Arrays.copyOf(vertexData, vertices * VERTEX_STRIDE);
+			colorData = Arrays.copyOf(colorData, vertices);
+			faceOffsets = Arrays.copyOf(faceOffsets, faces + 1);
+			faceNormals = Arrays.copyOf(faceNormals, faces * 3);
+			faceBrightness = Arrays.copyOf(faceBrightness, faces);
+			faceTextures = Arrays.copyOf(faceTextures, faces);
+			shared = false;
+		}
+	}
+
+	private void checkMutable() {
+		if (immutable) {
+			throw new RenderException("The mesh buffer is immutable.");
+		}
+	}
+
+	private int currentFace() {
+		if (faceCount == 0) {
+			throw new RenderException("No face has been started in the mesh buffer.");
+		}
+		return faceCount - 1;
+	}
+
+	private int checkFace(int face) {
+		if (face < 0 || face >= faceCount) {
+			throw new IndexOutOfBoundsException("Face index: " + face + ", face count: " + faceCount);
+		}
+		return face;
+	}
+
+	@Override
+	public String toString() {
+		return "MeshBuffer[" + faceCount + " faces, " + vertexCount + " vertices]";
+	}
+}
@@ -19,12 +19,10 @@
  */package nova.core.render.model;
 
 import nova.core.render.texture.Texture;
+import nova.core.util.math.Matrix3;
+import nova.core.util.math.Matrix4;
 import nova.core.util.math.MatrixStack;
-import nova.core.util.math.TransformUtil;
 import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
-import org.apache.commons.math3.linear.LUDecomposition;
-import org.apache.commons.math3.linear.MatrixUtils;
-import org.apache.commons.math3.linear.RealMatrix;
 
 import java.util.HashSet;
 import java.util.Optional;
@@ -41,14 +39,26 @@ public class MeshModel extends Model {
 	/**
 	 * A list of all the faces to be drawn.
 	 */
-	public final Set<Face> faces = new HashSet<>();
+	public final Set<Face> faces;
 	public Vector2D textureOffset = Vector2D.ZERO;
 
 	public MeshModel() {
+		this("");
 	}
 
 	public MeshModel(String name) {
+		this(name, new HashSet<>());
+	}
+
+	/**
+	 * Creates a model that keeps its faces in the given set.
+	 *
+	 * @param name The model name
+	 * @param faces The set backing {@link #faces}
+	 */
+	protected MeshModel(String name, Set<Face> faces) {
 		super(name);
+		this.faces = faces;
 	}
 
 	/**
@@ -85,32 +95,47 @@ public class MeshModel extends Model {
 	@Override
 	public Set<Model> flatten(MatrixStack matrixStack) {
 		Set<Model> models = new HashSet<>();
+		flatten(matrixStack, models);
+		return models;
+	}
 
+	@Override
+	protected void flatten(MatrixStack matrixStack, Set<Model> models) {
 		matrixStack.pushMatrix();
-		matrixStack.transform(matrix.getMatrix());
-		//Create a new model with transformation applied.
-		MeshModel transformedModel = clone();
-		// correct formula for Normal Matrix is transpose(inverse(mat3(model_mat))
-		// we have to augemnt that to 4x4
-		RealMatrix normalMatrix3x3 = new LUDecomposition(matrixStack.getMatrix().getSubMatrix(0, 2, 0, 2), 1e-5).getSolver().getInverse().transpose();
-		RealMatrix normalMatrix = MatrixUtils.createRealMatrix(4, 4);
-		normalMatrix.setSubMatrix(normalMatrix3x3.getData(), 0, 0);
-		normalMatrix.setEntry(3, 3, 1);
-
-		transformedModel.faces.stream().forEach(f -> {
-				f.normal = TransformUtil.transform(f.normal, normalMatrix);
-				f.vertices.forEach(v -> {
-					v.vec = matrixStack.apply(v.vec);
-					v.normal = v.normal.map(n -> TransformUtil.transform(n, normalMatrix));
-				});
-			}
-		);
-
-		models.add(transformedModel);
+		matrixStack.transform(matrix.getTransform());
+		models.add(transform(matrixStack.getTransform()));
 		//Flatten child models
-		models.addAll(children.stream().flatMap(m -> m.flatten(matrixStack).stream()).collect(Collectors.toSet()));
+		for (Model child : children) {
+			child.flatten(matrixStack, models);
+		}
 		matrixStack.popMatrix();
-		return models;
+	}
+
+	/**
+	 * Creates a copy of this model without its children, with the transformation applied to its faces.
+	 *
+	 * @param transform The transformation
+	 * @return The transformed model
+	 */
+	protected MeshModel transform(Matrix4 transform) {
+		MeshModel transformedModel = newModel(name);
+		transformedModel.matrix = new MatrixStack(matrix);
+		Matrix3 normalMatrix = transform.normalMatrix(new Matrix3());
+
+		for (Face face : faces) {
+			Face transformedFace = new Face();
+			transformedFace.normal = normalMatrix.apply(face.normal);
+			transformedFace.texture = face.texture;
+			transformedFace.brightness = face.brightness;
+			for (Vertex vertex : face.vertices) {
+				Vertex transformedVertex = new Vertex(transform.apply(vertex.vec), vertex.uv);
+				transformedVertex.normal = vertex.normal.map(normalMatrix::apply);
+				transformedVertex.color = vertex.color;
+				transformedFace.vertices.add(transformedVertex);
+			}
+			transformedModel.faces.add(transformedFace);
+		}
+		return transformedModel;
 	}
 
 	@Override
@@ -122,6 +147,7 @@ public class MeshModel extends Model {
 	public MeshModel clone() {
 		MeshModel model = (MeshModel) super.clone();
 		model.faces.addAll(faces.stream().map(Face::clone).collect(Collectors.toSet()));
+		model.textureOffset = textureOffset;
 		return model;
 	}
 
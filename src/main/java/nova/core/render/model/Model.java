@@ -80,6 +80,17 @@ public abstract class Model extends TreeNode<Model> implements Cloneable {
 	 */
 	public abstract Set<Model> flatten(MatrixStack matrixStack);
 
+	/**
+	 * Flattens the model like {@link #flatten(MatrixStack)}, adding the resulting models to a set.
+	 * Models override this to flatten their children without collecting intermediate sets.
+	 *
+	 * @param matrixStack transformation matrix.
+	 * @param models The set to add the resulting models to
+	 */
+	protected void flatten(MatrixStack matrixStack, Set<Model> models) {
+		models.addAll(flatten(matrixStack));
+	}
+
 	/**
 	 * Combines child models with names into one model with its children being the children selected.
 	 *
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.render.RenderException;
+import nova.core.util.math.MatrixStack;
+import nova.internal.core.Game;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Stores parsed models in a directory, so that later loads of the same model file read
+ * the packed geometry back from a memory-mapped file instead of parsing it again.
+ * <p>
+ * Cache files are named after a hash of the model file and its type, so a changed model is parsed again.
+ * Only {@link CacheableModelProvider CacheableModelProviders} use the cache,
+ * and only models made of {@link MeshModel MeshModels} are stored. Textures bound to the model are not stored.
+ */
+public class ModelCache {
+	private static final int MAGIC = 0x4E4D4F44;
+	private static final int VERSION = 1;
+
+	public final Path directory;
+
+	/**
+	 * @param directory The directory to keep the cache files in
+	 */
+	public ModelCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Loads a model provider, from the cache if the same model was stored before.
+	 * Otherwise the provider loads the stream and its model is stored.
+	 *
+	 * @param provider The provider
+	 * @param stream The model file
+	 */
+	public void load(ModelProvider provider, InputStream stream) {
+		if (provider instanceof CacheableModelProvider && ((CacheableModelProvider) provider).isCacheable()) {
+			load((CacheableModelProvider) provider, stream);
+		} else {
+			provider.load(stream);
+		}
+	}
+
+	private void load(CacheableModelProvider provider, InputStream stream) {
+
+		byte[] data = readAll(provider, stream);
+		Path file = directory.resolve(hash(provider, data) + ".bin");
+		if (Files.isRegularFile(file)) {
+			try {
+				provider.restore(read(file));
+				return;
+			} catch (IOException | RuntimeException e) {
+				Game.logger().warn("Ignoring invalid model cache file {} for {}", file, provider, e);
+			}
+		}
+
+		provider.load(new ByteArrayInputStream(data));
+		Model model = provider.getModel();
+		if (model instanceof MeshModel && isCacheable(model)) {
+			try {
+				write((MeshModel) model, file);
+			} catch (IOException e) {
+				Game.logger().warn("Could not write model cache file {} for {}", file, provider, e);
+			}
+		}
+	}
+
+	private static byte[] readAll(ModelProvider provider, InputStream stream) {
+		byte[] data = new byte[8192];
+		int length = 0;
+		try (InputStream input = stream) {
+			int read;
+			while ((read = input.read(data, length, data.length - length)) != -1) {
+				length += read;
+				if (length == data.length) {
+					data = Arrays.copyOf(data, data.length * 2);
+				}
+			}
+		} catch (IOException e) {
+			throw new RenderException("Model " + provider.name + " could not be read", e);
+		}
+		return Arrays.copyOf(data, length);
+	}
+
+	private static String hash(ModelProvider provider, byte[] data) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update((provider.getClass().getName() + '\n' + VERSION + '\n').getBytes(StandardCharsets.UTF_8));
+			digest.update(data);
+			StringBuilder hash = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return hash.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RenderException("SHA-256 is not available", e);
+		}
+	}
+
+	private static boolean isCacheable(Model model) {
+		return model instanceof MeshModel && model.stream().allMatch(ModelCache::isCacheable);
+	}
+
+	/**
+	 * Writes a model to a temporary file that replaces the cache file once it is complete,
+	 * so that other loaders never see a partial file.
+	 */
+	static void write(MeshModel model, Path file) throws IOException {
+		Files.createDirectories(file.getParent());
+		Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeModel(model, out);
+			}
+			try {
+				Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static void writeModel(MeshModel model, DataOutputStream out) throws IOException {
+		byte[] name = model.name.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(name.length);
+		out.write(name);
+		RealMatrix matrix = model.matrix.getMatrix();
+		for (int row = 0; row < 4; row++) {
+			for (int column = 0; column < 4; column++) {
+				out.writeDouble(matrix.getEntry(row, column));
+			}
+		}
+		out.writeDouble(model.textureOffset.getX());
+		out.writeDouble(model.textureOffset.getY());
+		if (model instanceof PackedMeshModel) {
+			((PackedMeshModel) model).buffer.write(out);
+		} else {
+			MeshBuffer buffer = new MeshBuffer(model.faces.size(), model.faces.size() * 4);
+			model.faces.forEach(buffer::add);
+			buffer.write(out);
+		}
+		out.writeInt(model.children.size());
+		for (Model child : model.children) {
+			writeModel((MeshModel) child, out);
+		}
+	}
+
+	/**
+	 * Reads a model from a memory-mapped cache file.
+	 */
+	static PackedMeshModel read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+				throw new RenderException("Unknown model cache format");
+			}
+			return readModel(in);
+		}
+	}
+
+	private static PackedMeshModel readModel(ByteBuffer in) {
+		byte[] name = new byte[in.getInt()];
+		in.get(name);
+		double[][] matrix = new double[4][4];
+		for (int row = 0; row < 4; row++) {
+			for (int column = 0; column < 4; column++) {
+				matrix[row][column] = in.getDouble();
+			}
+		}
+		Vector2D textureOffset = new Vector2D(in.getDouble(), in.getDouble());
+
+		PackedMeshModel model = new PackedMeshModel(new String(name, StandardCharsets.UTF_8), MeshBuffer.read(in));
+		model.matrix = new MatrixStack(MatrixUtils.createRealMatrix(matrix));
+		model.textureOffset = textureOffset;
+		int children = in.getInt();
+		for (int i = 0; i < children; i++) {
+			model.children.add(readModel(in));
+		}
+		return model;
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.render.texture.Texture;
+import nova.core.util.math.Matrix3;
+import nova.core.util.math.Matrix4;
+import nova.core.util.math.MatrixStack;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * A mesh model that keeps its faces packed in a {@link MeshBuffer}.
+ * <p>
+ * The {@link #faces} of this model are created from the buffer when they are iterated,
+ * so changes to them are not kept. Faces added to {@link #faces} are packed into the buffer.
+ * <p>
+ * Flattening this model again with the same transformation returns the same flattened model,
+ * unless either buffer was changed in between. Clones share the packed data until either is changed.
+ */
+public class PackedMeshModel extends MeshModel {
+
+	/**
+	 * The buffer holding the faces of this model.
+	 */
+	public final MeshBuffer buffer;
+
+	/**
+	 * The result of the last flatten, reused while neither the buffer nor the transformation changes.
+	 */
+	private volatile Flattened flattened;
+
+	public PackedMeshModel() {
+		this("");
+	}
+
+	public PackedMeshModel(String name) {
+		this(name, new MeshBuffer());
+	}
+
+	public PackedMeshModel(String name, MeshBuffer buffer) {
+		this(name, new FaceView(buffer));
+	}
+
+	private PackedMeshModel(String name, FaceView faces) {
+		super(name, faces);
+		this.buffer = faces.buffer;
+	}
+
+	@Override
+	public void bind(Texture texture) {
+		buffer.bind(texture);
+	}
+
+	@Override
+	protected PackedMeshModel transform(Matrix4 transform) {
+		Flattened cached = flattened;
+		if (cached != null
+			&& cached.modCount == buffer.getModCount()
+			&& cached.model.buffer.getModCount() == cached.resultModCount
+			&& cached.transform.equals(transform)) {
+			return cached.model;
+		}
+
+		PackedMeshModel transformedModel = new PackedMeshModel(name, buffer.copy());
+		transformedModel.matrix = new MatrixStack(matrix);
+		transformedModel.buffer.transform(transform, transform.normalMatrix(new Matrix3()));
+		flattened = new Flattened(transformedModel, new Matrix4(transform), buffer.getModCount());
+		return transformedModel;
+	}
+
+	@Override
+	protected PackedMeshModel newModel(String name) {
+		return new PackedMeshModel(name);
+	}
+
+	@Override
+	public PackedMeshModel clone() {
+		PackedMeshModel model = new PackedMeshModel(name, buffer.copy());
+		model.children.addAll(stream().map(Model::clone).collect(Collectors.toSet()));
+		model.matrix = new MatrixStack(matrix);
+		model.textureOffset = textureOffset;
+		return model;
+	}
+
+	/**
+	 * A flattened copy of the model and what it was computed from.
+	 */
+	private static final class Flattened {
+		private final PackedMeshModel model;
+		private final Matrix4 transform;
+		private final int modCount;
+		private final int resultModCount;
+
+		private Flattened(PackedMeshModel model, Matrix4 transform, int modCount) {
+			this.model = model;
+			this.transform = transform;
+			this.modCount = modCount;
+			this.resultModCount = model.buffer.getModCount();
+		}
+	}
+
+	/**
+	 * The faces of a buffer as a set.
+	 */
+	private static class FaceView extends AbstractSet<Face> {
+		private final MeshBuffer buffer;
+
+		private FaceView(MeshBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public Iterator<Face> iterator() {
+			return new Iterator<Face>() {
+				private int face;
+
+				@Override
+				public boolean hasNext() {
+					return face < buffer.getFaceCount();
+				}
+
+				@Override
+				public Face next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					return buffer.getFace(face++);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return buffer.getFaceCount();
+		}
+
+		@Override
+		public boolean add(Face face) {
+			buffer.add(face);
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			buffer.clear();
+		}
+	}
+}
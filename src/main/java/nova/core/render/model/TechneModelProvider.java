@@ -24,21 +24,21 @@ import nova.core.render.pipeline.CubeTextureCoordinates;
 import nova.core.util.math.MatrixStack;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipInputStream;
@@ -48,7 +48,7 @@ import java.util.zip.ZipInputStream;
  * You must load your .tcn file and then bind the Techne texture yourself.
  * @author Calclavia
  */
-public class TechneModelProvider extends ModelProvider {
+public class TechneModelProvider extends CacheableModelProvider {
 
 	//Identifiers for cubes
 	public static final List<String> cubeIDs = Arrays.asList("d9e621f7-957f-4b77-b1ae-20dcd0da7751", "de81aa14-bd60-4228-8d8d-5238bcd3caaa");
@@ -68,118 +68,111 @@ public class TechneModelProvider extends ModelProvider {
 	@Override
 	public void load(InputStream stream) {
 		try {
-			Map<String, byte[]> zipContents = new HashMap<>();
+			byte[] modelXml = null;
 			ZipInputStream zipInput = new ZipInputStream(stream);
 			ZipEntry entry;
 			while ((entry = zipInput.getNextEntry()) != null) {
-				byte[] data = new byte[(int) entry.getSize()];
-				// For some reason, using read(byte[]) makes reading stall upon reaching a 0x1E byte
-				int i = 0;
-				while (zipInput.available() > 0 && i < data.length) {
-					data[i++] = (byte) zipInput.read();
+				if (entry.getName().equals("model.xml")) {
+					modelXml = readEntry(zipInput, entry);
 				}
-				zipContents.put(entry.getName(), data);
 			}
 
-			byte[] modelXml = zipContents.get("model.xml");
 			if (modelXml == null) {
 				throw new RenderException("Model " + this.name + " contains no model.xml file");
 			}
 
-			DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
-			DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
-			Document document = documentBuilder.parse(new ByteArrayInputStream(modelXml));
+			XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+			inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			XMLStreamReader xml = inputFactory.createXMLStreamReader(new ByteArrayInputStream(modelXml));
+
+			boolean hasTechne = false;
+			boolean hasModel = false;
+			String textureSize = null;
+			List<Shape> shapes = new ArrayList<>();
+			Shape shape = null;
+			String property = null;
+			StringBuilder propertyValue = new StringBuilder();
+			int depth = 0;
+			int shapeDepth = 0;
+			while (xml.hasNext()) {
+				switch (xml.next()) {
+					case XMLStreamConstants.START_ELEMENT:
+						depth++;
+						String tag = xml.getLocalName();
+						if (shape != null) {
+							if (depth == shapeDepth + 1) {
+								property = tag;
+								propertyValue.setLength(0);
+							}
+						} else if (tag.equals("Techne")) {
+							hasTechne = true;
+						} else if (tag.equals("Model")) {
+							hasModel = true;
+						} else if (tag.equals("TextureSize")) {
+							String value = xml.getElementText();
+							depth--;
+							if (textureSize == null) {
+								textureSize = value;
+							}
+						} else if (tag.equals("Shape")) {
+							shape = new Shape(xml.getAttributeValue(null, "name"), xml.getAttributeValue(null, "type"));
+							shapeDepth = depth;
+							shapes.add(shape);
+						}
+						break;
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+						if (property != null) {
+							propertyValue.append(xml.getText());
+						}
+						break;
+					case XMLStreamConstants.END_ELEMENT:
+						if (shape != null) {
+							if (depth == shapeDepth + 1) {
+								shape.properties.put(property, propertyValue.toString().trim());
+								property = null;
+							} else if (depth == shapeDepth) {
+								shape = null;
+							}
+						}
+						depth--;
+						break;
+				}
+			}
 
-			NodeList nodeListTechne = document.getElementsByTagName("Techne");
-			if (nodeListTechne.getLength() < 1) {
+			if (!hasTechne) {
 				throw new RenderException("Model " + this.name + " contains no Techne tag");
 			}
 
-			NodeList nodeListModel = document.getElementsByTagName("Model");
-			if (nodeListModel.getLength() < 1) {
+			if (!hasModel) {
 				throw new RenderException("Model " + this.name + " contains no Model tag");
 			}
 
-			NamedNodeMap modelAttributes = nodeListModel.item(0).getAttributes();
-			if (modelAttributes == null) {
-				throw new RenderException("Model " + this.name + " contains a Model tag with no attributes");
-			}
-
-			NodeList textureSize = document.getElementsByTagName("TextureSize");
-			if (textureSize.getLength() == 0)
+			if (textureSize == null)
 				throw new RenderException("Model has no texture size");
 
-			String[] textureDimensions = textureSize.item(0).getTextContent().split(",");
+			String[] textureDimensions = textureSize.trim().split(",");
 			double textureWidth = Integer.parseInt(textureDimensions[0]);
 			double textureHeight = Integer.parseInt(textureDimensions[1]);
 
-			NodeList shapes = document.getElementsByTagName("Shape");
-
-			for (int i = 0; i < shapes.getLength(); i++) {
-				Node shape = shapes.item(i);
-				NamedNodeMap shapeAttributes = shape.getAttributes();
-				if (shapeAttributes == null) {
-					throw new RenderException("Shape #" + (i + 1) + " in " + this.name + " has no attributes");
-				}
-
-				Node name = shapeAttributes.getNamedItem("name");
-				String shapeName = null;
-				if (name != null) {
-					shapeName = name.getNodeValue();
-				}
+			Set<String> partNames = new HashSet<>();
+			for (int i = 0; i < shapes.size(); i++) {
+				Shape shapeNode = shapes.get(i);
+				String shapeName = shapeNode.name;
 				if (shapeName == null) {
 					shapeName = "Shape #" + (i + 1);
 				}
 
-				String shapeType = null;
-				Node type = shapeAttributes.getNamedItem("type");
-				if (type != null) {
-					shapeType = type.getNodeValue();
-				}
-
-				if (shapeType != null && !cubeIDs.contains(shapeType)) {
+				if (shapeNode.type != null && !cubeIDs.contains(shapeNode.type)) {
 					System.out.println("Model shape [" + shapeName + "] in " + this.name + " is not a cube, ignoring");
 					continue;
 				}
 
-				boolean mirrored = false;
-				String[] offset = new String[3];
-				String[] position = new String[3];
-				String[] rotation = new String[3];
-				String[] size = new String[3];
-				String[] textureOffset = new String[2];
-
-				NodeList shapeChildren = shape.getChildNodes();
-				for (int j = 0; j < shapeChildren.getLength(); j++) {
-					Node shapeChild = shapeChildren.item(j);
-
-					String shapeChildName = shapeChild.getNodeName();
-					String shapeChildValue = shapeChild.getTextContent();
-					if (shapeChildValue != null) {
-						shapeChildValue = shapeChildValue.trim();
-
-						switch (shapeChildName) {
-							case "IsMirrored":
-								mirrored = !shapeChildValue.equals("False");
-								break;
-							case "Offset":
-								offset = shapeChildValue.split(",");
-								break;
-							case "Position":
-								position = shapeChildValue.split(",");
-								break;
-							case "Rotation":
-								rotation = shapeChildValue.split(",");
-								break;
-							case "Size":
-								size = shapeChildValue.split(",");
-								break;
-							case "TextureOffset":
-								textureOffset = shapeChildValue.split(",");
-								break;
-						}
-					}
-				}
+				String[] offset = shapeNode.get("Offset", 3);
+				String[] position = shapeNode.get("Position", 3);
+				String[] rotation = shapeNode.get("Rotation", 3);
+				String[] size = shapeNode.get("Size", 3);
+				String[] textureOffset = shapeNode.get("TextureOffset", 2);
 
 				/*
 				  	Generate new models
@@ -215,7 +208,7 @@ public class TechneModelProvider extends ModelProvider {
 					sizeX, sizeY, sizeZ);
 
 				final String modelName = shapeName;
-				MeshModel modelPart = new MeshModel(modelName);
+				MeshModel modelPart = new PackedMeshModel(modelName);
 				BlockRenderPipeline.drawCube(
 					modelPart,
 					offsetX,
@@ -234,7 +227,7 @@ public class TechneModelProvider extends ModelProvider {
 				modelPart.matrix = ms;
 				modelPart.textureOffset = new Vector2D(Integer.parseInt(textureOffset[0]), Integer.parseInt(textureOffset[1]));
 
-				if (model.children.stream().anyMatch(m -> m.name.equals(modelName))) {
+				if (!partNames.add(modelName)) {
 					throw new RenderException("Model contained duplicate part name: '" + shapeName + "' node #" + i);
 				}
 
@@ -244,23 +237,66 @@ public class TechneModelProvider extends ModelProvider {
 			throw new RenderException("Model " + this.name + " is not a valid zip file");
 		} catch (IOException e) {
 			throw new RenderException("Model " + this.name + " could not be read", e);
-		} catch (SAXException e) {
+		} catch (XMLStreamException e) {
 			throw new RenderException("Model " + this.name + " contains invalid XML", e);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * Reads the rest of a zip entry.
+	 */
+	private static byte[] readEntry(ZipInputStream zipInput, ZipEntry entry) throws IOException {
+		byte[] data = new byte[entry.getSize() > 0 ? (int) entry.getSize() : 8192];
+		int length = 0;
+		while (true) {
+			if (length == data.length) {
+				data = Arrays.copyOf(data, data.length * 2);
+			}
+			int read = zipInput.read(data, length, data.length - length);
+			if (read == -1) {
+				break;
+			}
+			length += read;
+		}
+		return length == data.length ? data : Arrays.copyOf(data, length);
+	}
+
 	@Override
 	public MeshModel getModel() {
 		return model.clone();
 	}
 
+	@Override
+	public void restore(MeshModel model) {
+		this.model.children.addAll(model.children);
+	}
+
 	@Override
 	public String getType() {
 		return "tcn";
 	}
 
+	/**
+	 * A shape tag and the text of its child tags.
+	 */
+	private static class Shape {
+		private final String name;
+		private final String type;
+		private final Map<String, String> properties = new HashMap<>();
+
+		private Shape(String name, String type) {
+			this.name = name;
+			this.type = type;
+		}
+
+		private String[] get(String property, int length) {
+			String value = properties.get(property);
+			return value == null ? new String[length] : value.split(",");
+		}
+	}
+
 	private static class TechneCubeTextureCoordinates implements CubeTextureCoordinates {
 		private final double textureWidth;
 		private final double textureHeight;
@@ -21,43 +21,33 @@
 package nova.core.render.model;
 
 import nova.core.render.RenderException;
-import nova.core.util.math.Vector3DUtil;
+import nova.core.render.model.WavefrontObjectReader.Keyword;
 import nova.internal.core.Game;
-import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * A OBJ model importer.
  * You must load your .obj file and then bind the OBJ texture yourself.
+ * <p>
+ * The faces of each sub-model are packed into a {@link PackedMeshModel}.
+ * In lazy mode, the faces of a sub-model are only read when the sub-model is first used.
  *
  * @author Thog
  */
-public class WavefrontObjectModelProvider extends ModelProvider {
+public class WavefrontObjectModelProvider extends CacheableModelProvider {
 
-	private static Pattern vertexPattern = Pattern.compile("(v( (\\-)?\\d+\\.\\d+){3,4} *\\n)|(v( (\\-)?\\d+\\.\\d+){3,4} *$)");
-	private static Pattern vertexNormalPattern = Pattern.compile("(vn( (\\-)?\\d+\\.\\d+){3,4} *\\n)|(vn( (\\-)?\\d+\\.\\d+){3,4} *$)");
-	private static Pattern textureCoordinatePattern = Pattern.compile("(vt( (\\-)?\\d+\\.\\d+){2,3} *\\n)|(vt( (\\-)?\\d+\\.\\d+){2,3} *$)");
-	// According to the official Wavefront OBJ specification, a face can have an unlimited amount of vertices
-	private static Pattern face_V_VT_VN_Pattern = Pattern.compile("(f( \\d+/\\d+/\\d+){3,} *\\n)|(f( \\d+/\\d+/\\d+){3,} *$)");
-	private static Pattern face_V_VT_Pattern = Pattern.compile("(f( \\d+/\\d+){3,} *\\n)|(f( \\d+/\\d+){3,} *$)");
-	private static Pattern face_V_VN_Pattern = Pattern.compile("(f( \\d+//\\d+){3,} *\\n)|(f( \\d+//\\d+){3,} *$)");
-	private static Pattern face_V_Pattern = Pattern.compile("(f( \\d+){3,} *\\n)|(f( \\d+){3,} *$)");
-	private static Pattern subModelPattern = Pattern.compile("([go]([^\\\\ ]*+)*\\n)|([go]( [^\\\\ ]*+) *$)");
-	private static Matcher globalMatcher;
 	//A map of all models generated with their names
 	private final MeshModel model = new MeshModel();
-	private MeshModel currentModel = null;
-	private ArrayList<Vector3D> vertices = new ArrayList<>();
-	private ArrayList<Vector2D> textureCoordinates = new ArrayList<>();
-	private ArrayList<Vector3D> vertexNormals = new ArrayList<>();
+	private final Map<String, SubModel> subModels = new LinkedHashMap<>();
+	private final boolean lazy;
 
 	/**
 	 * Creates new ModelProvider
@@ -65,234 +55,194 @@ public class WavefrontObjectModelProvider extends ModelProvider {
 	 * @param name name of the model.
 	 */
 	public WavefrontObjectModelProvider(String domain, String name) {
+		this(domain, name, false);
+	}
+
+	/**
+	 * Creates new ModelProvider
+	 * @param domain dolain of the assets.
+	 * @param name name of the model.
+	 * @param lazy whether the faces of a sub-model are read when it is first used.
+	 */
+	public WavefrontObjectModelProvider(String domain, String name, boolean lazy) {
 		super(domain, name);
+		this.lazy = lazy;
 	}
 
 	@Override
 	public void load(InputStream stream) {
-		String currentLine;
-		int lineCount = 0;
-		try(BufferedReader reader = new BufferedReader(new InputStreamReader(stream))){
-
-			while ((currentLine = reader.readLine()) != null) {
-				lineCount++;
-				currentLine = currentLine.replaceAll("\\s+", " ").trim();
-				if (currentLine.startsWith("#") || currentLine.isEmpty()) {
-					continue;
-				} else if (currentLine.startsWith("v ")) {
-					Vector3D vertex = parseToVertex(currentLine, lineCount);
-					if (vertex != null) {
-						vertices.add(vertex);
-					}
-				} else if (currentLine.startsWith("vt ")) {
-					Vector2D textureCoordinate = parseTextureCoordinate(currentLine, lineCount);
-					if (textureCoordinate != null) {
-						textureCoordinates.add(textureCoordinate);
-					}
-				} else if (currentLine.startsWith("vn ")) {
-					Vector3D vertexNormal = parseToVertexNormal(currentLine, lineCount);
-					if (vertexNormal != null) {
-						vertexNormals.add(vertexNormal);
-					}
-				} else if (currentLine.startsWith("vp ")) {
-					// TODO: Parameter space vertices
-					Game.logger().warn("Model {} uses parameter space vertices", this.name);
-				} else if (currentLine.startsWith("f ")) {
-					if (currentModel == null) {
-						currentModel = new MeshModel("Default");
-					}
+		byte[] data = new byte[8192];
+		int length = 0;
+		try (InputStream input = stream) {
+			int read;
+			while ((read = input.read(data, length, data.length - length)) != -1) {
+				length += read;
+				if (length == data.length) {
+					data = Arrays.copyOf(data, data.length * 2);
+				}
+			}
+		} catch (IOException e) {
+			throw new RenderException("Model " + this.name + " could not be read", e);
+		}
 
-					Face face = parseToFace(currentLine, lineCount);
-					if (face != null) {
-						currentModel.faces.add(face);
-					}
-				} else if (currentLine.startsWith("g ") | currentLine.startsWith("o ")) {
-					MeshModel subModel = parseToModel(currentLine, lineCount);
-					if (subModel != null) {
-						if (currentModel != null) {
-							model.children.add(currentModel);
+		WavefrontObjectReader reader = new WavefrontObjectReader(this.name, data, length);
+		SubModel currentModel = null;
+		boolean warned = false;
+		int[] indices = new int[12];
+		Keyword keyword;
+		synchronized (this) {
+			while ((keyword = reader.nextLine(reader.length)) != null) {
+				switch (keyword) {
+					case VERTEX:
+						reader.readPosition();
+						break;
+					case TEXTURE_COORDINATE:
+						reader.readUV();
+						break;
+					case VERTEX_NORMAL:
+						reader.readNormal();
+						break;
+					case PARAMETER_VERTEX:
+						// TODO: Parameter space vertices
+						if (!warned) {
+							Game.logger().warn("Model {} uses parameter space vertices", this.name);
+							warned = true;
+						}
+						break;
+					case FACE:
+						if (currentModel == null) {
+							currentModel = subModel("Default");
 						}
-					}
-					currentModel = subModel;
+						if (lazy) {
+							currentModel.defer(reader);
+						} else {
+							indices = reader.readFace(currentModel.model.buffer, reader.positionCount, reader.uvCount, reader.normalCount, indices);
+						}
+						break;
+					case GROUP:
+						String subModelName = reader.readName();
+						currentModel = subModelName.isEmpty() ? null : subModel(subModelName);
+						break;
+					default:
+						break;
 				}
 			}
-			model.children.add(currentModel);
-		} catch (IOException | UnsupportedOperationException e) {
-			throw new RenderException("Model " + this.name + " could not be read", e);
-		} finally {
-			this.cleanUp();
 		}
 	}
 
-	private void cleanUp() {
-		this.currentModel = null;
-		this.vertices.clear();
-		this.textureCoordinates.clear();
+	private SubModel subModel(String name) {
+		return subModels.computeIfAbsent(name, key -> {
+			SubModel subModel = new SubModel(new PackedMeshModel(key));
+			model.children.add(subModel.model);
+			return subModel;
+		});
 	}
 
-	@Override
-	public MeshModel getModel() {
-		return model.clone();
-	}
-
-	@Override
-	public String getType() {
-		return "obj";
+	/**
+	 * @return The names of the sub-models.
+	 */
+	public synchronized Set<String> getSubModelNames() {
+		return Collections.unmodifiableSet(subModels.keySet());
 	}
 
-	private Vector3D parseToVertex(String line, int lineNumber) {
-		if (isValid(line, vertexPattern)) {
-			line = line.substring(line.indexOf(' ') + 1);
-			String[] tokens = line.split(" ");
-			try {
-				if (tokens.length == 2) {
-					return new Vector3D(Float.parseFloat(tokens[0]), Float.parseFloat(tokens[1]), 0);
-				} else if (tokens.length == 3) {
-					return new Vector3D(Float.parseFloat(tokens[0]), Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2]));
-				}
-			} catch (NumberFormatException e) {
-				throw new RenderException(String.format("Number formatting error at line %d", lineNumber), e);
-			}
-		} else {
-			throw new RenderException("Error parsing entry ('" + line + "'" + ", line " + lineNumber + ") in model '" + this.name + "' - Incorrect format");
-		}
-		return null;
+	/**
+	 * Gets a copy of one sub-model. In lazy mode, only the faces of this sub-model are read.
+	 *
+	 * @param name The name of the sub-model
+	 * @return The sub-model, if the file has one with the name.
+	 */
+	public synchronized Optional<MeshModel> getModel(String name) {
+		return Optional.ofNullable(subModels.get(name)).map(subModel -> subModel.load().clone());
 	}
 
-	private Vector2D parseTextureCoordinate(String line, int lineNumber) {
-		if (isValid(line, textureCoordinatePattern)) {
-			line = line.substring(line.indexOf(' ') + 1);
-			String[] tokens = line.split(" ");
-			try {
-				if (tokens.length >= 2) {
-					return new Vector2D(Float.parseFloat(tokens[0]), 1 - Float.parseFloat(tokens[1]));
-				}
-			} catch (NumberFormatException e) {
-				throw new RenderException(String.format("Number formatting error at line %d", lineNumber), e);
-			}
-		} else {
-			throw new RenderException("Error parsing entry ('" + line + "'" + ", line " + lineNumber + ") in model '" + this.name + "' - Incorrect format");
-		}
-		return null;
+	@Override
+	public synchronized MeshModel getModel() {
+		subModels.values().forEach(SubModel::load);
+		return model.clone();
 	}
 
-	private Vector3D parseToVertexNormal(String line, int lineNumber) {
-		if (isValid(line, vertexNormalPattern)) {
-			line = line.substring(line.indexOf(' ') + 1);
-			String[] tokens = line.split(" ");
-			try {
-				if (tokens.length == 3) {
-					// According to the official Wavefront OBJ specification, vertex normals might not be normalized.
-					return new Vector3D(Float.parseFloat(tokens[0]), Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2])).normalize();
-				}
-			} catch (NumberFormatException e) {
-				throw new RenderException(String.format("Number formatting error at line %d", lineNumber), e);
-			}
-		} else {
-			throw new RenderException("Error parsing entry ('" + line + "'" + ", line " + lineNumber + ") in model '" + this.name + "' - Incorrect format");
-		}
-		return null;
+	/**
+	 * @return true, unless the provider is lazy, as storing the model reads all its sub-models
+	 */
+	@Override
+	public boolean isCacheable() {
+		return !lazy;
 	}
 
-	private Face parseToFace(String line, int lineNumber) {
-		Face face = null;
-		if (isValid(line, face_V_VT_VN_Pattern) || isValid(line, face_V_VT_Pattern) || isValid(line, face_V_VN_Pattern) || isValid(line, face_V_Pattern)) {
-			face = new Face();
-			String trimmedLine = line.substring(line.indexOf(' ') + 1);
-			String[] tokens = trimmedLine.split(" ");
-			String[] subTokens = null;
-
-			// f v1/vt1/vn1 v2/vt2/vn2 v3/vt3/vn3 ...
-			if (isValid(line, face_V_VT_VN_Pattern)) {
-				for (int i = 0; i < tokens.length; ++i) {
-					subTokens = tokens[i].split("/");
-					face.drawVertex(new Vertex(getVertex(Integer.parseInt(subTokens[0])), getTexVec(Integer.parseInt(subTokens[1])), getNormal(Integer.parseInt(subTokens[2]))));
-				}
-				face.normal = Vector3DUtil.calculateNormal(face);
-			}
-			// f v1/vt1 v2/vt2 v3/vt3 ...
-			else if (isValid(line, face_V_VT_Pattern)) {
-				for (int i = 0; i < tokens.length; ++i) {
-					subTokens = tokens[i].split("/");
-					face.drawVertex(new Vertex(getVertex(Integer.parseInt(subTokens[0])), getTexVec(Integer.parseInt(subTokens[1]))));
-				}
-				face.normal = Vector3DUtil.calculateNormal(face);
-			}
-			// f v1//vn1 v2//vn2 v3//vn3 ...
-			else if (isValid(line, face_V_VN_Pattern)) {
-				for (int i = 0; i < tokens.length; ++i) {
-					subTokens = tokens[i].split("//");
-					face.drawVertex(new Vertex(getVertex(Integer.parseInt(subTokens[0])), Vector2D.ZERO, getNormal(Integer.parseInt(subTokens[1]))));
-				}
-				face.normal = Vector3DUtil.calculateNormal(face);
-			}
-			// f v1 v2 v3 ...
-			else if (isValid(line, face_V_Pattern)) {
-				for (int i = 0; i < tokens.length; ++i) {
-					face.drawVertex(new Vertex(getVertex(Integer.parseInt(tokens[i])), Vector2D.ZERO));
-				}
-				face.normal = Vector3DUtil.calculateNormal(face);
+	@Override
+	public synchronized void restore(MeshModel model) {
+		for (Model child : model.children) {
+			PackedMeshModel subModel = (PackedMeshModel) child;
+			if (subModels.containsKey(subModel.name)) {
+				subModel(subModel.name).load().buffer.addAll(subModel.buffer);
 			} else {
-				throw new RenderException("Error parsing entry ('" + line + "'" + ", line " + lineNumber + ") in model '" + this.name + "' - Incorrect format");
+				subModels.put(subModel.name, new SubModel(subModel));
+				this.model.children.add(subModel);
 			}
-		} else {
-			throw new RenderException("Error parsing entry ('" + line + "'" + ", line " + lineNumber + ") in model '" + this.name + "' - Incorrect format");
 		}
-		return face;
 	}
 
-	private MeshModel parseToModel(String line, int lineNumber) {
-		if (isValid(line, subModelPattern)) {
-			String trimmedLine = line.substring(line.indexOf(' ') + 1);
-			if (!trimmedLine.isEmpty()) {
-				return new MeshModel(trimmedLine);
-			}
-		} else {
-			throw new RenderException("Error parsing entry ('" + line + "'" + ", line " + lineNumber + ") in model '" + this.name + "' - Incorrect format");
-		}
-		return null;
+	@Override
+	public String getType() {
+		return "obj";
 	}
 
 	/**
-	 * Verifies that the given line from the model file is a valid for a given pattern
-	 *
-	 * @param line the line being validated
-	 * @param pattern the validator
-	 * @return true if the line is a valid for a given pattern, false otherwise
+	 * A sub-model and, in lazy mode, the face lines it has not read yet.
 	 */
-	private boolean isValid(String line, Pattern pattern) {
-		if (globalMatcher != null) {
-			globalMatcher.reset();
-		}
-
-		globalMatcher = pattern.matcher(line);
-		return globalMatcher.matches();
-	}
-
-	private Vector3D getVertex(int index) {
-		try {
-			return vertices.get(index < 0 ? index + textureCoordinates.size() : index - 1);
-		} catch (IndexOutOfBoundsException e) {
-			System.err.println("[OBJ]: Can't get vertex " + index + "! Is this model corrupted?");
-			return Vector3D.ZERO;
+	private static class SubModel {
+		private static final int[] NO_FACES = new int[0];
+
+		private final PackedMeshModel model;
+		private WavefrontObjectReader reader;
+		/**
+		 * The offset, line number and attribute counts of every deferred face line.
+		 */
+		private int[] faces = NO_FACES;
+		private int faceCount;
+
+		private SubModel(PackedMeshModel model) {
+			this.model = model;
 		}
-	}
 
-	private Vector2D getTexVec(int index) {
-		try {
-			return textureCoordinates.get(index < 0 ? index + textureCoordinates.size() : index - 1);
-		} catch (IndexOutOfBoundsException e) {
-			System.err.println("[OBJ]: Can't get textureCoordinate " + index + "! Is this model corrupted?");
-			return Vector2D.ZERO;
+		/**
+		 * Remembers the current face line of a reader, to read it later.
+		 */
+		private void defer(WavefrontObjectReader reader) {
+			if (this.reader != reader) {
+				load();
+				this.reader = reader;
+			}
+			if ((faceCount + 1) * 5 > faces.length) {
+				faces = Arrays.copyOf(faces, Math.max(faces.length * 2, 5 * 16));
+			}
+			int i = faceCount * 5;
+			faces[i] = reader.lineOffset();
+			faces[i + 1] = reader.line;
+			faces[i + 2] = reader.positionCount;
+			faces[i + 3] = reader.uvCount;
+			faces[i + 4] = reader.normalCount;
+			faceCount++;
 		}
-	}
 
-	private Vector3D getNormal(int index) {
-		try {
-			return vertexNormals.get(index < 0 ? index + textureCoordinates.size() : index - 1);
-		} catch (IndexOutOfBoundsException e) {
-			System.err.println("[OBJ]: Can't get vertexNormal " + index + "! Is this model corrupted?");
-			return Vector3D.ZERO;
+		/**
+		 * Reads the deferred faces.
+		 */
+		private PackedMeshModel load() {
+			if (reader != null) {
+				int[] indices = new int[12];
+				for (int face = 0; face < faceCount; face++) {
+					int i = face * 5;
+					reader.pos = faces[i];
+					reader.line = faces[i + 1] - 1;
+					reader.nextLine(reader.length);
+					indices = reader.readFace(model.buffer, faces[i + 2], faces[i + 3], faces[i + 4], indices);
+				}
+				reader = null;
+				faces = NO_FACES;
+				faceCount = 0;
+			}
+			return model;
 		}
 	}
 }
@@ -0,0 +1,432 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.render.RenderException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A tokenizer for Wavefront OBJ files that reads numbers directly from the file bytes.
+ * Vertex attributes are kept in primitive arrays, and faces are written to {@link MeshBuffer}s.
+ */
+final class WavefrontObjectReader {
+
+	/**
+	 * Marks an index that is not given, like the texture coordinate in {@code f 1//1}.
+	 */
+	private static final int ABSENT = Integer.MIN_VALUE;
+
+	private static final double[] POW10 = {
+		1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+		1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private final String modelName;
+	final byte[] data;
+	final int length;
+
+	/**
+	 * The position of the next line to read, and the number of the current line.
+	 */
+	int pos;
+	int line;
+	/**
+	 * The bounds of the current line, excluding the line break, and the read position within it.
+	 */
+	private int lineStart;
+	private int lineEnd;
+	private int cursor;
+
+	float[] positions = new float[3 * 256];
+	float[] uvs = new float[2 * 256];
+	float[] normals = new float[3 * 256];
+	int positionCount;
+	int uvCount;
+	int normalCount;
+
+	WavefrontObjectReader(String modelName, byte[] data, int length) {
+		this.modelName = modelName;
+		this.data = data;
+		this.length = length;
+	}
+
+	/**
+	 * Moves to the next line.
+	 *
+	 * @param end The end of the range being read
+	 * @return The keyword starting the line, or null when the end is reached
+	 */
+	Keyword nextLine(int end) {
+		while (pos < end) {
+			line++;
+			lineStart = pos;
+			int lineEnd = lineStart;
+			while (lineEnd < end && data[lineEnd] != '\n') {
+				lineEnd++;
+			}
+			pos = lineEnd + 1;
+			this.lineEnd = lineEnd;
+
+			int i = skipSpaces(lineStart);
+			if (i == lineEnd || data[i] == '#') {
+				continue;
+			}
+			int keywordEnd = i;
+			while (keywordEnd < this.lineEnd && !isSpace(data[keywordEnd])) {
+				keywordEnd++;
+			}
+			cursor = keywordEnd;
+			return Keyword.of(data, i, keywordEnd - i);
+		}
+		return null;
+	}
+
+	/**
+	 * @return The offset of the current line
+	 */
+	int lineOffset() {
+		return lineStart;
+	}
+
+	void readPosition() {
+		positions = grow(positions, positionCount, 3);
+		int i = positionCount * 3;
+		positions[i] = (float) readFloat();
+		positions[i + 1] = (float) readFloat();
+		positions[i + 2] = hasMore() ? (float) readFloat() : 0;
+		positionCount++;
+	}
+
+	void readUV() {
+		uvs = grow(uvs, uvCount, 2);
+		int i = uvCount * 2;
+		uvs[i] = (float) readFloat();
+		uvs[i + 1] = (float) (1 - readFloat());
+		uvCount++;
+	}
+
+	void readNormal() {
+		normals = grow(normals, normalCount, 3);
+		double x = readFloat();
+		double y = readFloat();
+		double z = readFloat();
+		// According to the official Wavefront OBJ specification, vertex normals might not be normalized.
+		double norm = Math.sqrt(x * x + y * y + z * z);
+		if (norm == 0) {
+			throw error();
+		}
+		int i = normalCount * 3;
+		normals[i] = (float) (x / norm);
+		normals[i + 1] = (float) (y / norm);
+		normals[i + 2] = (float) (z / norm);
+		normalCount++;
+	}
+
+	/**
+	 * Reads the indices of a face and adds the face to a buffer.
+	 *
+	 * @param buffer The buffer to add the face to
+	 * @param positionCount The number of positions declared before this line, for relative indices
+	 * @param uvCount The number of texture coordinates declared before this line
+	 * @param normalCount The number of normals declared before this line
+	 * @param indices Scratch space for the indices
+	 * @return The scratch space, grown if needed
+	 */
+	int[] readFace(MeshBuffer buffer, int positionCount, int uvCount, int normalCount, int[] indices) {
+		int count = 0;
+		while (hasMore()) {
+			if (indices.length < (count + 1) * 3) {
+				indices = Arrays.copyOf(indices, indices.length * 2);
+			}
+			int i = count * 3;
+			indices[i] = index(readInt(), positionCount);
+			indices[i + 1] = ABSENT;
+			indices[i + 2] = ABSENT;
+			if (cursor < lineEnd && data[cursor] == '/') {
+				cursor++;
+				if (cursor < lineEnd && data[cursor] != '/') {
+					indices[i + 1] = index(readInt(), uvCount);
+				}
+				if (cursor < lineEnd && data[cursor] == '/') {
+					cursor++;
+					indices[i + 2] = index(readInt(), normalCount);
+				}
+			}
+			if (cursor < lineEnd && !isSpace(data[cursor])) {
+				throw error();
+			}
+			count++;
+		}
+		if (count < 3) {
+			throw error();
+		}
+
+		beginFace(buffer, indices);
+		for (int vertex = 0; vertex < count; vertex++) {
+			int i = vertex * 3;
+			int p = checkIndex(indices[i], this.positionCount, "vertex") * 3;
+			double x = p < 0 ? 0 : positions[p];
+			double y = p < 0 ? 0 : positions[p + 1];
+			double z = p < 0 ? 0 : positions[p + 2];
+			double u = 0;
+			double v = 0;
+			if (indices[i + 1] != ABSENT) {
+				int t = checkIndex(indices[i + 1], uvCount, "textureCoordinate") * 2;
+				u = t < 0 ? 0 : uvs[t];
+				v = t < 0 ? 0 : uvs[t + 1];
+			}
+			if (indices[i + 2] != ABSENT) {
+				int n = checkIndex(indices[i + 2], normalCount, "vertexNormal") * 3;
+				if (n < 0) {
+					buffer.vertex(x, y, z, u, v, 0, 0, 0);
+				} else {
+					buffer.vertex(x, y, z, u, v, normals[n], normals[n + 1], normals[n + 2]);
+				}
+			} else {
+				buffer.vertex(x, y, z, u, v);
+			}
+		}
+		return indices;
+	}
+
+	/**
+	 * @return The rest of the current line, trimmed
+	 */
+	String readName() {
+		int start = skipSpaces(cursor);
+		int end = lineEnd;
+		while (end > start && isSpace(data[end - 1])) {
+			end--;
+		}
+		cursor = lineEnd;
+		return new String(data, start, end - start, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Begins a face with the normal of its first three vertices, like {@link nova.core.util.math.Vector3DUtil#calculateNormal(Face)}.
+	 */
+	private void beginFace(MeshBuffer buffer, int[] indices) {
+		double[] p = new double[9];
+		for (int vertex = 0; vertex < 3; vertex++) {
+			int index = indices[vertex * 3];
+			if (index >= 0 && index < positionCount) {
+				p[vertex * 3] = positions[index * 3];
+				p[vertex * 3 + 1] = positions[index * 3 + 1];
+				p[vertex * 3 + 2] = positions[index * 3 + 2];
+			}
+		}
+		double ax = p[3] - p[0], ay = p[4] - p[1], az = p[5] - p[2];
+		double bx = p[6] - p[0], by = p[7] - p[1], bz = p[8] - p[2];
+		double nx = ay * bz - az * by;
+		double ny = az * bx - ax * bz;
+		double nz = ax * by - ay * bx;
+		double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (length == 0) {
+			buffer.beginFace(0, 0, 0);
+		} else {
+			buffer.beginFace(nx / length, ny / length, nz / length);
+		}
+	}
+
+	/**
+	 * Turns a 1-based or relative OBJ index into a 0-based index.
+	 */
+	private int index(int index, int count) {
+		if (index > 0) {
+			return index - 1;
+		} else if (index < 0) {
+			return count + index;
+		}
+		throw error();
+	}
+
+	/**
+	 * @return The index, or -1 if it is out of range
+	 */
+	private int checkIndex(int index, int count, String type) {
+		if (index < 0 || index >= count) {
+			System.err.println("[OBJ]: Can't get " + type + " " + (index + 1) + " at line " + line + "! Is this model corrupted?");
+			return -1;
+		}
+		return index;
+	}
+
+	private boolean hasMore() {
+		cursor = skipSpaces(cursor);
+		return cursor < lineEnd;
+	}
+
+	private int readInt() {
+		int i = cursor;
+		boolean negative = false;
+		if (i < lineEnd && (data[i] == '-' || data[i] == '+')) {
+			negative = data[i] == '-';
+			i++;
+		}
+		int start = i;
+		long value = 0;
+		while (i < lineEnd && data[i] >= '0' && data[i] <= '9') {
+			value = value * 10 + (data[i] - '0');
+			if (value > Integer.MAX_VALUE) {
+				throw error();
+			}
+			i++;
+		}
+		if (i == start) {
+			throw error();
+		}
+		cursor = i;
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Reads a decimal number without creating a string, unless it has too many digits to be read exactly.
+	 */
+	private double readFloat() {
+		if (!hasMore()) {
+			throw error();
+		}
+		int start = cursor;
+		int i = cursor;
+		boolean negative = false;
+		if (data[i] == '-' || data[i] == '+') {
+			negative = data[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean any = false;
+		while (i < lineEnd && data[i] >= '0' && data[i] <= '9') {
+			if (digits < 18) {
+				mantissa = mantissa * 10 + (data[i] - '0');
+				if (mantissa != 0) {
+					digits++;
+				}
+			} else {
+				exponent++;
+			}
+			any = true;
+			i++;
+		}
+		if (i < lineEnd && data[i] == '.') {
+			i++;
+			while (i < lineEnd && data[i] >= '0' && data[i] <= '9') {
+				if (digits < 18) {
+					mantissa = mantissa * 10 + (data[i] - '0');
+					if (mantissa != 0) {
+						digits++;
+					}
+					exponent--;
+				}
+				any = true;
+				i++;
+			}
+		}
+		if (!any) {
+			throw error();
+		}
+		if (i < lineEnd && (data[i] == 'e' || data[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < lineEnd && (data[i] == '-' || data[i] == '+')) {
+				negativeExponent = data[i] == '-';
+				i++;
+			}
+			int exponentStart = i;
+			int value = 0;
+			while (i < lineEnd && data[i] >= '0' && data[i] <= '9') {
+				value = Math.min(value * 10 + (data[i] - '0'), 10000);
+				i++;
+			}
+			if (i == exponentStart) {
+				throw error();
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+		if (i < lineEnd && !isSpace(data[i])) {
+			throw error();
+		}
+		cursor = i;
+
+		double value;
+		if (digits >= 18 || exponent < -POW10.length + 1 || exponent >= POW10.length) {
+			try {
+				value = Double.parseDouble(new String(data, start, i - start, StandardCharsets.ISO_8859_1));
+			} catch (NumberFormatException e) {
+				throw new RenderException(String.format("Number formatting error at line %d", line), e);
+			}
+			return value;
+		}
+		value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+		return negative ? -value : value;
+	}
+
+	private int skipSpaces(int i) {
+		while (i < lineEnd && isSpace(data[i])) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isSpace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+	}
+
+	private static float[] grow(float[] array, int count, int size) {
+		return (count + 1) * size > array.length ? Arrays.copyOf(array, array.length * 2) : array;
+	}
+
+	RenderException error() {
+		String entry = new String(data, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8).trim();
+		return new RenderException("Error parsing entry ('" + entry + "'" + ", line " + line + ") in model '" + modelName + "' - Incorrect format");
+	}
+
+	/**
+	 * The OBJ statements this reader handles.
+	 */
+	enum Keyword {
+		VERTEX, TEXTURE_COORDINATE, VERTEX_NORMAL, PARAMETER_VERTEX, FACE, GROUP, OTHER;
+
+		private static Keyword of(byte[] data, int start, int length) {
+			byte first = data[start];
+			if (length == 1) {
+				switch (first) {
+					case 'v': return VERTEX;
+					case 'f': return FACE;
+					case 'g':
+					case 'o': return GROUP;
+					default: return OTHER;
+				}
+			} else if (length == 2 && first == 'v') {
+				switch (data[start + 1]) {
+					case 't': return TEXTURE_COORDINATE;
+					case 'n': return VERTEX_NORMAL;
+					case 'p': return PARAMETER_VERTEX;
+					default: return OTHER;
+				}
+			}
+			return OTHER;
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.pipeline;
+
+import nova.core.render.Color;
+import nova.core.render.model.MeshBuffer;
+import nova.core.render.texture.Texture;
+import nova.core.util.Direction;
+import nova.core.util.shape.Cuboid;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of baked meshes, shared by all blocks and items that render the same way.
+ * The meshes are immutable, see {@link MeshBuffer#toImmutable()},
+ * and the least recently used mesh is evicted when the cache is full.
+ *
+ * @see BlockRenderPipeline#withCache(BakedModelCache)
+ * @see ItemRenderPipeline#withCache(BakedModelCache)
+ */
+public class BakedModelCache {
+
+	/**
+	 * The cache used by {@link nova.core.component.renderer.StaticRenderer} and {@link ItemRenderPipeline} by default.
+	 */
+	public static final BakedModelCache instance = new BakedModelCache(4096);
+
+	private final Map<Object, MeshBuffer> meshes;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param capacity The maximum number of meshes kept
+	 */
+	public BakedModelCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.meshes = new LinkedHashMap<Object, MeshBuffer>(16, 0.75F, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, MeshBuffer> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the baked mesh for a key, baking it if it is not cached.
+	 *
+	 * @param key The render inputs, such as a {@link Key}
+	 * @param bake Bakes the mesh for the key
+	 * @param <K> The key type
+	 * @return The immutable baked mesh
+	 */
+	public synchronized <K> MeshBuffer get(K key, Function<? super K, MeshBuffer> bake) {
+		MeshBuffer mesh = meshes.get(key);
+		if (mesh != null) {
+			hits++;
+			return mesh;
+		}
+		misses++;
+		mesh = bake.apply(key).toImmutable();
+		meshes.put(key, mesh);
+		return mesh;
+	}
+
+	/**
+	 * Removes all baked meshes. The hit and miss counts are kept.
+	 */
+	public synchronized void clear() {
+		meshes.clear();
+	}
+
+	public synchronized int size() {
+		return meshes.size();
+	}
+
+	/**
+	 * @return The number of times a mesh was found in the cache
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return The number of times a mesh had to be baked
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "BakedModelCache[" + meshes.size() + " meshes, " + hits + " hits, " + misses + " misses]";
+	}
+
+	/**
+	 * The inputs of {@link BlockRenderPipeline} that decide how a block is drawn.
+	 * Textures are compared by identity.
+	 */
+	public static final class Key {
+		private final double minX, minY, minZ, maxX, maxY, maxZ;
+		private final int sideMask;
+		private final Texture[] textures = new Texture[6];
+		private final Color[] colors = new Color[6];
+		private final int hash;
+
+		/**
+		 * @param bounds The block bounds
+		 * @param sideMask The rendered sides, a bit for every {@link Direction#ordinal()}
+		 * @param texture The texture of each rendered side, or null for none
+		 * @param color The color of each rendered side
+		 */
+		public Key(Cuboid bounds, int sideMask, Function<Direction, Texture> texture, Function<Direction, Color> color) {
+			this.minX = bounds.min.getX();
+			this.minY = bounds.min.getY();
+			this.minZ = bounds.min.getZ();
+			this.maxX = bounds.max.getX();
+			this.maxY = bounds.max.getY();
+			this.maxZ = bounds.max.getZ();
+			this.sideMask = sideMask;
+			int hash = Arrays.hashCode(new double[] { minX, minY, minZ, maxX, maxY, maxZ }) * 31 + sideMask;
+			for (Direction dir : Direction.VALID_DIRECTIONS) {
+				if (renders(dir)) {
+					textures[dir.ordinal()] = texture.apply(dir);
+					colors[dir.ordinal()] = color.apply(dir);
+				}
+				hash = hash * 31 + System.identityHashCode(textures[dir.ordinal()]);
+				hash = hash * 31 + (colors[dir.ordinal()] == null ? 0 : colors[dir.ordinal()].hashCode());
+			}
+			this.hash = hash;
+		}
+
+		public Cuboid getBounds() {
+			return new Cuboid(minX, minY, minZ, maxX, maxY, maxZ);
+		}
+
+		public boolean renders(Direction dir) {
+			return (sideMask & (1 << dir.ordinal())) != 0;
+		}
+
+		public Texture getTexture(Direction dir) {
+			return textures[dir.ordinal()];
+		}
+
+		public Color getColor(Direction dir) {
+			return colors[dir.ordinal()];
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) obj;
+			if (hash != key.hash || sideMask != key.sideMask
+				|| Double.compare(minX, key.minX) != 0 || Double.compare(minY, key.minY) != 0 || Double.compare(minZ, key.minZ) != 0
+				|| Double.compare(maxX, key.maxX) != 0 || Double.compare(maxY, key.maxY) != 0 || Double.compare(maxZ, key.maxZ) != 0) {
+				return false;
+			}
+			for (int i = 0; i < 6; i++) {
+				if (textures[i] != key.textures[i] || !Objects.equals(colors[i], key.colors[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
@@ -26,8 +26,9 @@ import nova.core.component.misc.Collider;
 import nova.core.render.Color;
 import nova.core.render.RenderException;
 import nova.core.render.model.Face;
+import nova.core.render.model.MeshBuffer;
 import nova.core.render.model.MeshModel;
-import nova.core.render.model.Vertex;
+import nova.core.render.model.PackedMeshModel;
 import nova.core.render.texture.Texture;
 import nova.core.util.Direction;
 import nova.core.util.shape.Cuboid;
@@ -77,11 +78,21 @@ public class BlockRenderPipeline extends RenderPipeline {
 	 */
 	public Function<Direction, Color> colorMultiplier = (dir) -> Color.white;
 
+	/**
+	 * The cache to take baked meshes from, if the block opted in with {@link #withCache(BakedModelCache)}.
+	 */
+	protected Optional<BakedModelCache> cache = Optional.empty();
+
+	/**
+	 * The inputs of the last baked render, until {@link #invalidate()} is called.
+	 */
+	private volatile BakedModelCache.Key bakedKey;
+
 	@SuppressWarnings({"rawtypes", "unchecked"})
 	public BlockRenderPipeline(ComponentProvider componentProvider) {
 		this.componentProvider = componentProvider;
 		bounds = () -> this.componentProvider.components.getOp(Collider.class).map(c -> c.boundingBox.get()).orElse(Cuboid.ONE);
-		consumer = model -> model.addChild(draw(new MeshModel()));
+		consumer = model -> model.addChild(cache.isPresent() ? bake(cache.get()) : draw(new PackedMeshModel()));
 	}
 
 	/**
@@ -167,6 +178,72 @@ public class BlockRenderPipeline extends RenderPipeline {
 		this.colorMultiplier = colorMultiplier;
 		return this;
 	}
+
+	/**
+	 * This method is called to take the block model from a cache of baked meshes.
+	 * The texture, bounds, sides and colors are evaluated once,
+	 * and again after {@link #invalidate()}, so the block must call
+	 * {@link nova.core.world.World#markStaticRender(org.apache.commons.math3.geometry.euclidean.threed.Vector3D)}
+	 * when any of them changes.
+	 *
+	 * @param cache The {@link BakedModelCache} to use.
+	 * @return this
+	 */
+	public BlockRenderPipeline withCache(BakedModelCache cache) {
+		this.cache = Optional.of(cache);
+		return this;
+	}
+
+	/**
+	 * Makes the next baked render evaluate the block again.
+	 */
+	public void invalidate() {
+		bakedKey = null;
+	}
+
+	/**
+	 * Gets the baked model of the block from a cache.
+	 *
+	 * @param cache The cache
+	 * @return A model backed by the shared immutable mesh
+	 */
+	protected PackedMeshModel bake(BakedModelCache cache) {
+		BakedModelCache.Key key = bakedKey;
+		if (key == null) {
+			int sideMask = 0;
+			for (Direction dir : Direction.VALID_DIRECTIONS) {
+				if (renderSide.test(dir)) {
+					sideMask |= 1 << dir.ordinal();
+				}
+			}
+			key = new BakedModelCache.Key(bounds.get(), sideMask, dir -> texture.apply(dir).orElse(null), colorMultiplier);
+			bakedKey = key;
+		}
+		return new PackedMeshModel("", cache.get(key, BlockRenderPipeline::draw));
+	}
+
+	/**
+	 * Draws a standard block from baked inputs.
+	 *
+	 * @param key The inputs
+	 * @return The block mesh
+	 */
+	private static MeshBuffer draw(BakedModelCache.Key key) {
+		Cuboid boundingBox = key.getBounds();
+		MeshBuffer buffer = new MeshBuffer();
+		for (Direction dir : Direction.VALID_DIRECTIONS) {
+			if (key.renders(dir)) {
+				buffer.color(key.getColor(dir));
+				drawDir(dir, buffer,
+					boundingBox.min.getX() - 0.5, boundingBox.min.getY() - 0.5, boundingBox.min.getZ() - 0.5,
+					boundingBox.max.getX() - 0.5, boundingBox.max.getY() - 0.5, boundingBox.max.getZ() - 0.5,
+					StaticCubeTextureCoordinates.instance);
+				buffer.texture(key.getTexture(dir));
+			}
+		}
+		return buffer;
+	}
+
 	/**
 	 * Draws a standard block.
 	 *
@@ -174,6 +251,22 @@ public class BlockRenderPipeline extends RenderPipeline {
 	 * @return This VertexModel
 	 */
 	public MeshModel draw(MeshModel model) {
+		if (model instanceof PackedMeshModel) {
+			draw(((PackedMeshModel) model).buffer);
+			return model;
+		}
+
+		draw(new MeshBuffer()).getFaces().forEach(model::drawFace);
+		return model;
+	}
+
+	/**
+	 * Draws a standard block into a mesh buffer.
+	 *
+	 * @param buffer MeshBuffer to use
+	 * @return This MeshBuffer
+	 */
+	public MeshBuffer draw(MeshBuffer buffer) {
 		Cuboid boundingBox = bounds.get();
 		double minX = boundingBox.min.getX() - 0.5;
 		double minY = boundingBox.min.getY() - 0.5;
@@ -182,43 +275,14 @@ public class BlockRenderPipeline extends RenderPipeline {
 		double maxY = boundingBox.max.getY() - 0.5;
 		double maxZ = boundingBox.max.getZ() - 0.5;
 
-		if (renderSide.test(Direction.DOWN)) {
-			Color downColor = colorMultiplier.apply(Direction.DOWN);
-			Face face = drawDown(model, minX, minY, minZ, maxX, maxY, maxZ, StaticCubeTextureCoordinates.instance);
-			face.texture = texture.apply(Direction.DOWN);
-			face.vertices.forEach(v -> v.color = downColor);
-		}
-		if (renderSide.test(Direction.UP)) {
-			Color upColor = colorMultiplier.apply(Direction.UP);
-			Face face = drawUp(model, minX, minY, minZ, maxX, maxY, maxZ, StaticCubeTextureCoordinates.instance);
-			face.texture = texture.apply(Direction.UP);
-			face.vertices.forEach(v -> v.color = upColor);
-		}
-		if (renderSide.test(Direction.NORTH)) {
-			Color northColor = colorMultiplier.apply(Direction.NORTH);
-			Face face = drawNorth(model, minX, minY, minZ, maxX, maxY, maxZ, StaticCubeTextureCoordinates.instance);
-			face.texture = texture.apply(Direction.NORTH);
-			face.vertices.forEach(v -> v.color = northColor);
-		}
-		if (renderSide.test(Direction.SOUTH)) {
-			Color southColor = colorMultiplier.apply(Direction.SOUTH);
-			Face face = drawSouth(model, minX, minY, minZ, maxX, maxY, maxZ, StaticCubeTextureCoordinates.instance);
-			face.texture = texture.apply(Direction.SOUTH);
-			face.vertices.forEach(v -> v.color = southColor);
+		for (Direction dir : Direction.VALID_DIRECTIONS) {
+			if (renderSide.test(dir)) {
+				buffer.color(colorMultiplier.apply(dir));
+				drawDir(dir, buffer, minX, minY, minZ, maxX, maxY, maxZ, StaticCubeTextureCoordinates.instance);
+				buffer.texture(texture.apply(dir));
+			}
 		}
-		if (renderSide.test(Direction.WEST)) {
-			Color westColor = colorMultiplier.apply(Direction.WEST);
-			Face face = drawWest(model, minX, minY, minZ, maxX, maxY, maxZ, StaticCubeTextureCoordinates.instance);
-			face.texture = texture.apply(Direction.WEST);
-			face.vertices.forEach(v -> v.color = westColor);
-		}
-		if (renderSide.test(Direction.EAST)) {
-			Color eastColor = colorMultiplier.apply(Direction.EAST);
-			Face face = drawEast(model, minX, minY, minZ, maxX, maxY, maxZ, StaticCubeTextureCoordinates.instance);
-			face.texture = texture.apply(Direction.EAST);
-			face.vertices.forEach(v -> v.color = eastColor);
-		}
-		return model;
+		return buffer.color(Color.white);
 	}
 
 	/**
@@ -240,18 +304,7 @@ public class BlockRenderPipeline extends RenderPipeline {
 		double maxX, double maxY, double maxZ,
 		CubeTextureCoordinates textureCoordinates) {
 
-		Face down = new Face();
-		down.normal = Direction.DOWN.toVector();
-		//Top-left corner
-		down.drawVertex(new Vertex(maxX, minY, maxZ, textureCoordinates.getBottomMinU(), textureCoordinates.getBottomMinV()));
-		//Top-right corner
-		down.drawVertex(new Vertex(minX, minY, maxZ, textureCoordinates.getBottomMaxU(), textureCoordinates.getBottomMinV()));
-		//Bottom-right corner
-		down.drawVertex(new Vertex(minX, minY, minZ, textureCoordinates.getBottomMaxU(), textureCoordinates.getBottomMaxV()));
-		//Bottom-left corner
-		down.drawVertex(new Vertex(maxX, minY, minZ, textureCoordinates.getBottomMinU(), textureCoordinates.getBottomMaxV()));
-		model.drawFace(down);
-		return down;
+		return drawFace(Direction.DOWN, model, minX, minY, minZ, maxX, maxY, maxZ, textureCoordinates);
 	}
 
 	/**
@@ -273,18 +326,7 @@ public class BlockRenderPipeline extends RenderPipeline {
 		double maxX, double maxY, double maxZ,
 		CubeTextureCoordinates textureCoordinates) {
 
-		Face up = new Face();
-		up.normal = Direction.UP.toVector();
-		//Bottom-left corner
-		up.drawVertex(new Vertex(maxX, maxY, minZ, textureCoordinates.getTopMinU(), textureCoordinates.getTopMaxV()));
-		//Bottom-right corner
-		up.drawVertex(new Vertex(minX, maxY, minZ, textureCoordinates.getTopMaxU(), textureCoordinates.getTopMaxV()));
-		//Top-right corner
-		up.drawVertex(new Vertex(minX, maxY, maxZ, textureCoordinates.getTopMaxU(), textureCoordinates.getTopMinV()));
-		//Top-left corner
-		up.drawVertex(new Vertex(maxX, maxY, maxZ, textureCoordinates.getTopMinU(), textureCoordinates.getTopMinV()));
-		model.drawFace(up);
-		return up;
+		return drawFace(Direction.UP, model, minX, minY, minZ, maxX, maxY, maxZ, textureCoordinates);
 	}
 
 	/**
@@ -306,19 +348,7 @@ public class BlockRenderPipeline extends RenderPipeline {
 		double maxX, double maxY, double maxZ,
 		CubeTextureCoordinates textureCoordinates) {
 
-		Face north = new Face();
-		north.normal = Direction.NORTH.toVector();
-		//Top-left corner
-		north.drawVertex(new Vertex(minX, maxY, minZ, textureCoordinates.getNorthMinU(), textureCoordinates.getNorthMinV()));
-		//Top-right corner
-		north.drawVertex(new Vertex(maxX, maxY, minZ, textureCoordinates.getNorthMaxU(), textureCoordinates.getNorthMinV()));
-		//Bottom-right corner
-		north.drawVertex(new Vertex(maxX, minY, minZ, textureCoordinates.getNorthMaxU(), textureCoordinates.getNorthMaxV()));
-		//Bottom-left corner
-		north.drawVertex(new Vertex(minX, minY, minZ, textureCoordinates.getNorthMinU(), textureCoordinates.getNorthMaxV()));
-		model.drawFace(north);
-
-		return north;
+		return drawFace(Direction.NORTH, model, minX, minY, minZ, maxX, maxY, maxZ, textureCoordinates);
 	}
 
 	/**
@@ -340,19 +370,7 @@ public class BlockRenderPipeline extends RenderPipeline {
 		double maxX, double maxY, double maxZ,
 		CubeTextureCoordinates textureCoordinates) {
 
-		Face south = new Face();
-		south.normal = Direction.SOUTH.toVector();
-		//Bottom-left corner
-		south.drawVertex(new Vertex(minX, minY, maxZ, textureCoordinates.getSouthMinU(), textureCoordinates.getSouthMaxV()));
-		//Bottom-right corner
-		south.drawVertex(new Vertex(maxX, minY, maxZ, textureCoordinates.getSouthMaxU(), textureCoordinates.getSouthMaxV()));
-		//Top-right corner
-		south.drawVertex(new Vertex(maxX, maxY, maxZ, textureCoordinates.getSouthMaxU(), textureCoordinates.getSouthMinV()));
-		//Top-left corner
-		south.drawVertex(new Vertex(minX, maxY, maxZ, textureCoordinates.getSouthMinU(), textureCoordinates.getSouthMinV()));
-		model.drawFace(south);
-
-		return south;
+		return drawFace(Direction.SOUTH, model, minX, minY, minZ, maxX, maxY, maxZ, textureCoordinates);
 	}
 
 	/**
@@ -374,19 +392,7 @@ public class BlockRenderPipeline extends RenderPipeline {
 		double maxX, double maxY, double maxZ,
 		CubeTextureCoordinates textureCoordinates) {
 
-		Face west = new Face();
-		west.normal = Direction.WEST.toVector();
-		//Bottom-left corner
-		west.drawVertex(new Vertex(minX, minY, minZ, textureCoordinates.getWestMinU(), textureCoordinates.getWestMaxV()));
-		//Bottom-right corner
-		west.drawVertex(new Vertex(minX, minY, maxZ, textureCoordinates.getWestMaxU(), textureCoordinates.getWestMaxV()));
-		//Top-right corner
-		west.drawVertex(new Vertex(minX, maxY, maxZ, textureCoordinates.getWestMaxU(), textureCoordinates.getWestMinV()));
-		//Top-left corner
-		west.drawVertex(new Vertex(minX, maxY, minZ, textureCoordinates.getWestMinU(), textureCoordinates.getWestMinV()));
-		model.drawFace(west);
-
-		return west;
+		return drawFace(Direction.WEST, model, minX, minY, minZ, maxX, maxY, maxZ, textureCoordinates);
 	}
 
 	/**
@@ -408,19 +414,7 @@ public class BlockRenderPipeline extends RenderPipeline {
 		double maxX, double maxY, double maxZ,
 		CubeTextureCoordinates textureCoordinates) {
 
-		Face east = new Face();
-		east.normal = Direction.EAST.toVector();
-		//Top-left corner
-		east.drawVertex(new Vertex(maxX, maxY, minZ, textureCoordinates.getEastMinU(), textureCoordinates.getEastMinV()));
-		//Top-right corner
-		east.drawVertex(new Vertex(maxX, maxY, maxZ, textureCoordinates.getEastMaxU(), textureCoordinates.getEastMinV()));
-		//Bottom-right corner
-		east.drawVertex(new Vertex(maxX, minY, maxZ, textureCoordinates.getEastMaxU(), textureCoordinates.getEastMaxV()));
-		//Bottom-left corner
-		east.drawVertex(new Vertex(maxX, minY, minZ, textureCoordinates.getEastMinU(), textureCoordinates.getEastMaxV()));
-		model.drawFace(east);
-
-		return east;
+		return drawFace(Direction.EAST, model, minX, minY, minZ, maxX, maxY, maxZ, textureCoordinates);
 	}
 
 	/**
@@ -461,6 +455,112 @@ public class BlockRenderPipeline extends RenderPipeline {
 		throw new RenderException("Invalid draw direction!");
 	}
 
+	/**
+	 * Draws a face of a cube in a specified direction into a mesh buffer,
+	 * using the current color of the buffer.
+	 *
+	 * @param dir The direction of the face to make
+	 * @param buffer The buffer to use
+	 * @param minX Min X coord
+	 * @param minY Min Y coord
+	 * @param minZ Min Z coord
+	 * @param maxX Max X coord
+	 * @param maxY Max Y coord
+	 * @param maxZ Max Z coord
+	 * @param textureCoordinates Texture coordinates to render
+	 * @return The buffer, with the new face as its current face
+	 */
+	public static MeshBuffer drawDir(Direction dir,
+		MeshBuffer buffer,
+		double minX, double minY, double minZ,
+		double maxX, double maxY, double maxZ,
+		CubeTextureCoordinates textureCoordinates) {
+
+		if (dir == Direction.UNKNOWN) {
+			throw new RenderException("Invalid draw direction!");
+		}
+
+		buffer.beginFace(dir.x, dir.y, dir.z);
+		switch (dir) {
+			case DOWN:
+				//Top-left corner
+				buffer.vertex(maxX, minY, maxZ, textureCoordinates.getBottomMinU(), textureCoordinates.getBottomMinV());
+				//Top-right corner
+				buffer.vertex(minX, minY, maxZ, textureCoordinates.getBottomMaxU(), textureCoordinates.getBottomMinV());
+				//Bottom-right corner
+				buffer.vertex(minX, minY, minZ, textureCoordinates.getBottomMaxU(), textureCoordinates.getBottomMaxV());
+				//Bottom-left corner
+				buffer.vertex(maxX, minY, minZ, textureCoordinates.getBottomMinU(), textureCoordinates.getBottomMaxV());
+				return buffer;
+			case UP:
+				//Bottom-left corner
+				buffer.vertex(maxX, maxY, minZ, textureCoordinates.getTopMinU(), textureCoordinates.getTopMaxV());
+				//Bottom-right corner
+				buffer.vertex(minX, maxY, minZ, textureCoordinates.getTopMaxU(), textureCoordinates.getTopMaxV());
+				//Top-right corner
+				buffer.vertex(minX, maxY, maxZ, textureCoordinates.getTopMaxU(), textureCoordinates.getTopMinV());
+				//Top-left corner
+				buffer.vertex(maxX, maxY, maxZ, textureCoordinates.getTopMinU(), textureCoordinates.getTopMinV());
+				return buffer;
+			case NORTH:
+				//Top-left corner
+				buffer.vertex(minX, maxY, minZ, textureCoordinates.getNorthMinU(), textureCoordinates.getNorthMinV());
+				//Top-right corner
+				buffer.vertex(maxX, maxY, minZ, textureCoordinates.getNorthMaxU(), textureCoordinates.getNorthMinV());
+				//Bottom-right corner
+				buffer.vertex(maxX, minY, minZ, textureCoordinates.getNorthMaxU(), textureCoordinates.getNorthMaxV());
+				//Bottom-left corner
+				buffer.vertex(minX, minY, minZ, textureCoordinates.getNorthMinU(), textureCoordinates.getNorthMaxV());
+				return buffer;
+			case SOUTH:
+				//Bottom-left corner
+				buffer.vertex(minX, minY, maxZ, textureCoordinates.getSouthMinU(), textureCoordinates.getSouthMaxV());
+				//Bottom-right corner
+				buffer.vertex(maxX, minY, maxZ, textureCoordinates.getSouthMaxU(), textureCoordinates.getSouthMaxV());
+				//Top-right corner
+				buffer.vertex(maxX, maxY, maxZ, textureCoordinates.getSouthMaxU(), textureCoordinates.getSouthMinV());
+				//Top-left corner
+				buffer.vertex(minX, maxY, maxZ, textureCoordinates.getSouthMinU(), textureCoordinates.getSouthMinV());
+				return buffer;
+			case WEST:
+				//Bottom-left corner
+				buffer.vertex(minX, minY, minZ, textureCoordinates.getWestMinU(), textureCoordinates.getWestMaxV());
+				//Bottom-right corner
+				buffer.vertex(minX, minY, maxZ, textureCoordinates.getWestMaxU(), textureCoordinates.getWestMaxV());
+				//Top-right corner
+				buffer.vertex(minX, maxY, maxZ, textureCoordinates.getWestMaxU(), textureCoordinates.getWestMinV());
+				//Top-left corner
+				buffer.vertex(minX, maxY, minZ, textureCoordinates.getWestMinU(), textureCoordinates.getWestMinV());
+				return buffer;
+			case EAST:
+				//Top-left corner
+				buffer.vertex(maxX, maxY, minZ, textureCoordinates.getEastMinU(), textureCoordinates.getEastMinV());
+				//Top-right corner
+				buffer.vertex(maxX, maxY, maxZ, textureCoordinates.getEastMaxU(), textureCoordinates.getEastMinV());
+				//Bottom-right corner
+				buffer.vertex(maxX, minY, maxZ, textureCoordinates.getEastMaxU(), textureCoordinates.getEastMaxV());
+				//Bottom-left corner
+				buffer.vertex(maxX, minY, minZ, textureCoordinates.getEastMinU(), textureCoordinates.getEastMaxV());
+				return buffer;
+		}
+
+		throw new RenderException("Invalid draw direction!");
+	}
+
+	/**
+	 * Creates a face of the model through a mesh buffer, so that both share the same vertices.
+	 */
+	private static Face drawFace(Direction dir,
+		MeshModel model,
+		double minX, double minY, double minZ,
+		double maxX, double maxY, double maxZ,
+		CubeTextureCoordinates textureCoordinates) {
+
+		Face face = drawDir(dir, new MeshBuffer(1, 4), minX, minY, minZ, maxX, maxY, maxZ, textureCoordinates).getFace(0);
+		model.drawFace(face);
+		return face;
+	}
+
 	/**
 	 * Applies the textures to the model
 	 *
@@ -23,12 +23,19 @@ package nova.core.render.pipeline;
 import nova.core.block.Block;
 import nova.core.component.transform.BlockTransform;
 import nova.core.render.model.Face;
+import nova.core.render.model.MeshBuffer;
 import nova.core.render.model.MeshModel;
 import nova.core.render.model.Model;
+import nova.core.render.model.PackedMeshModel;
 import nova.core.render.texture.Texture;
 import nova.core.util.Direction;
+import nova.core.util.math.Matrix3;
+import nova.core.util.math.Matrix4;
 import nova.core.util.math.RotationUtil;
 import nova.core.util.shape.Cuboid;
+import nova.core.world.World;
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
 import java.util.Arrays;
 import java.util.Optional;
@@ -53,38 +60,71 @@ public class ConnectedTextureRenderPipeline extends BlockRenderPipeline {
 	 */
 	public Predicate<Direction> faceFilter = dir -> true;
 
+	/**
+	 * The last neighbour mask computed by the default {@link #connectMask}.
+	 */
+	private volatile NeighborMask neighborMask;
+
 	public ConnectedTextureRenderPipeline(Block block, Texture edgeTexture) {
 		super(block);
 		this.block = block;
 		this.edgeTexture = edgeTexture;
 
-		connectMask = () -> {
-			if (this.block.components.has(BlockTransform.class)) {
-				return Arrays.stream(Direction.VALID_DIRECTIONS)
-					.filter(d -> {
-						Optional<Block> b = this.block.world().getBlock(this.block.position().add(d.toVector()));
-						return b.isPresent() && b.get().sameType(this.block);
-					})
-					.map(d -> 1 << d.ordinal())
-					.reduce(0, (b, a) -> a | b);
-			}
-			return 0x0;
-		};
+		connectMask = this::neighborMask;
+		block.events.on(Block.NeighborChangeEvent.class).bind(evt -> neighborMask = null);
 
 		consumer = model -> {
 			//Render the block face
-			MeshModel vModel = new MeshModel();
-			draw(vModel);
-			model.addChild(vModel);
+			model.addChild(cache.isPresent() ? bake(cache.get()) : draw(new PackedMeshModel()));
 
 			//Render the block edge
-			for (Direction dir : Direction.VALID_DIRECTIONS)
+			int faceMask = 0;
+			for (Direction dir : Direction.VALID_DIRECTIONS) {
 				if (faceFilter.test(dir)) {
-					renderFace(dir, model);
+					faceMask |= 1 << dir.ordinal();
 				}
+			}
+			if (faceMask != 0) {
+				EdgeKey key = new EdgeKey(bounds.get(), edgeTexture, faceMask, connectMask.get());
+				model.addChild(new PackedMeshModel("", cache.orElse(BakedModelCache.instance).get(key, ConnectedTextureRenderPipeline::drawEdges)));
+			}
 		};
 	}
 
+	/**
+	 * Finds the neighbours of the same type. The mask is cached for the position of the block,
+	 * until a neighbour changes or the block is invalidated.
+	 *
+	 * @return The mask of connected sides
+	 */
+	private int neighborMask() {
+		if (!block.components.has(BlockTransform.class)) {
+			return 0x0;
+		}
+		World world = block.world();
+		Vector3D position = block.position();
+		NeighborMask cached = neighborMask;
+		if (cached != null && cached.world == world && cached.position.equals(position)) {
+			return cached.mask;
+		}
+
+		int mask = 0;
+		for (Direction dir : Direction.VALID_DIRECTIONS) {
+			Optional<Block> neighbor = world.getBlock(position.add(dir.toVector()));
+			if (neighbor.isPresent() && neighbor.get().sameType(block)) {
+				mask |= 1 << dir.ordinal();
+			}
+		}
+		neighborMask = new NeighborMask(world, position, mask);
+		return mask;
+	}
+
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		neighborMask = null;
+	}
+
 	public ConnectedTextureRenderPipeline withConnectMask(Supplier<Integer> connectMask) {
 		this.connectMask = connectMask;
 		return this;
@@ -127,19 +167,31 @@ public class ConnectedTextureRenderPipeline extends BlockRenderPipeline {
 
 	/**
 	 * Apply connected texture on top face.
+	 * The default consumer draws all edges from a baked mesh instead, see {@link #drawEdges(EdgeKey)}.
 	 *
 	 * @param direction the direction.
 	 * @param model the model.
 	 */
 	protected void renderFace(Direction direction, Model model) {
+		renderFace(direction, model, connectMask.get());
+	}
+
+	/**
+	 * Apply connected texture on top face.
+	 *
+	 * @param direction the direction.
+	 * @param model the model.
+	 * @param mask The mask of connected sides.
+	 */
+	protected void renderFace(Direction direction, Model model, int mask) {
+		Cuboid bounds = this.bounds.get();
 		for (int r = 0; r < 4; r++) {
-			Cuboid bound = bounds.get()
+			Cuboid bound = bounds
 				.subtract(0.5) //Correct translation
 				.add(direction.toVector().scalarMultiply(r * 0.0001d)); //Lift up texture slightly, preventing z-fighting
 
 			Direction absDir = Direction.fromOrdinal(RotationUtil.rotateSide(direction.opposite().ordinal(), r));
 
-			int mask = connectMask.get();
 			if ((mask & (1 << absDir.ordinal())) == 0) {
 				MeshModel innerModel = new MeshModel();
 				innerModel.matrix.rotate(direction.toVector(), Math.PI / 2 * r);
@@ -150,4 +202,93 @@ public class ConnectedTextureRenderPipeline extends BlockRenderPipeline {
 			}
 		}
 	}
+
+	/**
+	 * Draws the edges of all filtered faces, each rotated into place around its face normal.
+	 * There are at most 16 edge combinations per face, and the meshes are shared between blocks.
+	 *
+	 * @param key The bounds, texture, faces and connected sides
+	 * @return The edge mesh
+	 */
+	private static MeshBuffer drawEdges(EdgeKey key) {
+		MeshBuffer buffer = new MeshBuffer(24, 96);
+		MeshBuffer edge = new MeshBuffer(1, 4);
+		Matrix3 normalMatrix = new Matrix3();
+		for (Direction direction : Direction.VALID_DIRECTIONS) {
+			if ((key.faceMask & (1 << direction.ordinal())) == 0) {
+				continue;
+			}
+			for (int r = 0; r < 4; r++) {
+				Direction absDir = Direction.fromOrdinal(RotationUtil.rotateSide(direction.opposite().ordinal(), r));
+				if ((key.connectMask & (1 << absDir.ordinal())) != 0) {
+					continue;
+				}
+				Cuboid bound = key.bounds
+					.subtract(0.5) //Correct translation
+					.add(direction.toVector().scalarMultiply(r * 0.0001d)); //Lift up texture slightly, preventing z-fighting
+
+				edge.clear();
+				drawDir(direction, edge, bound.min.getX(), bound.min.getY(), bound.min.getZ(), bound.max.getX(), bound.max.getY(), bound.max.getZ(), StaticCubeTextureCoordinates.instance);
+				edge.texture(key.texture);
+				Matrix4 rotation = new Matrix4().rotate(new Rotation(direction.toVector(), Math.PI / 2 * r));
+				edge.transform(rotation, rotation.normalMatrix(normalMatrix));
+				buffer.addAll(edge);
+			}
+		}
+		return buffer;
+	}
+
+	/**
+	 * A neighbour mask and the position it was computed at.
+	 */
+	private static final class NeighborMask {
+		private final World world;
+		private final Vector3D position;
+		private final int mask;
+
+		private NeighborMask(World world, Vector3D position, int mask) {
+			this.world = world;
+			this.position = position;
+			this.mask = mask;
+		}
+	}
+
+	/**
+	 * The inputs of the baked edges. Textures are compared by identity.
+	 */
+	private static final class EdgeKey {
+		private final Cuboid bounds;
+		private final Texture texture;
+		private final int faceMask;
+		private final int connectMask;
+
+		private EdgeKey(Cuboid bounds, Texture texture, int faceMask, int connectMask) {
+			this.bounds = bounds;
+			this.texture = texture;
+			this.faceMask = faceMask;
+			this.connectMask = connectMask;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof EdgeKey)) {
+				return false;
+			}
+			EdgeKey key = (EdgeKey) obj;
+			return texture == key.texture && faceMask == key.faceMask && connectMask == key.connectMask
+				&& bounds.min.equals(key.bounds.min) && bounds.max.equals(key.bounds.max);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = System.identityHashCode(texture);
+			hash = 31 * hash + faceMask;
+			hash = 31 * hash + connectMask;
+			hash = 31 * hash + bounds.min.hashCode();
+			return 31 * hash + bounds.max.hashCode();
+		}
+	}
 }
\ No newline at end of file
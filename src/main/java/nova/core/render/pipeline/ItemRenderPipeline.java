@@ -23,8 +23,10 @@ package nova.core.render.pipeline;
 import nova.core.component.ComponentProvider;
 import nova.core.render.Color;
 import nova.core.render.model.Face;
+import nova.core.render.model.MeshBuffer;
 import nova.core.render.model.MeshModel;
-import nova.core.render.model.Vertex;
+import nova.core.render.model.PackedMeshModel;
+import nova.core.render.texture.AlphaMask;
 import nova.core.render.texture.Texture;
 import nova.core.util.Direction;
 import nova.core.util.math.Vector2DUtil;
@@ -34,6 +36,7 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -64,10 +67,22 @@ public class ItemRenderPipeline extends RenderPipeline {
 	 */
 	public Supplier<Color> colorMultiplier = () -> Color.white;
 
+	/**
+	 * Called to get the alpha mask of the item texture.
+	 * Items with a mask are extruded along the edges of their opaque pixels.
+	 * Returns - An optional of the mask.
+	 */
+	public Function<Texture, Optional<AlphaMask>> alphaMask = texture -> Optional.empty();
+
+	/**
+	 * The cache of extruded meshes.
+	 */
+	private BakedModelCache cache = BakedModelCache.instance;
+
 	public ItemRenderPipeline(ComponentProvider componentProvider) {
 		this.componentProvider = componentProvider;
 		size = () -> new Vector2D(1, 1);
-		consumer = model -> model.addChild(draw(new MeshModel()));
+		consumer = model -> model.addChild(extrude().<MeshModel>map(mesh -> new PackedMeshModel("", mesh)).orElseGet(() -> draw(new PackedMeshModel())));
 	}
 
 	/**
@@ -140,7 +155,72 @@ public class ItemRenderPipeline extends RenderPipeline {
 		return this;
 	}
 
+	/**
+	 * This method is called to specify the alpha masks of the item textures.
+	 *
+	 * @param alphaMask A function that takes a {@link nova.core.render.texture.Texture}
+	 * and returns its {@link nova.core.render.texture.AlphaMask}, if it has one.
+	 * @return this
+	 */
+	public ItemRenderPipeline withAlphaMask(Function<Texture, Optional<AlphaMask>> alphaMask) {
+		this.alphaMask = alphaMask;
+		return this;
+	}
+
+	/**
+	 * This method is called to specify the cache of extruded meshes,
+	 * defaults to {@link BakedModelCache#instance}.
+	 *
+	 * @param cache The {@link BakedModelCache} to use.
+	 * @return this
+	 */
+	public ItemRenderPipeline withCache(BakedModelCache cache) {
+		this.cache = Objects.requireNonNull(cache);
+		return this;
+	}
+
+	/**
+	 * Gets the extruded mesh of the item, if its texture has an alpha mask.
+	 * The mesh is cached per texture, size and color.
+	 *
+	 * @return The shared immutable mesh
+	 */
+	public Optional<MeshBuffer> extrude() {
+		Optional<Texture> texture = this.texture.get();
+		if (!texture.isPresent()) {
+			return Optional.empty();
+		}
+		Optional<AlphaMask> mask = alphaMask.apply(texture.get());
+		if (!mask.isPresent()) {
+			return Optional.empty();
+		}
+		ExtrusionKey key = new ExtrusionKey(texture.get(), size.get(), colorMultiplier.get());
+		return Optional.of(cache.get(key, k -> {
+			MeshBuffer buffer = new MeshBuffer().color(k.color);
+			drawExtrusion(buffer,
+				-k.size.getX() / 2, -k.size.getY() / 2, -0.5 / 16,
+				k.size.getX() / 2, k.size.getY() / 2, 0.5 / 16,
+				k.texture, mask.get());
+			return buffer;
+		}));
+	}
+
 	public MeshModel draw(MeshModel model) {
+		if (model instanceof PackedMeshModel) {
+			draw(((PackedMeshModel) model).buffer);
+			return model;
+		}
+
+		draw(new MeshBuffer()).getFaces().forEach(model::drawFace);
+		return model;
+	}
+
+	public MeshBuffer draw(MeshBuffer buffer) {
+		Optional<MeshBuffer> extruded = extrude();
+		if (extruded.isPresent()) {
+			return buffer.addAll(extruded.get());
+		}
+
 		Vector2D size = this.size.get();
 		double minX = -size.getX() / 2;
 		double minY = -size.getY() / 2;
@@ -149,21 +229,13 @@ public class ItemRenderPipeline extends RenderPipeline {
 		double maxY = size.getY() / 2;
 		double maxZ = 0.5 / 16;
 
-		Color color = colorMultiplier.get();
 		Optional<Texture> texture = this.texture.get();
-		Face face;
-		Set<Face> faces;
-
-		face = drawFront(model, minX, minY, minZ, maxX, maxY, maxZ, texture);
-		face.vertices.forEach(v -> v.color = color);
-		face = drawBack(model, minX, minY, minZ, maxX, maxY, maxZ, texture);
-		face.vertices.forEach(v -> v.color = color);
-		faces = drawUpAndDown(model, minX, minY, minZ, maxX, maxY, maxZ, texture);
-		faces.stream().flatMap(f -> f.vertices.stream()).forEach(v -> v.color = color);
-		faces = drawLeftAndRight(model, minX, minY, minZ, maxX, maxY, maxZ, texture);
-		faces.stream().flatMap(f -> f.vertices.stream()).forEach(v -> v.color = color);
-
-		return model;
+		buffer.color(colorMultiplier.get());
+		drawFront(buffer, minX, minY, minZ, maxX, maxY, maxZ, texture);
+		drawBack(buffer, minX, minY, minZ, maxX, maxY, maxZ, texture);
+		drawUpAndDown(buffer, minX, minY, minZ, maxX, maxY, maxZ, texture);
+		drawLeftAndRight(buffer, minX, minY, minZ, maxX, maxY, maxZ, texture);
+		return buffer.color(Color.white);
 	}
 
 	public static Face drawBack(
@@ -172,6 +244,54 @@ public class ItemRenderPipeline extends RenderPipeline {
 		double maxX, double maxY, double maxZ,
 		Optional<Texture> texture) {
 
+		return drawFace(model, drawBack(new MeshBuffer(1, 4), minX, minY, minZ, maxX, maxY, maxZ, texture));
+	}
+
+	public static Face drawFront(
+		MeshModel model,
+		double minX, double minY, double minZ,
+		double maxX, double maxY, double maxZ,
+		Optional<Texture> texture) {
+
+		return drawFace(model, drawFront(new MeshBuffer(1, 4), minX, minY, minZ, maxX, maxY, maxZ, texture));
+	}
+
+	public static Set<Face> drawUpAndDown(
+		MeshModel model,
+		double minX, double minY, double minZ,
+		double maxX, double maxY, double maxZ,
+		Optional<Texture> texture) {
+
+		return drawFaces(model, drawUpAndDown(new MeshBuffer(), minX, minY, minZ, maxX, maxY, maxZ, texture));
+	}
+
+	public static Set<Face> drawLeftAndRight(
+		MeshModel model,
+		double minX, double minY, double minZ,
+		double maxX, double maxY, double maxZ,
+		Optional<Texture> texture) {
+
+		return drawFaces(model, drawLeftAndRight(new MeshBuffer(), minX, minY, minZ, maxX, maxY, maxZ, texture));
+	}
+
+	private static Face drawFace(MeshModel model, MeshBuffer buffer) {
+		Face face = buffer.getFace(0);
+		model.drawFace(face);
+		return face;
+	}
+
+	private static Set<Face> drawFaces(MeshModel model, MeshBuffer buffer) {
+		Set<Face> faces = new HashSet<>(buffer.getFaces());
+		faces.forEach(model::drawFace);
+		return faces;
+	}
+
+	public static MeshBuffer drawBack(
+		MeshBuffer buffer,
+		double minX, double minY, double minZ,
+		double maxX, double maxY, double maxZ,
+		Optional<Texture> texture) {
+
 		Vector2D minUV;
 		Vector2D maxUV;
 
@@ -183,24 +303,20 @@ public class ItemRenderPipeline extends RenderPipeline {
 			maxUV = Vector2DUtil.ONE;
 		}
 
-		Face back = new Face();
-		back.texture = texture;
-		back.normal = Direction.NORTH.toVector();
+		buffer.beginFace(Direction.NORTH.toVector()).texture(texture);
 		//Top-left corner
-		back.drawVertex(new Vertex(minX, maxY, minZ, maxUV.getX(), maxUV.getY()));
+		buffer.vertex(minX, maxY, minZ, maxUV.getX(), maxUV.getY());
 		//Top-right corner
-		back.drawVertex(new Vertex(maxX, maxY, minZ, minUV.getX(), maxUV.getY()));
+		buffer.vertex(maxX, maxY, minZ, minUV.getX(), maxUV.getY());
 		//Bottom-right corner
-		back.drawVertex(new Vertex(maxX, minY, minZ, minUV.getX(), minUV.getY()));
+		buffer.vertex(maxX, minY, minZ, minUV.getX(), minUV.getY());
 		//Bottom-left corner
-		back.drawVertex(new Vertex(minX, minY, minZ, maxUV.getX(), minUV.getY()));
-		model.drawFace(back);
-
-		return back;
+		buffer.vertex(minX, minY, minZ, maxUV.getX(), minUV.getY());
+		return buffer;
 	}
 
-	public static Face drawFront(
-		MeshModel model,
+	public static MeshBuffer drawFront(
+		MeshBuffer buffer,
 		double minX, double minY, double minZ,
 		double maxX, double maxY, double maxZ,
 		Optional<Texture> texture) {
@@ -216,24 +332,20 @@ public class ItemRenderPipeline extends RenderPipeline {
 			maxUV = Vector2DUtil.ONE;
 		}
 
-		Face front = new Face();
-		front.texture = texture;
-		front.normal = Direction.SOUTH.toVector();
+		buffer.beginFace(Direction.SOUTH.toVector()).texture(texture);
 		//Bottom-left corner
-		front.drawVertex(new Vertex(minX, minY, maxZ, maxUV.getX(), minUV.getY()));
+		buffer.vertex(minX, minY, maxZ, maxUV.getX(), minUV.getY());
 		//Bottom-right corner
-		front.drawVertex(new Vertex(maxX, minY, maxZ, minUV.getX(), minUV.getY()));
+		buffer.vertex(maxX, minY, maxZ, minUV.getX(), minUV.getY());
 		//Top-right corner
-		front.drawVertex(new Vertex(maxX, maxY, maxZ, minUV.getX(), maxUV.getY()));
+		buffer.vertex(maxX, maxY, maxZ, minUV.getX(), maxUV.getY());
 		//Top-left corner
-		front.drawVertex(new Vertex(minX, maxY, maxZ, maxUV.getX(), maxUV.getY()));
-		model.drawFace(front);
-
-		return front;
+		buffer.vertex(minX, maxY, maxZ, maxUV.getX(), maxUV.getY());
+		return buffer;
 	}
 
-	public static Set<Face> drawUpAndDown(
-		MeshModel model,
+	public static MeshBuffer drawUpAndDown(
+		MeshBuffer buffer,
 		double minX, double minY, double minZ,
 		double maxX, double maxY, double maxZ,
 		Optional<Texture> texture) {
@@ -252,46 +364,35 @@ public class ItemRenderPipeline extends RenderPipeline {
 			dimensions = new Vector2D(1, 1);
 		}
 
-		Set<Face> faces = new HashSet<>();
-
 		double pixelHeight = (maxUV.getY() - minUV.getY()) / dimensions.getY();
 		double voxelHeight = Math.abs(maxY - minY) / dimensions.getY();
 
 		for (int i = 0; i < dimensions.getY(); i++) {
-			Face up = new Face();
-			up.texture = texture;
-			up.normal = Direction.UP.toVector();
+			buffer.beginFace(Direction.UP.toVector()).texture(texture);
 			//Bottom-left corner
-			up.drawVertex(new Vertex(maxX, interpolate(minY, maxY, i + 1, voxelHeight), minZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight)));
+			buffer.vertex(maxX, interpolate(minY, maxY, i + 1, voxelHeight), minZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight));
 			//Bottom-right corner
-			up.drawVertex(new Vertex(minX, interpolate(minY, maxY, i + 1, voxelHeight), minZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight)));
+			buffer.vertex(minX, interpolate(minY, maxY, i + 1, voxelHeight), minZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight));
 			//Top-right corner
-			up.drawVertex(new Vertex(minX, interpolate(minY, maxY, i + 1, voxelHeight), maxZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight)));
+			buffer.vertex(minX, interpolate(minY, maxY, i + 1, voxelHeight), maxZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight));
 			//Top-left corner
-			up.drawVertex(new Vertex(maxX, interpolate(minY, maxY, i + 1, voxelHeight), maxZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight)));
-			model.drawFace(up);
-			faces.add(up);
+			buffer.vertex(maxX, interpolate(minY, maxY, i + 1, voxelHeight), maxZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight));
 
-			Face down = new Face();
-			down.texture = texture;
-			down.normal = Direction.DOWN.toVector();
+			buffer.beginFace(Direction.DOWN.toVector()).texture(texture);
 			//Top-left corner
-			down.drawVertex(new Vertex(maxX, interpolate(minY, maxY, i, voxelHeight), maxZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight)));
+			buffer.vertex(maxX, interpolate(minY, maxY, i, voxelHeight), maxZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight));
 			//Top-right corner
-			down.drawVertex(new Vertex(minX, interpolate(minY, maxY, i, voxelHeight), maxZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight)));
+			buffer.vertex(minX, interpolate(minY, maxY, i, voxelHeight), maxZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i, pixelHeight));
 			//Bottom-right corner
-			down.drawVertex(new Vertex(minX, interpolate(minY, maxY, i, voxelHeight), minZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight)));
+			buffer.vertex(minX, interpolate(minY, maxY, i, voxelHeight), minZ, maxUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight));
 			//Bottom-left corner
-			down.drawVertex(new Vertex(maxX, interpolate(minY, maxY, i, voxelHeight), minZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight)));
-			model.drawFace(down);
-			faces.add(down);
+			buffer.vertex(maxX, interpolate(minY, maxY, i, voxelHeight), minZ, minUV.getX(), interpolate(minUV.getY(), maxUV.getY(), ((int)dimensions.getY()) - i - 1, pixelHeight));
 		}
-
-		return faces;
+		return buffer;
 	}
 
-	public static Set<Face> drawLeftAndRight(
-		MeshModel model,
+	public static MeshBuffer drawLeftAndRight(
+		MeshBuffer buffer,
 		double minX, double minY, double minZ,
 		double maxX, double maxY, double maxZ,
 		Optional<Texture> texture) {
@@ -310,43 +411,170 @@ public class ItemRenderPipeline extends RenderPipeline {
 			dimensions = new Vector2D(1, 1);
 		}
 
-		Set<Face> faces = new HashSet<>();
-
 		double pixelWidth = (maxUV.getX() - minUV.getX()) / dimensions.getX();
 		double voxelWidth = Math.abs(maxX - minX) / dimensions.getX();
 
 
 		for (int i = 0; i < dimensions.getX(); i++) {
-			Face left = new Face();
-			left.texture = texture;
-			left.normal = Direction.WEST.toVector();
+			buffer.beginFace(Direction.WEST.toVector()).texture(texture);
 			//Bottom-left corner
-			left.drawVertex(new Vertex(interpolate(minX, maxX, i, voxelWidth), minY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), minUV.getY()));
+			buffer.vertex(interpolate(minX, maxX, i, voxelWidth), minY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), minUV.getY());
 			//Bottom-right corner
-			left.drawVertex(new Vertex(interpolate(minX, maxX, i, voxelWidth), minY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), minUV.getY()));
+			buffer.vertex(interpolate(minX, maxX, i, voxelWidth), minY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), minUV.getY());
 			//Top-right corner
-			left.drawVertex(new Vertex(interpolate(minX, maxX, i, voxelWidth), maxY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), maxUV.getY()));
+			buffer.vertex(interpolate(minX, maxX, i, voxelWidth), maxY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), maxUV.getY());
 			//Top-left corner
-			left.drawVertex(new Vertex(interpolate(minX, maxX, i, voxelWidth), maxY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), maxUV.getY()));
-			model.drawFace(left);
-			faces.add(left);
+			buffer.vertex(interpolate(minX, maxX, i, voxelWidth), maxY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), maxUV.getY());
 
-			Face right = new Face();
-			right.texture = texture;
-			right.normal = Direction.EAST.toVector();
+			buffer.beginFace(Direction.EAST.toVector()).texture(texture);
 			//Top-left corner
-			right.drawVertex(new Vertex(interpolate(minX, maxX, i + 1, voxelWidth), maxY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), maxUV.getY()));
+			buffer.vertex(interpolate(minX, maxX, i + 1, voxelWidth), maxY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), maxUV.getY());
 			//Top-right corner
-			right.drawVertex(new Vertex(interpolate(minX, maxX, i + 1, voxelWidth), maxY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), maxUV.getY()));
+			buffer.vertex(interpolate(minX, maxX, i + 1, voxelWidth), maxY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), maxUV.getY());
 			//Bottom-right corner
-			right.drawVertex(new Vertex(interpolate(minX, maxX, i + 1, voxelWidth), minY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), minUV.getY()));
+			buffer.vertex(interpolate(minX, maxX, i + 1, voxelWidth), minY, maxZ, interpolate(minUV.getX(), maxUV.getX(), i + 1, pixelWidth), minUV.getY());
 			//Bottom-left corner
-			right.drawVertex(new Vertex(interpolate(minX, maxX, i + 1, voxelWidth), minY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), minUV.getY()));
-			model.drawFace(right);
-			faces.add(right);
+			buffer.vertex(interpolate(minX, maxX, i + 1, voxelWidth), minY, minZ, interpolate(minUV.getX(), maxUV.getX(), i, pixelWidth), minUV.getY());
 		}
+		return buffer;
+	}
 
-		return faces;
+	/**
+	 * Draws the front and back of an item, and the edges of its opaque pixels.
+	 * Adjacent edges facing the same way are merged into one face.
+	 *
+	 * @param buffer The buffer to draw into
+	 * @param minX Min X coord
+	 * @param minY Min Y coord
+	 * @param minZ Min Z coord
+	 * @param maxX Max X coord
+	 * @param maxY Max Y coord
+	 * @param maxZ Max Z coord
+	 * @param texture The item texture
+	 * @param mask The alpha mask of the texture
+	 * @return The buffer
+	 */
+	public static MeshBuffer drawExtrusion(
+		MeshBuffer buffer,
+		double minX, double minY, double minZ,
+		double maxX, double maxY, double maxZ,
+		Texture texture, AlphaMask mask) {
+
+		drawFront(buffer, minX, minY, minZ, maxX, maxY, maxZ, Optional.of(texture));
+		drawBack(buffer, minX, minY, minZ, maxX, maxY, maxZ, Optional.of(texture));
+
+		int width = mask.width;
+		int height = mask.height;
+		double lowX = Math.min(minX, maxX);
+		double lowY = Math.min(minY, maxY);
+		double lowU = Math.min(texture.minUV.getX(), texture.maxUV.getX());
+		double lowV = Math.min(texture.minUV.getY(), texture.maxUV.getY());
+		double voxelWidth = Math.abs(maxX - minX) / width;
+		double voxelHeight = Math.abs(maxY - minY) / height;
+		double pixelWidth = Math.abs(texture.maxUV.getX() - texture.minUV.getX()) / width;
+		double pixelHeight = Math.abs(texture.maxUV.getY() - texture.minUV.getY()) / height;
+
+		//The mask with a transparent border, so neighbours can be read without bounds checks
+		int stride = width + 2;
+		boolean[] opaque = new boolean[stride * (height + 2)];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				opaque[(y + 1) * stride + x + 1] = mask.isOpaque(x, y);
+			}
+		}
+
+		//Rows of top and bottom edges
+		for (int y = 0; y < height; y++) {
+			double top = lowY + (height - y) * voxelHeight;
+			double bottom = top - voxelHeight;
+			double topV = lowV + y * pixelHeight;
+			double bottomV = topV + pixelHeight;
+			for (int x = 0; x < width; ) {
+				int start = x;
+				while (x < width && opaque[(y + 1) * stride + x + 1] && !opaque[y * stride + x + 1]) {
+					x++;
+				}
+				if (x > start) {
+					double left = lowX + start * voxelWidth;
+					double right = lowX + x * voxelWidth;
+					double leftU = lowU + start * pixelWidth;
+					double rightU = lowU + x * pixelWidth;
+					buffer.beginFace(Direction.UP.toVector()).texture(texture);
+					buffer.vertex(right, top, minZ, rightU, topV);
+					buffer.vertex(left, top, minZ, leftU, topV);
+					buffer.vertex(left, top, maxZ, leftU, bottomV);
+					buffer.vertex(right, top, maxZ, rightU, bottomV);
+				} else {
+					x++;
+				}
+			}
+			for (int x = 0; x < width; ) {
+				int start = x;
+				while (x < width && opaque[(y + 1) * stride + x + 1] && !opaque[(y + 2) * stride + x + 1]) {
+					x++;
+				}
+				if (x > start) {
+					double left = lowX + start * voxelWidth;
+					double right = lowX + x * voxelWidth;
+					double leftU = lowU + start * pixelWidth;
+					double rightU = lowU + x * pixelWidth;
+					buffer.beginFace(Direction.DOWN.toVector()).texture(texture);
+					buffer.vertex(right, bottom, maxZ, rightU, bottomV);
+					buffer.vertex(left, bottom, maxZ, leftU, bottomV);
+					buffer.vertex(left, bottom, minZ, leftU, topV);
+					buffer.vertex(right, bottom, minZ, rightU, topV);
+				} else {
+					x++;
+				}
+			}
+		}
+
+		//Columns of left and right edges
+		for (int x = 0; x < width; x++) {
+			double left = lowX + x * voxelWidth;
+			double right = left + voxelWidth;
+			double leftU = lowU + x * pixelWidth;
+			double rightU = leftU + pixelWidth;
+			for (int y = 0; y < height; ) {
+				int start = y;
+				while (y < height && opaque[(y + 1) * stride + x + 1] && !opaque[(y + 1) * stride + x]) {
+					y++;
+				}
+				if (y > start) {
+					double top = lowY + (height - start) * voxelHeight;
+					double bottom = lowY + (height - y) * voxelHeight;
+					double topV = lowV + start * pixelHeight;
+					double bottomV = lowV + y * pixelHeight;
+					buffer.beginFace(Direction.WEST.toVector()).texture(texture);
+					buffer.vertex(left, bottom, minZ, leftU, bottomV);
+					buffer.vertex(left, bottom, maxZ, rightU, bottomV);
+					buffer.vertex(left, top, maxZ, rightU, topV);
+					buffer.vertex(left, top, minZ, leftU, topV);
+				} else {
+					y++;
+				}
+			}
+			for (int y = 0; y < height; ) {
+				int start = y;
+				while (y < height && opaque[(y + 1) * stride + x + 1] && !opaque[(y + 1) * stride + x + 2]) {
+					y++;
+				}
+				if (y > start) {
+					double top = lowY + (height - start) * voxelHeight;
+					double bottom = lowY + (height - y) * voxelHeight;
+					double topV = lowV + start * pixelHeight;
+					double bottomV = lowV + y * pixelHeight;
+					buffer.beginFace(Direction.EAST.toVector()).texture(texture);
+					buffer.vertex(right, top, minZ, leftU, topV);
+					buffer.vertex(right, top, maxZ, rightU, topV);
+					buffer.vertex(right, bottom, maxZ, rightU, bottomV);
+					buffer.vertex(right, bottom, minZ, leftU, bottomV);
+				} else {
+					y++;
+				}
+			}
+		}
+		return buffer;
 	}
 
 	private static double interpolate(double min, double max, int index, double indexSize) {
@@ -366,4 +594,36 @@ public class ItemRenderPipeline extends RenderPipeline {
 
 		return min == max ? min : max;
 	}
+
+	/**
+	 * The inputs of an extruded item mesh. Textures are compared by identity.
+	 */
+	private static final class ExtrusionKey {
+		private final Texture texture;
+		private final Vector2D size;
+		private final Color color;
+
+		private ExtrusionKey(Texture texture, Vector2D size, Color color) {
+			this.texture = texture;
+			this.size = size;
+			this.color = color;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ExtrusionKey)) {
+				return false;
+			}
+			ExtrusionKey key = (ExtrusionKey) obj;
+			return texture == key.texture && size.equals(key.size) && color.equals(key.color);
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(texture) * 31 + size.hashCode()) * 31 + color.hashCode();
+		}
+	}
 }
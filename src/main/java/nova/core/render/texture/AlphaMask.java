@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.texture;
+
+import nova.core.render.RenderException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.BitSet;
+
+/**
+ * The opaque pixels of a texture image.
+ *
+ * @see nova.core.render.pipeline.ItemRenderPipeline#withAlphaMask(java.util.function.Function)
+ */
+public final class AlphaMask {
+
+	public final int width;
+	public final int height;
+	private final BitSet opaque;
+
+	private AlphaMask(int width, int height, BitSet opaque) {
+		this.width = width;
+		this.height = height;
+		this.opaque = opaque;
+	}
+
+	/**
+	 * Creates the mask of ARGB pixels. Pixels with any alpha are opaque.
+	 *
+	 * @param width The image width
+	 * @param height The image height
+	 * @param argb The pixels, row by row from the top
+	 * @return The mask
+	 */
+	public static AlphaMask of(int width, int height, int[] argb) {
+		if (width <= 0 || height <= 0 || argb.length < width * height) {
+			throw new RenderException("Invalid alpha mask size: %sx%s with %s pixels", width, height, argb.length);
+		}
+		BitSet opaque = new BitSet(width * height);
+		for (int i = 0; i < width * height; i++) {
+			if ((argb[i] >>> 24) != 0) {
+				opaque.set(i);
+			}
+		}
+		return new AlphaMask(width, height, opaque);
+	}
+
+	/**
+	 * Reads the mask of an image.
+	 *
+	 * @param stream The image stream, in any format supported by {@link ImageIO}
+	 * @return The mask
+	 * @throws IOException If the image cannot be read
+	 */
+	public static AlphaMask read(InputStream stream) throws IOException {
+		BufferedImage image = ImageIO.read(stream);
+		if (image == null) {
+			throw new IOException("Unsupported image format");
+		}
+		int width = image.getWidth();
+		int height = image.getHeight();
+		return of(width, height, image.getRGB(0, 0, width, height, null, 0, width));
+	}
+
+	/**
+	 * @param x The pixel column, from the left
+	 * @param y The pixel row, from the top
+	 * @return Whether the pixel is opaque. Pixels outside of the image are transparent.
+	 */
+	public boolean isOpaque(int x, int y) {
+		return x >= 0 && y >= 0 && x < width && y < height && opaque.get(y * width + x);
+	}
+
+	@Override
+	public String toString() {
+		return "AlphaMask[" + width + "x" + height + ", " + opaque.cardinality() + " opaque]";
+	}
+}
@@ -28,23 +28,30 @@ import javax.json.JsonValue;
 import javax.json.stream.JsonGenerator;
 import javax.json.stream.JsonParser;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
-import java.util.stream.LongStream;
+import java.util.stream.Collectors;
 
 /**
  * The data class is capable of storing named data.
@@ -65,14 +72,14 @@ import java.util.stream.LongStream;
  * - {@link Enum Enumerator}<br>
  * - {@link Storable} (Converted into Data)<br>
  * - {@link Data}<br>
- * - {@link Collection} (Converted into Data)<br>
+ * - {@link Collection} (Converted into a {@link List})<br>
+ * - int[], long[], double[] and byte[]<br>
  * - {@link Vector3D}<br>
  * - {@link Vector2D}<br>
  * - {@link Class}<br>
  * - {@link UUID}<br>
  * @author Calclavia
  */
-//TODO: Add collection and array support
 public class Data extends HashMap<String, Object> {
 
 	private static final long serialVersionUID = 1L;
@@ -96,7 +103,27 @@ public class Data extends HashMap<String, Object> {
 		Vector3D.class,
 		Vector2D.class,
 		Class.class,
-		UUID.class
+		UUID.class,
+		//Primitive arrays are stored as they are.
+		int[].class,
+		long[].class,
+		double[].class,
+		byte[].class
+	};
+
+	/**
+	 * The index in {@link #dataTypes} of each class.
+	 */
+	private static final ClassValue<Integer> typeIndices = new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> type) {
+			for (int i = 0; i < dataTypes.length; i++) {
+				if (dataTypes[i].isAssignableFrom(type)) {
+					return i;
+				}
+			}
+			return -1;
+		}
 	};
 
 	/**
@@ -111,7 +138,11 @@ public class Data extends HashMap<String, Object> {
 	}
 
 	public Data(Class<?> clazz) {
-		className = clazz.getName();
+		this(clazz.getName());
+	}
+
+	Data(String className) {
+		this.className = className;
 		super.put("class", className);
 	}
 
@@ -189,6 +220,9 @@ public class Data extends HashMap<String, Object> {
 	 */
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	public static <T> T unserialize(Data data) {
+		if (data.isCollection()) {
+			return (T) data.toList();
+		}
 		try {
 			Class<T> clazz = (Class<T>) Class.forName((String) data.get("class"));
 			if (clazz.isEnum()) {
@@ -200,9 +234,7 @@ public class Data extends HashMap<String, Object> {
 			} else if (clazz == UUID.class) {
 				return (T) UUID.fromString(data.get("uuid"));
 			} else if (clazz == Collection.class) {
-				ArrayList<T> ret = new ArrayList<>(data.size());
-				LongStream.range(0, data.size() - 1).forEachOrdered(i -> ret.add(data.get(Long.toUnsignedString(i))));
-				return (T) ret;
+				return (T) data.toList();
 			} else if (clazz == Class.class) {
 				return (T) Class.forName(data.get("name"));
 			} else if (Storable.class.isAssignableFrom(clazz)) {
@@ -241,29 +273,58 @@ public class Data extends HashMap<String, Object> {
 		super.putAll(m);
 	}
 
+	/**
+	 * Gets the index of the first of the {@link #dataTypes} that a class is assignable to,
+	 * which is used as the type tag of values of that class.
+	 * The index of each class is looked up once, so {@link #dataTypes} must not be changed.
+	 *
+	 * @param type - The class
+	 * @return The index, or -1 if values of the class cannot be stored.
+	 */
+	public static int typeOf(Class<?> type) {
+		return typeIndices.get(type);
+	}
+
 	@Override
-	@SuppressWarnings({"unchecked", "rawtypes"})
 	public Object put(String key, Object value) {
 		assert key != null && value != null;
 		assert !key.equals("class");
-		final Object check = value;
-		assert Arrays.stream(dataTypes).anyMatch(clazz -> clazz.isAssignableFrom(check.getClass()));
+		assert typeOf(value.getClass()) >= 0;
+
+		return super.put(key, toDataValue(value));
+	}
+
+	/**
+	 * Puts a value that is already in its stored form, such as a list being read.
+	 */
+	Object putRaw(String key, Object value) {
+		return super.put(key, value);
+	}
 
+	/**
+	 * Converts a value into the form it is stored in.
+	 * Primitive arrays are copied, so that the data does not change with the array it was given.
+	 *
+	 * @param value - The value
+	 * @return The value, or its Data or List representation.
+	 */
+	@SuppressWarnings("rawtypes")
+	private static Object toDataValue(Object value) {
 		if (value instanceof Enum) {
 			Data enumData = new Data(value.getClass());
 			enumData.put("value", ((Enum) value).name());
-			value = enumData;
+			return enumData;
 		} else if (value instanceof Vector3D) {
 			Data vectorData = new Data(Vector3D.class);
 			vectorData.put("x", ((Vector3D) value).getX());
 			vectorData.put("y", ((Vector3D) value).getY());
 			vectorData.put("z", ((Vector3D) value).getZ());
-			value = vectorData;
+			return vectorData;
 		} else if (value instanceof Vector2D) {
 			Data vectorData = new Data(Vector2D.class);
 			vectorData.put("x", ((Vector2D) value).getX());
 			vectorData.put("y", ((Vector2D) value).getY());
-			value = vectorData;
+			return vectorData;
 		} else if (value instanceof UUID) {
 			Data uuidData = new Data(UUID.class);
 			uuidData.put("uuid", value.toString());
@@ -273,17 +334,78 @@ public class Data extends HashMap<String, Object> {
 			classData.put("name", ((Class) value).getName());
 			return classData;
 		} else if (value instanceof Collection) {
-			Data collectionData = new Data(value.getClass());
-			collectionData.put("isCollection", true);
-			long l = 0;
-			for (Object obj : (Collection<?>)value)
-				collectionData.put(Long.toString(l++), obj);
-			value = collectionData;
+			List<Object> list = new ArrayList<>(((Collection) value).size());
+			for (Object obj : (Collection<?>) value)
+				list.add(toDataValue(obj));
+			return list;
 		} else if (value instanceof Storable) {
-			value = serialize((Storable) value);
+			return serialize((Storable) value);
+		} else if (value instanceof int[]) {
+			return ((int[]) value).clone();
+		} else if (value instanceof long[]) {
+			return ((long[]) value).clone();
+		} else if (value instanceof double[]) {
+			return ((double[]) value).clone();
+		} else if (value instanceof byte[]) {
+			return ((byte[]) value).clone();
 		}
+		return value;
+	}
 
-		return super.put(key, value);
+	/**
+	 * Compares data by their entries, with primitive arrays compared by their content.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		} else if (!(o instanceof Map) || ((Map<?, ?>) o).size() != size()) {
+			return false;
+		}
+		Map<?, ?> other = (Map<?, ?>) o;
+		for (Map.Entry<String, Object> entry : entrySet()) {
+			Object value = entry.getValue();
+			Object otherValue = other.get(entry.getKey());
+			if (value == null ? otherValue != null || !other.containsKey(entry.getKey()) : !valueEquals(value, otherValue)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (Map.Entry<String, Object> entry : entrySet()) {
+			hash += Objects.hashCode(entry.getKey()) ^ valueHashCode(entry.getValue());
+		}
+		return hash;
+	}
+
+	private static boolean valueEquals(Object value, Object other) {
+		if (value instanceof int[] && other instanceof int[]) {
+			return Arrays.equals((int[]) value, (int[]) other);
+		} else if (value instanceof long[] && other instanceof long[]) {
+			return Arrays.equals((long[]) value, (long[]) other);
+		} else if (value instanceof double[] && other instanceof double[]) {
+			return Arrays.equals((double[]) value, (double[]) other);
+		} else if (value instanceof byte[] && other instanceof byte[]) {
+			return Arrays.equals((byte[]) value, (byte[]) other);
+		}
+		return value.equals(other);
+	}
+
+	private static int valueHashCode(Object value) {
+		if (value instanceof int[]) {
+			return Arrays.hashCode((int[]) value);
+		} else if (value instanceof long[]) {
+			return Arrays.hashCode((long[]) value);
+		} else if (value instanceof double[]) {
+			return Arrays.hashCode((double[]) value);
+		} else if (value instanceof byte[]) {
+			return Arrays.hashCode((byte[]) value);
+		}
+		return Objects.hashCode(value);
 	}
 
 	/**
@@ -332,12 +454,99 @@ public class Data extends HashMap<String, Object> {
 		}
 	}
 
+	/**
+	 * Gets a collection. Collections stored in the index keyed layout of older saves are converted.
+	 * Primitive arrays are boxed.
+	 *
+	 * @param key - The key
+	 * @param <T> - The element type
+	 * @return The stored list
+	 */
 	@SuppressWarnings("unchecked")
 	public <T> List<T> getCollection(String key) {
-		Data data = this.get(key);
-		ArrayList<T> ret = new ArrayList<>(data.size());
-		LongStream.range(0, data.size() - 1).forEachOrdered(i -> ret.add(data.get(Long.toUnsignedString(i))));
-		return ret;
+		return (List<T>) toList(get(key));
+	}
+
+	public int[] getIntArray(String key) {
+		return toIntArray(get(key));
+	}
+
+	public long[] getLongArray(String key) {
+		return toLongArray(get(key));
+	}
+
+	public double[] getDoubleArray(String key) {
+		return toDoubleArray(get(key));
+	}
+
+	public byte[] getByteArray(String key) {
+		return toByteArray(get(key));
+	}
+
+	/**
+	 * @return True if this is a collection stored in the index keyed layout of older saves.
+	 */
+	public boolean isCollection() {
+		return Boolean.TRUE.equals(get("isCollection"));
+	}
+
+	/**
+	 * Converts a collection stored in the index keyed layout of older saves.
+	 *
+	 * @return The elements of this data in index order.
+	 */
+	public List<Object> toList() {
+		List<Object> list = new ArrayList<>(size());
+		Object element;
+		for (int i = 0; (element = get(Integer.toString(i))) != null; i++)
+			list.add(element);
+		return list;
+	}
+
+	@SuppressWarnings("unchecked")
+	static List<Object> toList(Object value) {
+		if (value instanceof List) {
+			return (List<Object>) value;
+		} else if (value instanceof Collection) {
+			return new ArrayList<>((Collection<?>) value);
+		} else if (value instanceof Data) {
+			return ((Data) value).toList();
+		} else if (value instanceof int[]) {
+			return Arrays.stream((int[]) value).boxed().collect(Collectors.toList());
+		} else if (value instanceof long[]) {
+			return Arrays.stream((long[]) value).boxed().collect(Collectors.toList());
+		} else if (value instanceof double[]) {
+			return Arrays.stream((double[]) value).boxed().collect(Collectors.toList());
+		} else if (value instanceof byte[]) {
+			List<Object> list = new ArrayList<>(((byte[]) value).length);
+			for (byte b : (byte[]) value)
+				list.add(b);
+			return list;
+		}
+		throw new DataException("Not a collection: " + value);
+	}
+
+	static int[] toIntArray(Object value) {
+		return value instanceof int[] ? ((int[]) value).clone() : toList(value).stream().mapToInt(n -> ((Number) n).intValue()).toArray();
+	}
+
+	static long[] toLongArray(Object value) {
+		return value instanceof long[] ? ((long[]) value).clone() : toList(value).stream().mapToLong(n -> ((Number) n).longValue()).toArray();
+	}
+
+	static double[] toDoubleArray(Object value) {
+		return value instanceof double[] ? ((double[]) value).clone() : toList(value).stream().mapToDouble(n -> ((Number) n).doubleValue()).toArray();
+	}
+
+	static byte[] toByteArray(Object value) {
+		if (value instanceof byte[]) {
+			return ((byte[]) value).clone();
+		}
+		List<Object> list = toList(value);
+		byte[] array = new byte[list.size()];
+		for (int i = 0; i < array.length; i++)
+			array[i] = ((Number) list.get(i)).byteValue();
+		return array;
 	}
 
 	public <T> Class<T> getClass(String key) {
@@ -370,196 +579,316 @@ public class Data extends HashMap<String, Object> {
 
 	public static String toJSON(Data data) {
 		StringWriter writer = new StringWriter();
+		toJSON(data, writer);
+		return writer.toString();
+	}
+
+	/**
+	 * Writes data as JSON while it is being generated.
+	 *
+	 * @param data - The data
+	 * @param writer - The writer to write to, closed afterwards.
+	 */
+	public static void toJSON(Data data, Writer writer) {
 		try (JsonGenerator gen = Json.createGenerator(writer)) {
 			toJSON(data, gen);
 		}
-		return writer.toString();
+	}
+
+	/**
+	 * Writes data as UTF-8 encoded JSON while it is being generated.
+	 *
+	 * @param data - The data
+	 * @param out - The stream to write to, closed afterwards.
+	 */
+	public static void toJSON(Data data, OutputStream out) {
+		try (JsonGenerator gen = Json.createGenerator(out)) {
+			toJSON(data, gen);
+		}
 	}
 
 	public static Data fromJSON(JsonParser reader) {
-		Set<Data> rootDatas = new HashSet<>();
-		LinkedList<Data> dataStack = new LinkedList<>();
-		LinkedList<String> nameStack = new LinkedList<>();
-		LinkedList<Boolean> arrayStack = new LinkedList<>();
-		while (reader.hasNext()) {
-			switch (reader.next()) {
-				case START_ARRAY: {
-					arrayStack.push(true);
-					dataStack.push(new Data());
-					dataStack.peek().put("isCollection", true);
-					nameStack.push("0");
-					break;
-				} case START_OBJECT: {
-					arrayStack.push(false);
-					dataStack.push(new Data());
-					break;
-				} case KEY_NAME: {
-					nameStack.push(reader.getString());
-					break;
-				} case VALUE_STRING: {
-					String key = getKey(nameStack, arrayStack);
-					dataStack.peek().put(key, reader.getString());
-					break;
-				} case VALUE_NUMBER: {
-					String key = getKey(nameStack, arrayStack);
-					BigDecimal number = reader.getBigDecimal();
-					if (reader.isIntegralNumber()) {
-						try {
-							dataStack.peek().put(key, number.intValueExact());
-						} catch (ArithmeticException ex) {
-							try {
-								dataStack.peek().put(key, number.longValueExact());
-							} catch (ArithmeticException ex1) {
-								dataStack.peek().put(key, number.toBigInteger());
-							}
-						}
-					} else {
-						double d = number.doubleValue();
-						if (d == Double.POSITIVE_INFINITY || d == Double.NEGATIVE_INFINITY)
-							dataStack.peek().put(key, number);
-						else
-							dataStack.peek().put(key, d);
-					}
-					break;
-				} case VALUE_TRUE: {
-					String key = getKey(nameStack, arrayStack);
-					dataStack.peek().put(key, true);
-					break;
-				} case VALUE_FALSE: {
-					String key = getKey(nameStack, arrayStack);
-					dataStack.peek().put(key, false);
-					break;
-				} case VALUE_NULL: { // Ignore nulls
-					getKey(nameStack, arrayStack);
-					break;
-				} case END_OBJECT: case END_ARRAY: {
-					arrayStack.pop();
-					Data data = dataStack.pop();
-					if (!dataStack.isEmpty())
-						dataStack.peek().put(nameStack.pop(), data);
-					else
-						rootDatas.add(data);
-					break;
-				} default:
-					throw new AssertionError(reader.next().name());
-			}
+		return new JSONReader().read(reader);
+	}
+
+	public static Data fromJSON(String string) {
+		return fromJSON(new StringReader(string));
+	}
+
+	/**
+	 * Reads JSON data while it is being parsed.
+	 *
+	 * @param reader - The reader to read from, closed afterwards.
+	 * @return The data
+	 */
+	public static Data fromJSON(Reader reader) {
+		try (JsonParser parser = Json.createParser(reader)) {
+			return fromJSON(parser);
 		}
-		if (!rootDatas.isEmpty()) {
-			if (rootDatas.size() == 1) {
-				return rootDatas.stream().findFirst().get();
-			} else {
-				Data root = new Data();
-				root.put("isCollection", true);
-				long l = 0;
-				for (Data data : rootDatas)
-					root.put(Long.toUnsignedString(l++), data);
-				return root;
-			}
+	}
+
+	/**
+	 * Reads UTF-8 encoded JSON data while it is being parsed.
+	 *
+	 * @param in - The stream to read from, closed afterwards.
+	 * @return The data
+	 */
+	public static Data fromJSON(InputStream in) {
+		try (JsonParser parser = Json.createParser(in)) {
+			return fromJSON(parser);
 		}
-		return new Data();
 	}
 
-	public static Data fromJSON(String string) {
-		try (JsonParser reader = Json.createParser(new StringReader(string))) {
-			return fromJSON(reader);
+	public byte[] toBinary() {
+		return toBinary(this);
+	}
+
+	/**
+	 * Writes data in the binary format of {@link DataEncoder}.
+	 *
+	 * @param data - The data
+	 * @return The encoded data
+	 */
+	public static byte[] toBinary(Data data) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try {
+			new DataEncoder(new DataOutputStream(bytes)).write(Objects.requireNonNull(data));
+		} catch (IOException e) {
+			throw new DataException(e);
 		}
+		return bytes.toByteArray();
 	}
 
-	private static String getKey(LinkedList<String> nameStack, LinkedList<Boolean> arrayStack) {
-		if (arrayStack.peek()) {
-			long name = Long.parseUnsignedLong(nameStack.pop());
-			nameStack.push(Long.toUnsignedString(name + 1));
-			return Long.toUnsignedString(name);
-		} else {
-			return nameStack.pop();
+	/**
+	 * Reads data written by {@link #toBinary(Data)}.
+	 *
+	 * @param bytes - The encoded data
+	 * @return The data
+	 */
+	public static Data fromBinary(byte[] bytes) {
+		try {
+			return new DataDecoder(ByteBuffer.wrap(bytes)).read();
+		} catch (IOException e) {
+			throw new DataException(e);
 		}
 	}
 
 	private static void writeData(JsonGenerator writer, Data data, String key) {
-		boolean isCollection;
-		if (data.containsKey("isCollection") && Boolean.TRUE.equals(data.get("isCollection"))) {
-			isCollection = true;
-			if (key == null)
-				writer.writeStartArray();
-			else
-				writer.writeStartArray(key);
+		if (data.isCollection()) {
+			writeList(writer, data.toList(), key);
+			return;
+		}
+
+		if (key == null)
+			writer.writeStartObject();
+		else
+			writer.writeStartObject(key);
+
+		for (Map.Entry<String, Object> entry : data.entrySet())
+			writeValue(writer, entry.getValue(), entry.getKey());
+
+		writer.writeEnd();
+	}
+
+	private static void writeList(JsonGenerator writer, List<?> list, String key) {
+		if (key == null)
+			writer.writeStartArray();
+		else
+			writer.writeStartArray(key);
+
+		for (Object v : list)
+			writeValue(writer, v, null);
+
+		writer.writeEnd();
+	}
+
+	/**
+	 * Writes a value, as an array element if the key is null.
+	 */
+	private static void writeValue(JsonGenerator writer, Object v, String k) {
+		if (v instanceof Data) {
+			writeData(writer, (Data) v, k);
+		} else if (v instanceof List) {
+			writeList(writer, (List<?>) v, k);
+		} else if (v instanceof int[] || v instanceof long[] || v instanceof double[] || v instanceof byte[]) {
+			writeList(writer, toList(v), k);
+		} else if (v instanceof Number) {
+			if (v instanceof Byte || v instanceof Short || v instanceof Integer) {
+				if (k == null)
+					writer.write(((Number) v).intValue());
+				else
+					writer.write(k, ((Number) v).intValue());
+			} else if (v instanceof Long) {
+				if (k == null)
+					writer.write((Long) v);
+				else
+					writer.write(k, (Long) v);
+			} else if (v instanceof Float || v instanceof Double) {
+				if (k == null)
+					writer.write(((Number) v).doubleValue());
+				else
+					writer.write(k, ((Number) v).doubleValue());
+			} else if (v instanceof BigInteger) {
+				if (k == null)
+					writer.write((BigInteger) v);
+				else
+					writer.write(k, (BigInteger) v);
+			} else if (v instanceof BigDecimal) {
+				if (k == null)
+					writer.write((BigDecimal) v);
+				else
+					writer.write(k, (BigDecimal) v);
+			}
 		} else {
-			isCollection = false;
-			if (key == null)
-				writer.writeStartObject();
+			if (v instanceof Boolean) {
+				if (k == null)
+					writer.write((Boolean) v);
+				else
+					writer.write(k, (Boolean) v);
+			} else if (v instanceof Character) {
+				if (k == null)
+					writer.write((Character) v);
+				else
+					writer.write(k, (Character) v);
+			} else if (v instanceof String) {
+				if (k == null)
+					writer.write((String) v);
+				else
+					writer.write(k, (String) v);
+			} else if (v instanceof JsonValue) {
+				if (k == null)
+					writer.write((JsonValue) v);
+				else
+					writer.write(k, (JsonValue) v);
+			}
+		}
+	}
+
+	/**
+	 * Builds data from JSON parser events.
+	 * Nested data and lists are attached to their parent as soon as they start,
+	 * so only the open containers are kept on the stack.
+	 */
+	private static final class JSONReader {
+		/**
+		 * The open containers, each a Data or a List.
+		 */
+		private Object[] stack = new Object[16];
+		private int depth = 0;
+		private String key;
+
+		@SuppressWarnings("unchecked")
+		private Data read(JsonParser reader) {
+			List<Object> roots = new ArrayList<>();
+			while (reader.hasNext()) {
+				JsonParser.Event event = reader.next();
+				switch (event) {
+					case START_ARRAY: {
+						List<Object> list = new ArrayList<>();
+						if (depth > 0)
+							put(list);
+						push(list);
+						break;
+					} case START_OBJECT: {
+						Data data = new Data();
+						if (depth > 0)
+							put(data);
+						push(data);
+						break;
+					} case KEY_NAME: {
+						key = reader.getString();
+						break;
+					} case VALUE_STRING: {
+						put(reader.getString());
+						break;
+					} case VALUE_NUMBER: {
+						put(readNumber(reader));
+						break;
+					} case VALUE_TRUE: {
+						put(true);
+						break;
+					} case VALUE_FALSE: {
+						put(false);
+						break;
+					} case VALUE_NULL: { // Ignore nulls
+						break;
+					} case END_OBJECT: case END_ARRAY: {
+						Object container = stack[--depth];
+						stack[depth] = null;
+						if (depth == 0 && !roots.contains(container))
+							roots.add(container);
+						break;
+					} default:
+						throw new AssertionError(event.name());
+				}
+			}
+			if (roots.size() == 1 && roots.get(0) instanceof Data) {
+				return (Data) roots.get(0);
+			} else if (roots.size() == 1) {
+				return fromList((List<Object>) roots.get(0));
+			} else if (!roots.isEmpty()) {
+				return fromList(roots);
+			}
+			return new Data();
+		}
+
+		/**
+		 * Root arrays are returned in the index keyed collection layout.
+		 */
+		private static Data fromList(List<Object> list) {
+			Data data = new Data();
+			data.put("isCollection", true);
+			for (int i = 0; i < list.size(); i++)
+				data.put(Integer.toString(i), list.get(i));
+			return data;
+		}
+
+		private void push(Object container) {
+			if (depth == stack.length)
+				stack = Arrays.copyOf(stack, depth * 2);
+			stack[depth++] = container;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void put(Object value) {
+			if (depth == 0) {
+				throw new DataException("JSON value outside of an object or array: " + value);
+			}
+			Object container = stack[depth - 1];
+			if (container instanceof Data)
+				((Data) container).putRaw(key, value);
 			else
-				writer.writeStartObject(key);
+				((List<Object>) container).add(value);
 		}
 
-		if (!isCollection)
-			data.forEach((k, v) -> {
-				if (v instanceof Data) {
-					writeData(writer, (Data) v, k);
-				} else if (v instanceof Number) {
-					if (v instanceof Byte) {
-						writer.write(k, (Byte) v);
-					} else if (v instanceof Short) {
-						writer.write(k, (Short) v);
-					} else if (v instanceof Integer) {
-						writer.write(k, (Integer) v);
-					} else if (v instanceof Long) {
-						writer.write(k, (Long) v);
-					} else if (v instanceof Float) {
-						writer.write(k, (Float) v);
-					} else if (v instanceof Double) {
-						writer.write(k, (Double) v);
-					} else if (v instanceof BigInteger) {
-						writer.write(k, (BigInteger) v);
-					} else if (v instanceof BigDecimal) {
-						writer.write(k, (BigDecimal) v);
-					}
-				} else {
-					if (v instanceof Boolean) {
-						writer.write(k, (Boolean) v);
-					} else if (v instanceof Character) {
-						writer.write(k, (Character) v);
-					} else if (v instanceof String) {
-						writer.write(k, (String) v);
-					} else if (v instanceof JsonValue) {
-						writer.write(k, (JsonValue) v);
-					}
+		/**
+		 * Reads a number as the smallest of int, long and BigInteger that holds it,
+		 * or as a double if it is not integral, only going through BigDecimal when necessary.
+		 */
+		private static Object readNumber(JsonParser reader) {
+			String number = reader.getString();
+			if (reader.isIntegralNumber()) {
+				int digits = number.length() - (number.charAt(0) == '-' ? 1 : 0);
+				if (digits < 10) {
+					return reader.getInt();
+				} else if (digits < 19) {
+					long l = reader.getLong();
+					if (l == (int) l)
+						return (int) l;
+					return l;
 				}
-			});
-		else
-			LongStream.range(0, data.size()).mapToObj(l -> data.get(Long.toUnsignedString(l))).forEachOrdered(v -> {
-				if (v instanceof Data) {
-					writeData(writer, (Data) v, null);
-				} else if (v instanceof Number) {
-					if (v instanceof Byte) {
-						writer.write((Byte) v);
-					} else if (v instanceof Short) {
-						writer.write((Short) v);
-					} else if (v instanceof Integer) {
-						writer.write((Integer) v);
-					} else if (v instanceof Long) {
-						writer.write((Long) v);
-					} else if (v instanceof Float) {
-						writer.write((Float) v);
-					} else if (v instanceof Double) {
-						writer.write((Double) v);
-					} else if (v instanceof BigInteger) {
-						writer.write((BigInteger) v);
-					} else if (v instanceof BigDecimal) {
-						writer.write((BigDecimal) v);
-					}
-				} else {
-					if (v instanceof Boolean) {
-						writer.write((Boolean) v);
-					} else if (v instanceof Character) {
-						writer.write((Character) v);
-					} else if (v instanceof String) {
-						writer.write((String) v);
-					} else if (v instanceof JsonValue) {
-						writer.write((JsonValue) v);
-					}
+				BigDecimal bigNumber = reader.getBigDecimal();
+				try {
+					return bigNumber.longValueExact();
+				} catch (ArithmeticException ex) {
+					return bigNumber.toBigInteger();
 				}
-			});
-
-		writer.writeEnd();
+			} else {
+				double d = Double.parseDouble(number);
+				if (d == Double.POSITIVE_INFINITY || d == Double.NEGATIVE_INFINITY)
+					return reader.getBigDecimal();
+				return d;
+			}
+		}
 	}
 }
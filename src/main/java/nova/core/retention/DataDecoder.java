@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static nova.core.retention.DataFormat.*;
+
+/**
+ * Reads {@link Data} written by a {@link DataEncoder}.
+ * <p>
+ * The lengths of arrays, strings and collections are checked against the remaining bytes when reading from a buffer,
+ * and against {@link #MAX_LENGTH} otherwise, so that malformed input fails with a {@link DataException}.
+ * When the size of the input is unknown, arrays grow as their elements are read,
+ * so a length that the input does not hold does not allocate more than the bytes read.
+ * Data and collections nested deeper than {@link #MAX_DEPTH} are rejected.
+ */
+public class DataDecoder {
+	/**
+	 * The largest length read from inputs whose size is unknown.
+	 */
+	public static final int MAX_LENGTH = 1 << 24;
+
+	/**
+	 * The deepest nesting of data and collections read.
+	 */
+	public static final int MAX_DEPTH = 512;
+
+	/**
+	 * The number of elements allocated at first for arrays read from inputs whose size is unknown.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final DataInput in;
+	private final ByteBuffer buffer;
+	private final List<String> keys = new ArrayList<>();
+	private final List<String> classNames = new ArrayList<>();
+	private boolean started;
+	private int depth;
+
+	/**
+	 * @param in The input to read from.
+	 */
+	public DataDecoder(DataInput in) {
+		this(in, null);
+	}
+
+	/**
+	 * @param buffer The buffer to read from, starting at its position.
+	 */
+	public DataDecoder(ByteBuffer buffer) {
+		this(new DataInputStream(new ByteBufferInputStream(buffer)), buffer);
+	}
+
+	private DataDecoder(DataInput in, ByteBuffer buffer) {
+		this.in = in;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Reads the next data value.
+	 * @return The data
+	 * @throws IOException If the input cannot be read from.
+	 */
+	public Data read() throws IOException {
+		if (!started) {
+			int version = readVarInt();
+			if (version != VERSION) {
+				throw new DataException("Unsupported binary data version: %d", version);
+			}
+			started = true;
+		}
+		byte tag = in.readByte();
+		if (tag != DATA) {
+			throw new DataException("Expected data, found tag: %d", tag);
+		}
+		return readData();
+	}
+
+	private Object readBody(byte tag) throws IOException {
+		switch (tag) {
+			case FALSE:
+				return false;
+			case TRUE:
+				return true;
+			case BYTE:
+				return in.readByte();
+			case SHORT:
+				return (short) unZigZag(readVarInt());
+			case INT:
+				return unZigZag(readVarInt());
+			case LONG:
+				return unZigZag(readVarLong());
+			case CHAR:
+				return (char) readVarInt();
+			case FLOAT:
+				return Float.intBitsToFloat(in.readInt());
+			case DOUBLE:
+				return Double.longBitsToDouble(in.readLong());
+			case STRING:
+				return readString();
+			case BIG_INTEGER:
+				return readBigInteger();
+			case BIG_DECIMAL: {
+				int scale = unZigZag(readVarInt());
+				return new BigDecimal(readBigInteger(), scale);
+			}
+			case DATA:
+				return readData();
+			case COLLECTION:
+				return readCollection();
+			case INT_ARRAY: {
+				int length = readLength(1);
+				int[] array = new int[capacity(length)];
+				for (int i = 0; i < length; i++) {
+					if (i == array.length) {
+						array = Arrays.copyOf(array, grow(array.length, length));
+					}
+					array[i] = unZigZag(readVarInt());
+				}
+				return array;
+			}
+			case LONG_ARRAY: {
+				int length = readLength(1);
+				long[] array = new long[capacity(length)];
+				for (int i = 0; i < length; i++) {
+					if (i == array.length) {
+						array = Arrays.copyOf(array, grow(array.length, length));
+					}
+					array[i] = unZigZag(readVarLong());
+				}
+				return array;
+			}
+			case DOUBLE_ARRAY: {
+				int length = readLength(8);
+				double[] array = new double[capacity(length)];
+				for (int i = 0; i < length; i++) {
+					if (i == array.length) {
+						array = Arrays.copyOf(array, grow(array.length, length));
+					}
+					array[i] = Double.longBitsToDouble(in.readLong());
+				}
+				return array;
+			}
+			case BYTE_ARRAY:
+				return readBytes(readLength(1));
+			default:
+				throw new DataException("Unknown data tag: %d", tag);
+		}
+	}
+
+	private Data readData() throws IOException {
+		enter();
+		String className = readName(classNames);
+		Data data = className != null ? new Data(className) : new Data();
+		int size = readLength(2);
+		for (int i = 0; i < size; i++) {
+			String key = readName(keys);
+			data.putRaw(key, readBody(in.readByte()));
+		}
+		depth--;
+		return data;
+	}
+
+	private List<Object> readCollection() throws IOException {
+		enter();
+		int size = readVarInt();
+		byte elementTag = in.readByte();
+		if (elementTag == FALSE) {
+			throw new DataException("Invalid collection element tag: %d", elementTag);
+		}
+		checkLength(size, elementTag == BOOLEAN ? (size + 7L) / 8 : size);
+		List<Object> list = new ArrayList<>();
+		if (elementTag == MIXED) {
+			for (int i = 0; i < size; i++) {
+				list.add(readBody(in.readByte()));
+			}
+		} else if (elementTag == BOOLEAN) {
+			for (int i = 0; i < size; i += 8) {
+				int bits = in.readUnsignedByte();
+				for (int j = 0; j < 8 && i + j < size; j++) {
+					list.add((bits & 1 << j) != 0);
+				}
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				list.add(readBody(elementTag));
+			}
+		}
+		depth--;
+		return list;
+	}
+
+	private void enter() {
+		if (++depth > MAX_DEPTH) {
+			throw new DataException("Data is nested deeper than %d", MAX_DEPTH);
+		}
+	}
+
+	private String readName(List<String> table) throws IOException {
+		int index = readVarInt();
+		if (index == 0) {
+			return null;
+		} else if (index <= table.size()) {
+			return table.get(index - 1);
+		} else if (index == table.size() + 1) {
+			String name = readString();
+			table.add(name);
+			return name;
+		}
+		throw new DataException("Invalid name index: %d", index);
+	}
+
+	private String readString() throws IOException {
+		return new String(readBytes(readLength(1)), StandardCharsets.UTF_8);
+	}
+
+	private BigInteger readBigInteger() throws IOException {
+		return new BigInteger(readBytes(readLength(1)));
+	}
+
+	private byte[] readBytes(int length) throws IOException {
+		byte[] bytes = new byte[capacity(length)];
+		in.readFully(bytes);
+		while (bytes.length < length) {
+			int read = bytes.length;
+			bytes = Arrays.copyOf(bytes, grow(read, length));
+			in.readFully(bytes, read, bytes.length - read);
+		}
+		return bytes;
+	}
+
+	/**
+	 * @return The number of elements to allocate for an array of a checked length
+	 */
+	private int capacity(int length) {
+		return buffer != null ? length : Math.min(length, INITIAL_CAPACITY);
+	}
+
+	private static int grow(int capacity, int length) {
+		return (int) Math.min(length, capacity * 2L);
+	}
+
+	/**
+	 * Reads a length, checking that the input can hold that many elements.
+	 * @param elementBytes The least number of bytes taken by each element
+	 */
+	private int readLength(int elementBytes) throws IOException {
+		int length = readVarInt();
+		checkLength(length, (long) length * elementBytes);
+		return length;
+	}
+
+	private void checkLength(int length, long bytes) {
+		if (length < 0 || length > MAX_LENGTH && buffer == null || buffer != null && bytes > buffer.remaining()) {
+			throw new DataException("Invalid length: %d", length);
+		}
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new DataException("Malformed varint");
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = in.readByte();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new DataException("Malformed varint");
+	}
+
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		private ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			if (len == 0) {
+				return 0;
+			} else if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			len = Math.min(len, buffer.remaining());
+			buffer.get(b, off, len);
+			return len;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
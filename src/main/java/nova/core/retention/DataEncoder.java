@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static nova.core.retention.DataFormat.*;
+
+/**
+ * Writes {@link Data} in the compact binary format read by {@link DataDecoder}.
+ * <p>
+ * Keys and class names are shared between all data written by one encoder,
+ * so the data must be read back by a single decoder in the same order.
+ */
+public class DataEncoder {
+	private final DataOutput out;
+	private final Map<String, Integer> keys = new HashMap<>();
+	private final Map<String, Integer> classNames = new HashMap<>();
+	private boolean started;
+
+	/**
+	 * @param out The output to write to.
+	 */
+	public DataEncoder(DataOutput out) {
+		this.out = out;
+	}
+
+	/**
+	 * @param buffer The buffer to write to, starting at its position.
+	 */
+	public DataEncoder(ByteBuffer buffer) {
+		this(new DataOutputStream(new ByteBufferOutputStream(buffer)));
+	}
+
+	/**
+	 * Writes a data value.
+	 * @param data The data
+	 * @return This encoder
+	 * @throws IOException If the output cannot be written to.
+	 */
+	public DataEncoder write(Data data) throws IOException {
+		if (!started) {
+			writeVarInt(VERSION);
+			started = true;
+		}
+		out.writeByte(DATA);
+		writeData(data);
+		return this;
+	}
+
+	private void writeValue(Object value) throws IOException {
+		byte tag = tag(value);
+		out.writeByte(tag);
+		writeBody(tag, value);
+	}
+
+	private void writeBody(byte tag, Object value) throws IOException {
+		switch (tag) {
+			case FALSE:
+			case TRUE:
+				break;
+			case BYTE:
+				out.writeByte((Byte) value);
+				break;
+			case SHORT:
+				writeVarInt(zigZag((Short) value));
+				break;
+			case INT:
+				writeVarInt(zigZag((Integer) value));
+				break;
+			case LONG:
+				writeVarLong(zigZag((Long) value));
+				break;
+			case CHAR:
+				writeVarInt((Character) value);
+				break;
+			case FLOAT:
+				out.writeInt(Float.floatToIntBits((Float) value));
+				break;
+			case DOUBLE:
+				out.writeLong(Double.doubleToLongBits((Double) value));
+				break;
+			case STRING:
+				writeString((String) value);
+				break;
+			case BIG_INTEGER:
+				writeBigInteger((BigInteger) value);
+				break;
+			case BIG_DECIMAL:
+				writeVarInt(zigZag(((BigDecimal) value).scale()));
+				writeBigInteger(((BigDecimal) value).unscaledValue());
+				break;
+			case DATA:
+				writeData((Data) value);
+				break;
+			case COLLECTION:
+				writeCollection((Collection<?>) value);
+				break;
+			case INT_ARRAY: {
+				int[] array = (int[]) value;
+				writeVarInt(array.length);
+				for (int i : array) {
+					writeVarInt(zigZag(i));
+				}
+				break;
+			}
+			case LONG_ARRAY: {
+				long[] array = (long[]) value;
+				writeVarInt(array.length);
+				for (long l : array) {
+					writeVarLong(zigZag(l));
+				}
+				break;
+			}
+			case DOUBLE_ARRAY: {
+				double[] array = (double[]) value;
+				writeVarInt(array.length);
+				for (double d : array) {
+					out.writeLong(Double.doubleToLongBits(d));
+				}
+				break;
+			}
+			case BYTE_ARRAY:
+				writeVarInt(((byte[]) value).length);
+				out.write((byte[]) value);
+				break;
+			default:
+				throw new DataException("Unknown data tag: %d", tag);
+		}
+	}
+
+	private void writeData(Data data) throws IOException {
+		boolean skipClass = data.className != null && data.className.equals(data.get("class"));
+		writeName(classNames, data.className);
+		writeVarInt(skipClass ? data.size() - 1 : data.size());
+		for (Map.Entry<String, Object> entry : data.entrySet()) {
+			if (!skipClass || !entry.getKey().equals("class")) {
+				writeName(keys, entry.getKey());
+				writeValue(entry.getValue());
+			}
+		}
+	}
+
+	private void writeCollection(Collection<?> collection) throws IOException {
+		int size = collection.size();
+		Object[] elements = collection.toArray();
+		byte elementTag = MIXED;
+		for (int i = 0; i < size; i++) {
+			byte tag = elementTag(elements[i]);
+			if (i == 0) {
+				elementTag = tag;
+			} else if (tag != elementTag) {
+				elementTag = MIXED;
+				break;
+			}
+		}
+		if (elementTag >= DATA) {
+			elementTag = MIXED;
+		}
+
+		writeVarInt(size);
+		out.writeByte(elementTag);
+		if (elementTag == MIXED) {
+			for (Object element : elements) {
+				writeValue(element);
+			}
+		} else if (elementTag == BOOLEAN) {
+			for (int i = 0; i < size; i += 8) {
+				int bits = 0;
+				for (int j = 0; j < 8 && i + j < size; j++) {
+					if ((Boolean) elements[i + j]) {
+						bits |= 1 << j;
+					}
+				}
+				out.writeByte(bits);
+			}
+		} else {
+			for (Object element : elements) {
+				writeBody(elementTag, element);
+			}
+		}
+	}
+
+	private void writeName(Map<String, Integer> table, String name) throws IOException {
+		if (name == null) {
+			writeVarInt(0);
+			return;
+		}
+		Integer index = table.get(name);
+		if (index != null) {
+			writeVarInt(index + 1);
+		} else {
+			writeVarInt(table.size() + 1);
+			writeString(name);
+			table.put(name, table.size());
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeBigInteger(BigInteger value) throws IOException {
+		byte[] bytes = value.toByteArray();
+		writeVarInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private void writeVarLong(long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) (value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static class ByteBufferOutputStream extends OutputStream {
+		private final ByteBuffer buffer;
+
+		private ByteBufferOutputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(int b) {
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			buffer.put(b, off, len);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constants of the binary {@link Data} format shared by {@link DataEncoder} and {@link DataDecoder}.
+ * <p>
+ * A stream starts with the format version, followed by any number of data values.
+ * A data value is its class name, its entry count and its entries.
+ * An entry is its key, a type tag and the value.
+ * Keys and class names are written in full only the first time they occur in a stream,
+ * after that they are referred to by their index.
+ * Lists have their elements written in order,
+ * and elements of one primitive type are packed without a tag per element.
+ * Integers are written as (zig-zag) varints.
+ */
+final class DataFormat {
+	static final int VERSION = 1;
+
+	static final byte MIXED = 0;
+	static final byte FALSE = 1;
+	static final byte TRUE = 2;
+	static final byte BYTE = 3;
+	static final byte SHORT = 4;
+	static final byte INT = 5;
+	static final byte LONG = 6;
+	static final byte CHAR = 7;
+	static final byte FLOAT = 8;
+	static final byte DOUBLE = 9;
+	static final byte STRING = 10;
+	static final byte BIG_INTEGER = 11;
+	static final byte BIG_DECIMAL = 12;
+	static final byte DATA = 13;
+	static final byte COLLECTION = 14;
+	static final byte INT_ARRAY = 15;
+	static final byte LONG_ARRAY = 16;
+	static final byte DOUBLE_ARRAY = 17;
+	static final byte BYTE_ARRAY = 18;
+
+	/**
+	 * The element type of packed boolean collections.
+	 */
+	static final byte BOOLEAN = TRUE;
+
+	private static final Map<Class<?>, Byte> tags = new HashMap<>();
+
+	static {
+		tags.put(Byte.class, BYTE);
+		tags.put(Short.class, SHORT);
+		tags.put(Integer.class, INT);
+		tags.put(Long.class, LONG);
+		tags.put(Character.class, CHAR);
+		tags.put(Float.class, FLOAT);
+		tags.put(Double.class, DOUBLE);
+		tags.put(String.class, STRING);
+		tags.put(BigInteger.class, BIG_INTEGER);
+		tags.put(BigDecimal.class, BIG_DECIMAL);
+		tags.put(Data.class, DATA);
+		tags.put(ArrayList.class, COLLECTION);
+		tags.put(int[].class, INT_ARRAY);
+		tags.put(long[].class, LONG_ARRAY);
+		tags.put(double[].class, DOUBLE_ARRAY);
+		tags.put(byte[].class, BYTE_ARRAY);
+	}
+
+	private DataFormat() {
+	}
+
+	/**
+	 * Gets the tag of a value.
+	 * @param value The value
+	 * @return The type tag, with booleans tagged by their value.
+	 */
+	static byte tag(Object value) {
+		if (value == null) {
+			throw new DataException("Null data values cannot be written in the binary format.");
+		} else if (value instanceof Boolean) {
+			return (Boolean) value ? TRUE : FALSE;
+		}
+		Byte tag = tags.get(value.getClass());
+		if (tag != null) {
+			return tag;
+		} else if (value instanceof Data) {
+			return DATA;
+		} else if (value instanceof Collection) {
+			return COLLECTION;
+		} else if (value instanceof BigInteger) {
+			return BIG_INTEGER;
+		} else if (value instanceof BigDecimal) {
+			return BIG_DECIMAL;
+		}
+		throw new DataException("Data value of type %s cannot be written in the binary format.", value.getClass());
+	}
+
+	/**
+	 * Gets the element type of a collection element.
+	 * @param value The element
+	 * @return The type tag, with booleans tagged as {@link #BOOLEAN}.
+	 */
+	static byte elementTag(Object value) {
+		return value instanceof Boolean ? BOOLEAN : tag(value);
+	}
+}
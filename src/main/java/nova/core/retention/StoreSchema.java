@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.core.util.ReflectionUtil;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * The {@link Store} fields of a class, resolved once per class.
+ * Each field has its key and a converter for its declared type
+ * precomputed, and is accessed through method handles.
+ */
+final class StoreSchema {
+	private static final ClassValue<StoreSchema> schemas = new ClassValue<StoreSchema>() {
+		@Override
+		protected StoreSchema computeValue(Class<?> type) {
+			return new StoreSchema(type);
+		}
+	};
+
+	private final StoreField[] fields;
+
+	/**
+	 * Whether every stored field holds an immutable value or a primitive array, and can be set,
+	 * so that the values of the fields tell whether the stored data changed.
+	 */
+	final boolean comparable;
+
+	private StoreSchema(Class<?> clazz) {
+		List<StoreField> fields = new ArrayList<>();
+		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, clazz, (field, annotation) -> {
+			String key = annotation.key();
+			if (key.isEmpty()) {
+				key = field.getName();
+				assert !Data.ILLEGAL_SUFFIX.matcher(key).find();
+			}
+			fields.add(new StoreField(field, key));
+		});
+		this.fields = fields.toArray(new StoreField[fields.size()]);
+		this.comparable = fields.stream().allMatch(field -> field.setter != null && isValue(field.type));
+	}
+
+	private static boolean isValue(Class<?> type) {
+		return type.isPrimitive() || type.isEnum() || type == Enum.class
+			|| type == int[].class || type == long[].class || type == double[].class || type == byte[].class
+			|| type == Boolean.class || type == Byte.class || type == Short.class || type == Integer.class || type == Long.class
+			|| type == Character.class || type == Float.class || type == Double.class || type == String.class
+			|| type == BigInteger.class || type == BigDecimal.class || type == UUID.class || type == Class.class
+			|| type == Vector3D.class || type == Vector2D.class;
+	}
+
+	/**
+	 * Gets the store schema of a class.
+	 * @param clazz The class
+	 * @return The schema, computed on first use.
+	 */
+	static StoreSchema of(Class<?> clazz) {
+		return schemas.get(clazz);
+	}
+
+	void save(Storable instance, Data data) {
+		for (StoreField field : fields) {
+			try {
+				data.put(field.key, (Object) field.getter.invokeExact((Object) instance));
+			} catch (Exception e) {
+				e.printStackTrace();
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new DataException(t);
+			}
+		}
+	}
+
+	void load(Storable instance, Data data) {
+		for (StoreField field : fields) {
+			Object value = data.get(field.key);
+			if (value != null || data.containsKey(field.key)) {
+				try {
+					field.load(instance, value);
+				} catch (Exception e) {
+					e.printStackTrace();
+				} catch (Error e) {
+					throw e;
+				} catch (Throwable t) {
+					throw new DataException(t);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the values of the stored fields of an instance, with arrays copied.
+	 */
+	Object[] values(Object instance) {
+		Object[] values = new Object[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			values[i] = copy(fields[i].get(instance));
+		}
+		return values;
+	}
+
+	/**
+	 * Tests whether the stored fields of an instance hold the given values.
+	 */
+	boolean hasValues(Object instance, Object[] values) {
+		for (int i = 0; i < fields.length; i++) {
+			if (!Objects.deepEquals(fields[i].get(instance), values[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sets the stored fields of an instance to the given values, with arrays copied.
+	 */
+	void setValues(Object instance, Object[] values) {
+		for (int i = 0; i < fields.length; i++) {
+			try {
+				fields[i].set(instance, copy(values[i]));
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new DataException(t);
+			}
+		}
+	}
+
+	private static Object copy(Object value) {
+		if (value instanceof int[]) {
+			return ((int[]) value).clone();
+		} else if (value instanceof long[]) {
+			return ((long[]) value).clone();
+		} else if (value instanceof double[]) {
+			return ((double[]) value).clone();
+		} else if (value instanceof byte[]) {
+			return ((byte[]) value).clone();
+		}
+		return value;
+	}
+
+	/**
+	 * A stored field with the handles to access it.
+	 */
+	private static final class StoreField {
+		private final String key;
+		private final Class<?> type;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+		private final boolean storable;
+		private final boolean collection;
+		private final UnaryOperator<Object> converter;
+
+		private StoreField(Field field, String key) {
+			this.key = key;
+			this.type = field.getType();
+			field.setAccessible(true);
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodType getterType = MethodType.methodType(Object.class, Object.class);
+			MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+			try {
+				this.getter = lookup.unreflectGetter(field).asType(getterType);
+			} catch (IllegalAccessException e) {
+				throw new DataException("Cannot access stored field " + field.getName() + " in class: " + field.getDeclaringClass(), e);
+			}
+			MethodHandle setter;
+			try {
+				setter = lookup.unreflectSetter(field).asType(setterType);
+			} catch (IllegalAccessException e) {
+				// Final fields can still hold a Storable that loads itself.
+				setter = null;
+			}
+			this.setter = setter;
+			this.storable = Storable.class.isAssignableFrom(type);
+			this.collection = Collection.class.isAssignableFrom(type);
+			this.converter = converter(type);
+		}
+
+		/**
+		 * Converts loaded numbers and arrays into the representation a field of the given type expects.
+		 */
+		private static UnaryOperator<Object> converter(Class<?> type) {
+			if (type == int[].class) {
+				return Data::toIntArray;
+			} else if (type == long[].class) {
+				return Data::toLongArray;
+			} else if (type == double[].class) {
+				return Data::toDoubleArray;
+			} else if (type == byte[].class) {
+				return Data::toByteArray;
+			} else if (BigInteger.class.isAssignableFrom(type)) {
+				return value -> value instanceof BigInteger ? value : new BigInteger(Objects.toString(value));
+			} else if (BigDecimal.class.isAssignableFrom(type)) {
+				return value -> value instanceof BigDecimal ? value : new BigDecimal(Objects.toString(value));
+			} else if (type == int.class || type == Integer.class) {
+				return value -> {
+					if (value instanceof BigInteger) {
+						return ((BigInteger) value).intValue();
+					} else if (value instanceof BigDecimal) {
+						return ((BigDecimal) value).doubleValue();
+					}
+					return value;
+				};
+			}
+			return value -> {
+				if (value instanceof BigInteger) {
+					return ((BigInteger) value).longValue();
+				} else if (value instanceof BigDecimal) {
+					return ((BigDecimal) value).doubleValue();
+				}
+				return value;
+			};
+		}
+
+		private Object get(Object instance) {
+			try {
+				return (Object) getter.invokeExact(instance);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new DataException(t);
+			}
+		}
+
+		private void set(Object instance, Object value) throws Throwable {
+			if (setter == null) {
+				throw new DataException("Cannot set final field " + key + " in class: " + instance.getClass());
+			}
+			setter.invokeExact(instance, value);
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		private void load(Object instance, Object value) throws Throwable {
+			if (collection && (value instanceof Collection || value instanceof Data && ((Data) value).isCollection())) {
+				Collection elements;
+				if (type.isAssignableFrom(ArrayList.class)) {
+					elements = new ArrayList<>();
+				} else if (type.isAssignableFrom(HashSet.class)) {
+					elements = new HashSet<>();
+				} else {
+					elements = (Collection) type.newInstance();
+				}
+				for (Object element : Data.toList(value)) {
+					elements.add(element instanceof Data && ((Data) element).containsKey("class") ? Data.unserialize((Data) element) : element);
+				}
+				set(instance, elements);
+			} else if (storable || value instanceof Data) {
+				Object fieldValue = (Object) getter.invokeExact(instance);
+				if (fieldValue instanceof Storable && value instanceof Data) {
+					//We already have an instance. Don't need to create the object.
+					((Storable) fieldValue).load((Data) value);
+				} else {
+					set(instance, Data.unserialize((Data) value));
+				}
+			} else {
+				set(instance, converter.apply(value));
+			}
+		}
+	}
+}
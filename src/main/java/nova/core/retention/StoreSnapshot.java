@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import java.util.Optional;
+
+/**
+ * The values of the {@link Store} fields of a storable at one point in time.
+ * <p>
+ * A snapshot tells whether the stored data of a storable changed without saving it again,
+ * and can set the fields of another instance without going through {@link Data}.
+ * Only classes whose stored fields all hold immutable values or primitive arrays,
+ * and which save and load through the default {@link Storable} methods, can be snapshot.
+ */
+public final class StoreSnapshot {
+	private static final ClassValue<Boolean> supported = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("save", Data.class).getDeclaringClass() == Storable.class
+					&& type.getMethod("load", Data.class).getDeclaringClass() == Storable.class
+					&& StoreSchema.of(type).comparable;
+			} catch (NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+
+	private final StoreSchema schema;
+	private final Object[] values;
+
+	private StoreSnapshot(StoreSchema schema, Object[] values) {
+		this.schema = schema;
+		this.values = values;
+	}
+
+	/**
+	 * Takes a snapshot of the stored fields of a storable.
+	 * @param storable The storable
+	 * @return The snapshot, or empty if the class of the storable cannot be snapshot.
+	 */
+	public static Optional<StoreSnapshot> of(Storable storable) {
+		if (!supported.get(storable.getClass())) {
+			return Optional.empty();
+		}
+		StoreSchema schema = StoreSchema.of(storable.getClass());
+		return Optional.of(new StoreSnapshot(schema, schema.values(storable)));
+	}
+
+	/**
+	 * Tests whether the stored fields of a storable still hold the values of this snapshot.
+	 * @param storable A storable of the class the snapshot was taken of
+	 * @return True if none of the stored fields changed
+	 */
+	public boolean matches(Storable storable) {
+		return schema.hasValues(storable, values);
+	}
+
+	/**
+	 * Sets the stored fields of a storable to the values of this snapshot.
+	 * @param storable A storable of the class the snapshot was taken of
+	 */
+	public void restore(Storable storable) {
+		schema.setValues(storable, values);
+	}
+}
@@ -26,11 +26,14 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
 public class ReflectionUtil {
@@ -41,6 +44,35 @@ public class ReflectionUtil {
 	 */
 	private static final List<Class<?>> PRIMITIVE_WIDENING = Arrays.asList(Byte.class, Short.class, Character.class, Integer.class, Long.class, Float.class, Double.class);
 
+	/**
+	 * The annotated fields of a class and its super classes, by annotation type and class.
+	 * Each table is attached to the annotation type and each entry to the scanned class,
+	 * so nothing keeps an unloaded class or its class loader alive.
+	 * Classes that cannot see the annotation type only ever hold the shared empty list.
+	 * The fields are never made accessible, and only copies of them are handed out.
+	 */
+	private static final ClassValue<ClassValue<List<AnnotatedField<?>>>> annotatedFields = new ClassValue<ClassValue<List<AnnotatedField<?>>>>() {
+		@Override
+		protected ClassValue<List<AnnotatedField<?>>> computeValue(Class<?> annotation) {
+			return new ClassValue<List<AnnotatedField<?>>>() {
+				@Override
+				protected List<AnnotatedField<?>> computeValue(Class<?> clazz) {
+					return scanAnnotatedFields(annotation.asSubclass(Annotation.class), clazz);
+				}
+			};
+		}
+	};
+
+	/**
+	 * The constructors found by {@link #findMatchingConstructor(Class, Class[])}, by class and parameter types.
+	 */
+	private static final ClassValue<Map<List<Class<?>>, Optional<Constructor<?>>>> matchingConstructors = new ClassValue<Map<List<Class<?>>, Optional<Constructor<?>>>>() {
+		@Override
+		protected Map<List<Class<?>>, Optional<Constructor<?>>> computeValue(Class<?> clazz) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
 	private ReflectionUtil() {
 	}
 
@@ -188,9 +220,49 @@ public class ReflectionUtil {
 		}
 	}
 
+	/**
+	 * Finds the constructor of a class best matching the given parameter types.
+	 * Results are cached, unless a parameter type is not visible from the class,
+	 * in which case caching it would keep that type loaded.
+	 *
+	 * @param clazz The class
+	 * @param parameterTypes The parameter types
+	 * @return The constructor
+	 */
 	@SuppressWarnings("unchecked")
 	public static <T> Optional<Constructor<T>> findMatchingConstructor(Class<T> clazz, Class<?>... parameterTypes) {
+		if (!Arrays.stream(parameterTypes).allMatch(type -> isVisible(type, clazz.getClassLoader()))) {
+			return findMatchingConstructorUncached(clazz, parameterTypes);
+		}
+
+		Map<List<Class<?>>, Optional<Constructor<?>>> constructors = matchingConstructors.get(clazz);
+		List<Class<?>> signature = Arrays.asList(parameterTypes.clone());
+		Optional<Constructor<?>> constructor = constructors.get(signature);
+		if (constructor == null) {
+			constructor = (Optional<Constructor<?>>) (Optional<?>) findMatchingConstructorUncached(clazz, parameterTypes);
+			constructors.putIfAbsent(signature, constructor);
+		}
+		return (Optional<Constructor<T>>) (Optional<?>) constructor;
+	}
+
+	/**
+	 * Checks if a class can be referenced from a class loader without keeping another class loader alive.
+	 */
+	private static boolean isVisible(Class<?> type, ClassLoader loader) {
+		ClassLoader typeLoader = type.getClassLoader();
+		if (typeLoader == null) {
+			return true;
+		}
+		for (ClassLoader parent = loader; parent != null; parent = parent.getParent()) {
+			if (parent == typeLoader) {
+				return true;
+			}
+		}
+		return false;
+	}
 
+	@SuppressWarnings("unchecked")
+	private static <T> Optional<Constructor<T>> findMatchingConstructorUncached(Class<T> clazz, Class<?>... parameterTypes) {
 		try {
 			// Try the default method as it is much faster, works in
 			// many of the cases.
@@ -315,16 +387,58 @@ public class ReflectionUtil {
 		return fields;
 	}
 
-	// TODO: Cache this?
+	/**
+	 * Invokes an action on each field annotated with specified annotation of
+	 * given class and its super classes, from the most sub class to the most super class.
+	 * The fields are looked up once per class and annotation type.
+	 * Every call hands out its own copies of the fields, which are not accessible.
+	 *
+	 * @param <T> Annotation type
+	 * @param annotation Annotation type
+	 * @param clazz Class to scan
+	 * @param action Action to invoke
+	 */
+	@SuppressWarnings("unchecked")
 	public static <T extends Annotation> void forEachRecursiveAnnotatedField(Class<T> annotation, Class<?> clazz, BiConsumer<Field, T> action) {
-		Arrays.stream(clazz.getDeclaredFields())
-			.filter(f -> f.isAnnotationPresent(annotation) && !f.isSynthetic())
-			.forEachOrdered(f -> action.accept(f, f.getAnnotation(annotation)));
+		for (AnnotatedField<?> field : annotatedFields.get(annotation).get(clazz)) {
+			action.accept(field.copy(), (T) field.annotation);
+		}
+	}
+
+	private static List<AnnotatedField<?>> scanAnnotatedFields(Class<? extends Annotation> annotation, Class<?> clazz) {
+		List<AnnotatedField<?>> fields = new ArrayList<>();
+		for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				Annotation fieldAnnotation = field.getAnnotation(annotation);
+				if (fieldAnnotation != null && !field.isSynthetic()) {
+					fields.add(new AnnotatedField<>(field, fieldAnnotation));
+				}
+			}
+		}
+		return fields.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(fields);
+	}
+
+	/**
+	 * A field and its annotation.
+	 */
+	private static final class AnnotatedField<T extends Annotation> {
+		private final Field field;
+		private final T annotation;
 
-		Class<?> superClass = clazz.getSuperclass();
+		private AnnotatedField(Field field, T annotation) {
+			this.field = field;
+			this.annotation = annotation;
+		}
 
-		if (superClass != null) {
-			forEachRecursiveAnnotatedField(annotation, superClass, action);
+		/**
+		 * @return A copy of the field, so that callers can change its accessibility without affecting each other.
+		 */
+		private Field copy() {
+			try {
+				return field.getDeclaringClass().getDeclaredField(field.getName());
+			} catch (NoSuchFieldException e) {
+				throw new ReflectionException(e);
+			}
 		}
 	}
 
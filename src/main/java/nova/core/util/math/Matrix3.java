@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.util.math;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+/**
+ * A mutable 3x3 matrix, used to transform normals and other directions.
+ * <p>
+ * Vectors are treated as row vectors, like in {@link Matrix4}.
+ *
+ * @see Matrix4#normalMatrix(Matrix3)
+ */
+public final class Matrix3 implements Transformer {
+	double m00, m01, m02;
+	double m10, m11, m12;
+	double m20, m21, m22;
+
+	/**
+	 * Creates an identity matrix.
+	 */
+	public Matrix3() {
+		identity();
+	}
+
+	/**
+	 * Replaces this matrix by the identity matrix.
+	 *
+	 * @return this
+	 */
+	public Matrix3 identity() {
+		m00 = 1; m01 = 0; m02 = 0;
+		m10 = 0; m11 = 1; m12 = 0;
+		m20 = 0; m21 = 0; m22 = 1;
+		return this;
+	}
+
+	/**
+	 * Copies another matrix into this matrix.
+	 *
+	 * @param m The matrix to copy
+	 * @return this
+	 */
+	public Matrix3 set(Matrix3 m) {
+		m00 = m.m00; m01 = m.m01; m02 = m.m02;
+		m10 = m.m10; m11 = m.m11; m12 = m.m12;
+		m20 = m.m20; m21 = m.m21; m22 = m.m22;
+		return this;
+	}
+
+	/**
+	 * Gets an entry of this matrix.
+	 *
+	 * @param row The row, from 0 to 2
+	 * @param column The column, from 0 to 2
+	 * @return The entry
+	 */
+	public double get(int row, int column) {
+		switch (row * 3 + column) {
+			case 0: return m00;
+			case 1: return m01;
+			case 2: return m02;
+			case 3: return m10;
+			case 4: return m11;
+			case 5: return m12;
+			case 6: return m20;
+			case 7: return m21;
+			case 8: return m22;
+			default: throw new IndexOutOfBoundsException("Matrix entry: " + row + ", " + column);
+		}
+	}
+
+	/**
+	 * Transforms a direction by this matrix.
+	 *
+	 * @param vec The direction
+	 * @return The transformed direction
+	 */
+	@Override
+	public Vector3D apply(Vector3D vec) {
+		double x = vec.getX();
+		double y = vec.getY();
+		double z = vec.getZ();
+		return new Vector3D(
+			m00 * x + m10 * y + m20 * z,
+			m01 * x + m11 * y + m21 * z,
+			m02 * x + m12 * y + m22 * z);
+	}
+
+	/**
+	 * Transforms directions packed in an array in place.
+	 * Directions with a NaN X component are left as they are.
+	 *
+	 * @param data The array holding the directions
+	 * @param offset The index of the first direction
+	 * @param count The number of directions
+	 * @param stride The distance between two directions
+	 */
+	public void apply(float[] data, int offset, int count, int stride) {
+		for (int i = offset, end = offset + count * stride; i < end; i += stride) {
+			double x = data[i];
+			if (Double.isNaN(x)) {
+				continue;
+			}
+			double y = data[i + 1];
+			double z = data[i + 2];
+			data[i] = (float) (m00 * x + m10 * y + m20 * z);
+			data[i + 1] = (float) (m01 * x + m11 * y + m21 * z);
+			data[i + 2] = (float) (m02 * x + m12 * y + m22 * z);
+		}
+	}
+
+	/**
+	 * @return A {@link RealMatrix} copy of this matrix.
+	 */
+	public RealMatrix toRealMatrix() {
+		return MatrixUtils.createRealMatrix(new double[][] {
+			{ m00, m01, m02 },
+			{ m10, m11, m12 },
+			{ m20, m21, m22 } });
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Matrix3)) {
+			return false;
+		}
+		Matrix3 m = (Matrix3) obj;
+		return m00 == m.m00 && m01 == m.m01 && m02 == m.m02
+			&& m10 == m.m10 && m11 == m.m11 && m12 == m.m12
+			&& m20 == m.m20 && m21 == m.m21 && m22 == m.m22;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int row = 0; row < 3; row++) {
+			for (int column = 0; column < 3; column++) {
+				hash = 31 * hash + Double.hashCode(get(row, column));
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return "Matrix3[[" + m00 + ", " + m01 + ", " + m02 + "], ["
+			+ m10 + ", " + m11 + ", " + m12 + "], ["
+			+ m20 + ", " + m21 + ", " + m22 + "]]";
+	}
+}
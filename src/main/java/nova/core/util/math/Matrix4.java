@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.util.math;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularMatrixException;
+
+/**
+ * A mutable 4x4 transformation matrix.
+ * <p>
+ * Vectors are treated as row vectors, like in {@link TransformUtil#transform(Vector3D, RealMatrix)},
+ * so the translation is stored in the last row.
+ * All operations modify this matrix in place and do not allocate.
+ */
+public final class Matrix4 implements Transformer {
+	/**
+	 * The relative tolerance for treating the upper 3x3 part as a uniformly scaled rotation.
+	 */
+	private static final double ORTHOGONAL_EPSILON = 1e-12;
+
+	double m00, m01, m02, m03;
+	double m10, m11, m12, m13;
+	double m20, m21, m22, m23;
+	double m30, m31, m32, m33;
+
+	/**
+	 * Creates an identity matrix.
+	 */
+	public Matrix4() {
+		identity();
+	}
+
+	/**
+	 * Creates a copy of a matrix.
+	 *
+	 * @param matrix The matrix to copy
+	 */
+	public Matrix4(Matrix4 matrix) {
+		set(matrix);
+	}
+
+	/**
+	 * Creates a matrix from a {@link RealMatrix}.
+	 *
+	 * @param matrix The matrix to copy, augmented with the identity if it is smaller than 4x4
+	 */
+	public Matrix4(RealMatrix matrix) {
+		set(matrix);
+	}
+
+	/**
+	 * Replaces this matrix by the identity matrix.
+	 *
+	 * @return this
+	 */
+	public Matrix4 identity() {
+		m00 = 1; m01 = 0; m02 = 0; m03 = 0;
+		m10 = 0; m11 = 1; m12 = 0; m13 = 0;
+		m20 = 0; m21 = 0; m22 = 1; m23 = 0;
+		m30 = 0; m31 = 0; m32 = 0; m33 = 1;
+		return this;
+	}
+
+	/**
+	 * Copies another matrix into this matrix.
+	 *
+	 * @param m The matrix to copy
+	 * @return this
+	 */
+	public Matrix4 set(Matrix4 m) {
+		m00 = m.m00; m01 = m.m01; m02 = m.m02; m03 = m.m03;
+		m10 = m.m10; m11 = m.m11; m12 = m.m12; m13 = m.m13;
+		m20 = m.m20; m21 = m.m21; m22 = m.m22; m23 = m.m23;
+		m30 = m.m30; m31 = m.m31; m32 = m.m32; m33 = m.m33;
+		return this;
+	}
+
+	/**
+	 * Copies a {@link RealMatrix} into this matrix.
+	 *
+	 * @param matrix The matrix to copy, augmented with the identity if it is smaller than 4x4
+	 * @return this
+	 */
+	public Matrix4 set(RealMatrix matrix) {
+		if (matrix.getRowDimension() != 4 || matrix.getColumnDimension() != 4) {
+			matrix = MatrixUtil.augmentWithIdentity(matrix, 4);
+		}
+		m00 = matrix.getEntry(0, 0); m01 = matrix.getEntry(0, 1); m02 = matrix.getEntry(0, 2); m03 = matrix.getEntry(0, 3);
+		m10 = matrix.getEntry(1, 0); m11 = matrix.getEntry(1, 1); m12 = matrix.getEntry(1, 2); m13 = matrix.getEntry(1, 3);
+		m20 = matrix.getEntry(2, 0); m21 = matrix.getEntry(2, 1); m22 = matrix.getEntry(2, 2); m23 = matrix.getEntry(2, 3);
+		m30 = matrix.getEntry(3, 0); m31 = matrix.getEntry(3, 1); m32 = matrix.getEntry(3, 2); m33 = matrix.getEntry(3, 3);
+		return this;
+	}
+
+	/**
+	 * Gets an entry of this matrix.
+	 *
+	 * @param row The row, from 0 to 3
+	 * @param column The column, from 0 to 3
+	 * @return The entry
+	 */
+	public double get(int row, int column) {
+		switch (row * 4 + column) {
+			case 0: return m00;
+			case 1: return m01;
+			case 2: return m02;
+			case 3: return m03;
+			case 4: return m10;
+			case 5: return m11;
+			case 6: return m12;
+			case 7: return m13;
+			case 8: return m20;
+			case 9: return m21;
+			case 10: return m22;
+			case 11: return m23;
+			case 12: return m30;
+			case 13: return m31;
+			case 14: return m32;
+			case 15: return m33;
+			default: throw new IndexOutOfBoundsException("Matrix entry: " + row + ", " + column);
+		}
+	}
+
+	/**
+	 * Multiplies this matrix by another matrix from the left, so that the other matrix is applied first.
+	 *
+	 * @param m The matrix to multiply with
+	 * @return this
+	 */
+	public Matrix4 preMultiply(Matrix4 m) {
+		double r00 = m.m00 * m00 + m.m01 * m10 + m.m02 * m20 + m.m03 * m30;
+		double r01 = m.m00 * m01 + m.m01 * m11 + m.m02 * m21 + m.m03 * m31;
+		double r02 = m.m00 * m02 + m.m01 * m12 + m.m02 * m22 + m.m03 * m32;
+		double r03 = m.m00 * m03 + m.m01 * m13 + m.m02 * m23 + m.m03 * m33;
+		double r10 = m.m10 * m00 + m.m11 * m10 + m.m12 * m20 + m.m13 * m30;
+		double r11 = m.m10 * m01 + m.m11 * m11 + m.m12 * m21 + m.m13 * m31;
+		double r12 = m.m10 * m02 + m.m11 * m12 + m.m12 * m22 + m.m13 * m32;
+		double r13 = m.m10 * m03 + m.m11 * m13 + m.m12 * m23 + m.m13 * m33;
+		double r20 = m.m20 * m00 + m.m21 * m10 + m.m22 * m20 + m.m23 * m30;
+		double r21 = m.m20 * m01 + m.m21 * m11 + m.m22 * m21 + m.m23 * m31;
+		double r22 = m.m20 * m02 + m.m21 * m12 + m.m22 * m22 + m.m23 * m32;
+		double r23 = m.m20 * m03 + m.m21 * m13 + m.m22 * m23 + m.m23 * m33;
+		double r30 = m.m30 * m00 + m.m31 * m10 + m.m32 * m20 + m.m33 * m30;
+		double r31 = m.m30 * m01 + m.m31 * m11 + m.m32 * m21 + m.m33 * m31;
+		double r32 = m.m30 * m02 + m.m31 * m12 + m.m32 * m22 + m.m33 * m32;
+		double r33 = m.m30 * m03 + m.m31 * m13 + m.m32 * m23 + m.m33 * m33;
+		m00 = r00; m01 = r01; m02 = r02; m03 = r03;
+		m10 = r10; m11 = r11; m12 = r12; m13 = r13;
+		m20 = r20; m21 = r21; m22 = r22; m23 = r23;
+		m30 = r30; m31 = r31; m32 = r32; m33 = r33;
+		return this;
+	}
+
+	/**
+	 * Applies a translation before this matrix.
+	 *
+	 * @param x translation.
+	 * @param y translation.
+	 * @param z translation.
+	 * @return this
+	 */
+	public Matrix4 translate(double x, double y, double z) {
+		m30 += x * m00 + y * m10 + z * m20;
+		m31 += x * m01 + y * m11 + z * m21;
+		m32 += x * m02 + y * m12 + z * m22;
+		m33 += x * m03 + y * m13 + z * m23;
+		return this;
+	}
+
+	/**
+	 * Applies a scale before this matrix.
+	 *
+	 * @param x scale.
+	 * @param y scale.
+	 * @param z scale.
+	 * @return this
+	 */
+	public Matrix4 scale(double x, double y, double z) {
+		m00 *= x; m01 *= x; m02 *= x; m03 *= x;
+		m10 *= y; m11 *= y; m12 *= y; m13 *= y;
+		m20 *= z; m21 *= z; m22 *= z; m23 *= z;
+		return this;
+	}
+
+	/**
+	 * Applies a rotation before this matrix.
+	 *
+	 * @param rotation The rotation, with its matrix laid out like {@link Rotation#getMatrix()}
+	 * @return this
+	 */
+	public Matrix4 rotate(Rotation rotation) {
+		double q0 = rotation.getQ0();
+		double q1 = rotation.getQ1();
+		double q2 = rotation.getQ2();
+		double q3 = rotation.getQ3();
+		double q0q0 = q0 * q0, q0q1 = q0 * q1, q0q2 = q0 * q2, q0q3 = q0 * q3;
+		double q1q1 = q1 * q1, q1q2 = q1 * q2, q1q3 = q1 * q3;
+		double q2q2 = q2 * q2, q2q3 = q2 * q3, q3q3 = q3 * q3;
+
+		double a00 = 2 * (q0q0 + q1q1) - 1, a01 = 2 * (q1q2 + q0q3), a02 = 2 * (q1q3 - q0q2);
+		double a10 = 2 * (q1q2 - q0q3), a11 = 2 * (q0q0 + q2q2) - 1, a12 = 2 * (q2q3 + q0q1);
+		double a20 = 2 * (q1q3 + q0q2), a21 = 2 * (q2q3 - q0q1), a22 = 2 * (q0q0 + q3q3) - 1;
+
+		double r00 = a00 * m00 + a01 * m10 + a02 * m20;
+		double r01 = a00 * m01 + a01 * m11 + a02 * m21;
+		double r02 = a00 * m02 + a01 * m12 + a02 * m22;
+		double r03 = a00 * m03 + a01 * m13 + a02 * m23;
+		double r10 = a10 * m00 + a11 * m10 + a12 * m20;
+		double r11 = a10 * m01 + a11 * m11 + a12 * m21;
+		double r12 = a10 * m02 + a11 * m12 + a12 * m22;
+		double r13 = a10 * m03 + a11 * m13 + a12 * m23;
+		double r20 = a20 * m00 + a21 * m10 + a22 * m20;
+		double r21 = a20 * m01 + a21 * m11 + a22 * m21;
+		double r22 = a20 * m02 + a21 * m12 + a22 * m22;
+		double r23 = a20 * m03 + a21 * m13 + a22 * m23;
+		m00 = r00; m01 = r01; m02 = r02; m03 = r03;
+		m10 = r10; m11 = r11; m12 = r12; m13 = r13;
+		m20 = r20; m21 = r21; m22 = r22; m23 = r23;
+		return this;
+	}
+
+	/**
+	 * Checks if this matrix is affine, so that transforming by it does not need a perspective divide.
+	 *
+	 * @return If the last column is (0, 0, 0, 1)
+	 */
+	public boolean isAffine() {
+		return m03 == 0 && m13 == 0 && m23 == 0 && m33 == 1;
+	}
+
+	/**
+	 * Transforms a position by this matrix.
+	 *
+	 * @param vec The position
+	 * @return The transformed position
+	 */
+	@Override
+	public Vector3D apply(Vector3D vec) {
+		double x = vec.getX();
+		double y = vec.getY();
+		double z = vec.getZ();
+		double rx = m00 * x + m10 * y + m20 * z + m30;
+		double ry = m01 * x + m11 * y + m21 * z + m31;
+		double rz = m02 * x + m12 * y + m22 * z + m32;
+		if (isAffine()) {
+			return new Vector3D(rx, ry, rz);
+		}
+		double w = m03 * x + m13 * y + m23 * z + m33;
+		return new Vector3D(rx / w, ry / w, rz / w);
+	}
+
+	/**
+	 * Transforms positions packed in an array in place.
+	 *
+	 * @param data The array holding the positions
+	 * @param offset The index of the first position
+	 * @param count The number of positions
+	 * @param stride The distance between two positions
+	 */
+	public void apply(float[] data, int offset, int count, int stride) {
+		boolean affine = isAffine();
+		for (int i = offset, end = offset + count * stride; i < end; i += stride) {
+			double x = data[i];
+			double y = data[i + 1];
+			double z = data[i + 2];
+			double rx = m00 * x + m10 * y + m20 * z + m30;
+			double ry = m01 * x + m11 * y + m21 * z + m31;
+			double rz = m02 * x + m12 * y + m22 * z + m32;
+			if (!affine) {
+				double w = m03 * x + m13 * y + m23 * z + m33;
+				rx /= w;
+				ry /= w;
+				rz /= w;
+			}
+			data[i] = (float) rx;
+			data[i + 1] = (float) ry;
+			data[i + 2] = (float) rz;
+		}
+	}
+
+	/**
+	 * Computes the matrix that transforms normals, the inverse transpose of the upper 3x3 part of this matrix.
+	 * <p>
+	 * When the upper 3x3 part is a rotation with a uniform scale, its inverse transpose
+	 * is the part itself divided by the squared scale, and no inverse is computed.
+	 *
+	 * @param dest The matrix to store the result in
+	 * @return dest
+	 * @throws SingularMatrixException If this matrix cannot be inverted.
+	 */
+	public Matrix3 normalMatrix(Matrix3 dest) {
+		double scale = uniformScaleSquared();
+		if (scale > 0) {
+			double inv = 1 / scale;
+			dest.m00 = m00 * inv;
+			dest.m01 = m01 * inv;
+			dest.m02 = m02 * inv;
+			dest.m10 = m10 * inv;
+			dest.m11 = m11 * inv;
+			dest.m12 = m12 * inv;
+			dest.m20 = m20 * inv;
+			dest.m21 = m21 * inv;
+			dest.m22 = m22 * inv;
+			return dest;
+		}
+		double c00 = m11 * m22 - m12 * m21;
+		double c01 = m12 * m20 - m10 * m22;
+		double c02 = m10 * m21 - m11 * m20;
+		double det = m00 * c00 + m01 * c01 + m02 * c02;
+		if (det == 0 || Double.isNaN(det) || Double.isInfinite(det)) {
+			throw new SingularMatrixException();
+		}
+		double inv = 1 / det;
+		dest.m00 = c00 * inv;
+		dest.m01 = c01 * inv;
+		dest.m02 = c02 * inv;
+		dest.m10 = (m02 * m21 - m01 * m22) * inv;
+		dest.m11 = (m00 * m22 - m02 * m20) * inv;
+		dest.m12 = (m01 * m20 - m00 * m21) * inv;
+		dest.m20 = (m01 * m12 - m02 * m11) * inv;
+		dest.m21 = (m02 * m10 - m00 * m12) * inv;
+		dest.m22 = (m00 * m11 - m01 * m10) * inv;
+		return dest;
+	}
+
+	/**
+	 * Checks whether the rows of the upper 3x3 part are orthogonal and of equal length.
+	 *
+	 * @return The squared length of the rows, or 0 if the part is not a uniformly scaled rotation.
+	 */
+	private double uniformScaleSquared() {
+		double l0 = m00 * m00 + m01 * m01 + m02 * m02;
+		double l1 = m10 * m10 + m11 * m11 + m12 * m12;
+		double l2 = m20 * m20 + m21 * m21 + m22 * m22;
+		double epsilon = l0 * ORTHOGONAL_EPSILON;
+		if (!(l0 > 0) || Double.isInfinite(l0)
+			|| Math.abs(l0 - l1) > epsilon
+			|| Math.abs(l0 - l2) > epsilon
+			|| Math.abs(m00 * m10 + m01 * m11 + m02 * m12) > epsilon
+			|| Math.abs(m00 * m20 + m01 * m21 + m02 * m22) > epsilon
+			|| Math.abs(m10 * m20 + m11 * m21 + m12 * m22) > epsilon) {
+			return 0;
+		}
+		return l0;
+	}
+
+	/**
+	 * @return A {@link RealMatrix} copy of this matrix.
+	 */
+	public RealMatrix toRealMatrix() {
+		return MatrixUtils.createRealMatrix(new double[][] {
+			{ m00, m01, m02, m03 },
+			{ m10, m11, m12, m13 },
+			{ m20, m21, m22, m23 },
+			{ m30, m31, m32, m33 } });
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Matrix4)) {
+			return false;
+		}
+		Matrix4 m = (Matrix4) obj;
+		return m00 == m.m00 && m01 == m.m01 && m02 == m.m02 && m03 == m.m03
+			&& m10 == m.m10 && m11 == m.m11 && m12 == m.m12 && m13 == m.m13
+			&& m20 == m.m20 && m21 == m.m21 && m22 == m.m22 && m23 == m.m23
+			&& m30 == m.m30 && m31 == m.m31 && m32 == m.m32 && m33 == m.m33;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 1;
+		for (int row = 0; row < 4; row++) {
+			for (int column = 0; column < 4; column++) {
+				hash = 31 * hash + Double.hashCode(get(row, column));
+			}
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return "Matrix4[[" + m00 + ", " + m01 + ", " + m02 + ", " + m03 + "], ["
+			+ m10 + ", " + m11 + ", " + m12 + ", " + m13 + "], ["
+			+ m20 + ", " + m21 + ", " + m22 + ", " + m23 + "], ["
+			+ m30 + ", " + m31 + ", " + m32 + ", " + m33 + "]]";
+	}
+}
@@ -20,22 +20,34 @@
 
 import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
-import org.apache.commons.math3.linear.MatrixUtils;
 import org.apache.commons.math3.linear.RealMatrix;
 
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.EmptyStackException;
 
+/**
+ * A stack of transformation matrices.
+ * The matrices are kept as {@link Matrix4} instances that are reused when pushing,
+ * so transforming and pushing do not allocate.
+ */
 public class MatrixStack implements Transformer {
 
-	private final Stack<RealMatrix> stack;
+	private Matrix4[] stack;
+	private int size;
 
-	private RealMatrix current = MatrixUtils.createRealIdentityMatrix(4);
+	private final Matrix4 current;
+
+	/**
+	 * A matrix reused when transforming by a {@link RealMatrix}.
+	 */
+	private final Matrix4 scratch = new Matrix4();
 
 	/**
 	 * Creates new MatrixStack. Constains no transfomation base matrix.
 	 */
 	public MatrixStack() {
-		this.stack = new Stack<>();
+		this.stack = new Matrix4[4];
+		this.current = new Matrix4();
 	}
 
 	/**
@@ -43,9 +55,12 @@ public class MatrixStack implements Transformer {
 	 * @param clone instance to be cloned
 	 */
 	public MatrixStack(MatrixStack clone) {
-		//noinspection unchecked
-		this.stack = (Stack<RealMatrix>) clone.stack.clone();
-		this.current = clone.current.copy();
+		this.stack = new Matrix4[Math.max(clone.size, 4)];
+		for (int i = 0; i < clone.size; i++) {
+			stack[i] = new Matrix4(clone.stack[i]);
+		}
+		this.size = clone.size;
+		this.current = new Matrix4(clone.current);
 	}
 
 	/**
@@ -53,15 +68,24 @@ public class MatrixStack implements Transformer {
 	 * @param current Transforation matrix to start from.
 	 */
 	public MatrixStack(RealMatrix current) {
-		this.stack = new Stack<>();
-		this.current = current;
+		this();
+		this.current.set(current);
+	}
+
+	/**
+	 * Creates new MatrixStack with starting matrix.
+	 * @param current Transforation matrix to start from.
+	 */
+	public MatrixStack(Matrix4 current) {
+		this();
+		this.current.set(current);
 	}
 
 	/**
 	 * Replaces current transformation matrix by an identity matrix.
 	 */
 	public void loadIdentity() {
-		current = MatrixUtils.createRealIdentityMatrix(4);
+		current.identity();
 	}
 
 	/**
@@ -71,16 +95,37 @@ public class MatrixStack implements Transformer {
 	 * @return this for chaining.
 	 */
 	public MatrixStack loadMatrix(RealMatrix matrix) {
-		current = matrix;
+		current.set(matrix);
 		return this;
 	}
 
 	/**
-	 * Exposes current transformation matrix.
+	 * Replaces current transformation matrix by a copy of the given matrix.
+	 *
+	 * @param matrix The new matrix to use.
+	 * @return this for chaining.
+	 */
+	public MatrixStack loadMatrix(Matrix4 matrix) {
+		current.set(matrix);
+		return this;
+	}
+
+	/**
+	 * Exposes a copy of the current transformation matrix.
 	 *
 	 * @return current transformation matrix.
 	 */
 	public RealMatrix getMatrix() {
+		return current.toRealMatrix();
+	}
+
+	/**
+	 * Exposes the current transformation matrix.
+	 * Changes to it are changes to this stack.
+	 *
+	 * @return current transformation matrix.
+	 */
+	public Matrix4 getTransform() {
 		return current;
 	}
 
@@ -91,8 +136,18 @@ public class MatrixStack implements Transformer {
 	 * @return The transformed matrix
 	 */
 	public MatrixStack transform(RealMatrix matrix) {
+		current.preMultiply(scratch.set(matrix));
+		return this;
+	}
 
-		current = current.preMultiply(MatrixUtil.augmentWithIdentity(matrix, 4));
+	/**
+	 * Transforms current matrix with give matrix.
+	 *
+	 * @param matrix to transform current matrix.
+	 * @return The transformed matrix
+	 */
+	public MatrixStack transform(Matrix4 matrix) {
+		current.preMultiply(matrix);
 		return this;
 	}
 
@@ -105,7 +160,7 @@ public class MatrixStack implements Transformer {
 	 * @return The tranlated matrix
 	 */
 	public MatrixStack translate(double x, double y, double z) {
-		current = current.preMultiply(TransformUtil.translationMatrix(x, y, z));
+		current.translate(x, y, z);
 		return this;
 	}
 
@@ -127,10 +182,7 @@ public class MatrixStack implements Transformer {
 	 * @return The rorated matrix
 	 */
 	public MatrixStack rotate(Rotation rotation) {
-		RealMatrix rotMat = MatrixUtils.createRealMatrix(4, 4);
-		rotMat.setSubMatrix(rotation.getMatrix(), 0, 0);
-		rotMat.setEntry(3, 3, 1);
-		current = current.preMultiply(rotMat);
+		current.rotate(rotation);
 		return this;
 	}
 
@@ -154,7 +206,7 @@ public class MatrixStack implements Transformer {
 	 * @return this for chaining.
 	 */
 	public MatrixStack scale(double x, double y, double z) {
-		current = current.preMultiply(TransformUtil.scaleMatrix(x, y, z));
+		current.scale(x, y, z);
 		return this;
 	}
 
@@ -174,7 +226,13 @@ public class MatrixStack implements Transformer {
 	 * @return this for chaining.
 	 */
 	public MatrixStack pushMatrix() {
-		stack.add(current);
+		if (size == stack.length) {
+			stack = Arrays.copyOf(stack, size * 2);
+		}
+		if (stack[size] == null) {
+			stack[size] = new Matrix4();
+		}
+		stack[size++].set(current);
 		return this;
 	}
 
@@ -183,7 +241,10 @@ public class MatrixStack implements Transformer {
 	 * @return this for chaining.
 	 */
 	public MatrixStack popMatrix() {
-		current = stack.pop();
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		current.set(stack[--size]);
 		return this;
 	}
 
@@ -194,6 +255,6 @@ public class MatrixStack implements Transformer {
 	 */
 	@Override
 	public Vector3D apply(Vector3D vec) {
-		return TransformUtil.transform(vec, current);
+		return current.apply(vec);
 	}
 }
@@ -19,21 +19,42 @@
  */package nova.core.util.registry;
 
 import com.google.common.collect.HashBiMap;
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
 import nova.core.util.Identifiable;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.stream.Stream;
 
 /**
  * A registry of one type of identifiable object.
+ * <p>
+ * Each registered name is given a dense numeric ID, which stays the same if the object is registered again.
+ * The mapping between names and IDs is saved with the registry,
+ * so that loading it before registering gives the objects the IDs they had before.
  *
  * @param <T> The object type
+ * @see RetentionManager#retain(String, Registry)
  */
-public class Registry<T extends Identifiable> implements Iterable<T> {
+public class Registry<T extends Identifiable> implements Iterable<T>, Storable {
 	private final HashBiMap<String, T> objects = HashBiMap.create();
 
+	/**
+	 * The ID of every name that has been registered or loaded.
+	 */
+	private final Map<String, Integer> ids = new HashMap<>();
+
+	/**
+	 * The registered objects by ID.
+	 */
+	private Object[] byId = new Object[16];
+	private int nextId;
+
 	public Registry() {
 
 	}
@@ -46,6 +67,11 @@ public class Registry<T extends Identifiable> implements Iterable<T> {
 	 */
 	public T register(T object) {
 		objects.put(object.getID(), object);
+		int id = ids.computeIfAbsent(object.getID(), name -> nextId++);
+		if (id >= byId.length) {
+			byId = Arrays.copyOf(byId, Math.max(byId.length * 2, id + 1));
+		}
+		byId[id] = object;
 		return object;
 	}
 
@@ -69,6 +95,28 @@ public class Registry<T extends Identifiable> implements Iterable<T> {
 		return Optional.ofNullable(objects.get(ID));
 	}
 
+	/**
+	 * Gets the object with the given numeric ID from the registry.
+	 *
+	 * @param id the numeric ID to find.
+	 * @return the object found or empty Optional if not found.
+	 */
+	@SuppressWarnings("unchecked")
+	public Optional<T> get(int id) {
+		return Optional.ofNullable(id >= 0 && id < byId.length ? (T) byId[id] : null);
+	}
+
+	/**
+	 * Gets the numeric ID of a given object if contained in registry.
+	 *
+	 * @param object the object to find.
+	 * @return the numeric ID of the object or -1 if not found.
+	 */
+	public int idOf(T object) {
+		Integer id = ids.get(object.getID());
+		return id != null && byId[id] == object ? id : -1;
+	}
+
 	/**
 	 * Gets the name of a given object if contained in registry.
 	 *
@@ -94,4 +142,44 @@ public class Registry<T extends Identifiable> implements Iterable<T> {
 	public Stream<T> stream() {
 		return objects.values().stream();
 	}
+
+	/**
+	 * Saves the numeric ID of every name that has been registered or loaded.
+	 */
+	@Override
+	public void save(Data data) {
+		Data idData = new Data();
+		ids.forEach(idData::put);
+		data.put("ids", idData);
+	}
+
+	/**
+	 * Loads the numeric IDs of names, replacing the IDs of the names that are in the data.
+	 * Registered objects whose names are not in the data are given new IDs.
+	 * IDs obtained from this registry before loading are no longer valid.
+	 */
+	@Override
+	public void load(Data data) {
+		Data idData = data.get("ids");
+		if (idData == null) {
+			return;
+		}
+		Map<String, Integer> registered = new HashMap<>(ids);
+		registered.keySet().retainAll(objects.keySet());
+		ids.clear();
+		nextId = 0;
+		idData.forEach((name, id) -> {
+			if (id instanceof Number) {
+				ids.put(name, ((Number) id).intValue());
+				nextId = Math.max(nextId, ((Number) id).intValue() + 1);
+			}
+		});
+		registered.keySet().removeAll(ids.keySet());
+		registered.entrySet().stream()
+			.sorted(Map.Entry.comparingByValue())
+			.forEach(entry -> ids.put(entry.getKey(), nextId++));
+
+		byId = new Object[Math.max(16, nextId)];
+		objects.forEach((name, object) -> byId[ids.get(name)] = object);
+	}
 }
@@ -20,9 +20,21 @@
 
 package nova.core.util.registry;
 
+import nova.core.retention.Data;
+import nova.core.retention.DataDecoder;
+import nova.core.retention.DataEncoder;
+import nova.core.retention.DataException;
 import nova.core.retention.Storable;
+import nova.internal.core.Game;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -60,8 +72,63 @@ public abstract class RetentionManager extends Manager<RetentionManager> {
 		saveQueue.put(filename, storable);
 	}
 
+	/**
+	 * Loads the numeric IDs of a registry and queues them to be saved with the game,
+	 * so that the objects of the registry keep their IDs across restarts.
+	 * This should be called before the IDs of the registry are used.
+	 * @param filename - The file name to save the IDs as.
+	 * @param registry - The registry.
+	 */
+	public void retain(String filename, Registry<?> registry) {
+		load(filename, registry);
+		queueSave(filename, registry);
+	}
+
+	/**
+	 * Retains the numeric IDs of the item, block and entity registries in the current save.
+	 * Wrappers call this when the server starts, once the save directory is known,
+	 * so that every world keeps its own IDs.
+	 */
+	public void retainRegistries() {
+		retain("nova_item_ids", Game.items().registry);
+		retain("nova_block_ids", Game.blocks().registry);
+		retain("nova_entity_ids", Game.entities().registry);
+	}
+
 	/**
 	 * @return Gets the default directory in where game files are saved.
 	 */
 	public abstract File getSaveDirectory();
+
+	/**
+	 * Saves a storable into a file in the binary data format.
+	 * @param file - The file to save the data to.
+	 * @param storable - The storable object instance.
+	 */
+	protected void saveFile(File file, Storable storable) {
+		Data data = new Data();
+		storable.save(data);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			new DataEncoder(out).write(data);
+		} catch (IOException e) {
+			throw new DataException("Failed to save " + file, e);
+		}
+	}
+
+	/**
+	 * Loads a storable from a file saved by {@link #saveFile(File, Storable)}.
+	 * Nothing is loaded if the file does not exist.
+	 * @param file - The file the data was saved to.
+	 * @param storable - The storable object instance.
+	 */
+	protected void loadFile(File file, Storable storable) {
+		if (!file.exists()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			storable.load(new DataDecoder(in).read());
+		} catch (IOException e) {
+			throw new DataException("Failed to load " + file, e);
+		}
+	}
 }
@@ -20,6 +20,7 @@
 
 import nova.core.block.Block;
 import nova.core.block.BlockFactory;
+import nova.core.component.renderer.StaticRenderer;
 import nova.core.entity.Entity;
 import nova.core.entity.EntityFactory;
 import nova.core.item.Item;
@@ -40,9 +41,23 @@ public abstract class World implements Identifiable {
 
 	/**
 	 * Marks a position to render static.
+	 * Lets the {@link StaticRenderer} of the block evaluate its model again,
+	 * then calls {@link #scheduleStaticRender(Vector3D)}.
 	 * @param position The position to perform the static re-rendering.
 	 */
-	public abstract void markStaticRender(Vector3D position);
+	public final void markStaticRender(Vector3D position) {
+		getBlock(position)
+			.flatMap(block -> block.components.getOp(StaticRenderer.class))
+			.ifPresent(StaticRenderer::invalidate);
+		scheduleStaticRender(position);
+	}
+
+	/**
+	 * Schedules the static re-rendering of a position.
+	 * Called by {@link #markStaticRender(Vector3D)}.
+	 * @param position The position to perform the static re-rendering.
+	 */
+	protected abstract void scheduleStaticRender(Vector3D position);
 
 	/**
 	 * Marks a specific block to indicate it changed.
@@ -128,15 +128,15 @@ public class NovaLauncher extends ModLoader<Mod> {
 			throw new InitializationException("Mods with duplicate IDs");
 		}
 
+		Map<String, Mod> modsByID = new HashMap<>();
+		mods.keySet().forEach(mod -> modsByID.putIfAbsent(mod.id(), mod));
+
 		// Create directed graph edges.
 		mods.keySet().forEach(
 			mod -> {
 				Map<String, String> depMap = dependencyToMap(mod.dependencies());
 				depMap.forEach((id, version) -> {
-					Optional<Mod> dependent = mods.keySet()
-						.stream()
-						.filter(m2 -> m2.id().equals(id))
-						.findFirst();
+					Optional<Mod> dependent = Optional.ofNullable(modsByID.get(id));
 
 					final boolean forced = version.endsWith("f") || version.endsWith("F");
 					if (forced) version = version.substring(0, version.length() - 1);
@@ -175,14 +175,6 @@ public class NovaLauncher extends ModLoader<Mod> {
 						missingDeps.add(new String[]{id, version});
 					}
 				});
-
-				//Priority check
-				mods.keySet().forEach(
-					compareMod -> {
-						if (mod.priority() < compareMod.priority()) {
-							modGraph.addEdge(compareMod, mod);
-						}
-					});
 			}
 		);
 
@@ -192,7 +184,8 @@ public class NovaLauncher extends ModLoader<Mod> {
 
 		orderedMods.clear();
 
-		TopologicalSort.topologicalSort(modGraph)
+		// Mods with a higher priority are loaded first.
+		TopologicalSort.topologicalSort(modGraph, Mod::priority)
 			.stream()
 			.map(mods::get)
 			.forEachOrdered(orderedMods::add);
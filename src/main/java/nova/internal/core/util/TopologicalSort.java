@@ -3,145 +3,286 @@ package nova.internal.core.util;
 import nova.core.util.exception.NovaException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.NavigableSet;
 import java.util.Set;
-import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.ToIntFunction;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class TopologicalSort {
 	/**
-	 * Sort the input graph into a topologically sorted list
+	 * Sort the input graph into a topologically sorted list.
 	 *
-	 * Uses the reverse depth first search as outlined in ...
-	 * @param graph
+	 * Uses a depth first search over the reversed graph: going through the nodes
+	 * in the order they were added, each node is placed after the nodes it depends on,
+	 * which are themselves visited in the order they were added.
+	 * @param graph The graph to sort
 	 * @return The sorted list.
+	 * @see #topologicalSort(DirectedGraph, ToIntFunction)
 	 */
 	public static <T> List<T> topologicalSort(DirectedGraph<T> graph) {
-		DirectedGraph<T> rGraph = reverse(graph);
-		List<T> sortedResult = new ArrayList<>();
-		Set<T> visitedNodes = new HashSet<>();
-		// A list of "fully explored" nodes. Leftovers in here indicate cycles in the graph
-		Set<T> expandedNodes = new HashSet<>();
+		return topologicalSort(graph, node -> 0);
+	}
 
-		for (T node : rGraph) {
-			explore(node, rGraph, sortedResult, visitedNodes, expandedNodes);
-		}
+	/**
+	 * Sort the input graph into a topologically sorted list, where every node
+	 * is placed after all nodes with a higher priority.
+	 *
+	 * The order is the same as sorting with {@link #topologicalSort(DirectedGraph)}
+	 * after adding an edge from every node to every node of lower priority,
+	 * but those edges are never created. The nodes of higher priority that a node
+	 * depends on are instead looked up in sets of unvisited nodes, one per priority.
+	 * Runs in O((V + E) P log V) for P distinct priorities.
+	 * @param graph The graph to sort
+	 * @param priority The priority of a node. Higher priorities are sorted first.
+	 * @return The sorted list.
+	 * @throws NovaException if the graph contains a cycle, or an edge points
+	 * from a node to a node of higher priority.
+	 */
+	public static <T> List<T> topologicalSort(DirectedGraph<T> graph, ToIntFunction<? super T> priority) {
+		return new Sorter<>(graph, priority).sort();
+	}
 
-		return sortedResult;
+	private static NovaException cycleDetected(Object node) {
+		return new NovaException("There was a cycle detected in the input graph, sorting is not possible", node) {
+		};
 	}
 
-	public static <T> DirectedGraph<T> reverse(DirectedGraph<T> graph) {
-		DirectedGraph<T> result = new DirectedGraph<>();
+	/**
+	 * The state of one depth first search.
+	 */
+	private static class Sorter<T> {
+		private static final int UNVISITED = 0;
+		private static final int VISITING = 1;
+		private static final int EXPANDED = 2;
+
+		private final DirectedGraph<T> graph;
+		private final int[] priorities;
+		private final int[] states;
+		/**
+		 * The nodes each node depends on, that is the nodes with an edge to it, in the order they were added.
+		 */
+		private final int[][] inbound;
+		/**
+		 * The distinct priorities in ascending order, and the unvisited nodes of each priority.
+		 */
+		private final int[] distinctPriorities;
+		private final List<NavigableSet<Integer>> unvisited = new ArrayList<>();
+		/**
+		 * The number of nodes being visited for each priority.
+		 */
+		private final int[] visiting;
+		private final List<T> sortedResult;
+
+		private Sorter(DirectedGraph<T> graph, ToIntFunction<? super T> priority) {
+			this.graph = graph;
+			int size = graph.size();
+			this.priorities = new int[size];
+			this.states = new int[size];
+			this.sortedResult = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				priorities[i] = priority.applyAsInt(graph.orderedNodes.get(i));
+			}
 
-		for (T node : graph) {
-			result.addNode(node);
-		}
+			int[] inDegree = new int[size];
+			for (Set<Integer> edges : graph.edges) {
+				for (int to : edges) {
+					inDegree[to]++;
+				}
+			}
+			this.inbound = new int[size][];
+			for (int i = 0; i < size; i++) {
+				inbound[i] = new int[inDegree[i]];
+				inDegree[i] = 0;
+			}
+			for (int from = 0; from < size; from++) {
+				for (int to : graph.edges.get(from)) {
+					inbound[to][inDegree[to]++] = from;
+				}
+			}
 
-		for (T from : graph) {
-			for (T to : graph.edgesFrom(from)) {
-				result.addEdge(to, from);
+			this.distinctPriorities = Arrays.stream(priorities).distinct().sorted().toArray();
+			this.visiting = new int[distinctPriorities.length];
+			for (int i = 0; i < distinctPriorities.length; i++) {
+				unvisited.add(new TreeSet<>());
+			}
+			for (int i = 0; i < size; i++) {
+				unvisited.get(bucketOf(i)).add(i);
 			}
 		}
 
-		return result;
-	}
+		private int bucketOf(int node) {
+			return Arrays.binarySearch(distinctPriorities, priorities[node]);
+		}
+
+		private List<T> sort() {
+			for (int node = 0; node < priorities.length; node++) {
+				explore(node);
+			}
+			return sortedResult;
+		}
 
-	public static <T> void explore(T node, DirectedGraph<T> graph, List<T> sortedResult, Set<T> visitedNodes, Set<T> expandedNodes) {
-		// Have we been here before?
-		if (visitedNodes.contains(node)) {
-			// And have completed this node before
-			if (expandedNodes.contains(node)) {
-				// Then we're fine
+		private void explore(int node) {
+			if (states[node] == EXPANDED) {
 				return;
 			}
+			int bucket = bucketOf(node);
+			// Every node of higher priority depends on this node, so none of them can be waiting on it.
+			if (states[node] == VISITING || hasVisitingAbove(bucket)) {
+				throw cycleDetected(graph.orderedNodes.get(node));
+			}
+
+			states[node] = VISITING;
+			visiting[bucket]++;
+			unvisited.get(bucket).remove(node);
+
+			// Explore the inbound edges and the nodes of higher priority, merged in the order they were added.
+			int[] edges = inbound[node];
+			int edge = 0;
+			int last = -1;
+			while (true) {
+				int next = edge < edges.length ? edges[edge] : Integer.MAX_VALUE;
+				for (int higher = bucket + 1; higher < distinctPriorities.length; higher++) {
+					Integer candidate = unvisited.get(higher).higher(last);
+					if (candidate != null && candidate < next) {
+						next = candidate;
+					}
+				}
+				if (next == Integer.MAX_VALUE) {
+					break;
+				}
+				if (edge < edges.length && edges[edge] == next) {
+					edge++;
+				}
+				explore(next);
+				last = next;
+			}
 
-			throw new NovaException("There was a cycle detected in the input graph, sorting is not possible", node) {
-			};
+			sortedResult.add(graph.orderedNodes.get(node));
+			states[node] = EXPANDED;
+			visiting[bucket]--;
 		}
 
-		// Visit this node
-		visitedNodes.add(node);
+		private boolean hasVisitingAbove(int bucket) {
+			for (int higher = bucket + 1; higher < visiting.length; higher++) {
+				if (visiting[higher] > 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	public static <T> DirectedGraph<T> reverse(DirectedGraph<T> graph) {
+		DirectedGraph<T> result = new DirectedGraph<>();
+
+		for (T node : graph) {
+			result.addNode(node);
+		}
 
-		// Recursively explore inbound edges
-		for (T inbound : graph.edgesFrom(node)) {
-			explore(inbound, graph, sortedResult, visitedNodes, expandedNodes);
+		for (int from = 0; from < graph.size(); from++) {
+			for (int to : graph.edges.get(from)) {
+				result.edges.get(to).add(from);
+			}
 		}
 
-		// Add ourselves now
-		sortedResult.add(node);
-		// And mark ourselves as explored
-		expandedNodes.add(node);
+		return result;
 	}
 
+	/**
+	 * A directed graph that stores its edges as sorted sets of node indices.
+	 * Nodes are indexed in the order they were added, and the edges from a node are in the same order.
+	 * @param <T> node type
+	 */
 	public static class DirectedGraph<T> implements Iterable<T> {
-		private final Map<T, SortedSet<T>> graph = new HashMap<>();
-		private List<T> orderedNodes = new ArrayList<>();
+		private final Map<T, Integer> indices = new HashMap<>();
+		private final List<T> orderedNodes = new ArrayList<>();
+		private final List<Set<Integer>> edges = new ArrayList<>();
 
 		public boolean addNode(T node) {
 			// Ignore nodes already added
-			if (graph.containsKey(node)) {
+			if (indices.containsKey(node)) {
 				return false;
 			}
 
+			indices.put(node, orderedNodes.size());
 			orderedNodes.add(node);
-			graph.put(node, new TreeSet<>((o1, o2) -> orderedNodes.indexOf(o1) - orderedNodes.indexOf(o2)));
+			edges.add(new TreeSet<>());
 			return true;
 		}
 
 		public boolean removeNode(T node) {
 			// Ignore nodes not added
-			if (!graph.containsKey(node)) {
+			Integer index = indices.remove(node);
+			if (index == null) {
 				return false;
 			}
 
-			orderedNodes.remove(node);
-			graph.remove(node);
+			orderedNodes.remove((int) index);
+			edges.remove((int) index);
+
+			// Shift the indices of all nodes after the removed one.
+			for (int i = index; i < orderedNodes.size(); i++) {
+				indices.put(orderedNodes.get(i), i);
+			}
+			for (int i = 0; i < edges.size(); i++) {
+				Set<Integer> shifted = new TreeSet<>();
+				for (int to : edges.get(i)) {
+					if (to != index) {
+						shifted.add(to > index ? to - 1 : to);
+					}
+				}
+				edges.set(i, shifted);
+			}
 			return true;
 		}
 
 		public void addEdge(T from, T to) {
-			if (!(graph.containsKey(from) && graph.containsKey(to))) {
-				throw new NoSuchElementException("Missing nodes from graph: " + from + " to " + to);
-			}
-
-			graph.get(from).add(to);
+			edges.get(indexOf(from, to)).add(indexOf(to, from));
 		}
 
 		public void removeEdge(T from, T to) {
-			if (!(graph.containsKey(from) && graph.containsKey(to))) {
-				throw new NoSuchElementException("Missing nodes from graph: " + from + " to " + to);
-			}
-
-			graph.get(from).remove(to);
+			edges.get(indexOf(from, to)).remove(indexOf(to, from));
 		}
 
 		public boolean edgeExists(T from, T to) {
-			if (!(graph.containsKey(from) && graph.containsKey(to))) {
-				throw new NoSuchElementException("Missing nodes from graph: " + from + " to " + to);
-			}
-
-			return graph.get(from).contains(to);
+			return edges.get(indexOf(from, to)).contains(indexOf(to, from));
 		}
 
 		public Set<T> edgesFrom(T from) {
-			if (!graph.containsKey(from)) {
+			Integer index = indices.get(from);
+			if (index == null) {
 				throw new NoSuchElementException("Missing node from graph");
 			}
 
-			return Collections.unmodifiableSortedSet(graph.get(from));
+			Set<T> result = new LinkedHashSet<>();
+			for (int to : edges.get(index)) {
+				result.add(orderedNodes.get(to));
+			}
+			return Collections.unmodifiableSet(result);
+		}
+
+		private int indexOf(T node, T other) {
+			Integer index = indices.get(node);
+			if (index == null || !indices.containsKey(other)) {
+				throw new NoSuchElementException("Missing nodes from graph: " + node + " to " + other);
+			}
+			return index;
 		}
 
 		@Override
 		public Iterator<T> iterator() {
-			return orderedNodes.iterator();
+			return Collections.unmodifiableList(orderedNodes).iterator();
 		}
 
 		public Stream<T> stream() {
@@ -149,16 +290,20 @@ public class TopologicalSort {
 		}
 
 		public int size() {
-			return graph.size();
+			return orderedNodes.size();
 		}
 
 		public boolean isEmpty() {
-			return graph.isEmpty();
+			return orderedNodes.isEmpty();
 		}
 
 		@Override
 		public String toString() {
+			Map<T, Set<T>> graph = new LinkedHashMap<>();
+			for (T node : orderedNodes) {
+				graph.put(node, edgesFrom(node));
+			}
 			return graph.toString();
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.component;
+
+import nova.core.block.component.BlockProperty;
+import nova.core.block.component.LightEmitter;
+import nova.core.util.Identifiable;
+import nova.core.util.Profiler;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures component lookups on a block-like component map.
+ */
+public class ComponentMapEfficiencyTest {
+	private static final int LOOKUP_COUNT = 1000000;
+
+	public static void main(String[] args) {
+		ComponentProvider<ComponentMap> provider = new ComponentProvider<ComponentMap>() {};
+		provider.components.add(new Category("Test"));
+		provider.components.add(new LightEmitter());
+		provider.components.add(new BlockProperty.Hardness());
+		provider.components.add(new BlockProperty.Resistance());
+		provider.components.add(new BlockProperty.Opacity());
+
+		ComponentMap components = provider.components;
+		List<Profiler> profilers = Arrays.asList(
+			profile("get (exact class)", () -> components.get(Category.class)),
+			profile("get (interface)", () -> components.get(Identifiable.class)),
+			profile("getOp (exact class)", () -> components.getOp(LightEmitter.class)),
+			profile("getOp (missing)", () -> components.getOp(Updater.class)),
+			profile("has (exact class)", () -> components.has(BlockProperty.Hardness.class)),
+			profile("has (interface)", () -> components.has(BlockProperty.class)),
+			profile("getSet (interface)", () -> components.getSet(BlockProperty.class))
+		);
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Profiler profile(String name, Runnable lookup) {
+		// Warm up
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -4,7 +4,12 @@ import nova.core.component.exception.ComponentException;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 import static nova.testutils.NovaAssertions.assertThat;
+import static org.junit.Assert.fail;
 
 /**
  * Tests the component provider's addition and extraction of components
@@ -47,4 +52,122 @@ public class ComponentProviderTest {
 		assertThat(provider.components).hasSize(1);
 	}
 
+	@Test
+	public void testLookupInvalidation() throws Exception {
+		ComponentMap components = provider.components;
+		FirstMarker first = new FirstMarker();
+		SecondMarker second = new SecondMarker();
+		assertThat(components.has(Marker.class)).isFalse();
+
+		components.put(FirstMarker.class, first);
+		assertThat(components.getOp(Marker.class)).contains(first);
+
+		components.putIfAbsent(SecondMarker.class, second);
+		assertThat(components.getSet(Marker.class)).hasSize(2).contains(first, second);
+
+		components.remove((Object) SecondMarker.class);
+		assertThat(components.getSet(Marker.class)).hasSize(1).contains(first);
+
+		components.clear();
+		assertThat(components.has(Marker.class)).isFalse();
+		assertThat(components.getSet(Marker.class)).isEmpty();
+
+		Map<Class<? extends Component>, Component> both = new HashMap<>();
+		both.put(FirstMarker.class, first);
+		both.put(SecondMarker.class, second);
+		components.putAll(both);
+		assertThat(components.getSet(Marker.class)).hasSize(2).contains(first, second);
+
+		components.remove(FirstMarker.class, first);
+		assertThat(components.getOp(Marker.class)).contains(second);
+
+		components.remove(second);
+		assertThat(components.has(Marker.class)).isFalse();
+
+		components.add(first);
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+	}
+
+	@Test
+	public void testLookupInvalidationByOtherChanges() throws Exception {
+		ComponentMap components = provider.components;
+		FirstMarker first = new FirstMarker();
+		FirstMarker replacement = new FirstMarker();
+		SecondMarker second = new SecondMarker();
+		components.put(FirstMarker.class, first);
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+
+		components.replace(FirstMarker.class, replacement);
+		assertThat(components.get(Marker.class)).isEqualTo(replacement);
+		components.replace(FirstMarker.class, replacement, first);
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+		components.replaceAll((type, component) -> replacement);
+		assertThat(components.get(Marker.class)).isEqualTo(replacement);
+		components.compute(FirstMarker.class, (type, component) -> first);
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+		components.computeIfPresent(FirstMarker.class, (type, component) -> replacement);
+		assertThat(components.get(Marker.class)).isEqualTo(replacement);
+		components.merge(FirstMarker.class, first, (old, component) -> component);
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+		components.computeIfAbsent(SecondMarker.class, type -> second);
+		assertThat(components.getSet(Marker.class)).hasSize(2).contains(first, second);
+
+		components.keySet().remove(SecondMarker.class);
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+		components.entrySet().iterator().next().setValue(replacement);
+		assertThat(components.get(Marker.class)).isEqualTo(replacement);
+		components.values().removeIf(component -> component == replacement);
+		assertThat(components.has(Marker.class)).isFalse();
+
+		components.put(FirstMarker.class, first);
+		assertThat(components.has(Marker.class)).isTrue();
+		Iterator<Map.Entry<Class<? extends Component>, Component>> iterator = components.entrySet().iterator();
+		iterator.next();
+		iterator.remove();
+		assertThat(components.has(Marker.class)).isFalse();
+
+		components.put(FirstMarker.class, first);
+		ComponentMap clone = (ComponentMap) components.clone();
+		clone.clear();
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+		assertThat(clone.has(Marker.class)).isFalse();
+	}
+
+	@Test
+	public void testAmbiguousSupertype() throws Exception {
+		ComponentMap components = provider.components;
+		FirstMarker first = components.add(new FirstMarker());
+		components.add(new SecondMarker());
+
+		assertThat(components.has(Marker.class)).isTrue();
+		assertThat(components.getSet(Marker.class)).hasSize(2);
+		assertThat(components.getOp(FirstMarker.class)).contains(first);
+		for (int i = 0; i < 2; i++) {
+			//The second query reads the cached lookup.
+			try {
+				components.getOp(Marker.class);
+				fail("Querying a supertype of two components should be ambiguous");
+			} catch (ComponentException e) {
+				//Expected
+			}
+			try {
+				components.get(Component.class);
+				fail("Querying a supertype of two components should be ambiguous");
+			} catch (ComponentException e) {
+				//Expected
+			}
+		}
+
+		components.remove(SecondMarker.class);
+		assertThat(components.get(Marker.class)).isEqualTo(first);
+	}
+
+	private interface Marker {
+	}
+
+	private static class FirstMarker extends Component implements Marker {
+	}
+
+	private static class SecondMarker extends Component implements Marker {
+	}
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.event;
+
+import nova.core.event.bus.Event;
+import nova.core.event.bus.EventBus;
+import nova.core.util.Profiler;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares dispatching through per-event-class tables with checking
+ * the event type inside every listener.
+ */
+public class EventBusEfficiencyTest {
+	private static final int PUBLISH_COUNT = 100000;
+
+	private static final List<Class<? extends Event>> eventClasses = Arrays.asList(
+		EventA.class, EventB.class, EventC.class, EventD.class, EventE.class,
+		EventF.class, EventG.class, EventH.class, EventI.class, EventJ.class
+	);
+
+	public static void main(String[] args) {
+		for (int listenerCount : new int[] { 10, 100, 1000 }) {
+			EventBus<Event> checkingBus = new EventBus<>();
+			EventBus<Event> typedBus = new EventBus<>();
+			int[] calls = new int[1];
+
+			for (int i = 0; i < listenerCount; i++) {
+				Class<? extends Event> eventClass = eventClasses.get(i % eventClasses.size());
+				checkingBus.on().bind(evt -> {
+					if (eventClass.isInstance(evt)) {
+						calls[0]++;
+					}
+				});
+				typedBus.on(eventClass).bind(evt -> calls[0]++);
+			}
+
+			System.out.println(profile("Checking in listener, " + listenerCount + " listeners", checkingBus));
+			System.out.println(profile("Dispatch table, " + listenerCount + " listeners", typedBus));
+		}
+	}
+
+	private static Profiler profile(String name, EventBus<Event> bus) {
+		Event event = new EventA();
+		// Warm up
+		for (int i = 0; i < PUBLISH_COUNT; i++) {
+			bus.publish(event);
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < PUBLISH_COUNT; i++) {
+			bus.publish(event);
+		}
+		profiler.end();
+		return profiler;
+	}
+
+	public static class EventA extends Event {
+	}
+
+	public static class EventB extends Event {
+	}
+
+	public static class EventC extends Event {
+	}
+
+	public static class EventD extends Event {
+	}
+
+	public static class EventE extends Event {
+	}
+
+	public static class EventF extends Event {
+	}
+
+	public static class EventG extends Event {
+	}
+
+	public static class EventH extends Event {
+	}
+
+	public static class EventI extends Event {
+	}
+
+	public static class EventJ extends Event {
+	}
+}
@@ -26,7 +26,9 @@ import nova.core.util.exception.NovaException;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static nova.testutils.NovaAssertions.assertThat;
 
@@ -156,6 +158,38 @@ public class EventBusTest {
 		assertThat(result.toString().equals("DABC") || result.toString().equals("ADBC")).isTrue();
 	}
 
+	@Test
+	public void testTypedDispatch() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		bus.on().bind(new TestEventListener("A"));
+		bus.on(SubTestEvent.class).bind(evt -> evt.append("B"));
+
+		TestEvent event = new TestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("A");
+
+		TestEvent subEvent = new SubTestEvent();
+		bus.publish(subEvent);
+		assertThat(subEvent.toString()).isEqualTo("AB");
+	}
+
+	@Test
+	public void testTypedDispatchInvalidation() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		bus.on(SubTestEvent.class).bind(evt -> evt.append("A"));
+		bus.publish(new SubTestEvent());
+
+		EventListenerHandle<TestEvent> handle = bus.on(TestEvent.class).bind(evt -> evt.append("B"));
+		TestEvent event = new SubTestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("AB");
+
+		handle.close();
+		event = new SubTestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("A");
+	}
+
 	@Test(expected = NovaException.class)
 	public void testNamedPriorityCycle1() {
 		EventBus<TestEvent> bus = new EventBus<>();
@@ -177,4 +211,63 @@ public class EventBusTest {
 
 		bus.publish(new TestEvent());
 	}
+
+	@Test
+	public void testNamedPriorityWithNumericPriority() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		StringBuilder result = new StringBuilder();
+
+		bus.on().withName("C").after("A").bind(evt -> result.append('C'));
+		bus.on().withName("B").withPriority(1).bind(evt -> result.append('B'));
+		bus.on().withName("A").bind(evt -> result.append('A'));
+		bus.on().withName("D").withPriority(-1).bind(evt -> result.append('D'));
+
+		bus.publish(new TestEvent());
+
+		assertThat(result.toString()).isEqualTo("BACD");
+	}
+
+	@Test(expected = NovaException.class)
+	public void testNamedPriorityCycleWithNumericPriority() {
+		EventBus<TestEvent> bus = new EventBus<>();
+
+		bus.on().withName("A").bind(evt -> {});
+		bus.on().withName("B").withPriority(-1).before("A").bind(evt -> {});
+
+		bus.publish(new TestEvent());
+	}
+
+	@Test
+	public void testConcurrentBind() throws Exception {
+		EventBus<TestEvent> bus = new EventBus<>();
+		AtomicInteger calls = new AtomicInteger();
+		List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			threads.add(new Thread(() -> {
+				try {
+					for (int j = 0; j < 500; j++) {
+						bus.on().bind(evt -> calls.incrementAndGet());
+						bus.publish(new TestEvent());
+					}
+				} catch (Throwable t) {
+					errors.add(t);
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(errors).isEmpty();
+		assertThat(bus.count()).isEqualTo(2000);
+		calls.set(0);
+		bus.publish(new TestEvent());
+		assertThat(calls.get()).isEqualTo(2000);
+	}
+
+	public static class SubTestEvent extends TestEvent {
+	}
 }
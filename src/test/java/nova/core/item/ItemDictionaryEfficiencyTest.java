@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.item;
+
+import nova.core.util.Profiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares testing whether items with stored data that changed are registered under a name
+ * through the set of registered items and through the item IDs of the name.
+ */
+public class ItemDictionaryEfficiencyTest {
+	private static final int ITEM_COUNT = 1000;
+	private static final int LOOKUP_COUNT = 100;
+
+	public static void main(String[] args) {
+		ItemDictionary dictionary = new ItemDictionary();
+		Item[] items = new Item[ITEM_COUNT];
+		for (int i = 0; i < ITEM_COUNT; i++) {
+			ItemFactory factory = new ItemFactory("test:item" + i, ItemTest.StoredItem::new);
+			items[i] = factory.build();
+			dictionary.add("ore" + (i % 10), factory);
+		}
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("get(key).contains", () -> {
+			for (Item item : items) {
+				((ItemTest.StoredItem) item).value++;
+				dictionary.get("ore0").contains(item);
+			}
+		}));
+		profilers.add(profile("contains(key, item)", () -> {
+			for (Item item : items) {
+				((ItemTest.StoredItem) item).value++;
+				dictionary.contains("ore0", item);
+			}
+		}));
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Profiler profile(String name, Runnable lookup) {
+		// Warm up
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.item;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class ItemDictionaryTest {
+	private ItemDictionary dictionary;
+	private ItemFactory item1;
+	private ItemFactory item2;
+	private ItemFactory item3;
+
+	@Before
+	public void setUp() {
+		dictionary = new ItemDictionary();
+		item1 = new ItemFactory("test:item1", Item::new);
+		item2 = new ItemFactory("test:item2", Item::new);
+		item3 = new ItemFactory("test:item3", Item::new);
+
+		dictionary.add("ore", item1, item2);
+		dictionary.add("ore2", item3);
+	}
+
+	@Test
+	public void testContains() {
+		assertThat(dictionary.contains("ore", item1.build())).isTrue();
+		assertThat(dictionary.contains("ore", item2.build().setCount(5))).isTrue();
+		assertThat(dictionary.contains("ore", item3.build())).isFalse();
+		assertThat(dictionary.contains("ore2", item3.build())).isTrue();
+		assertThat(dictionary.contains("missing", item1.build())).isFalse();
+	}
+
+	@Test
+	public void testGetItemIds() {
+		assertThat(dictionary.getItemIds("ore")).containsOnly(item1.getID(), item2.getID());
+		dictionary.add("ore", item1.build().setCount(2));
+		assertThat(dictionary.getItemIds("ore")).hasSize(2).containsOnly(item1.getID(), item2.getID());
+		assertThat(dictionary.getItemIds("missing")).isEmpty();
+	}
+
+	@Test
+	public void testChanges() {
+		assertThat(dictionary.contains("ore", item3.build())).isFalse();
+		dictionary.add("ore", item3);
+		assertThat(dictionary.contains("ore", item3.build())).isTrue();
+		assertThat(dictionary.getItemIds("ore")).containsOnly(item1.getID(), item2.getID(), item3.getID());
+
+		dictionary.remove("ore", item1);
+		assertThat(dictionary.contains("ore", item1.build())).isFalse();
+		assertThat(dictionary.getItemIds("ore")).containsOnly(item2.getID(), item3.getID());
+	}
+}
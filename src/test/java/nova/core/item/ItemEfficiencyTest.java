@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.item;
+
+import nova.core.util.Profiler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares hashing, comparing and cloning items with stored data
+ * by saving them every time and through their saved state.
+ */
+public class ItemEfficiencyTest {
+	private static final int ITEM_COUNT = 10000;
+	private static final int REPEAT_COUNT = 20;
+
+	public static void main(String[] args) {
+		ItemFactory factory = new ItemFactory("test:stored", ItemTest.StoredItem::new);
+		List<ItemTest.StoredItem> items = new ArrayList<>();
+		for (int i = 0; i < ITEM_COUNT; i++) {
+			ItemTest.StoredItem item = (ItemTest.StoredItem) factory.build();
+			item.value = i;
+			items.add(item);
+		}
+		Set<Item> set = new HashSet<>(items);
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("hashCode (save)", () -> items.forEach(ItemEfficiencyTest::savedHashCode)));
+		profilers.add(profile("hashCode (state)", () -> items.forEach(Item::hashCode)));
+		profilers.add(profile("equals (save)", () -> items.forEach(item -> savedEquals(item, items.get(0)))));
+		profilers.add(profile("equals (state)", () -> items.forEach(item -> item.equals(items.get(0)))));
+		profilers.add(profile("contains (state)", () -> items.forEach(set::contains)));
+		profilers.add(profile("clone (save)", () -> items.forEach(item -> factory.build(factory.save(item)))));
+		profilers.add(profile("clone (state)", () -> items.forEach(Item::clone)));
+
+		profilers.forEach(System.out::println);
+	}
+
+	/**
+	 * The hash of an item computed by saving it, as before the saved state was kept.
+	 */
+	private static int savedHashCode(Item item) {
+		int hash = 3;
+		hash = 83 * hash + item.getID().hashCode();
+		hash = 83 * hash + item.count();
+		hash = 83 * hash + item.getFactory().save(item).hashCode();
+		return hash;
+	}
+
+	/**
+	 * Compares two items by saving them, as before the saved state was kept.
+	 */
+	private static boolean savedEquals(Item a, Item b) {
+		return a.sameItemType(b) && a.getFactory().save(a).equals(b.getFactory().save(b)) && a.count() == b.count();
+	}
+
+	private static Profiler profile(String name, Runnable run) {
+		// Warm up
+		for (int i = 0; i < REPEAT_COUNT; i++) {
+			run.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < REPEAT_COUNT; i++) {
+			run.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.item;
+
+import nova.core.retention.Store;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class ItemTest {
+
+	public static class StoredItem extends Item {
+		@Store
+		public int value;
+	}
+
+	public static class ListItem extends Item {
+		@Store
+		public List<Integer> values = new ArrayList<>();
+	}
+
+	public static class ArrayItem extends Item {
+		@Store
+		public int[] values = {};
+	}
+
+	@Test
+	public void testStatelessEquality() {
+		ItemFactory factory = new ItemFactory("test:item1", Item::new);
+		Item a = factory.build();
+		Item b = factory.build();
+
+		assertThat(a).isEqualTo(b);
+		assertThat(a.hashCode()).isEqualTo(b.hashCode());
+
+		b.setCount(2);
+		assertThat(a).isNotEqualTo(b);
+
+		assertThat(a).isNotEqualTo(new ItemFactory("test:item2", Item::new).build());
+	}
+
+	@Test
+	public void testStoredEquality() {
+		ItemFactory factory = new ItemFactory("test:stored", StoredItem::new);
+		StoredItem a = (StoredItem) factory.build();
+		StoredItem b = (StoredItem) factory.build();
+		assertThat(a).isEqualTo(b);
+
+		a.value = 5;
+		assertThat(a).isNotEqualTo(b);
+
+		b.value = 5;
+		assertThat(a).isEqualTo(b);
+		assertThat(a.hashCode()).isEqualTo(b.hashCode());
+	}
+
+	@Test
+	public void testClone() {
+		ItemFactory factory = new ItemFactory("test:stored", StoredItem::new);
+		StoredItem item = (StoredItem) factory.build();
+		item.value = 7;
+
+		StoredItem clone = (StoredItem) item.clone();
+		assertThat(clone).isNotSameAs(item);
+		assertThat(clone.value).isEqualTo(7);
+		assertThat(clone).isEqualTo(item);
+
+		clone.value = 8;
+		assertThat(clone).isNotEqualTo(item);
+		assertThat(item.value).isEqualTo(7);
+	}
+
+	@Test
+	public void testCloneArray() {
+		ItemFactory factory = new ItemFactory("test:array", ArrayItem::new);
+		ArrayItem item = (ArrayItem) factory.build();
+		item.values = new int[] { 1, 2, 3 };
+
+		ArrayItem clone = (ArrayItem) item.clone();
+		assertThat(clone.values).isNotSameAs(item.values);
+		clone.values[0] = 9;
+		assertThat(item.values[0]).isEqualTo(1);
+		assertThat(((ArrayItem) item.clone()).values[0]).isEqualTo(1);
+
+		assertThat(item.hashCode()).isNotEqualTo(clone.hashCode());
+		item.values[0] = 9;
+		assertThat(item).isEqualTo(clone);
+	}
+
+	@Test
+	public void testChangedAfterHash() {
+		ItemFactory factory = new ItemFactory("test:stored", StoredItem::new);
+		StoredItem item = (StoredItem) factory.build();
+		StoredItem other = (StoredItem) factory.build();
+		int hash = item.hashCode();
+		assertThat(item).isEqualTo(other);
+
+		item.value = 42;
+		assertThat(((StoredItem) item.clone()).value).isEqualTo(42);
+		assertThat(item).isNotEqualTo(other);
+		assertThat(item.hashCode()).isNotEqualTo(hash);
+
+		item.value = 0;
+		assertThat(item).isEqualTo(other);
+		assertThat(item.hashCode()).isEqualTo(hash);
+	}
+
+	@Test
+	public void testMutableFields() {
+		ItemFactory factory = new ItemFactory("test:list", ListItem::new);
+		ListItem item = (ListItem) factory.build();
+		ListItem other = (ListItem) factory.build();
+		assertThat(item).isEqualTo(other);
+
+		item.values.add(1);
+		assertThat(item).isNotEqualTo(other);
+		assertThat(((ListItem) item.clone()).values).containsExactly(1);
+
+		other.values.add(1);
+		assertThat(item).isEqualTo(other);
+		assertThat(item.hashCode()).isEqualTo(other.hashCode());
+	}
+}
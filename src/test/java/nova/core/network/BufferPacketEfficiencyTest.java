@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import nova.core.util.Profiler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Measures writing packets end to end with {@link BufferPacket}, each into a new packet that is then released.
+ * Writing data and strings is compared with going through an intermediate byte array,
+ * and taking buffers from the pool with allocating them.
+ */
+public class BufferPacketEfficiencyTest {
+	private static final int PACKET_COUNT = 100000;
+
+	public static void main(String[] args) {
+		Data data = new Data();
+		data.put("name", "test");
+		data.put("energy", 1234.5);
+		data.put("ticks", 1000L);
+		data.put("inventory", Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8));
+		List<Object> collection = Arrays.asList(1, 2.0, "three", 4L, "five", 6, 7.0, "eight");
+		String string = "nova:example_block_name_with_ünïcödé";
+		SyncableEfficiencyTest.SyncedObject synced = new SyncableEfficiencyTest.SyncedObject();
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("allocateDirect", packet -> ByteBuffer.allocateDirect(256)));
+		profilers.add(profile("pool", packet -> { }));
+		profilers.add(profile("writeData (byte[])", packet -> {
+			byte[] bytes = Data.toBinary(data);
+			packet.writeInt(bytes.length);
+			packet.writeBytes(bytes);
+		}));
+		profilers.add(profile("writeData", packet -> packet.writeData(data)));
+		profilers.add(profile("writeString (byte[])", packet -> {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			packet.writeVarInt(bytes.length);
+			packet.writeBytes(bytes);
+		}));
+		profilers.add(profile("writeString", packet -> packet.writeString(string)));
+		profilers.add(profile("writeCollection", packet -> packet.writeCollection(collection)));
+		profilers.add(profile("Syncable.write", synced::write));
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Profiler profile(String name, Consumer<BufferPacket> write) {
+		// Warm up
+		for (int i = 0; i < PACKET_COUNT; i++) {
+			BufferPacket packet = BufferPacket.allocate();
+			write.accept(packet);
+			packet.release();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < PACKET_COUNT; i++) {
+			BufferPacket packet = BufferPacket.allocate();
+			write.accept(packet);
+			packet.release();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class BufferPacketTest {
+	private BufferPacket packet;
+
+	@Before
+	public void setUp() {
+		packet = BufferPacket.allocate();
+	}
+
+	@After
+	public void tearDown() {
+		if (packet != null) {
+			packet.release();
+		}
+	}
+
+	@Test
+	public void testPrimitives() {
+		packet.writeBoolean(true).writeByte(-5).writeShort(-300).writeInt(123456789).writeLong(-1234567890123L)
+			.writeChar('x').writeFloat(1.5f).writeDouble(-2.25);
+
+		assertThat(packet.size()).isEqualTo(1 + 1 + 2 + 4 + 8 + 2 + 4 + 8);
+		assertThat(packet.readBoolean()).isTrue();
+		assertThat(packet.readByte()).isEqualTo((byte) -5);
+		assertThat(packet.readShort()).isEqualTo((short) -300);
+		assertThat(packet.readInt()).isEqualTo(123456789);
+		assertThat(packet.readLong()).isEqualTo(-1234567890123L);
+		assertThat(packet.readChar()).isEqualTo('x');
+		assertThat(packet.readFloat()).isEqualTo(1.5f);
+		assertThat(packet.readDouble()).isEqualTo(-2.25);
+		assertThat(packet.readableBytes()).isEqualTo(0);
+	}
+
+	@Test
+	public void testVarInts() {
+		int[] ints = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+		long[] longs = { 0, 1, 127, 128, Long.MAX_VALUE, -1, Long.MIN_VALUE };
+		for (int value : ints) {
+			packet.writeVarInt(value).writeSignedVarInt(value);
+		}
+		for (long value : longs) {
+			packet.writeVarLong(value).writeSignedVarLong(value);
+		}
+		for (int value : ints) {
+			assertThat(packet.readVarInt()).isEqualTo(value);
+			assertThat(packet.readSignedVarInt()).isEqualTo(value);
+		}
+		for (long value : longs) {
+			assertThat(packet.readVarLong()).isEqualTo(value);
+			assertThat(packet.readSignedVarLong()).isEqualTo(value);
+		}
+
+		packet.writeVarInt(127).writeVarInt(128).writeSignedVarInt(-1).writeSignedVarInt(-65);
+		assertThat(packet.readableBytes()).isEqualTo(1 + 2 + 1 + 2);
+	}
+
+	@Test
+	public void testStrings() {
+		String[] strings = { "", "ascii", "été", "中文", "😀 emoji" };
+		for (String string : strings) {
+			packet.writeString(string);
+		}
+		for (String string : strings) {
+			assertThat(packet.readString()).isEqualTo(string);
+		}
+
+		String unpaired = "a\ud800b";
+		packet.writeString(unpaired);
+		assertThat(packet.readVarInt()).isEqualTo(unpaired.getBytes(StandardCharsets.UTF_8).length);
+		assertThat(packet.readBytes(3)).isEqualTo(unpaired.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testData() {
+		Data data = new Data();
+		data.put("name", "test");
+		data.put("value", 42);
+		data.put("list", Arrays.asList(1, 2, 3));
+
+		packet.writeData(data).writeInt(7);
+		assertThat(packet.readData()).isEqualTo(data);
+		assertThat(packet.readInt()).isEqualTo(7);
+	}
+
+	@Test
+	public void testCollection() {
+		List<Object> list = Arrays.asList(1, "two", 3.0);
+		packet.writeCollection(list);
+		assertThat(packet.<Object>readList()).isEqualTo(list);
+	}
+
+	@Test
+	public void testGrowth() {
+		for (int i = 0; i < 10000; i++) {
+			packet.writeInt(i);
+		}
+		assertThat(packet.size()).isEqualTo(40000);
+		for (int i = 0; i < 10000; i++) {
+			assertThat(packet.readInt()).isEqualTo(i);
+		}
+	}
+
+	@Test
+	public void testWrap() {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		buffer.putInt(5).putInt(6);
+		buffer.flip();
+		BufferPacket wrapped = BufferPacket.wrap(buffer, null);
+		assertThat(wrapped.readInt()).isEqualTo(5);
+		wrapped.writeInt(7);
+		assertThat(wrapped.readInt()).isEqualTo(6);
+		assertThat(wrapped.readInt()).isEqualTo(7);
+		buffer.limit(16);
+		assertThat(buffer.getInt(8)).isEqualTo(0);
+
+		ByteBuffer contents = packet.writeInt(1).writeInt(2).contents();
+		packet.readInt();
+		assertThat(contents.remaining()).isEqualTo(8);
+		assertThat(packet.contents().getInt()).isEqualTo(2);
+	}
+
+	@Test
+	public void testReadPastEnd() {
+		packet.writeShort(1);
+		try {
+			packet.readInt();
+			fail("Reading past the end should fail");
+		} catch (NetworkException e) {
+			assertThat(packet.readShort()).isEqualTo((short) 1);
+		}
+	}
+
+	@Test
+	public void testMalformedLengths() {
+		packet.writeVarInt(-1).writeString("Hello");
+		try {
+			packet.readString();
+			fail("Reading a negative string length should fail");
+		} catch (NetworkException e) {
+			assertThat(packet.readString()).isEqualTo("Hello");
+		}
+
+		packet.writeInt(-4).writeInt(7);
+		try {
+			packet.readData();
+			fail("Reading a negative data length should fail");
+		} catch (NetworkException e) {
+			assertThat(packet.readInt()).isEqualTo(7);
+		}
+
+		packet.writeInt(8);
+		try {
+			packet.readBytes(-4);
+			fail("Reading a negative number of bytes should fail");
+		} catch (NetworkException e) {
+			assertThat(packet.readInt()).isEqualTo(8);
+		}
+		assertThat(packet.readableBytes()).isEqualTo(0);
+	}
+
+	@Test
+	public void testRelease() {
+		packet.release();
+		BufferPacket released = packet;
+		packet = null;
+		try {
+			released.writeInt(1);
+			fail("Writing to a released packet should fail");
+		} catch (NetworkException e) {
+			//Expected
+		}
+	}
+}
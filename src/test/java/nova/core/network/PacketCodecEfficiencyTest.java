@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
+import nova.core.util.Profiler;
+import nova.wrappertests.depmodules.FakeNetworkModule;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Compares writing objects of mixed types, and tagging them as collection elements,
+ * through a chain of instanceof checks and through the codecs of {@link PacketCodec}.
+ * The packet ignores what is written, so only finding how to write is measured.
+ */
+public class PacketCodecEfficiencyTest {
+	private static final int WRITE_COUNT = 10000;
+
+	public static void main(String[] args) {
+		Packet packet = new FakeNetworkModule.FakeNetworkManager().newPacket();
+		List<Object> values = Arrays.asList(true, 1, 2L, 3.0, "four", new Vector3D(5, 6, 7), new Vector2D(8, 9), new int[] { 10 });
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("write (instanceof)", () -> values.forEach(value -> instanceOfWrite(packet, value))));
+		profilers.add(profile("write (codec)", () -> values.forEach(packet::write)));
+		profilers.add(profile("getType (scan)", () -> values.forEach(value -> scanType(value.getClass()))));
+		profilers.add(profile("getType (cached)", () -> values.forEach(value -> packet.getType(value.getClass()))));
+
+		profilers.forEach(System.out::println);
+	}
+
+	/**
+	 * Finds the type of a class as {@link Packet#getType(Class)} did before the types were cached.
+	 */
+	private static int scanType(Class<?> compare) {
+		return IntStream
+			.range(0, Data.dataTypes.length)
+			.filter(i -> Data.dataTypes[i].isAssignableFrom(compare))
+			.findFirst()
+			.getAsInt();
+	}
+
+	/**
+	 * Writes an object as {@link Packet#write(Object)} did before it used codecs.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static void instanceOfWrite(Packet packet, Object data) {
+		if (data instanceof Boolean) {
+			packet.writeBoolean((boolean) data);
+		} else if (data instanceof Byte) {
+			packet.writeByte((byte) data);
+		} else if (data instanceof Short) {
+			packet.writeShort((short) data);
+		} else if (data instanceof Integer) {
+			packet.writeInt((int) data);
+		} else if (data instanceof Long) {
+			packet.writeLong((long) data);
+		} else if (data instanceof Character) {
+			packet.writeChar((Character) data);
+		} else if (data instanceof Float) {
+			packet.writeFloat((float) data);
+		} else if (data instanceof Double) {
+			packet.writeDouble((double) data);
+		} else if (data instanceof String) {
+			packet.writeString((String) data);
+		} else if (data instanceof Enum) {
+			packet.writeEnum((Enum) data);
+		} else if (data instanceof Optional) {
+			packet.writeOptional((Optional) data);
+		} else if (data instanceof Data) {
+			packet.writeData((Data) data);
+		} else if (data instanceof Syncable) {
+			((Syncable) data).write(packet);
+		} else if (data instanceof Storable) {
+			packet.writeStorable((Storable) data);
+		} else if (data instanceof Collection) {
+			packet.writeCollection((Collection) data);
+		} else if (data instanceof Vector3D) {
+			packet.writeDouble(((Vector3D) data).getX());
+			packet.writeDouble(((Vector3D) data).getY());
+			packet.writeDouble(((Vector3D) data).getZ());
+		} else if (data instanceof Vector2D) {
+			packet.writeDouble(((Vector2D) data).getX());
+			packet.writeDouble(((Vector2D) data).getY());
+		} else if (data instanceof int[]) {
+			packet.writeIntArray((int[]) data);
+		} else if (data instanceof long[]) {
+			packet.writeLongArray((long[]) data);
+		} else if (data instanceof double[]) {
+			packet.writeDoubleArray((double[]) data);
+		} else if (data instanceof byte[]) {
+			packet.writeInt(((byte[]) data).length);
+			packet.writeBytes((byte[]) data);
+		} else {
+			throw new IllegalArgumentException("Packet attempt to write an invalid object: " + data);
+		}
+	}
+
+	private static Profiler profile(String name, Runnable write) {
+		// Warm up
+		for (int i = 0; i < WRITE_COUNT; i++) {
+			write.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < WRITE_COUNT; i++) {
+			write.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class PacketCodecTest {
+	private BufferPacket packet;
+
+	@Before
+	public void setUp() {
+		packet = BufferPacket.allocate();
+	}
+
+	@After
+	public void tearDown() {
+		packet.release();
+	}
+
+	@Test
+	public void testBuiltIn() {
+		Object[] values = { true, (byte) 1, (short) 2, 3, 4L, 'c', 5f, 6.0, "string", new Vector3D(1, 2, 3),
+			new int[] { 1, 2 }, new long[] { 3 }, new double[] { 4.5 }, new byte[] { 6, 7 } };
+		for (Object value : values) {
+			packet.write(value);
+		}
+		for (Object value : values) {
+			Object read = packet.read(value.getClass());
+			if (value.getClass().isArray()) {
+				assertThat(Arrays.deepEquals(new Object[] { read }, new Object[] { value })).isTrue();
+			} else {
+				assertThat(read).isEqualTo(value);
+			}
+		}
+
+		packet.write(7).write(8.5);
+		assertThat(packet.read(int.class)).isEqualTo(7);
+		assertThat(packet.read(double.class)).isEqualTo(8.5);
+	}
+
+	@Test
+	public void testContainers() {
+		List<Object> list = new ArrayList<>(Arrays.asList(1, "two", 3.0));
+		Set<Object> set = new HashSet<>(Arrays.asList(4L, "five"));
+		Data data = new Data();
+		data.put("key", "value");
+
+		packet.write(list).write(set).write(Optional.of("six")).write(Optional.empty()).write(data);
+		List<?> readList = packet.read(List.class);
+		Set<?> readSet = packet.read(Set.class);
+		Optional<?> present = packet.read(Optional.class);
+		Optional<?> empty = packet.read(Optional.class);
+		assertThat(readList).isEqualTo(list);
+		assertThat(readSet).isEqualTo(set);
+		assertThat(present).isEqualTo(Optional.of("six"));
+		assertThat(empty).isEqualTo(Optional.empty());
+		assertThat(packet.read(Data.class)).isEqualTo(data);
+	}
+
+	@Test
+	public void testInvalid() {
+		try {
+			packet.write(new Object());
+			fail("Writing an object without a codec should fail");
+		} catch (IllegalArgumentException e) {
+			assertThat(packet.size()).isEqualTo(0);
+		}
+		try {
+			packet.getType(Object.class);
+			fail("Getting the type of an object that cannot be stored should fail");
+		} catch (NetworkException e) {
+			//Expected
+		}
+		assertThat(packet.getType(ArrayList.class)).isEqualTo(Data.typeOf(ArrayList.class));
+	}
+
+	@Test
+	public void testRegister() {
+		assertThat(PacketCodec.writerOf(Point.class).isPresent()).isFalse();
+
+		PacketCodec.register(Point.class, (p, point) -> p.writeInt(point.x).writeInt(point.y), p -> new Point(p.readInt(), p.readInt()));
+		assertThat(PacketCodec.writerOf(Point.class).get().type).isEqualTo(Point.class);
+		assertThat(PacketCodec.writerOf(ColoredPoint.class).get().type).isEqualTo(Point.class);
+
+		packet.write(new ColoredPoint(1, 2));
+		Point point = packet.read(Point.class);
+		assertThat(point.x).isEqualTo(1);
+		assertThat(point.y).isEqualTo(2);
+	}
+
+	public static class Point {
+		public final int x;
+		public final int y;
+
+		public Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	public static class ColoredPoint extends Point {
+		public ColoredPoint(int x, int y) {
+			super(x, y);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.util.Profiler;
+import nova.wrappertests.depmodules.FakeNetworkModule;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures writing and reading a syncable with twenty primitive fields.
+ */
+public class SyncableEfficiencyTest {
+	private static final int SYNC_COUNT = 100000;
+
+	public static void main(String[] args) {
+		SyncedObject synced = new SyncedObject();
+		Packet packet = new FakeNetworkModule.FakeNetworkManager().newPacket();
+
+		List<Profiler> profilers = Arrays.asList(
+			profile("write", () -> synced.write(packet)),
+			profile("read", () -> synced.read(packet))
+		);
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Profiler profile(String name, Runnable sync) {
+		// Warm up
+		for (int i = 0; i < SYNC_COUNT; i++) {
+			sync.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < SYNC_COUNT; i++) {
+			sync.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+
+	public static class SyncedObject implements Syncable {
+		@Sync
+		public boolean b0;
+		@Sync
+		public byte b1;
+		@Sync
+		public short s0;
+		@Sync
+		public char c0;
+		@Sync
+		public int i0;
+		@Sync
+		public int i1;
+		@Sync
+		public int i2;
+		@Sync
+		public int i3;
+		@Sync
+		public long l0;
+		@Sync
+		public long l1;
+		@Sync
+		public long l2;
+		@Sync
+		public float f0;
+		@Sync
+		public float f1;
+		@Sync
+		public float f2;
+		@Sync
+		public double d0;
+		@Sync
+		public double d1;
+		@Sync
+		public double d2;
+		@Sync
+		public double d3;
+		@Sync
+		public double d4;
+		@Sync
+		public double d5;
+	}
+}
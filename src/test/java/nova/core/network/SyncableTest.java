@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.util.ReflectionUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class SyncableTest {
+	private BufferPacket packet;
+	private BufferPacket expected;
+
+	@Before
+	public void setUp() {
+		packet = BufferPacket.allocate();
+		expected = BufferPacket.allocate();
+	}
+
+	@After
+	public void tearDown() {
+		packet.release();
+		expected.release();
+	}
+
+	@Test
+	public void testWriteOrder() {
+		SyncedObject synced = SyncedObject.filled();
+		for (int id = 0; id < 3; id++) {
+			packet.setID(id);
+			expected.setID(id);
+			synced.write(packet);
+			writeReflectively(synced, expected);
+
+			assertThat(packet.contents()).isEqualTo(expected.contents());
+			packet.readBytes(packet.readableBytes());
+			expected.readBytes(expected.readableBytes());
+		}
+	}
+
+	@Test
+	public void testReadBack() {
+		SyncedObject synced = SyncedObject.filled();
+		synced.write(packet);
+
+		SyncedObject read = new SyncedObject();
+		read.read(packet);
+		assertThat(packet.readableBytes()).isEqualTo(0);
+
+		assertThat(read.baseValue).isEqualTo(synced.baseValue);
+		assertThat(read.booleanValue).isEqualTo(synced.booleanValue);
+		assertThat(read.byteValue).isEqualTo(synced.byteValue);
+		assertThat(read.shortValue).isEqualTo(synced.shortValue);
+		assertThat(read.intValue).isEqualTo(synced.intValue);
+		assertThat(read.longValue).isEqualTo(synced.longValue);
+		assertThat(read.charValue).isEqualTo(synced.charValue);
+		assertThat(read.floatValue).isEqualTo(synced.floatValue);
+		assertThat(read.doubleValue).isEqualTo(synced.doubleValue);
+		assertThat(read.stringValue).isEqualTo(synced.stringValue);
+		assertThat(read.enumValue).isEqualTo(synced.enumValue);
+		assertThat(read.optionalValue).isEqualTo(synced.optionalValue);
+		assertThat(read.nested.value).isEqualTo(synced.nested.value);
+		assertThat(read.nested.name).isEqualTo(synced.nested.name);
+		//Fields synced with another ID are not read.
+		assertThat(read.otherValue).isEqualTo(0);
+	}
+
+	@Test
+	public void testReadFinal() {
+		packet.setID(3);
+		new FinalObject(5, "Final").write(packet);
+
+		FinalObject read = new FinalObject(0, "");
+		read.read(packet);
+		assertThat(read.intValue).isEqualTo(5);
+		assertThat(read.stringValue).isEqualTo("Final");
+	}
+
+	/**
+	 * Writes the synced fields the way Syncable did through reflection.
+	 */
+	private static void writeReflectively(Syncable syncable, Packet packet) {
+		ReflectionUtil.forEachRecursiveAnnotatedField(Sync.class, syncable.getClass(), (field, annotation) -> {
+			if (Arrays.stream(annotation.ids()).anyMatch(i -> i == packet.getID())) {
+				try {
+					field.setAccessible(true);
+					Object value = field.get(syncable);
+					if (value instanceof Syncable) {
+						writeReflectively((Syncable) value, packet);
+					} else {
+						packet.write(value);
+					}
+				} catch (IllegalAccessException e) {
+					throw new AssertionError(e);
+				}
+			}
+		});
+	}
+
+	public enum Mode {
+		FIRST,
+		SECOND
+	}
+
+	public static class BaseObject implements Syncable {
+		@Sync
+		public int baseValue;
+	}
+
+	public static class NestedObject implements Syncable {
+		@Sync(ids = { 0, 2 })
+		public long value;
+		@Sync
+		public String name = "";
+	}
+
+	public static class FinalObject implements Syncable {
+		@Sync(ids = 3)
+		public final int intValue;
+		@Sync(ids = 3)
+		public final String stringValue;
+
+		public FinalObject(int intValue, String stringValue) {
+			this.intValue = intValue;
+			this.stringValue = stringValue;
+		}
+	}
+
+	public static class SyncedObject extends BaseObject {
+		@Sync
+		public boolean booleanValue;
+		@Sync
+		public byte byteValue;
+		@Sync(ids = { 0, 2 })
+		public short shortValue;
+		@Sync
+		private int intValue;
+		@Sync
+		public long longValue;
+		@Sync
+		public char charValue;
+		@Sync
+		public float floatValue;
+		@Sync(ids = { 2, 0 })
+		public double doubleValue;
+		@Sync
+		public String stringValue = "";
+		@Sync
+		public Mode enumValue = Mode.FIRST;
+		@Sync
+		public Optional<String> optionalValue = Optional.empty();
+		@Sync(ids = { 0, 2 })
+		public final NestedObject nested = new NestedObject();
+		@Sync(ids = 1)
+		public int otherValue;
+
+		static SyncedObject filled() {
+			SyncedObject synced = new SyncedObject();
+			synced.baseValue = -7;
+			synced.booleanValue = true;
+			synced.byteValue = (byte) 0x81;
+			synced.shortValue = (short) 0x1234;
+			synced.intValue = 0xCAFEBABE;
+			synced.longValue = Long.MIN_VALUE + 3;
+			synced.charValue = '\u00e9';
+			synced.floatValue = 1.5F;
+			synced.doubleValue = -Math.PI;
+			synced.stringValue = "Hello";
+			synced.enumValue = Mode.SECOND;
+			synced.optionalValue = Optional.of("Optional");
+			synced.nested.value = 42;
+			synced.nested.name = "Nested";
+			synced.otherValue = 9;
+			return synced;
+		}
+	}
+}
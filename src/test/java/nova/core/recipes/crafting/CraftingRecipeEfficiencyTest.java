@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.recipes.crafting;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+import nova.core.item.Item;
+import nova.core.item.ItemFactory;
+import nova.core.recipes.RecipeManager;
+import nova.core.recipes.ingredient.ItemIngredient;
+import nova.core.util.Profiler;
+import nova.testutils.FakeCraftingGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compares finding the recipe of crafting grids among 10k shaped recipes that share their first item,
+ * through an index of the first item, through {@link CraftingRecipeManager#getRecipe(CraftingGrid)},
+ * and when the same grid is looked up again.
+ */
+public class CraftingRecipeEfficiencyTest {
+	private static final int RECIPE_COUNT = 10000;
+	private static final int GRID_COUNT = 1000;
+	private static final int LOOKUP_COUNT = 5;
+
+	public static void main(String[] args) {
+		RecipeManager recipeManager = new RecipeManager();
+		CraftingRecipeManager craftingRecipeManager = new CraftingRecipeManager(recipeManager);
+		ItemFactory stick = new ItemFactory("test:stick", Item::new);
+		ItemFactory output = new ItemFactory("test:output", Item::new);
+		ItemFactory[] heads = new ItemFactory[RECIPE_COUNT / 4];
+		for (int i = 0; i < heads.length; i++) {
+			heads[i] = new ItemFactory("test:head" + i, Item::new);
+		}
+
+		String[] patterns = { "AB", "A-B", "AB-A ", "A B-A" };
+		Multimap<String, CraftingRecipe> byFirstItem = ArrayListMultimap.create();
+		for (int i = 0; i < RECIPE_COUNT; i++) {
+			CraftingRecipe recipe = new ShapedCraftingRecipe(output, patterns[i % patterns.length],
+				ItemIngredient.forItem(stick), ItemIngredient.forItem(heads[i / patterns.length]));
+			craftingRecipeManager.addRecipe(recipe);
+			byFirstItem.put(stick.getID(), recipe);
+		}
+
+		CraftingGrid[] grids = new CraftingGrid[GRID_COUNT];
+		for (int i = 0; i < GRID_COUNT; i++) {
+			Item[] items = new Item[9];
+			items[0] = stick.build();
+			items[3] = heads[i * heads.length / GRID_COUNT].build();
+			grids[i] = new FakeCraftingGrid(3, 3, items);
+		}
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("first item index", () -> {
+			for (CraftingGrid grid : grids) {
+				firstItemLookup(byFirstItem, grid);
+			}
+		}));
+		profilers.add(profile("getRecipe", () -> {
+			for (CraftingGrid grid : grids) {
+				craftingRecipeManager.getRecipe(grid);
+			}
+		}));
+		profilers.add(profile("getRecipe (same grid)", () -> {
+			for (int i = 0; i < GRID_COUNT; i++) {
+				craftingRecipeManager.getRecipe(grids[0]);
+			}
+		}));
+
+		profilers.forEach(System.out::println);
+	}
+
+	/**
+	 * The lookup that CraftingRecipeManager did before indexing recipe shapes.
+	 */
+	private static Optional<CraftingRecipe> firstItemLookup(Multimap<String, CraftingRecipe> byFirstItem, CraftingGrid grid) {
+		Optional<Item> firstItem = grid.getFirstNonEmptyItem();
+		if (!firstItem.isPresent()) {
+			return Optional.empty();
+		}
+		for (CraftingRecipe recipe : byFirstItem.get(firstItem.get().getID())) {
+			if (recipe.matches(grid)) {
+				return Optional.of(recipe);
+			}
+		}
+		return Optional.empty();
+	}
+
+	private static Profiler profile(String name, Runnable lookup) {
+		// Warm up
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.recipes.crafting;
+
+import nova.core.item.Item;
+import nova.core.item.ItemFactory;
+import nova.core.recipes.RecipeManager;
+import nova.core.recipes.ingredient.ItemIngredient;
+import nova.testutils.FakeCraftingGrid;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class CraftingRecipeManagerTest {
+
+	private ItemFactory item1;
+	private ItemFactory item2;
+	private ItemFactory item3;
+
+	private RecipeManager recipeManager;
+	private CraftingRecipeManager craftingRecipeManager;
+
+	@Before
+	public void setUp() {
+		recipeManager = new RecipeManager();
+		craftingRecipeManager = new CraftingRecipeManager(recipeManager);
+
+		item1 = new ItemFactory("test:item1", Item::new);
+		item2 = new ItemFactory("test:item2", Item::new);
+		item3 = new ItemFactory("test:item3", Item::new);
+	}
+
+	private static CraftingGrid grid(Item... items) {
+		return new FakeCraftingGrid(3, 3, items);
+	}
+
+	@Test
+	public void testShapedRecipe() {
+		CraftingRecipe recipe = new ShapedCraftingRecipe(item1, "AB-B ", ItemIngredient.forItem(item2), ItemIngredient.forItem(item3));
+		craftingRecipeManager.addRecipe(recipe);
+
+		Item a = item2.build();
+		Item b = item3.build();
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			null, null, null,
+			null, a, b,
+			null, b, null))).contains(recipe);
+		//The same items in another shape, or another position of the items.
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			a, b, b,
+			null, null, null,
+			null, null, null))).isEmpty();
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			null, null, null,
+			null, b, a,
+			null, b, null))).isEmpty();
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			null, null, null,
+			null, null, null,
+			null, null, null))).isEmpty();
+
+		craftingRecipeManager.removeRecipe(recipe);
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			a, b, null,
+			b, null, null,
+			null, null, null))).isEmpty();
+	}
+
+	@Test
+	public void testShapelessRecipe() {
+		CraftingRecipe recipe = new ShapelessCraftingRecipe(item1, ItemIngredient.forItem(item2), ItemIngredient.forItem(item2), ItemIngredient.forItem(item3));
+		craftingRecipeManager.addRecipe(recipe);
+
+		Item a = item2.build();
+		Item b = item3.build();
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			b, null, null,
+			null, null, a,
+			null, a, null))).contains(recipe);
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			b, null, null,
+			null, null, b,
+			null, a, null))).isEmpty();
+	}
+
+	@Test
+	public void testOtherRecipes() {
+		CraftingRecipe firstSlot = new TestRecipe(Collections.singleton("test:item2"), item2);
+		CraftingRecipe dynamic = new TestRecipe(Collections.emptyList(), item3);
+		craftingRecipeManager.addRecipe(firstSlot);
+		craftingRecipeManager.addRecipe(dynamic);
+
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			null, item2.build(), null,
+			null, null, null,
+			null, null, null))).contains(firstSlot);
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			null, null, null,
+			null, null, null,
+			null, null, item3.build()))).contains(dynamic);
+		assertThat(craftingRecipeManager.getRecipe(grid(
+			null, null, null,
+			null, null, null,
+			null, null, item1.build()))).isEmpty();
+	}
+
+	@Test
+	public void testEmptyGrid() {
+		CraftingGrid empty = grid(
+			null, null, null,
+			null, null, null,
+			null, null, null);
+		assertThat(craftingRecipeManager.getRecipe(empty)).isEmpty();
+
+		//Dynamic recipes may match a grid without items.
+		CraftingRecipe dynamic = new TestRecipe(Collections.emptyList(), item1) {
+			@Override
+			public boolean matches(CraftingGrid craftingGrid) {
+				return craftingGrid.countFilledStacks() == 0;
+			}
+		};
+		craftingRecipeManager.addRecipe(dynamic);
+		assertThat(craftingRecipeManager.getRecipe(empty)).contains(dynamic);
+	}
+
+	@Test
+	public void testCache() {
+		CraftingRecipe first = new ShapelessCraftingRecipe(item1, ItemIngredient.forItem(item2));
+		CraftingRecipe second = new ShapelessCraftingRecipe(item3, ItemIngredient.forItem(item2));
+		craftingRecipeManager.addRecipe(first);
+		craftingRecipeManager.addRecipe(second);
+
+		CraftingGrid grid = grid(
+			item2.build(), null, null,
+			null, null, null,
+			null, null, null);
+		CraftingRecipe found = craftingRecipeManager.getRecipe(grid).get();
+		assertThat(craftingRecipeManager.getRecipe(grid)).contains(found);
+
+		//Removing the cached recipe makes the other one found.
+		craftingRecipeManager.removeRecipe(found);
+		assertThat(craftingRecipeManager.getRecipe(grid)).contains(found == first ? second : first);
+
+		//The cached recipe is checked against the grid, not only its item IDs.
+		craftingRecipeManager.removeRecipe(first);
+		craftingRecipeManager.removeRecipe(second);
+		CraftingRecipe single = new TestRecipe(Collections.emptyList(), item2) {
+			@Override
+			public boolean matches(CraftingGrid craftingGrid) {
+				return super.matches(craftingGrid) && craftingGrid.getCrafting(0, 0).get().count() == 1;
+			}
+		};
+		craftingRecipeManager.addRecipe(single);
+		assertThat(craftingRecipeManager.getRecipe(grid)).contains(single);
+		grid.getCrafting(0, 0).get().setCount(2);
+		assertThat(craftingRecipeManager.getRecipe(grid)).isEmpty();
+	}
+
+	/**
+	 * A recipe matching any grid holding one item of a type.
+	 */
+	private static class TestRecipe implements CraftingRecipe {
+		private final Collection<String> firstSlot;
+		private final ItemFactory item;
+
+		private TestRecipe(Collection<String> firstSlot, ItemFactory item) {
+			this.firstSlot = firstSlot;
+			this.item = item;
+		}
+
+		@Override
+		public boolean matches(CraftingGrid craftingGrid) {
+			return craftingGrid.countFilledStacks() == 1
+				&& craftingGrid.getFirstNonEmptyItem().get().getID().equals(item.getID());
+		}
+
+		@Override
+		public Optional<Item> getCraftingResult(CraftingGrid craftingGrid) {
+			return matches(craftingGrid) ? Optional.of(item.build()) : Optional.empty();
+		}
+
+		@Override
+		public Optional<Item> getExampleOutput() {
+			return Optional.of(item.build());
+		}
+
+		@Override
+		public void consumeItems(CraftingGrid craftingGrid) {
+		}
+
+		@Override
+		public Collection<String> getPossibleItemsInFirstSlot() {
+			return firstSlot;
+		}
+	}
+}
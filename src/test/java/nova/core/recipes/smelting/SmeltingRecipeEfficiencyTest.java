@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.recipes.smelting;
+
+import nova.core.item.Item;
+import nova.core.item.ItemFactory;
+import nova.core.recipes.RecipeManager;
+import nova.core.recipes.ingredient.ItemIngredient;
+import nova.core.util.Profiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compares finding the smelting recipe of 10k different inputs, among 10k recipes,
+ * by checking every recipe and through {@link SmeltingRecipeManager#getRecipe(Item)}.
+ */
+public class SmeltingRecipeEfficiencyTest {
+	private static final int RECIPE_COUNT = 10000;
+	private static final int LOOKUP_COUNT = 5;
+
+	public static void main(String[] args) {
+		RecipeManager recipeManager = new RecipeManager();
+		SmeltingRecipeManager smeltingRecipeManager = new SmeltingRecipeManager(recipeManager);
+		ItemFactory output = new ItemFactory("test:output", Item::new);
+		Item[] inputs = new Item[RECIPE_COUNT];
+		for (int i = 0; i < RECIPE_COUNT; i++) {
+			ItemFactory input = new ItemFactory("test:input" + i, Item::new);
+			inputs[i] = input.build();
+			smeltingRecipeManager.addRecipe(new BasicSmeltingRecipe(output, ItemIngredient.forItem(input)));
+		}
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("scan", () -> {
+			for (Item input : inputs) {
+				scan(recipeManager, input);
+			}
+		}));
+		profilers.add(profile("getRecipe", () -> {
+			for (Item input : inputs) {
+				smeltingRecipeManager.getRecipe(input);
+			}
+		}));
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Optional<SmeltingRecipe> scan(RecipeManager recipeManager, Item input) {
+		return recipeManager.getRecipes(SmeltingRecipe.class).stream()
+			.filter(recipe -> recipe.matches(input))
+			.findFirst();
+	}
+
+	private static Profiler profile(String name, Runnable lookup) {
+		// Warm up
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.recipes.smelting;
+
+import nova.core.item.Item;
+import nova.core.item.ItemFactory;
+import nova.core.recipes.RecipeManager;
+import nova.core.recipes.ingredient.ItemIngredient;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class SmeltingRecipeManagerTest {
+
+	private ItemFactory item1;
+	private ItemFactory item2;
+	private ItemFactory item3;
+
+	private RecipeManager recipeManager;
+	private SmeltingRecipeManager smeltingRecipeManager;
+
+	@Before
+	public void setUp() {
+		recipeManager = new RecipeManager();
+		smeltingRecipeManager = new SmeltingRecipeManager(recipeManager);
+
+		item1 = new ItemFactory("test:item1", Item::new);
+		item2 = new ItemFactory("test:item2", Item::new);
+		item3 = new ItemFactory("test:item3", Item::new);
+	}
+
+	@Test
+	public void testGetRecipe() {
+		SmeltingRecipe recipe = new BasicSmeltingRecipe(item1, ItemIngredient.forItem(item2));
+		assertThat(smeltingRecipeManager.getRecipe(item2.build())).isEmpty();
+
+		smeltingRecipeManager.addRecipe(recipe);
+		assertThat(smeltingRecipeManager.getRecipe(item2.build())).contains(recipe);
+		assertThat(smeltingRecipeManager.getRecipe(item2.build())).contains(recipe);
+		assertThat(smeltingRecipeManager.getRecipe(item3.build())).isEmpty();
+
+		smeltingRecipeManager.removeRecipe(recipe);
+		assertThat(smeltingRecipeManager.getRecipe(item2.build())).isEmpty();
+	}
+
+	@Test
+	public void testDynamicRecipe() {
+		SmeltingRecipe dynamic = new DynamicRecipe(item -> item.getID().endsWith("3"));
+		SmeltingRecipe basic = new BasicSmeltingRecipe(item1, ItemIngredient.forItem(item2));
+		smeltingRecipeManager.addRecipe(dynamic);
+		smeltingRecipeManager.addRecipe(basic);
+
+		assertThat(smeltingRecipeManager.getRecipe(item3.build())).contains(dynamic);
+		assertThat(smeltingRecipeManager.getRecipe(item2.build())).contains(basic);
+		assertThat(smeltingRecipeManager.getRecipe(item1.build())).isEmpty();
+	}
+
+	@Test
+	public void testCacheInvalidation() {
+		SmeltingRecipe first = new BasicSmeltingRecipe(item1, ItemIngredient.forItem(item2));
+		SmeltingRecipe second = new BasicSmeltingRecipe(item3, ItemIngredient.forItem(item2));
+		smeltingRecipeManager.addRecipe(first);
+		smeltingRecipeManager.addRecipe(second);
+		SmeltingRecipe found = smeltingRecipeManager.getRecipe(item2.build()).get();
+
+		//Removing the cached recipe makes the other one found.
+		smeltingRecipeManager.removeRecipe(found);
+		assertThat(smeltingRecipeManager.getRecipe(item2.build())).contains(found == first ? second : first);
+
+		//A recipe added later is found even if the input was looked up without a match before.
+		assertThat(smeltingRecipeManager.getRecipe(item3.build())).isEmpty();
+		SmeltingRecipe later = new DynamicRecipe(item -> item.getID().equals("test:item3"));
+		recipeManager.addRecipe(later);
+		assertThat(smeltingRecipeManager.getRecipe(item3.build())).contains(later);
+	}
+
+	private static class DynamicRecipe implements SmeltingRecipe {
+		private final Predicate<Item> predicate;
+
+		private DynamicRecipe(Predicate<Item> predicate) {
+			this.predicate = predicate;
+		}
+
+		@Override
+		public boolean matches(Item input) {
+			return predicate.test(input);
+		}
+
+		@Override
+		public Optional<Item> getCraftingResult(Item input) {
+			return Optional.of(input);
+		}
+
+		@Override
+		public Optional<ItemIngredient> getInput() {
+			return Optional.empty();
+		}
+	}
+}
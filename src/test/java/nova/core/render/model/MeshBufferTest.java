@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.render.Color;
+import nova.core.util.math.Matrix3;
+import nova.core.util.math.Matrix4;
+import nova.core.util.math.MatrixStack;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class MeshBufferTest {
+
+	@Test
+	public void testBuilder() {
+		MeshBuffer buffer = new MeshBuffer(1, 1)
+			.beginFace(0, 1, 0)
+			.color(Color.red)
+			.vertex(0, 0, 0, 0, 0)
+			.vertex(1, 0, 0, 1, 0)
+			.vertex(1, 0, 1, 1, 1)
+			.vertex(0, 0, 1, 0, 1, 0, 1, 0)
+			.brightness(0.5);
+
+		assertThat(buffer.getFaceCount()).isEqualTo(1);
+		assertThat(buffer.getVertexCount()).isEqualTo(4);
+		assertThat(buffer.getFaceStart(0)).isEqualTo(0);
+		assertThat(buffer.getFaceSize(0)).isEqualTo(4);
+		assertThat(buffer.getTexture(0)).isEmpty();
+
+		Face face = buffer.getFace(0);
+		assertThat(face.normal).isAlmostEqualTo(Vector3D.PLUS_J);
+		assertThat(face.brightness).isEqualTo(0.5);
+		assertThat(face.vertices).hasSize(4);
+		assertThat(face.vertices.get(2).vec).isAlmostEqualTo(new Vector3D(1, 0, 1));
+		assertThat(face.vertices.get(2).uv.getX()).isEqualTo(1D);
+		assertThat(face.vertices.get(2).normal).isEmpty();
+		assertThat(face.vertices.get(3).normal.get()).isAlmostEqualTo(Vector3D.PLUS_J);
+		assertThat(face.vertices.get(3).color).isEqualTo(Color.red);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testVertexWithoutFace() {
+		new MeshBuffer().vertex(0, 0, 0, 0, 0);
+	}
+
+	@Test
+	public void testGrow() {
+		MeshBuffer buffer = new MeshBuffer(1, 1);
+		for (int i = 0; i < 100; i++) {
+			buffer.beginFace(0, 0, 1);
+			for (int j = 0; j < 3; j++) {
+				buffer.vertex(i, j, 0, 0, 0);
+			}
+		}
+
+		assertThat(buffer.getFaceCount()).isEqualTo(100);
+		assertThat(buffer.getVertexCount()).isEqualTo(300);
+		assertThat(buffer.getFaceStart(99)).isEqualTo(297);
+		assertThat(buffer.getFace(99).vertices.get(2).vec).isAlmostEqualTo(new Vector3D(99, 2, 0));
+		assertThat(buffer.copy().getFaces()).hasSize(100);
+	}
+
+	@Test
+	public void testAddFace() {
+		Face face = new Face();
+		face.normal = Vector3D.MINUS_K;
+		face.brightness = 0.25;
+		face.drawVertex(new Vertex(new Vector3D(1, 2, 3), Vector2D.ZERO, Vector3D.MINUS_K));
+		face.drawVertex(new Vertex(4, 5, 6, 0.5, 0.25));
+		face.vertices.get(1).color = Color.blue;
+
+		Face packed = new MeshBuffer().add(face).getFace(0);
+		assertThat(packed.normal).isAlmostEqualTo(Vector3D.MINUS_K);
+		assertThat(packed.brightness).isEqualTo(0.25);
+		assertThat(packed.vertices.get(0).vec).isAlmostEqualTo(new Vector3D(1, 2, 3));
+		assertThat(packed.vertices.get(0).normal.get()).isAlmostEqualTo(Vector3D.MINUS_K);
+		assertThat(packed.vertices.get(1).uv.getY()).isEqualTo(0.25);
+		assertThat(packed.vertices.get(1).color).isEqualTo(Color.blue);
+		assertThat(packed.vertices.get(0).color).isEqualTo(Color.white);
+	}
+
+	@Test
+	public void testPackedFlatten() {
+		MeshModel mesh = new MeshModel();
+		PackedMeshModel packed = new PackedMeshModel();
+		for (MeshModel model : new MeshModel[] { mesh, packed }) {
+			Face face = new Face();
+			face.normal = Vector3D.PLUS_I;
+			face.drawVertex(new Vertex(new Vector3D(0.5, 0, 0), Vector2D.ZERO, Vector3D.PLUS_I));
+			face.drawVertex(new Vertex(0.5, 1, 0, 1, 0));
+			face.drawVertex(new Vertex(0.5, 1, 1, 1, 1));
+			model.drawFace(face);
+			model.matrix.translate(1, 2, 3);
+			model.matrix.rotate(Vector3D.PLUS_J, Math.PI / 2);
+			model.matrix.scale(2, 2, 2);
+		}
+
+		assertThat(packed.faces).hasSize(1);
+		List<Vertex> expected = vertices(mesh.flatten());
+		List<Vertex> actual = vertices(packed.flatten());
+		assertThat(actual).hasSize(expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Vertex vertex = actual.get(i);
+			assertThat(vertex.vec).isAlmostEqualTo(expected.get(i).vec, 1e-5);
+			assertThat(vertex.normal.isPresent()).isEqualTo(expected.get(i).normal.isPresent());
+			expected.get(i).normal.ifPresent(n -> assertThat(vertex.normal.get()).isAlmostEqualTo(n, 1e-5));
+		}
+		assertThat(packed.faces.iterator().next().vertices.get(1).vec).isAlmostEqualTo(new Vector3D(0.5, 1, 0));
+	}
+
+	@Test
+	public void testFlattenChildren() {
+		MeshModel mesh = new MeshModel();
+		PackedMeshModel packed = new PackedMeshModel();
+		for (MeshModel model : new MeshModel[] { mesh, packed }) {
+			MeshModel child = model.newModel("child");
+			Face face = new Face();
+			face.normal = Vector3D.PLUS_J;
+			face.drawVertex(new Vertex(new Vector3D(1, 2, 3), Vector2D.ZERO, Vector3D.PLUS_J));
+			face.drawVertex(new Vertex(0, 1, 0, 1, 0));
+			child.drawFace(face);
+			child.matrix.rotate(Vector3D.PLUS_K, 0.4);
+			child.matrix.scale(1, 3, 2);
+			model.addChild(child);
+			model.matrix.translate(1, 0, 0);
+			model.matrix.scale(2, 2, 2);
+		}
+
+		Set<Model> flattened = mesh.flatten();
+		assertThat(flattened).hasSize(2);
+		assertThat(flattened.stream().allMatch(m -> m.children.isEmpty())).isTrue();
+		List<Vertex> expected = vertices(flattened);
+		List<Vertex> actual = vertices(packed.flatten());
+		assertThat(actual).hasSize(expected.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Vertex vertex = actual.get(i);
+			assertThat(vertex.vec).isAlmostEqualTo(expected.get(i).vec, 1e-5);
+			expected.get(i).normal.ifPresent(n -> assertThat(vertex.normal.get()).isAlmostEqualTo(n, 1e-5));
+		}
+	}
+
+	@Test
+	public void testFlattenCache() {
+		PackedMeshModel parent = new PackedMeshModel("parent");
+		PackedMeshModel child = new PackedMeshModel("child");
+		parent.buffer.beginFace(Vector3D.PLUS_J).vertex(0, 0, 0, 0, 0);
+		child.buffer.beginFace(Vector3D.PLUS_J).vertex(1, 0, 0, 0, 0);
+		parent.addChild(child);
+		child.matrix.translate(0, 1, 0);
+
+		Set<Model> first = parent.flatten();
+		Model flatParent = first.stream().filter(m -> m.name.equals("parent")).findFirst().get();
+		Model flatChild = first.stream().filter(m -> m.name.equals("child")).findFirst().get();
+		assertThat(parent.flatten()).containsOnly(flatParent, flatChild);
+
+		//Only the child is recomputed when its matrix changes.
+		child.matrix.translate(0, 1, 0);
+		Set<Model> moved = parent.flatten();
+		assertThat(moved).contains(flatParent).doesNotContain(flatChild);
+		PackedMeshModel movedChild = (PackedMeshModel) moved.stream().filter(m -> m.name.equals("child")).findFirst().get();
+		assertThat(movedChild.buffer.getVertex(0).vec).isAlmostEqualTo(new Vector3D(1, 2, 0));
+
+		//Changes to the buffer of either model invalidate the cache.
+		parent.buffer.vertex(0, 1, 0, 0, 0);
+		assertThat(parent.flatten()).doesNotContain(flatParent).contains(movedChild);
+		movedChild.buffer.clear();
+		assertThat(parent.flatten()).doesNotContain(movedChild);
+		assertThat(parent.flatten(new MatrixStack().translate(1, 0, 0))).doesNotContain(movedChild);
+	}
+
+	@Test
+	public void testCopyOnWrite() {
+		MeshBuffer buffer = new MeshBuffer()
+			.beginFace(0, 0, 1)
+			.vertex(0, 0, 0, 0, 0)
+			.vertex(1, 0, 0, 1, 0)
+			.vertex(1, 1, 0, 1, 1);
+		MeshBuffer copy = buffer.copy();
+		assertThat(copy.getVertexData()).isSameAs(buffer.getVertexData());
+
+		//Writing to the original leaves the copy as it was.
+		buffer.vertex(0, 1, 0, 0, 1);
+		assertThat(copy.getVertexData()).isNotSameAs(buffer.getVertexData());
+		assertThat(buffer.getVertexCount()).isEqualTo(4);
+		assertThat(copy.getVertexCount()).isEqualTo(3);
+		assertThat(copy.getFaceSize(0)).isEqualTo(3);
+
+		//Writing to the copy leaves the original as it was.
+		MeshBuffer second = buffer.copy();
+		second.transform(new Matrix4().translate(0, 0, 1), new Matrix3());
+		assertThat(second.getVertex(3).vec).isAlmostEqualTo(new Vector3D(0, 1, 1));
+		assertThat(buffer.getVertex(3).vec).isAlmostEqualTo(new Vector3D(0, 1, 0));
+	}
+
+	private static List<Vertex> vertices(Set<Model> models) {
+		return models.stream()
+			.map(m -> (MeshModel) m)
+			.flatMap(m -> m.faces.stream())
+			.flatMap(f -> f.vertices.stream())
+			.sorted(Comparator.comparingDouble(v -> v.uv.getX() * 2 + v.uv.getY()))
+			.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.util.Profiler;
+import nova.core.util.math.MatrixStack;
+import nova.core.util.math.TransformUtil;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares flattening a 10k face model through per-vertex {@link RealMatrix} transforms,
+ * through {@link nova.core.util.math.Matrix4} and through a packed {@link MeshBuffer},
+ * both when the transformation changes every time and when the flattened model can be reused.
+ */
+public class MeshModelEfficiencyTest {
+	private static final int FACE_COUNT = 10000;
+	private static final int FLATTEN_COUNT = 50;
+
+	public static void main(String[] args) {
+		MeshModel mesh = new MeshModel();
+		PackedMeshModel packed = new PackedMeshModel();
+		for (MeshModel model : new MeshModel[] { mesh, packed }) {
+			for (int i = 0; i < FACE_COUNT; i++) {
+				Face face = new Face();
+				face.normal = Vector3D.PLUS_K;
+				face.drawVertex(new Vertex(new Vector3D(i, 0, 0), Vector2D.ZERO, Vector3D.PLUS_K));
+				face.drawVertex(new Vertex(i + 1, 0, 0, 1, 0));
+				face.drawVertex(new Vertex(i + 1, 1, 0, 1, 1));
+				face.drawVertex(new Vertex(i, 1, 0, 0, 1));
+				model.drawFace(face);
+			}
+			model.matrix.translate(1, 2, 3).rotate(Vector3D.PLUS_J, 0.5).scale(2, 2, 2);
+		}
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("flatten (RealMatrix)", () -> realMatrixFlatten(mesh, new MatrixStack())));
+		profilers.add(profile("flatten (Matrix4)", mesh::flatten));
+		int[] frame = { 0 };
+		profilers.add(profile("flatten (packed, moving)", () -> packed.flatten(new MatrixStack().translate(frame[0]++, 0, 0))));
+		profilers.add(profile("flatten (packed, cached)", packed::flatten));
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Profiler profile(String name, Runnable flatten) {
+		// Warm up
+		for (int i = 0; i < FLATTEN_COUNT; i++) {
+			flatten.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < FLATTEN_COUNT; i++) {
+			flatten.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+
+	/**
+	 * The flatten that MeshModel did with commons-math matrices.
+	 */
+	private static MeshModel realMatrixFlatten(MeshModel model, MatrixStack matrixStack) {
+		RealMatrix matrix = model.matrix.getMatrix().preMultiply(matrixStack.getMatrix());
+		MeshModel transformedModel = model.clone();
+		RealMatrix normalMatrix3x3 = new LUDecomposition(matrix.getSubMatrix(0, 2, 0, 2), 1e-5).getSolver().getInverse().transpose();
+		RealMatrix normalMatrix = MatrixUtils.createRealMatrix(4, 4);
+		normalMatrix.setSubMatrix(normalMatrix3x3.getData(), 0, 0);
+		normalMatrix.setEntry(3, 3, 1);
+
+		transformedModel.faces.forEach(f -> {
+			f.normal = TransformUtil.transform(f.normal, normalMatrix);
+			f.vertices.forEach(v -> {
+				v.vec = TransformUtil.transform(v.vec, matrix);
+				v.normal = v.normal.map(n -> TransformUtil.transform(n, normalMatrix));
+			});
+		});
+		return transformedModel;
+	}
+}
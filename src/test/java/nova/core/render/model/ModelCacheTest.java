@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.render.RenderManager;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class ModelCacheTest {
+
+	private static final String OBJ =
+		"v 0 0 0\n"
+			+ "v 1 0 0\n"
+			+ "v 1 1 0\n"
+			+ "vt 0.5 0.5\n"
+			+ "o triangle\n"
+			+ "f 1/1 2/1 3/1\n";
+
+	private static final String TECHNE =
+		"<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+			+ "<Techne Version=\"2.2\">\n"
+			+ "  <Models>\n"
+			+ "    <Model texture=\"test.png\">\n"
+			+ "      <Geometry>\n"
+			+ "        <Shape name=\"base\" type=\"d9e621f7-957f-4b77-b1ae-20dcd0da7751\">\n"
+			+ "          <IsMirrored>False</IsMirrored>\n"
+			+ "          <Offset>0,0,0</Offset>\n"
+			+ "          <Position>8,8,0</Position>\n"
+			+ "          <Rotation>0,90,0</Rotation>\n"
+			+ "          <Size>16,8,16</Size>\n"
+			+ "          <TextureOffset>4,2</TextureOffset>\n"
+			+ "        </Shape>\n"
+			+ "        <Shape name=\"ignored\" type=\"00000000-0000-0000-0000-000000000000\">\n"
+			+ "          <Size>1,1,1</Size>\n"
+			+ "        </Shape>\n"
+			+ "      </Geometry>\n"
+			+ "      <TextureSize>64,32</TextureSize>\n"
+			+ "    </Model>\n"
+			+ "  </Models>\n"
+			+ "</Techne>\n";
+
+	private Path folder;
+
+	@Before
+	public void setUp() throws IOException {
+		folder = Files.createTempDirectory("models");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(folder)) {
+			files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+		}
+	}
+
+	@Test
+	public void testCache() throws IOException {
+		ModelCache cache = new ModelCache(folder.resolve("models"));
+		CountingProvider parsed = new CountingProvider();
+		cache.load(parsed, stream(OBJ.getBytes(StandardCharsets.UTF_8)));
+		assertThat(parsed.loads.get()).isEqualTo(1);
+		assertThat(Files.list(cache.directory).count()).isEqualTo(1);
+
+		CountingProvider restored = new CountingProvider();
+		cache.load(restored, stream(OBJ.getBytes(StandardCharsets.UTF_8)));
+		assertThat(restored.loads.get()).isEqualTo(0);
+		assertThat(restored.getSubModelNames()).containsExactly("triangle");
+		MeshBuffer expected = ((PackedMeshModel) parsed.getModel("triangle").get()).buffer;
+		MeshBuffer actual = ((PackedMeshModel) restored.getModel("triangle").get()).buffer;
+		assertThat(actual.getFaceCount()).isEqualTo(1);
+		assertThat(Arrays.copyOf(actual.getVertexData(), 24)).isEqualTo(Arrays.copyOf(expected.getVertexData(), 24));
+		assertThat(actual.getFace(0).normal).isAlmostEqualTo(Vector3D.PLUS_K);
+
+		//A changed model is parsed again.
+		CountingProvider changed = new CountingProvider();
+		cache.load(changed, stream(OBJ.replace("v 1 1 0", "v 1 2 0").getBytes(StandardCharsets.UTF_8)));
+		assertThat(changed.loads.get()).isEqualTo(1);
+		assertThat(Files.list(cache.directory).count()).isEqualTo(2);
+	}
+
+	@Test
+	public void testInvalidCacheFile() throws IOException {
+		ModelCache cache = new ModelCache(folder);
+		cache.load(new CountingProvider(), stream(OBJ.getBytes(StandardCharsets.UTF_8)));
+		try (Stream<Path> files = Files.list(cache.directory)) {
+			for (Path file : files.collect(Collectors.toList())) {
+				Files.write(file, new byte[] { 1, 2, 3 });
+			}
+		}
+
+		CountingProvider provider = new CountingProvider();
+		cache.load(provider, stream(OBJ.getBytes(StandardCharsets.UTF_8)));
+		assertThat(provider.loads.get()).isEqualTo(1);
+		assertThat(provider.getModel().children).hasSize(1);
+	}
+
+	@Test
+	public void testTechne() throws IOException {
+		byte[] tcn = techne();
+		TechneModelProvider parsed = new TechneModelProvider("test", "model");
+		parsed.load(stream(tcn));
+		MeshModel model = parsed.getModel();
+		assertThat(model.children).hasSize(1);
+		MeshModel part = (MeshModel) model.children.iterator().next();
+		assertThat(part.name).isEqualTo("base");
+		assertThat(part.faces).hasSize(6);
+		assertThat(part.textureOffset.getX()).isEqualTo(4D);
+		assertThat(part.textureOffset.getY()).isEqualTo(2D);
+
+		ModelCache cache = new ModelCache(folder);
+		cache.load(new TechneModelProvider("test", "model"), stream(tcn));
+		TechneModelProvider restored = new TechneModelProvider("test", "model");
+		cache.load(restored, stream(tcn));
+		MeshModel restoredPart = (MeshModel) restored.getModel().children.iterator().next();
+		assertThat(restoredPart.name).isEqualTo("base");
+		assertThat(restoredPart.textureOffset).isEqualTo(part.textureOffset);
+		assertThat(restoredPart.matrix.getTransform()).isEqualTo(part.matrix.getTransform());
+		assertThat(restoredPart.flatten().iterator().next().toString()).isEqualTo(part.flatten().iterator().next().toString());
+	}
+
+	@Test
+	public void testLoadModels() {
+		RenderManager renderManager = new RenderManager();
+		for (int i = 0; i < 16; i++) {
+			renderManager.registerModel(new WavefrontObjectModelProvider("test", "model" + i));
+		}
+		Map<String, byte[]> files = renderManager.modelProviders.stream()
+			.collect(Collectors.toMap(ModelProvider::getID, provider -> OBJ.getBytes(StandardCharsets.UTF_8)));
+		AtomicInteger closed = new AtomicInteger();
+		Function<ModelProvider, InputStream> assets = provider -> new ByteArrayInputStream(files.get(provider.getID())) {
+			@Override
+			public void close() {
+				closed.incrementAndGet();
+			}
+		};
+
+		renderManager.loadModels(assets, Optional.of(new ModelCache(folder)));
+		renderManager.modelProviders.forEach(provider -> assertThat(provider.getModel().children).hasSize(1));
+		assertThat(closed.get()).isGreaterThanOrEqualTo(16);
+
+		//Without a cache, the providers read the streams themselves, and the streams are still closed.
+		RenderManager uncached = new RenderManager();
+		renderManager.modelProviders.forEach(provider -> uncached.registerModel(new WavefrontObjectModelProvider("test", provider.name)));
+		closed.set(0);
+		uncached.loadModels(assets);
+		uncached.modelProviders.forEach(provider -> assertThat(provider.getModel().children).hasSize(1));
+		assertThat(closed.get()).isGreaterThanOrEqualTo(16);
+	}
+
+	private static InputStream stream(byte[] data) {
+		return new ByteArrayInputStream(data);
+	}
+
+	private static byte[] techne() throws IOException {
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(data)) {
+			zip.putNextEntry(new ZipEntry("model.xml"));
+			zip.write(TECHNE.getBytes(StandardCharsets.UTF_8));
+			zip.closeEntry();
+		}
+		return data.toByteArray();
+	}
+
+	private static class CountingProvider extends WavefrontObjectModelProvider {
+		private final AtomicInteger loads = new AtomicInteger();
+
+		private CountingProvider() {
+			super("test", "counting");
+		}
+
+		@Override
+		public void load(InputStream stream) {
+			loads.incrementAndGet();
+			super.load(stream);
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.util.Profiler;
+import nova.core.util.math.Vector3DUtil;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares loading a 100k face OBJ file line by line with regular expressions,
+ * with {@link WavefrontObjectModelProvider}, lazily when only one of its sub-models is used,
+ * and from a {@link ModelCache}.
+ */
+public class WavefrontObjectEfficiencyTest {
+	private static final int SIZE = 317;
+	private static final int GROUPS = 10;
+	private static final int LOAD_COUNT = 10;
+
+	private static final Pattern vertexPattern = Pattern.compile("(v( (\\-)?\\d+\\.\\d+){3,4} *\\n)|(v( (\\-)?\\d+\\.\\d+){3,4} *$)");
+	private static final Pattern textureCoordinatePattern = Pattern.compile("(vt( (\\-)?\\d+\\.\\d+){2,3} *\\n)|(vt( (\\-)?\\d+\\.\\d+){2,3} *$)");
+	private static final Pattern facePattern = Pattern.compile("(f( \\d+/\\d+){3,} *\\n)|(f( \\d+/\\d+){3,} *$)");
+
+	public static void main(String[] args) {
+		byte[] obj = grid();
+		System.out.println(obj.length / 1024 + " KiB, " + SIZE * SIZE + " faces");
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("load (regex)", () -> regexLoad(obj)));
+		profilers.add(profile("load", () -> load(obj, false).getModel()));
+		profilers.add(profile("load (lazy, one group)", () -> load(obj, true).getModel("group0")));
+		profilers.add(profile("load (lazy, all groups)", () -> load(obj, true).getModel()));
+		WavefrontObjectModelProvider loaded = load(obj, false);
+		profilers.add(profile("getModel", loaded::getModel));
+
+		try {
+			Path directory = Files.createTempDirectory("models");
+			ModelCache cache = new ModelCache(directory);
+			profilers.add(profile("load (cached)", () -> {
+				WavefrontObjectModelProvider provider = new WavefrontObjectModelProvider("test", "grid");
+				cache.load(provider, new ByteArrayInputStream(obj));
+				provider.getModel();
+			}));
+			try (Stream<Path> files = Files.list(directory)) {
+				for (Path file : files.collect(Collectors.toList())) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static WavefrontObjectModelProvider load(byte[] obj, boolean lazy) {
+		WavefrontObjectModelProvider provider = new WavefrontObjectModelProvider("test", "grid", lazy);
+		provider.load(new ByteArrayInputStream(obj));
+		return provider;
+	}
+
+	/**
+	 * A grid of quads, split into groups of rows.
+	 */
+	private static byte[] grid() {
+		StringBuilder obj = new StringBuilder();
+		for (int y = 0; y <= SIZE; y++) {
+			for (int x = 0; x <= SIZE; x++) {
+				obj.append("v ").append(x * 0.125).append(' ').append(y * 0.125).append(" 0.0\n");
+				obj.append("vt ").append((double) x / SIZE).append(' ').append((double) y / SIZE).append('\n');
+			}
+		}
+		for (int y = 0; y < SIZE; y++) {
+			if (y % (SIZE / GROUPS + 1) == 0) {
+				obj.append("g group").append(y / (SIZE / GROUPS + 1)).append('\n');
+			}
+			for (int x = 0; x < SIZE; x++) {
+				int i = y * (SIZE + 1) + x + 1;
+				obj.append("f ").append(i).append('/').append(i)
+					.append(' ').append(i + 1).append('/').append(i + 1)
+					.append(' ').append(i + SIZE + 2).append('/').append(i + SIZE + 2)
+					.append(' ').append(i + SIZE + 1).append('/').append(i + SIZE + 1).append('\n');
+			}
+		}
+		return obj.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Loads vertices, texture coordinates and faces the way the loader did before it read bytes directly.
+	 */
+	private static MeshModel regexLoad(byte[] obj) {
+		MeshModel model = new MeshModel();
+		MeshModel currentModel = null;
+		List<Vector3D> vertices = new ArrayList<>();
+		List<Vector2D> textureCoordinates = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(obj), StandardCharsets.UTF_8))) {
+			String currentLine;
+			while ((currentLine = reader.readLine()) != null) {
+				currentLine = currentLine.replaceAll("\\s+", " ").trim();
+				if (currentLine.startsWith("v ") && vertexPattern.matcher(currentLine).matches()) {
+					String[] tokens = currentLine.substring(2).split(" ");
+					vertices.add(new Vector3D(Float.parseFloat(tokens[0]), Float.parseFloat(tokens[1]), Float.parseFloat(tokens[2])));
+				} else if (currentLine.startsWith("vt ") && textureCoordinatePattern.matcher(currentLine).matches()) {
+					String[] tokens = currentLine.substring(3).split(" ");
+					textureCoordinates.add(new Vector2D(Float.parseFloat(tokens[0]), 1 - Float.parseFloat(tokens[1])));
+				} else if (currentLine.startsWith("f ") && facePattern.matcher(currentLine).matches()) {
+					Face face = new Face();
+					for (String token : currentLine.substring(2).split(" ")) {
+						String[] subTokens = token.split("/");
+						face.drawVertex(new Vertex(vertices.get(Integer.parseInt(subTokens[0]) - 1), textureCoordinates.get(Integer.parseInt(subTokens[1]) - 1)));
+					}
+					face.normal = Vector3DUtil.calculateNormal(face);
+					currentModel.drawFace(face);
+				} else if (currentLine.startsWith("g ")) {
+					currentModel = new MeshModel(currentLine.substring(2));
+					model.children.add(currentModel);
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return model;
+	}
+
+	private static Profiler profile(String name, Runnable load) {
+		// Warm up
+		for (int i = 0; i < LOAD_COUNT; i++) {
+			load.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < LOAD_COUNT; i++) {
+			load.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.model;
+
+import nova.core.render.RenderException;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class WavefrontObjectModelProviderTest {
+
+	private static final String CUBE_SIDES =
+		"# Two sides of a cube\r\n"
+			+ "v 0 0 0\r\n"
+			+ "v 1.0 0 0\r\n"
+			+ "v 1 1e0 0\r\n"
+			+ "v 0 1 0\r\n"
+			+ "vt 0 0\n"
+			+ "vt 1 0\n"
+			+ "vt 1 .25\n"
+			+ "vn 0 0 -2\n"
+			+ "o front\n"
+			+ "f 1/1/1 4/3/1 3/2/1 2/1/1\n"
+			+ "\n"
+			+ "v 0 0 1\n"
+			+ "v 1 0 1\n"
+			+ "v 1 1 1\n"
+			+ "g back  \n"
+			+ "f -3//-1 -2//-1 -1//-1\n"
+			+ "f 5 6 7\n"
+			+ "g\n"
+			+ "f 1/1 2/2 3/3\n"
+			+ "o front\n"
+			+ "f -7 -6 -5\n";
+
+	private static WavefrontObjectModelProvider load(String obj, boolean lazy) {
+		WavefrontObjectModelProvider provider = new WavefrontObjectModelProvider("test", "cube", lazy);
+		provider.load(new ByteArrayInputStream(obj.getBytes(StandardCharsets.UTF_8)));
+		return provider;
+	}
+
+	private static PackedMeshModel subModel(WavefrontObjectModelProvider provider, String name) {
+		Optional<MeshModel> model = provider.getModel(name);
+		assertThat(model).isPresent();
+		return (PackedMeshModel) model.get();
+	}
+
+	@Test
+	public void testSubModels() {
+		WavefrontObjectModelProvider provider = load(CUBE_SIDES, false);
+		assertThat(provider.getSubModelNames()).containsExactly("front", "back", "Default");
+		assertThat(provider.getModel("missing")).isEmpty();
+
+		MeshModel model = provider.getModel();
+		assertThat(model.children).hasSize(3);
+		assertThat(subModel(provider, "front").buffer.getFaceCount()).isEqualTo(2);
+		assertThat(subModel(provider, "back").buffer.getFaceCount()).isEqualTo(2);
+		assertThat(subModel(provider, "Default").buffer.getFaceCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void testVertices() {
+		WavefrontObjectModelProvider provider = load(CUBE_SIDES, false);
+		Face quad = subModel(provider, "front").buffer.getFace(0);
+		assertThat(quad.vertices).hasSize(4);
+		assertThat(quad.normal).isAlmostEqualTo(Vector3D.MINUS_K);
+		assertThat(quad.vertices.get(1).vec).isAlmostEqualTo(new Vector3D(0, 1, 0));
+		assertThat(quad.vertices.get(1).uv.getX()).isEqualTo(1D);
+		assertThat(quad.vertices.get(1).uv.getY()).isEqualTo(0.75D);
+		assertThat(quad.vertices.get(1).normal.get()).isAlmostEqualTo(Vector3D.MINUS_K);
+
+		Face triangle = subModel(provider, "Default").buffer.getFace(0);
+		assertThat(triangle.vertices.get(2).uv.getY()).isEqualTo(0.75D);
+		assertThat(triangle.vertices.get(2).normal).isEmpty();
+	}
+
+	@Test
+	public void testRelativeIndices() {
+		WavefrontObjectModelProvider provider = load(CUBE_SIDES, false);
+		PackedMeshModel back = subModel(provider, "back");
+		Face relative = back.buffer.getFace(0);
+		Face absolute = back.buffer.getFace(1);
+		for (int i = 0; i < 3; i++) {
+			assertThat(relative.vertices.get(i).vec).isAlmostEqualTo(absolute.vertices.get(i).vec);
+		}
+		assertThat(relative.vertices.get(0).vec).isAlmostEqualTo(new Vector3D(0, 0, 1));
+		assertThat(relative.vertices.get(0).normal.get()).isAlmostEqualTo(Vector3D.MINUS_K);
+
+		Face front = subModel(provider, "front").buffer.getFace(1);
+		assertThat(front.vertices.get(0).vec).isAlmostEqualTo(new Vector3D(0, 0, 0));
+		assertThat(front.vertices.get(2).vec).isAlmostEqualTo(new Vector3D(1, 1, 0));
+	}
+
+	@Test
+	public void testLazy() {
+		WavefrontObjectModelProvider eager = load(CUBE_SIDES, false);
+		WavefrontObjectModelProvider lazy = load(CUBE_SIDES, true);
+		assertThat(lazy.getSubModelNames()).containsExactly(eager.getSubModelNames().toArray(new String[0]));
+
+		for (String name : eager.getSubModelNames()) {
+			MeshBuffer expected = subModel(eager, name).buffer;
+			MeshBuffer actual = subModel(lazy, name).buffer;
+			assertThat(Arrays.equals(actual.getVertexData(), expected.getVertexData())).isTrue();
+			assertThat(actual.getFaceCount()).isEqualTo(expected.getFaceCount());
+		}
+		assertThat(lazy.getModel().children).hasSize(3);
+	}
+
+	@Test
+	public void testLazyErrors() {
+		WavefrontObjectModelProvider lazy = load("v 0 0 0\no broken\nf 1 1\no fine\nf 1 1 1\n", true);
+		assertThat(subModel(lazy, "fine").buffer.getFaceCount()).isEqualTo(1);
+		try {
+			lazy.getModel("broken");
+			fail("Expected a RenderException");
+		} catch (RenderException e) {
+			assertThat(e.getMessage()).contains("line 3");
+		}
+	}
+
+	@Test
+	public void testErrors() {
+		assertError("v 0\n", "line 1");
+		assertError("v 0 0 0\nvn 0 0 x\n", "line 2");
+		assertError("v 0 0 0\nf 1 1 0\n", "line 2");
+		assertError("v 0 0 0\nf 1 1\n", "line 2");
+		assertError("vt 0 0\nv 0 0 0\nf 1/1 1/a 1/1\n", "line 3");
+	}
+
+	private static void assertError(String obj, String line) {
+		try {
+			load(obj, false);
+			fail("Expected a RenderException");
+		} catch (RenderException e) {
+			assertThat(e.getMessage()).contains(line);
+		}
+	}
+}
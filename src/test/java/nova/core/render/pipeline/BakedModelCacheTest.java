@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.pipeline;
+
+import nova.core.block.Block;
+import nova.core.render.Color;
+import nova.core.render.RenderException;
+import nova.core.render.model.MeshBuffer;
+import nova.core.render.model.MeshModel;
+import nova.core.render.model.Model;
+import nova.core.render.model.PackedMeshModel;
+import nova.core.render.texture.BlockTexture;
+import nova.core.render.texture.Texture;
+import nova.core.util.Direction;
+import nova.core.util.shape.Cuboid;
+import org.junit.Test;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class BakedModelCacheTest {
+
+	private final Texture texture = new BlockTexture("test", "texture");
+
+	private BlockRenderPipeline pipeline(BakedModelCache cache) {
+		return new BlockRenderPipeline(new Block())
+			.withTexture(texture)
+			.withBounds(new Cuboid(0, 0, 0, 1, 0.5, 1))
+			.withColor(dir -> dir == Direction.UP ? Color.blue : Color.white)
+			.filter(dir -> dir != Direction.DOWN)
+			.withCache(cache);
+	}
+
+	private static MeshBuffer render(BlockRenderPipeline pipeline) {
+		Model model = new MeshModel();
+		pipeline.build().accept(model);
+		return ((PackedMeshModel) model.children.iterator().next()).buffer;
+	}
+
+	@Test
+	public void testShared() {
+		BakedModelCache cache = new BakedModelCache(16);
+		MeshBuffer first = render(pipeline(cache));
+		MeshBuffer second = render(pipeline(cache));
+
+		assertThat(second).isSameAs(first);
+		assertThat(first.isImmutable()).isTrue();
+		assertThat(cache.getMisses()).isEqualTo(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+
+		BlockRenderPipeline uncached = pipeline(cache);
+		MeshBuffer expected = uncached.draw(new MeshBuffer());
+		assertThat(first.getFaceCount()).isEqualTo(5);
+		assertThat(first.getVertexCount()).isEqualTo(expected.getVertexCount());
+		for (int i = 0; i < expected.getFaceCount(); i++) {
+			assertThat(first.getTexture(i)).isEqualTo(expected.getTexture(i));
+		}
+		for (int i = 0; i < expected.getVertexCount(); i++) {
+			assertThat(first.getVertex(i).vec).isAlmostEqualTo(expected.getVertex(i).vec);
+			assertThat(first.getVertex(i).color).isEqualTo(expected.getVertex(i).color);
+		}
+	}
+
+	@Test
+	public void testInvalidate() {
+		BakedModelCache cache = new BakedModelCache(16);
+		BlockRenderPipeline pipeline = pipeline(cache);
+		MeshBuffer first = render(pipeline);
+
+		pipeline.withBounds(Cuboid.ONE);
+		assertThat(render(pipeline)).isSameAs(first);
+		pipeline.invalidate();
+		assertThat(render(pipeline)).isNotSameAs(first);
+		assertThat(cache.getMisses()).isEqualTo(2);
+	}
+
+	@Test
+	public void testEviction() {
+		BakedModelCache cache = new BakedModelCache(1);
+		MeshBuffer first = render(pipeline(cache));
+		render(pipeline(cache).withColor(Color.red));
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(render(pipeline(cache))).isNotSameAs(first);
+		assertThat(cache.getMisses()).isEqualTo(3);
+	}
+
+	@Test(expected = RenderException.class)
+	public void testImmutable() {
+		render(pipeline(new BakedModelCache(1))).bind(texture);
+	}
+}
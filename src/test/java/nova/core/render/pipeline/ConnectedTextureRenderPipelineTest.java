@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.pipeline;
+
+import nova.core.block.Block;
+import nova.core.component.transform.BlockTransform;
+import nova.core.render.model.MeshModel;
+import nova.core.render.model.Model;
+import nova.core.render.model.Vertex;
+import nova.core.render.texture.BlockTexture;
+import nova.core.render.texture.Texture;
+import nova.core.util.Direction;
+import nova.testutils.FakeWorld;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class ConnectedTextureRenderPipelineTest {
+
+	private final Texture edgeTexture = new BlockTexture("test", "edge");
+
+	private static List<Vertex> vertices(Model model) {
+		return model.flatten().stream()
+			.flatMap(m -> ((MeshModel) m).faces.stream())
+			.flatMap(f -> f.vertices.stream())
+			.collect(Collectors.toList());
+	}
+
+	@Test
+	public void testBakedEdges() {
+		int connectMask = (1 << Direction.UP.ordinal()) | (1 << Direction.WEST.ordinal());
+		ConnectedTextureRenderPipeline pipeline = new ConnectedTextureRenderPipeline(new Block(), edgeTexture)
+			.withConnectMask(() -> connectMask)
+			.withFaces(Direction.NORTH, Direction.UP, Direction.EAST);
+		pipeline.withCache(new BakedModelCache(4));
+
+		Model legacy = new MeshModel();
+		for (Direction dir : new Direction[] { Direction.NORTH, Direction.UP, Direction.EAST }) {
+			pipeline.renderFace(dir, legacy, connectMask);
+		}
+		Model baked = new MeshModel();
+		pipeline.build().accept(baked);
+		//Keep only the edges
+		baked.children.removeIf(child -> ((MeshModel) child).faces.stream().noneMatch(f -> f.texture.equals(Optional.of(edgeTexture))));
+
+		List<Vertex> expected = vertices(legacy);
+		List<Vertex> actual = vertices(baked);
+		assertThat(expected).isNotEmpty();
+		assertThat(actual).hasSize(expected.size());
+		for (Vertex vertex : expected) {
+			assertThat(actual.stream().anyMatch(v ->
+				v.vec.distance(vertex.vec) < 1e-5 && v.uv.distance(vertex.uv) < 1e-5)).isTrue();
+		}
+	}
+
+	@Test
+	public void testMaskCache() {
+		int[] lookups = { 0 };
+		FakeWorld world = new FakeWorld() {
+			@Override
+			public Optional<Block> getBlock(Vector3D position) {
+				lookups[0]++;
+				return Optional.empty();
+			}
+		};
+		Block block = new Block();
+		BlockTransform transform = new BlockTransform();
+		transform.setWorld(world);
+		transform.setPosition(Vector3D.ZERO);
+		block.components.add(transform);
+
+		ConnectedTextureRenderPipeline pipeline = new ConnectedTextureRenderPipeline(block, edgeTexture);
+		pipeline.withCache(new BakedModelCache(4));
+		pipeline.build().accept(new MeshModel());
+		assertThat(lookups[0]).isEqualTo(6);
+		pipeline.build().accept(new MeshModel());
+		assertThat(lookups[0]).isEqualTo(6);
+
+		block.events.publish(new Block.NeighborChangeEvent(Optional.of(Vector3D.PLUS_I)));
+		pipeline.build().accept(new MeshModel());
+		assertThat(lookups[0]).isEqualTo(12);
+
+		transform.setPosition(Vector3D.PLUS_J);
+		pipeline.build().accept(new MeshModel());
+		assertThat(lookups[0]).isEqualTo(18);
+	}
+}
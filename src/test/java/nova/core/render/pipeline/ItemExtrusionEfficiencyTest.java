@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.pipeline;
+
+import nova.core.render.model.MeshBuffer;
+import nova.core.render.texture.AlphaMask;
+import nova.core.render.texture.ItemTexture;
+import nova.core.render.texture.Texture;
+import nova.core.util.Direction;
+import nova.core.util.Profiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compares the face counts and build times of items sliced into a face pair for every
+ * pixel row and column with items extruded along the edges of their alpha mask.
+ */
+public class ItemExtrusionEfficiencyTest {
+	private static final int BUILD_COUNT = 10000;
+
+	public static void main(String[] args) {
+		Texture texture = new ItemTexture("test", "item");
+		List<Profiler> profilers = new ArrayList<>();
+		for (int size : new int[] { 16, 32, 64 }) {
+			AlphaMask mask = disc(size);
+			System.out.println(size + "px: sliced " + sliced(new MeshBuffer(), size, texture).getFaceCount()
+				+ " faces, extruded " + extrude(new MeshBuffer(), texture, mask).getFaceCount() + " faces");
+
+			profilers.add(profile(size + "px sliced", () -> sliced(new MeshBuffer(), size, texture)));
+			profilers.add(profile(size + "px extruded", () -> extrude(new MeshBuffer(), texture, mask)));
+			ItemRenderPipeline pipeline = new ItemRenderPipeline(null)
+				.withTexture(texture)
+				.withAlphaMask(t -> Optional.of(mask))
+				.withCache(new BakedModelCache(16));
+			profilers.add(profile(size + "px extruded (cached)", pipeline::extrude));
+		}
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Profiler profile(String name, Runnable build) {
+		// Warm up
+		for (int i = 0; i < BUILD_COUNT; i++) {
+			build.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < BUILD_COUNT; i++) {
+			build.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+
+	/**
+	 * A filled circle, a worst case for merging edges.
+	 */
+	private static AlphaMask disc(int size) {
+		int[] argb = new int[size * size];
+		double radius = size / 2.0;
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				double dx = x + 0.5 - radius;
+				double dy = y + 0.5 - radius;
+				argb[y * size + x] = dx * dx + dy * dy <= radius * radius ? 0xFFFFFFFF : 0;
+			}
+		}
+		return AlphaMask.of(size, size, argb);
+	}
+
+	private static MeshBuffer extrude(MeshBuffer buffer, Texture texture, AlphaMask mask) {
+		return ItemRenderPipeline.drawExtrusion(buffer, -0.5, -0.5, -0.5 / 16, 0.5, 0.5, 0.5 / 16, texture, mask);
+	}
+
+	/**
+	 * The faces ItemRenderPipeline draws for a texture of the given size without an alpha mask.
+	 */
+	private static MeshBuffer sliced(MeshBuffer buffer, int size, Texture texture) {
+		Optional<Texture> tex = Optional.of(texture);
+		ItemRenderPipeline.drawFront(buffer, -0.5, -0.5, -0.5 / 16, 0.5, 0.5, 0.5 / 16, tex);
+		ItemRenderPipeline.drawBack(buffer, -0.5, -0.5, -0.5 / 16, 0.5, 0.5, 0.5 / 16, tex);
+		double voxel = 1.0 / size;
+		for (int i = 0; i < size; i++) {
+			double low = -0.5 + i * voxel;
+			double high = low + voxel;
+			for (Direction dir : new Direction[] { Direction.UP, Direction.DOWN }) {
+				double y = dir == Direction.UP ? high : low;
+				buffer.beginFace(dir.toVector()).texture(tex);
+				buffer.vertex(0.5, y, -0.5 / 16, 1, low);
+				buffer.vertex(-0.5, y, -0.5 / 16, 0, low);
+				buffer.vertex(-0.5, y, 0.5 / 16, 0, high);
+				buffer.vertex(0.5, y, 0.5 / 16, 1, high);
+			}
+			for (Direction dir : new Direction[] { Direction.WEST, Direction.EAST }) {
+				double x = dir == Direction.WEST ? low : high;
+				buffer.beginFace(dir.toVector()).texture(tex);
+				buffer.vertex(x, -0.5, -0.5 / 16, low, 1);
+				buffer.vertex(x, -0.5, 0.5 / 16, high, 1);
+				buffer.vertex(x, 0.5, 0.5 / 16, high, 0);
+				buffer.vertex(x, 0.5, -0.5 / 16, low, 0);
+			}
+		}
+		return buffer;
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.render.pipeline;
+
+import nova.core.block.Block;
+import nova.core.render.Color;
+import nova.core.render.model.MeshBuffer;
+import nova.core.render.model.MeshModel;
+import nova.core.render.model.Model;
+import nova.core.render.model.PackedMeshModel;
+import nova.core.render.texture.AlphaMask;
+import nova.core.render.texture.ItemTexture;
+import nova.core.render.texture.Texture;
+import nova.core.util.Direction;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class ItemRenderPipelineTest {
+
+	private final Texture texture = new ItemTexture("test", "item");
+
+	private static AlphaMask mask(String... rows) {
+		int[] argb = new int[rows.length * rows[0].length()];
+		for (int y = 0; y < rows.length; y++) {
+			for (int x = 0; x < rows[y].length(); x++) {
+				argb[y * rows[y].length() + x] = rows[y].charAt(x) == '#' ? 0xFF000000 : 0;
+			}
+		}
+		return AlphaMask.of(rows[0].length(), rows.length, argb);
+	}
+
+	private static MeshBuffer extrude(Texture texture, AlphaMask mask) {
+		return ItemRenderPipeline.drawExtrusion(new MeshBuffer(), -0.5, -0.5, -0.5 / 16, 0.5, 0.5, 0.5 / 16, texture, mask);
+	}
+
+	@Test
+	public void testSinglePixel() {
+		MeshBuffer expected = new ItemRenderPipeline(new Block()).withTexture(texture).draw(new MeshBuffer());
+		MeshBuffer actual = extrude(texture, mask("#"));
+
+		assertThat(actual.getFaceCount()).isEqualTo(expected.getFaceCount());
+		assertThat(actual.getVertexCount()).isEqualTo(expected.getVertexCount());
+		for (int i = 0; i < expected.getVertexCount(); i++) {
+			assertThat(actual.getVertex(i).vec).isAlmostEqualTo(expected.getVertex(i).vec);
+			assertThat(actual.getVertex(i).uv.distance(expected.getVertex(i).uv)).isLessThan(1e-6);
+		}
+	}
+
+	@Test
+	public void testGreedyEdges() {
+		assertThat(extrude(texture, mask("####", "####", "####", "####")).getFaceCount()).isEqualTo(6);
+		assertThat(extrude(texture, mask("###", "#.#", "###")).getFaceCount()).isEqualTo(10);
+		assertThat(extrude(texture, mask("....", "....")).getFaceCount()).isEqualTo(2);
+
+		MeshBuffer buffer = extrude(texture, mask("##..", "####"));
+		//Front, back, 2 up, 1 down, 1 west, 2 east
+		assertThat(buffer.getFaceCount()).isEqualTo(8);
+		for (int face = 2; face < buffer.getFaceCount(); face++) {
+			if (buffer.getFace(face).normal.equals(Direction.UP.toVector()) && buffer.getVertex(buffer.getFaceStart(face)).vec.getY() < 0.25) {
+				//The step on the right half, one pixel row down
+				assertThat(buffer.getVertex(buffer.getFaceStart(face)).vec.getX()).isEqualTo(0.5);
+				assertThat(buffer.getVertex(buffer.getFaceStart(face) + 1).vec.getX()).isEqualTo(0.0);
+				assertThat(buffer.getVertex(buffer.getFaceStart(face)).vec.getY()).isEqualTo(0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testCache() {
+		BakedModelCache cache = new BakedModelCache(4);
+		AlphaMask mask = mask("#.", "##");
+		ItemRenderPipeline pipeline = new ItemRenderPipeline(new Block())
+			.withTexture(texture)
+			.withColor(Color.red)
+			.withAlphaMask(t -> Optional.of(mask))
+			.withCache(cache);
+
+		Model first = new MeshModel();
+		pipeline.build().accept(first);
+		Model second = new MeshModel();
+		pipeline.build().accept(second);
+
+		MeshBuffer buffer = ((PackedMeshModel) first.children.iterator().next()).buffer;
+		assertThat(((PackedMeshModel) second.children.iterator().next()).buffer).isSameAs(buffer);
+		assertThat(buffer.getFaceCount()).isEqualTo(8);
+		assertThat(buffer.getVertex(0).color).isEqualTo(Color.red);
+		assertThat(cache.getMisses()).isEqualTo(1);
+		assertThat(cache.getHits()).isEqualTo(1);
+
+		pipeline.withColor(Color.blue).extrude();
+		assertThat(cache.getMisses()).isEqualTo(2);
+		assertThat(pipeline.draw(new MeshBuffer()).getFaceCount()).isEqualTo(8);
+	}
+}
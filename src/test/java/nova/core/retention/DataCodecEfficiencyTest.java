@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.core.util.Profiler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the size and speed of the binary and JSON data formats
+ * on an inventory save and a tank save.
+ */
+public class DataCodecEfficiencyTest {
+	private static final int CODEC_COUNT = 10000;
+
+	public static void main(String[] args) {
+		List<Profiler> profilers = new ArrayList<>();
+		compare(profilers, "inventory", inventory());
+		compare(profilers, "tank", tank());
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static void compare(List<Profiler> profilers, String name, Data data) {
+		byte[] binary = data.toBinary();
+		String json = data.toJson();
+		System.out.println(name + " size: binary " + binary.length + " bytes, JSON " + json.getBytes(StandardCharsets.UTF_8).length + " bytes");
+
+		profilers.add(profile(name + " encode (binary)", () -> data.toBinary()));
+		profilers.add(profile(name + " encode (JSON)", () -> data.toJson()));
+		profilers.add(profile(name + " decode (binary)", () -> Data.fromBinary(binary)));
+		profilers.add(profile(name + " decode (JSON)", () -> Data.fromJSON(json)));
+	}
+
+	private static Profiler profile(String name, Runnable codec) {
+		// Warm up
+		for (int i = 0; i < CODEC_COUNT; i++) {
+			codec.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < CODEC_COUNT; i++) {
+			codec.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+
+	/**
+	 * A player inventory: 36 slots of stacks, some with extra item data.
+	 */
+	private static Data inventory() {
+		List<Data> slots = new ArrayList<>();
+		for (int i = 0; i < 36; i++) {
+			Data stack = new Data();
+			stack.put("id", "nova:item" + (i % 12));
+			stack.put("count", i % 64 + 1);
+			stack.put("slot", i);
+			if (i % 4 == 0) {
+				Data tag = new Data();
+				tag.put("damage", i * 3);
+				tag.put("energy", 1000.0 * i);
+				tag.put("enchantments", Arrays.asList(1, 4, 9));
+				stack.put("tag", tag);
+			}
+			slots.add(stack);
+		}
+
+		Data data = new Data();
+		data.put("size", 36);
+		data.put("items", slots);
+		return data;
+	}
+
+	/**
+	 * A machine with two fluid tanks.
+	 */
+	private static Data tank() {
+		Data data = new Data();
+		for (String name : Arrays.asList("input", "output")) {
+			Data tank = new Data();
+			tank.put("fluid", "nova:water");
+			tank.put("amount", 8000);
+			tank.put("capacity", 16000);
+			data.put(name, tank);
+		}
+		data.put("progress", 0.75);
+		data.put("active", true);
+		return data;
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DataCodecTest {
+
+	@Test
+	public void testPrimitives() {
+		Data data = new Data();
+		data.put("boolean", true);
+		data.put("byte", (byte) -3);
+		data.put("short", (short) -300);
+		data.put("int", Integer.MIN_VALUE);
+		data.put("long", Long.MAX_VALUE);
+		data.put("char", 'n');
+		data.put("float", 1.5f);
+		data.put("double", -2.25);
+		data.put("string", "nova ☃");
+		data.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+		data.put("bigDecimal", new BigDecimal("-1234567890.0987654321"));
+
+		assertThat(Data.fromBinary(data.toBinary())).isEqualTo(data);
+	}
+
+	@Test
+	public void testNestedData() {
+		Data inner = new Data(DataCodecTest.class);
+		inner.put("value", 256);
+		Data data = new Data();
+		data.put("inner", inner);
+
+		Data read = Data.fromBinary(data.toBinary());
+		assertThat(read).isEqualTo(data);
+		assertThat(read.<Data>get("inner").className).isEqualTo(DataCodecTest.class.getName());
+	}
+
+	@Test
+	public void testCollections() {
+		Data data = new Data();
+		data.put("ints", Arrays.asList(1, -2, 300, Integer.MAX_VALUE));
+		data.put("booleans", Arrays.asList(true, false, false, true, true, false, true, true, false, true));
+		data.put("strings", Arrays.asList("a", "b", "c"));
+		data.put("mixed", Arrays.asList(1, "two", 3.0, false));
+		data.put("empty", Arrays.asList());
+
+		Data read = Data.fromBinary(data.toBinary());
+		assertThat(read).isEqualTo(data);
+		assertThat(read.<Object>getCollection("ints")).containsExactly(1, -2, 300, Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testArrays() {
+		Data data = new Data();
+		data.put("ints", new int[] { 1, -2, Integer.MIN_VALUE });
+		data.put("longs", new long[] { Long.MIN_VALUE, 0, 5 });
+		data.put("doubles", new double[] { 0.5, -1 });
+		data.put("bytes", new byte[] { 1, 2, -3 });
+
+		Data read = Data.fromBinary(data.toBinary());
+		assertThat(read).isEqualTo(data);
+		assertThat(read.getIntArray("ints")).containsExactly(1, -2, Integer.MIN_VALUE);
+		assertThat(read.getByteArray("bytes")).containsExactly((byte) 1, (byte) 2, (byte) -3);
+	}
+
+	@Test
+	public void testIndexKeyedCollection() {
+		Data legacy = new Data();
+		legacy.put("isCollection", true);
+		legacy.put("0", "a");
+		legacy.put("1", "b");
+		Data data = new Data();
+		data.put("list", legacy);
+
+		Data read = Data.fromBinary(data.toBinary());
+		assertThat(read.<Object>getCollection("list")).containsExactly("a", "b");
+		assertThat(read.getCollection("list")).isEqualTo(data.getCollection("list"));
+	}
+
+	@Test
+	public void testStream() throws Exception {
+		Data first = new Data(DataCodecTest.class);
+		first.put("key", 1);
+		Data second = new Data(DataCodecTest.class);
+		second.put("key", 2);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new DataEncoder(new DataOutputStream(bytes)).write(first).write(second);
+
+		DataDecoder decoder = new DataDecoder(ByteBuffer.wrap(bytes.toByteArray()));
+		assertThat(decoder.read()).isEqualTo(first);
+		assertThat(decoder.read()).isEqualTo(second);
+		assertThat(bytes.size()).isLessThan(first.toBinary().length * 2);
+	}
+
+	@Test
+	public void testByteBuffer() throws Exception {
+		Data data = new Data();
+		data.put("key", "value");
+
+		ByteBuffer buffer = ByteBuffer.allocate(64);
+		new DataEncoder(buffer).write(data);
+		buffer.flip();
+
+		assertThat(new DataDecoder(buffer).read()).isEqualTo(data);
+	}
+
+	@Test
+	public void testUnsupportedVersion() {
+		byte[] bytes = new Data().toBinary();
+		bytes[0] = (byte) (DataFormat.VERSION + 1);
+
+		assertThatThrownBy(() -> Data.fromBinary(bytes)).isInstanceOf(DataException.class);
+	}
+
+	@Test
+	public void testMalformedLengths() {
+		// Version, data, no class name, one entry named "k", then a value with a huge or negative length
+		byte[] prefix = { DataFormat.VERSION, DataFormat.DATA, 0, 1, 1, 1, 'k' };
+		byte[][] values = {
+			{ DataFormat.LONG_ARRAY, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F },
+			{ DataFormat.INT_ARRAY, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F },
+			{ DataFormat.DOUBLE_ARRAY, 2, 0, 0, 0, 0, 0, 0, 0, 0 },
+			{ DataFormat.BYTE_ARRAY, 100, 1, 2, 3 },
+			{ DataFormat.STRING, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F },
+			{ DataFormat.BIG_INTEGER, 50, 1 },
+			{ DataFormat.COLLECTION, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, DataFormat.MIXED },
+			{ DataFormat.COLLECTION, (byte) 0xFF, (byte) 0xFF, 0x7F, DataFormat.BOOLEAN, 0 },
+			{ DataFormat.COLLECTION, 10, DataFormat.FALSE },
+			{ DataFormat.DATA, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F }
+		};
+		for (byte[] value : values) {
+			byte[] bytes = Arrays.copyOf(prefix, prefix.length + value.length);
+			System.arraycopy(value, 0, bytes, prefix.length, value.length);
+			assertThatThrownBy(() -> Data.fromBinary(bytes)).isInstanceOf(DataException.class);
+		}
+	}
+
+	@Test
+	public void testMalformedStreamLength() throws Exception {
+		byte[] bytes = { DataFormat.VERSION, DataFormat.DATA, 0, 1, 1, 1, 'k', DataFormat.LONG_ARRAY, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F };
+		DataDecoder decoder = new DataDecoder(new DataInputStream(new ByteArrayInputStream(bytes)));
+		assertThatThrownBy(decoder::read).isInstanceOf(DataException.class);
+	}
+
+	@Test
+	public void testTruncatedStream() throws Exception {
+		// A byte array of the largest allowed length, of which only three bytes are present
+		byte[] bytes = { DataFormat.VERSION, DataFormat.DATA, 0, 1, 1, 1, 'k', DataFormat.BYTE_ARRAY, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08, 1, 2, 3 };
+		DataDecoder decoder = new DataDecoder(new DataInputStream(new ByteArrayInputStream(bytes)));
+		assertThatThrownBy(decoder::read).isInstanceOf(EOFException.class);
+	}
+
+	@Test
+	public void testDeepNesting() {
+		// Version, data, no class name, one entry named "k", then a value that repeats until the input ends
+		byte[] prefix = { DataFormat.VERSION, DataFormat.DATA, 0, 1, 1, 1, 'k' };
+		byte[][] values = {
+			{ DataFormat.DATA, 0, 1, 1 },
+			{ DataFormat.COLLECTION, 1, DataFormat.MIXED }
+		};
+		for (byte[] value : values) {
+			byte[] bytes = Arrays.copyOf(prefix, prefix.length + value.length * 10000);
+			for (int i = prefix.length; i < bytes.length; i += value.length) {
+				System.arraycopy(value, 0, bytes, i, value.length);
+			}
+			assertThatThrownBy(() -> Data.fromBinary(bytes)).isInstanceOf(DataException.class)
+				.hasMessage("Data is nested deeper than " + DataDecoder.MAX_DEPTH);
+		}
+	}
+}
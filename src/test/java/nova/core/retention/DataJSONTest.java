@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class DataJSONTest {
+
+	@Test
+	public void testNumbers() {
+		Data data = Data.fromJSON("{\"int\": -5, \"bigInt\": 3000000000, \"long\": 123456789012345678, " +
+			"\"bigInteger\": 123456789012345678901234567890, \"double\": 0.5}");
+
+		assertThat(data.<Object>get("int")).isEqualTo(-5);
+		assertThat(data.<Object>get("bigInt")).isEqualTo(3000000000L);
+		assertThat(data.<Object>get("long")).isEqualTo(123456789012345678L);
+		assertThat(data.<Object>get("bigInteger")).isEqualTo(new BigInteger("123456789012345678901234567890"));
+		assertThat(data.<Object>get("double")).isEqualTo(0.5);
+	}
+
+	@Test
+	public void testNestedArrays() {
+		Data data = Data.fromJSON("{\"list\": [1, [2, 3], {\"key\": \"value\"}, 4], \"after\": true}");
+
+		List<Object> list = data.getCollection("list");
+		assertThat(list).hasSize(4);
+		assertThat(list.get(0)).isEqualTo(1);
+		assertThat(list.get(1)).isEqualTo(Arrays.asList(2, 3));
+		assertThat(((Data) list.get(2)).<Object>get("key")).isEqualTo("value");
+		assertThat(list.get(3)).isEqualTo(4);
+		assertThat(data.<Object>get("after")).isEqualTo(true);
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Data inner = new Data();
+		inner.put("string", "value");
+		inner.put("double", 2.5);
+		Data data = new Data();
+		data.put("inner", inner);
+		data.put("list", Arrays.asList(1, 2, 3));
+		data.put("int", 256);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Data.toJSON(data, out);
+		Data read = Data.fromJSON(new ByteArrayInputStream(out.toByteArray()));
+
+		assertThat(read.<Data>get("inner")).isEqualTo(inner);
+		assertThat(read.<Object>get("int")).isEqualTo(256);
+		assertThat(read.<Object>getCollection("list")).containsExactly(1, 2, 3);
+		assertThat(read).isEqualTo(data);
+	}
+
+	@Test
+	public void testArrays() {
+		Data data = new Data();
+		data.put("ints", new int[] { 1, 2, 3 });
+		data.put("doubles", new double[] { 0.5, 1.5 });
+
+		Data read = Data.fromJSON(Data.toJSON(data));
+		assertThat(read.getIntArray("ints")).containsExactly(1, 2, 3);
+		assertThat(read.getDoubleArray("doubles")).containsExactly(0.5, 1.5);
+	}
+
+	@Test
+	public void testRootArray() {
+		Data data = Data.fromJSON("[1, 2]");
+
+		assertThat(data.isCollection()).isTrue();
+		assertThat(data.toList()).containsExactly(1, 2);
+	}
+}
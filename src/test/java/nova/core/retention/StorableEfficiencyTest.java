@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.core.util.Profiler;
+import nova.core.util.ReflectionUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares saving and loading storables of different sizes
+ * through a per-call reflective walk and through the cached store schema.
+ */
+public class StorableEfficiencyTest {
+	private static final int STORE_COUNT = 100000;
+
+	public static void main(String[] args) {
+		List<Profiler> profilers = new ArrayList<>();
+		compare(profilers, "small", new SmallStorable());
+		compare(profilers, "medium", new MediumStorable());
+		compare(profilers, "large", new LargeStorable());
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static void compare(List<Profiler> profilers, String name, Storable storable) {
+		Data data = new Data();
+		storable.save(data);
+
+		profilers.add(profile(name + " save (reflection)", () -> reflectiveSave(storable, new Data())));
+		profilers.add(profile(name + " save (schema)", () -> storable.save(new Data())));
+		profilers.add(profile(name + " load (reflection)", () -> reflectiveLoad(storable, data)));
+		profilers.add(profile(name + " load (schema)", () -> storable.load(data)));
+	}
+
+	private static Profiler profile(String name, Runnable store) {
+		// Warm up
+		for (int i = 0; i < STORE_COUNT; i++) {
+			store.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < STORE_COUNT; i++) {
+			store.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+
+	/**
+	 * The field walk that Storable.save did on every call.
+	 */
+	private static void reflectiveSave(Storable storable, Data data) {
+		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, storable.getClass(), (field, annotation) -> {
+			try {
+				field.setAccessible(true);
+				String name = annotation.key().isEmpty() ? field.getName() : annotation.key();
+				data.put(name, field.get(storable));
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		});
+	}
+
+	/**
+	 * The field walk that Storable.load did on every call, for the value types used here.
+	 */
+	private static void reflectiveLoad(Storable storable, Data data) {
+		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, storable.getClass(), (field, annotation) -> {
+			String name = annotation.key().isEmpty() ? field.getName() : annotation.key();
+			if (data.containsKey(name)) {
+				try {
+					field.setAccessible(true);
+					Object fieldValue = field.get(storable);
+					Object value = data.get(name);
+					if (fieldValue instanceof Storable && value instanceof Data) {
+						reflectiveLoad((Storable) fieldValue, (Data) value);
+					} else {
+						field.set(storable, value);
+					}
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+
+	public static class SmallStorable implements Storable {
+		@Store
+		private int count = 1;
+		@Store
+		private String name = "small";
+	}
+
+	public static class MediumStorable extends SmallStorable {
+		@Store
+		private boolean active = true;
+		@Store
+		private long time = 20L;
+		@Store
+		private double energy = 1000;
+		@Store
+		private double capacity = 5000;
+		@Store(key = "in")
+		private float input = 0.5f;
+		@Store(key = "out")
+		private float output = 0.25f;
+		@Store
+		private short mode = 2;
+		@Store
+		private String owner = "medium";
+	}
+
+	public static class LargeStorable extends MediumStorable {
+		@Store
+		private SmallStorable first = new SmallStorable();
+		@Store
+		private MediumStorable second = new MediumStorable();
+		@Store
+		private int slot0 = 0;
+		@Store
+		private int slot1 = 1;
+		@Store
+		private int slot2 = 2;
+		@Store
+		private int slot3 = 3;
+		@Store
+		private int slot4 = 4;
+		@Store
+		private int slot5 = 5;
+		@Store
+		private int slot6 = 6;
+		@Store
+		private int slot7 = 7;
+		@Store
+		private String label0 = "a";
+		@Store
+		private String label1 = "b";
+		@Store
+		private String label2 = "c";
+		@Store
+		private String label3 = "d";
+	}
+}
@@ -22,6 +22,11 @@ package nova.core.retention;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import static nova.testutils.NovaAssertions.assertThat;
 
 
@@ -117,4 +122,82 @@ public class StorableTest {
         assertThat(test.integer).isEqualTo(256);
         assertThat(test.string).isEqualTo("test");
     }
+
+    @Test
+    public void testFinalRecursiveStorable() {
+        class TestCase implements Storable {
+            @Store
+            private final SubTestCase sub = new SubTestCase();
+        }
+
+        TestCase test = new TestCase();
+        test.sub.value = 256;
+
+        Data data = new Data();
+        test.save(data);
+
+        test = new TestCase();
+        test.load(data);
+
+        assertThat(test.sub.value).isEqualTo(256);
+    }
+
+    @Test
+    public void testCollectionStorable() {
+        class TestCase implements Storable {
+            @Store
+            private List<SubTestCase> subs = new ArrayList<>();
+
+            @Store
+            private Set<String> names = new HashSet<>();
+
+            @Store
+            private int[] values = new int[0];
+        }
+
+        TestCase test = new TestCase();
+        test.subs.add(new SubTestCase());
+        test.subs.get(0).value = 256;
+        test.names.add("test");
+        test.values = new int[] { 1, 2, 3 };
+
+        Data data = new Data();
+        test.save(data);
+
+        test = new TestCase();
+        test.load(data);
+
+        assertThat(test.subs).hasSize(1);
+        assertThat(test.subs.get(0).value).isEqualTo(256);
+        assertThat(test.names).containsExactly("test");
+        assertThat(test.values).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void testArraysAreCopied() {
+        class TestCase implements Storable {
+            @Store
+            private int[] ints = {};
+
+            @Store
+            private byte[] bytes = {};
+        }
+        TestCase test = new TestCase();
+        test.ints = new int[] { 1, 2 };
+        test.bytes = new byte[] { 3 };
+
+        Data data = new Data();
+        test.save(data);
+        test.ints[0] = 5;
+
+        TestCase loaded = new TestCase();
+        loaded.load(data);
+        assertThat(loaded.ints).containsExactly(1, 2);
+        assertThat(loaded.ints).isNotSameAs(test.ints);
+
+        loaded.bytes[0] = 7;
+        TestCase other = new TestCase();
+        other.load(data);
+        assertThat(other.bytes[0]).isEqualTo((byte) 3);
+    }
 }
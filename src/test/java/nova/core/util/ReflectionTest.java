@@ -22,9 +22,16 @@ package nova.core.util;
 
 import org.junit.Test;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Map;
 
 import static nova.core.util.ReflectionUtil.findMatchingConstructor;
+import static nova.core.util.ReflectionUtil.getAnnotatedFields;
 import static nova.core.util.ReflectionUtil.newInstanceMatching;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -102,4 +109,40 @@ public class ReflectionTest {
 			.isEqualTo(con_DDD);
 		assertThat(newInstanceMatching(constr, Double.valueOf(1), Double.valueOf(1), Double.valueOf(1))).isNotNull();
 	}
+
+	@Test
+	public void testCachedConstructor() {
+		Constructor<?> constr = findMatchingConstructor(TestClass.class, int.class, int.class, int.class).get();
+		assertThat(findMatchingConstructor(TestClass.class, int.class, int.class, int.class).get()).isSameAs(constr);
+		assertThat(findMatchingConstructor(TestClass.class, float[].class).get()).isEqualTo(con_f_Var);
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.FIELD)
+	@interface Marked {
+		String value();
+	}
+
+	static class MarkedParent {
+		@Marked("parent")
+		private int a;
+		private int unmarked;
+	}
+
+	static class MarkedChild extends MarkedParent {
+		@Marked("child")
+		private int b;
+	}
+
+	@Test
+	public void testAnnotatedFields() {
+		Map<Field, Marked> fields = getAnnotatedFields(Marked.class, MarkedChild.class);
+		assertThat(fields.keySet().stream().map(Field::getName).toArray()).containsExactly("b", "a");
+		assertThat(fields.values().stream().map(Marked::value).toArray()).containsExactly("child", "parent");
+		assertThat(fields.keySet().stream().anyMatch(Field::isAccessible)).isFalse();
+		fields.keySet().forEach(field -> field.setAccessible(true));
+		assertThat(getAnnotatedFields(Marked.class, MarkedChild.class)).isEqualTo(fields);
+		assertThat(getAnnotatedFields(Marked.class, MarkedChild.class).keySet().stream().anyMatch(Field::isAccessible)).isFalse();
+		assertThat(getAnnotatedFields(Marked.class, String.class)).isEmpty();
+	}
 }
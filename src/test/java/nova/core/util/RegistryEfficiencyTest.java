@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.util;
+
+import nova.core.util.registry.Registry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares looking up registered objects and their identifiers by name and by numeric ID.
+ */
+public class RegistryEfficiencyTest {
+	private static final int OBJECT_COUNT = 10000;
+	private static final int LOOKUP_COUNT = 100;
+
+	public static void main(String[] args) {
+		Registry<Identifiable> registry = new Registry<>();
+		Identifiable[] objects = new Identifiable[OBJECT_COUNT];
+		String[] names = new String[OBJECT_COUNT];
+		int[] ids = new int[OBJECT_COUNT];
+		for (int i = 0; i < OBJECT_COUNT; i++) {
+			objects[i] = registry.register(new MockIdentifiable("test:object" + i));
+			names[i] = objects[i].getID();
+			ids[i] = registry.idOf(objects[i]);
+		}
+
+		List<Profiler> profilers = new ArrayList<>();
+		profilers.add(profile("get(String)", () -> {
+			for (String name : names) {
+				registry.get(name);
+			}
+		}));
+		profilers.add(profile("get(int)", () -> {
+			for (int id : ids) {
+				registry.get(id);
+			}
+		}));
+		profilers.add(profile("getName", () -> {
+			for (Identifiable object : objects) {
+				registry.getName(object);
+			}
+		}));
+		profilers.add(profile("idOf", () -> {
+			for (Identifiable object : objects) {
+				registry.idOf(object);
+			}
+		}));
+
+		profilers.forEach(System.out::println);
+	}
+
+	private static Profiler profile(String name, Runnable lookup) {
+		// Warm up
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+
+		Profiler profiler = new Profiler(name).start();
+		for (int i = 0; i < LOOKUP_COUNT; i++) {
+			lookup.run();
+		}
+		profiler.end();
+		return profiler;
+	}
+}
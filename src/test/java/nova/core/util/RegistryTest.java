@@ -20,9 +20,15 @@
 
 package nova.core.util;
 
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
 import nova.core.util.registry.Registry;
+import nova.core.util.registry.RetentionManager;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+
 import static nova.testutils.NovaAssertions.assertThat;
 
 public class RegistryTest {
@@ -52,4 +58,123 @@ public class RegistryTest {
 		assertThat(registry.get("None").isPresent()).isFalse();
 
 	}
+
+	@Test
+	public void testNumericIds() {
+		Registry<Identifiable> registry = new Registry<>();
+
+		Identifiable id1 = new MockIdentifiable("ID1");
+		Identifiable id2 = new MockIdentifiable("ID2");
+
+		registry.register(id1);
+		registry.register(id2);
+
+		assertThat(registry.idOf(id1)).isEqualTo(0);
+		assertThat(registry.idOf(id2)).isEqualTo(1);
+		assertThat(registry.get(0).get()).isEqualTo(id1);
+		assertThat(registry.get(1).get()).isEqualTo(id2);
+		assertThat(registry.get(2).isPresent()).isFalse();
+		assertThat(registry.get(-1).isPresent()).isFalse();
+		assertThat(registry.idOf(new MockIdentifiable("ID1"))).isEqualTo(-1);
+
+		Identifiable replacement = new MockIdentifiable("ID1");
+		registry.register(replacement);
+		assertThat(registry.idOf(replacement)).isEqualTo(0);
+		assertThat(registry.get(0).get()).isEqualTo(replacement);
+	}
+
+	@Test
+	public void testLoadIds() {
+		Registry<Identifiable> saved = new Registry<>();
+		for (int i = 0; i < 40; i++) {
+			saved.register(new MockIdentifiable("ID" + i));
+		}
+		Data data = new Data();
+		saved.save(data);
+
+		Registry<Identifiable> registry = new Registry<>();
+		Identifiable added = new MockIdentifiable("Added");
+		Identifiable id39 = new MockIdentifiable("ID39");
+		registry.register(added);
+		registry.register(id39);
+		registry.load(data);
+
+		assertThat(registry.idOf(id39)).isEqualTo(39);
+		assertThat(registry.idOf(added)).isEqualTo(40);
+		assertThat(registry.get(39).get()).isEqualTo(id39);
+		assertThat(registry.get(0).isPresent()).isFalse();
+
+		Identifiable id5 = new MockIdentifiable("ID5");
+		registry.register(id5);
+		assertThat(registry.idOf(id5)).isEqualTo(5);
+		assertThat(registry.idOf(registry.register(new MockIdentifiable("New")))).isEqualTo(41);
+	}
+
+	@Test
+	public void testRetainIds() throws Exception {
+		File directory = Files.createTempDirectory("nova").toFile();
+		try {
+			Registry<Identifiable> saved = new Registry<>();
+			for (int i = 0; i < 10; i++) {
+				saved.register(new MockIdentifiable("ID" + i));
+			}
+			FileRetentionManager retention = new FileRetentionManager(directory);
+			retention.retain("ids", saved);
+			retention.saveAll();
+
+			Registry<Identifiable> loaded = new Registry<>();
+			for (int i = 9; i >= 0; i--) {
+				loaded.register(new MockIdentifiable("ID" + i));
+			}
+			assertThat(loaded.idOf(loaded.get("ID0").get())).isEqualTo(9);
+			new FileRetentionManager(directory).retain("ids", loaded);
+
+			for (int i = 0; i < 10; i++) {
+				assertThat(loaded.idOf(loaded.get("ID" + i).get())).isEqualTo(saved.idOf(saved.get("ID" + i).get()));
+			}
+		} finally {
+			File[] files = directory.listFiles();
+			if (files != null) {
+				for (File file : files) {
+					file.delete();
+				}
+			}
+			directory.delete();
+		}
+	}
+
+	/**
+	 * A retention manager saving to files in a directory.
+	 */
+	private static class FileRetentionManager extends RetentionManager {
+		private final File directory;
+
+		private FileRetentionManager(File directory) {
+			this.directory = directory;
+		}
+
+		private void saveAll() {
+			saveQueue.forEach(this::save);
+		}
+
+		@Override
+		public void save(String filename, Storable storable) {
+			saveFile(new File(directory, filename + ".nova"), storable);
+		}
+
+		@Override
+		public void load(String filename, Storable storable) {
+			loadFile(new File(directory, filename + ".nova"), storable);
+		}
+
+		@Override
+		public File getSaveDirectory() {
+			return directory;
+		}
+
+		@Override
+		public void init() {
+
+		}
+	}
 }
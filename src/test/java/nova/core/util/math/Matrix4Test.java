@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.util.math;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Rotation;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.linear.LUDecomposition;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.junit.Test;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static nova.testutils.NovaAssertions.offsetD;
+
+public class Matrix4Test {
+
+	private static void assertEqual(Matrix4 actual, RealMatrix expected) {
+		for (int row = 0; row < 4; row++) {
+			for (int column = 0; column < 4; column++) {
+				assertThat(actual.get(row, column)).isCloseTo(expected.getEntry(row, column), offsetD);
+			}
+		}
+	}
+
+	@Test
+	public void testFusedOperations() {
+		Rotation rotation = new Rotation(new Vector3D(1, 2, 3), 0.7);
+		RealMatrix rotationMatrix = MatrixUtils.createRealIdentityMatrix(4);
+		rotationMatrix.setSubMatrix(rotation.getMatrix(), 0, 0);
+
+		RealMatrix expected = MatrixUtils.createRealIdentityMatrix(4)
+			.preMultiply(TransformUtil.translationMatrix(1, 2, 3))
+			.preMultiply(rotationMatrix)
+			.preMultiply(TransformUtil.scaleMatrix(2, 3, 4))
+			.preMultiply(TransformUtil.translationMatrix(-5, 0, 1));
+
+		Matrix4 matrix = new Matrix4()
+			.translate(1, 2, 3)
+			.rotate(rotation)
+			.scale(2, 3, 4)
+			.translate(-5, 0, 1);
+
+		assertEqual(matrix, expected);
+		assertThat(matrix.isAffine()).isTrue();
+		assertThat(matrix.apply(new Vector3D(3, -2, 1))).isAlmostEqualTo(TransformUtil.transform(new Vector3D(3, -2, 1), expected));
+	}
+
+	@Test
+	public void testPreMultiply() {
+		RealMatrix a = MatrixUtils.createRealMatrix(new double[][] {
+			{ 1, 2, 3, 0.5 },
+			{ 4, 5, 6, 0 },
+			{ 7, 8, 10, 0 },
+			{ 1, 1, 1, 2 } });
+		RealMatrix b = TransformUtil.translationMatrix(1, 2, 3).preMultiply(TransformUtil.scaleMatrix(2, 2, 2));
+
+		Matrix4 matrix = new Matrix4(b).preMultiply(new Matrix4(a));
+		assertEqual(matrix, b.preMultiply(a));
+		assertThat(matrix.isAffine()).isFalse();
+		assertThat(matrix.apply(Vector3D.PLUS_K)).isAlmostEqualTo(TransformUtil.transform(Vector3D.PLUS_K, b.preMultiply(a)));
+		assertThat(new Matrix4(matrix.toRealMatrix())).isEqualTo(matrix);
+	}
+
+	@Test
+	public void testAugment() {
+		RealMatrix rotation = MatrixUtils.createRealMatrix(new Rotation(Vector3D.PLUS_J, Math.PI / 2).getMatrix());
+		Matrix4 matrix = new Matrix4(rotation);
+		assertThat(matrix.get(3, 3)).isEqualTo(1D);
+		assertThat(matrix.apply(Vector3D.PLUS_K)).isAlmostEqualTo(TransformUtil.transform(Vector3D.PLUS_K, MatrixUtil.augmentWithIdentity(rotation, 4)));
+	}
+
+	@Test
+	public void testBatchApply() {
+		Matrix4 matrix = new Matrix4().translate(1, 2, 3).rotate(new Rotation(Vector3D.PLUS_J, 1)).scale(2, 2, 2);
+		float[] data = { 9, 1, 2, 3, 9, 5, 6, 9, 9 };
+		matrix.apply(data, 1, 2, 4);
+
+		Vector3D first = matrix.apply(new Vector3D(1, 2, 3));
+		Vector3D second = matrix.apply(new Vector3D(5, 6, 9));
+		assertThat(data[0]).isEqualTo(9F);
+		assertThat(new Vector3D(data[1], data[2], data[3])).isAlmostEqualTo(first, 1e-5);
+		assertThat(data[4]).isEqualTo(9F);
+		assertThat(new Vector3D(data[5], data[6], data[7])).isAlmostEqualTo(second, 1e-5);
+	}
+
+	@Test
+	public void testNormalMatrix() {
+		Matrix4 matrix = new Matrix4().translate(1, 2, 3).rotate(new Rotation(Vector3D.PLUS_I, 0.3)).scale(1, 2, 5);
+		RealMatrix upper = matrix.toRealMatrix().getSubMatrix(0, 2, 0, 2);
+		RealMatrix expected = new LUDecomposition(upper).getSolver().getInverse().transpose();
+
+		Matrix3 normalMatrix = matrix.normalMatrix(new Matrix3());
+		for (int row = 0; row < 3; row++) {
+			for (int column = 0; column < 3; column++) {
+				assertThat(normalMatrix.get(row, column)).isCloseTo(expected.getEntry(row, column), offsetD);
+			}
+		}
+
+		float[] normals = { 0, 1, 0, Float.NaN, 0, 0 };
+		normalMatrix.apply(normals, 0, 2, 3);
+		assertThat(new Vector3D(normals[0], normals[1], normals[2])).isAlmostEqualTo(normalMatrix.apply(Vector3D.PLUS_J), 1e-6);
+		assertThat(Float.isNaN(normals[3])).isTrue();
+	}
+
+	@Test
+	public void testUniformScaleNormalMatrix() {
+		Matrix4 matrix = new Matrix4().translate(1, 2, 3).rotate(new Rotation(new Vector3D(1, 2, 3), 0.7)).scale(3, 3, 3);
+		RealMatrix upper = matrix.toRealMatrix().getSubMatrix(0, 2, 0, 2);
+		RealMatrix expected = new LUDecomposition(upper).getSolver().getInverse().transpose();
+
+		Matrix3 normalMatrix = matrix.normalMatrix(new Matrix3());
+		for (int row = 0; row < 3; row++) {
+			for (int column = 0; column < 3; column++) {
+				assertThat(normalMatrix.get(row, column)).isCloseTo(expected.getEntry(row, column), offsetD);
+			}
+		}
+		assertThat(new Matrix4().normalMatrix(new Matrix3())).isEqualTo(new Matrix3());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSingularNormalMatrix() {
+		new Matrix4().scale(1, 0, 1).normalMatrix(new Matrix3());
+	}
+}
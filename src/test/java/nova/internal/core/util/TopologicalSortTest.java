@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.internal.core.util;
+
+import nova.core.util.exception.NovaException;
+import nova.internal.core.util.TopologicalSort.DirectedGraph;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class TopologicalSortTest {
+
+	@Test
+	public void testUnconstrainedOrder() {
+		DirectedGraph<String> graph = graph("A", "B", "C");
+		graph.addEdge("C", "A");
+
+		assertThat(TopologicalSort.topologicalSort(graph)).containsExactly("C", "A", "B");
+	}
+
+	@Test
+	public void testDependencyOrder() {
+		DirectedGraph<String> graph = graph("A", "B", "C", "D");
+		graph.addEdge("D", "B");
+		graph.addEdge("C", "B");
+		graph.addEdge("B", "A");
+
+		assertThat(TopologicalSort.topologicalSort(graph)).containsExactly("C", "D", "B", "A");
+	}
+
+	@Test
+	public void testPriorityOrder() {
+		DirectedGraph<String> graph = graph("A", "B", "C", "D");
+		graph.addEdge("D", "A");
+		List<String> priorities = Arrays.asList("C", "B", "D");
+
+		assertThat(TopologicalSort.topologicalSort(graph, node -> priorities.contains(node) ? 1 : 0))
+			.containsExactly("B", "C", "D", "A");
+	}
+
+	@Test
+	public void testPriorityMatchesPriorityEdges() {
+		Random random = new Random(42);
+		for (int run = 0; run < 200; run++) {
+			int size = 1 + random.nextInt(12);
+			int[] priorities = new int[size];
+			DirectedGraph<Integer> graph = new DirectedGraph<>();
+			DirectedGraph<Integer> withEdges = new DirectedGraph<>();
+			for (int i = 0; i < size; i++) {
+				priorities[i] = random.nextInt(3);
+				graph.addNode(i);
+				withEdges.addNode(i);
+			}
+			for (int i = 0; i < size; i++) {
+				for (int j = 0; j < size; j++) {
+					if (priorities[i] > priorities[j]) {
+						withEdges.addEdge(i, j);
+					} else if (priorities[i] == priorities[j] && i != j && random.nextInt(size) == 0) {
+						graph.addEdge(i, j);
+						withEdges.addEdge(i, j);
+					}
+				}
+			}
+
+			List<Integer> expected;
+			try {
+				expected = TopologicalSort.topologicalSort(withEdges);
+			} catch (NovaException e) {
+				expected = null;
+			}
+			try {
+				assertThat(TopologicalSort.topologicalSort(graph, node -> priorities[node])).isEqualTo(expected);
+			} catch (NovaException e) {
+				assertThat(expected).isNull();
+			}
+		}
+	}
+
+	@Test
+	public void testCycle() {
+		DirectedGraph<String> graph = graph("A", "B", "C");
+		graph.addEdge("A", "B");
+		graph.addEdge("B", "C");
+		graph.addEdge("C", "A");
+
+		try {
+			TopologicalSort.topologicalSort(graph);
+			fail("The cycle was not detected");
+		} catch (NovaException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testEdgeAgainstPriority() {
+		DirectedGraph<String> graph = graph("A", "B");
+		graph.addEdge("A", "B");
+
+		try {
+			TopologicalSort.topologicalSort(graph, node -> node.equals("B") ? 1 : 0);
+			fail("The edge against the priorities was not detected");
+		} catch (NovaException e) {
+			// Expected
+		}
+	}
+
+	@Test
+	public void testEdgeOrder() {
+		DirectedGraph<String> graph = graph("A", "B", "C", "D");
+		graph.addEdge("A", "D");
+		graph.addEdge("A", "B");
+		graph.addEdge("A", "C");
+		graph.addEdge("C", "A");
+		graph.addEdge("B", "A");
+
+		assertThat(graph.edgesFrom("A")).containsExactly("B", "C", "D");
+		assertThat(TopologicalSort.reverse(graph).edgesFrom("A")).containsExactly("B", "C");
+
+		graph.removeNode("B");
+		assertThat(graph.edgesFrom("A")).containsExactly("C", "D");
+	}
+
+	private static DirectedGraph<String> graph(String... nodes) {
+		DirectedGraph<String> graph = new DirectedGraph<>();
+		for (String node : nodes) {
+			graph.addNode(node);
+		}
+		return graph;
+	}
+}
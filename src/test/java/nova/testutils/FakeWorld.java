@@ -48,7 +48,7 @@ public class FakeWorld extends World {
 	public final Set<Entity> entities = new HashSet<>();
 
 	@Override
-	public void markStaticRender(Vector3D position) {
+	protected void scheduleStaticRender(Vector3D position) {
 
 	}
 